@@ -0,0 +1,105 @@
+package com.kob_backend_seoin.kob_backend.config;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 미리 인코딩한 STOMP MESSAGE 프레임 (토픽 브로드캐스트 1건)
+ *
+ * - 구독자마다 다른 subscription / message-id 헤더를 뺀 나머지(공통 헤더, 본문)를 한 번만 만들어 모든 구독자가 공유합니다.
+ * - 본문은 UTF-8 바이트(JSON + 프레임 종료 NULL) 그대로 읽기 전용 ByteBuffer에 두고,
+ *   구독자별로는 duplicate()로 위치만 따로 가진 뷰를 만들어 씁니다 (구독자별 본문 복사/문자열 변환/재인코딩 없음).
+ * - 브로커 메시지의 HEADER 헤더에 실어 보내면 WebSocketFanout이 clientOutboundChannel에서 세션별 순서대로 꺼내 씁니다.
+ * - 불변 객체이므로 여러 세션의 출력 스레드에서 동시에 읽어도 안전합니다.
+ */
+public final class BroadcastFrame {
+
+    /**
+     * 공유 프레임을 싣는 브로커 메시지 헤더 (STOMP 프레임에는 인코딩되지 않음)
+     */
+    public static final String HEADER = "chatBroadcastFrame";
+
+    // 구독자별 message-id (Spring의 "{sessionId}-{n}" 형식과 겹치지 않도록 구분자 사용)
+    private static final AtomicLong messageIdCounter = new AtomicLong();
+
+    private final String destination;
+    private final String commonHeaders;
+    private final ByteBuffer body;
+
+    private BroadcastFrame(String destination, String commonHeaders, ByteBuffer body) {
+        this.destination = destination;
+        this.commonHeaders = commonHeaders;
+        this.body = body;
+    }
+
+    /**
+     * 직렬화된 JSON 본문으로 프레임 생성 (브로드캐스트당 1회)
+     */
+    public static BroadcastFrame of(String destination, byte[] json) {
+        String commonHeaders = "MESSAGE\n"
+                + "destination:" + escape(destination) + "\n"
+                + "content-type:application/json\n"
+                + "content-length:" + json.length + "\n";
+
+        // 프레임 끝 NULL 문자까지 본문에 붙여 두어 구독자별 쓰기는 헤더 + 본문 두 번으로 끝남
+        ByteBuffer body = ByteBuffer.allocate(json.length + 1).put(json).put((byte) 0).flip();
+        return new BroadcastFrame(destination, commonHeaders, body.asReadOnlyBuffer());
+    }
+
+    /**
+     * 구독자별 헤더 (공통 헤더 + subscription + message-id + 빈 줄, UTF-8)
+     */
+    public ByteBuffer headersFor(String sessionId, String subscriptionId) {
+        String headers = commonHeaders
+                + "subscription:" + escape(subscriptionId) + "\n"
+                + "message-id:" + sessionId + "-b" + messageIdCounter.getAndIncrement() + "\n\n";
+        return ByteBuffer.wrap(headers.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    /**
+     * 공유 본문 (JSON + 프레임 종료 NULL 문자)의 구독자별 읽기 뷰
+     */
+    public ByteBuffer getBody() {
+        return body.duplicate();
+    }
+
+    /**
+     * 공유 본문 크기 (바이트)
+     */
+    public int getBodySize() {
+        return body.remaining();
+    }
+
+    // STOMP 1.2 헤더 값 이스케이프 (대부분 이스케이프할 문자가 없으므로 그대로 반환)
+    private static String escape(String value) {
+        int i = 0;
+        while (i < value.length()) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '\n' || c == '\r' || c == ':') {
+                break;
+            }
+            i++;
+        }
+        if (i == value.length()) {
+            return value;
+        }
+
+        StringBuilder sb = new StringBuilder(value.length() + 8).append(value, 0, i);
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case ':' -> sb.append("\\c");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
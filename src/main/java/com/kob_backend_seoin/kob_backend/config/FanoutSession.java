@@ -0,0 +1,66 @@
+package com.kob_backend_seoin.kob_backend.config;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 공유 브로드캐스트 프레임을 쓸 수 있는 순수 WebSocket 세션
+ *
+ * - SubProtocolWebSocketHandler가 세션별로 붙이는 ConcurrentWebSocketSessionDecorator 안쪽에 있으므로,
+ *   공유 프레임(SharedFrameMessage)도 Spring이 인코딩한 프레임과 같은 세션별 출력 버퍼를 거쳐 보낸 순서대로 쓰이고
+ *   send-time-limit / buffer-size-limit도 같은 기준으로 적용됩니다.
+ * - SharedFrameMessage는 구독자별 헤더와 공유 본문 바이트를 부분(partial) 바이너리 메시지 두 개로 써서 하나의 WebSocket 메시지로 보냅니다.
+ *   텍스트 메시지로 보내면 세션마다 문자열을 다시 UTF-8로 인코딩하므로 바이너리로 보냅니다
+ *   (STOMP 클라이언트(stomp.js, Spring WebSocketStompClient)는 바이너리 프레임도 같은 방식으로 해석).
+ */
+public class FanoutSession extends WebSocketSessionDecorator {
+
+    public FanoutSession(WebSocketSession delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (message instanceof SharedFrameMessage frame) {
+            WebSocketSession session = getDelegate();
+            session.sendMessage(new BinaryMessage(frame.headers, false));
+            session.sendMessage(new BinaryMessage(frame.body, true));
+            return;
+        }
+        getDelegate().sendMessage(message);
+    }
+
+    /**
+     * 구독자 하나에게 보낼 공유 프레임 (구독자별 헤더 + 공유 본문 읽기 뷰)
+     */
+    static final class SharedFrameMessage implements WebSocketMessage<ByteBuffer> {
+        private final ByteBuffer headers;
+        private final ByteBuffer body;
+
+        SharedFrameMessage(ByteBuffer headers, ByteBuffer body) {
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public ByteBuffer getPayload() {
+            return body;
+        }
+
+        // 출력 버퍼 제한 계산용 (헤더 + 본문 바이트)
+        @Override
+        public int getPayloadLength() {
+            return headers.remaining() + body.remaining();
+        }
+
+        @Override
+        public boolean isLast() {
+            return true;
+        }
+    }
+}
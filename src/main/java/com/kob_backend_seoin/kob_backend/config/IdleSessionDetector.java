@@ -0,0 +1,172 @@
+package com.kob_backend_seoin.kob_backend.config;
+
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 유휴 세션 감지기 (hashed timer wheel)
+ *
+ * - 세션마다 마지막 수신 시각만 기록합니다. inbound 프레임(STOMP 하트비트 포함)이 들어올 때 touch()는
+ *   시각 필드 하나만 갱신하고 휠 위치는 옮기지 않습니다.
+ * - 틱마다 현재 칸의 세션만 확인하여, 그동안 활동이 있었으면 (마지막 수신 + idle-timeout) 칸으로 옮기고
+ *   idle-timeout 동안 조용했던 세션에만 onIdle을 호출합니다 (세션당 idle-timeout마다 최대 1회).
+ * - 휠 칸 수는 idle-timeout / tick + 1 이므로 모든 만료 시각이 한 바퀴 안에 들어갑니다 (round 계산 없음).
+ * - 휠은 틱 스레드만 변경하고, 등록은 큐로 넘기고 해제는 표시만 하여 틱에서 버립니다.
+ */
+public class IdleSessionDetector {
+
+    private static final Logger log = Logger.getLogger(IdleSessionDetector.class.getName());
+
+    private final TaskScheduler scheduler;
+    private final long idleTimeoutMs;
+    private final long tickMs;
+    private final ArrayDeque<Entry>[] wheel;
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final Queue<Entry> pendingAdds = new ConcurrentLinkedQueue<>();
+
+    private volatile BiConsumer<String, String> idleHandler = (userId, sessionId) -> { };
+
+    // 틱 스레드 전용
+    private long currentTick;
+
+    private ScheduledFuture<?> ticker;
+
+    @SuppressWarnings("unchecked")
+    public IdleSessionDetector(TaskScheduler scheduler, Duration idleTimeout, Duration tick) {
+        this.scheduler = scheduler;
+        this.idleTimeoutMs = Math.max(1, idleTimeout.toMillis());
+        this.tickMs = Math.max(1, Math.min(tick.toMillis(), idleTimeoutMs));
+        int slots = (int) (idleTimeoutMs / tickMs) + 1;
+        this.wheel = new ArrayDeque[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+    }
+
+    public void start() {
+        currentTick = System.currentTimeMillis() / tickMs;
+        ticker = scheduler.scheduleAtFixedRate(this::tick, Duration.ofMillis(tickMs));
+    }
+
+    public void stop() {
+        if (ticker != null) {
+            ticker.cancel(false);
+        }
+    }
+
+    /**
+     * 유휴 세션 처리기 설정 (사용자 ID, 세션 ID)
+     */
+    public void setIdleHandler(BiConsumer<String, String> idleHandler) {
+        this.idleHandler = idleHandler;
+    }
+
+    public void register(String sessionId, String userId) {
+        Entry entry = new Entry(sessionId, userId, System.currentTimeMillis());
+        Entry previous = sessions.put(sessionId, entry);
+        if (previous != null) {
+            previous.removed = true;
+        }
+        pendingAdds.add(entry);
+    }
+
+    public void unregister(String sessionId) {
+        Entry entry = sessions.remove(sessionId);
+        if (entry != null) {
+            entry.removed = true;
+        }
+    }
+
+    /**
+     * 세션 수신 활동 기록 (프레임마다 호출, 같은 틱 안의 반복 갱신은 건너뜀)
+     */
+    public void touch(String sessionId) {
+        Entry entry = sessions.get(sessionId);
+        if (entry != null) {
+            long now = System.currentTimeMillis();
+            if (now - entry.lastActivity >= tickMs) {
+                entry.lastActivity = now;
+            }
+        }
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            Entry added;
+            while ((added = pendingAdds.poll()) != null) {
+                if (!added.removed) {
+                    schedule(added, added.lastActivity + idleTimeoutMs);
+                }
+            }
+
+            // 스케줄러 지연으로 밀린 틱도 모두 처리
+            long targetTick = now / tickMs;
+            while (currentTick <= targetTick) {
+                expire(wheel[(int) (currentTick % wheel.length)], now);
+                currentTick++;
+            }
+        } catch (Exception e) {
+            log.log(Level.WARNING, "유휴 세션 확인 실패: " + e.getMessage(), e);
+        }
+    }
+
+    private void expire(ArrayDeque<Entry> bucket, long now) {
+        for (int i = bucket.size(); i > 0; i--) {
+            Entry entry = bucket.poll();
+            if (entry.removed) {
+                continue;
+            }
+
+            long idleSince = Math.max(entry.lastActivity, entry.lastIdleNotified);
+            if (now - idleSince < idleTimeoutMs) {
+                // 그동안 활동이 있었으면 마지막 활동 기준으로 다시 배치
+                schedule(entry, idleSince + idleTimeoutMs);
+                continue;
+            }
+
+            entry.lastIdleNotified = now;
+            try {
+                idleHandler.accept(entry.userId, entry.sessionId);
+            } catch (Exception e) {
+                log.warning("유휴 세션 처리 실패 - sessionId: " + entry.sessionId + ", " + e.getMessage());
+            }
+            schedule(entry, now + idleTimeoutMs);
+        }
+    }
+
+    // 만료 시각이 속한 칸에 배치 (현재 틱보다 이르면 다음 틱)
+    private void schedule(Entry entry, long deadline) {
+        long tick = Math.max(deadline / tickMs, currentTick + 1);
+        wheel[(int) (tick % wheel.length)].add(entry);
+    }
+
+    private static class Entry {
+        private final String sessionId;
+        private final String userId;
+        private volatile long lastActivity;
+        private volatile boolean removed;
+        // 틱 스레드 전용
+        private long lastIdleNotified;
+
+        private Entry(String sessionId, String userId, long now) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.lastActivity = now;
+        }
+    }
+}
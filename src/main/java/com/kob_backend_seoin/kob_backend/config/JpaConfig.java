@@ -0,0 +1,22 @@
+package com.kob_backend_seoin.kob_backend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class JpaConfig {
+
+    /**
+     * PostgreSQL(JPA/JDBC) 기본 트랜잭션 매니저
+     * Neo4jConfig가 트랜잭션 매니저를 등록하면 Spring Boot의 JPA 트랜잭션 매니저 자동 설정이 빠지므로 직접 등록합니다.
+     */
+    @Bean
+    @Primary
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
@@ -0,0 +1,123 @@
+package com.kob_backend_seoin.kob_backend.config;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 키(채팅방 ID 등)별 순차 실행기
+ *
+ * - 키를 해시로 고정 개수의 메일박스(stripe)에 나누고, 메일박스마다 한 번에 하나의 작업만 실행합니다.
+ *   같은 키의 작업은 제출 순서대로 실행되고, 다른 메일박스의 작업은 delegate 스레드에서 병렬로 실행됩니다.
+ * - 메일박스는 실행할 작업이 있을 때만 delegate에 drain 작업 하나를 올리므로
+ *   delegate 큐에는 최대 stripe 수만큼의 작업만 쌓입니다.
+ * - 한 메일박스가 스레드를 독점하지 않도록 drain마다 최대 throughput 건만 처리하고 다시 스케줄합니다.
+ * - 메일박스 작업 안에서 같은 메일박스의 결과를 기다리면 교착되므로 isCurrentMailbox()로 확인 후 바로 실행해야 합니다.
+ */
+public class KeyedSerialExecutor {
+
+    private static final Logger log = Logger.getLogger(KeyedSerialExecutor.class.getName());
+
+    private static final int DEFAULT_THROUGHPUT = 64;
+
+    private final String name;
+    private final Executor delegate;
+    private final Mailbox[] mailboxes;
+    private final int throughput;
+
+    // 현재 스레드가 실행 중인 메일박스 (재진입 확인용)
+    private final ThreadLocal<Mailbox> currentMailbox = new ThreadLocal<>();
+
+    public KeyedSerialExecutor(String name, Executor delegate, int stripes) {
+        this(name, delegate, stripes, DEFAULT_THROUGHPUT);
+    }
+
+    public KeyedSerialExecutor(String name, Executor delegate, int stripes, int throughput) {
+        this.name = name;
+        this.delegate = delegate;
+        this.mailboxes = new Mailbox[Math.max(1, stripes)];
+        for (int i = 0; i < mailboxes.length; i++) {
+            mailboxes[i] = new Mailbox();
+        }
+        this.throughput = Math.max(1, throughput);
+    }
+
+    /**
+     * 키에 해당하는 메일박스에 작업 추가 (같은 키의 이전 작업이 끝난 뒤 실행)
+     */
+    public void execute(Object key, Runnable task) {
+        Mailbox mailbox = mailboxes[stripe(key)];
+        mailbox.tasks.add(task);
+        try {
+            mailbox.schedule();
+        } catch (RejectedExecutionException e) {
+            mailbox.tasks.remove(task);
+            throw e;
+        }
+    }
+
+    /**
+     * 현재 스레드가 이 키의 메일박스 작업을 실행 중인지 여부
+     */
+    public boolean isCurrentMailbox(Object key) {
+        return currentMailbox.get() == mailboxes[stripe(key)];
+    }
+
+    public int getStripes() {
+        return mailboxes.length;
+    }
+
+    private int stripe(Object key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, mailboxes.length);
+    }
+
+    private class Mailbox {
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                delegate.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                throw e;
+            }
+        }
+
+        private void drain() {
+            currentMailbox.set(this);
+            try {
+                Runnable task;
+                for (int i = 0; i < throughput && (task = tasks.poll()) != null; i++) {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        // 작업 하나의 실패가 같은 메일박스의 다음 작업을 막지 않도록 기록만 함
+                        log.log(Level.SEVERE, name + " 작업 실행 실패: " + t.getMessage(), t);
+                    }
+                }
+            } finally {
+                currentMailbox.remove();
+                scheduled.set(false);
+            }
+
+            // drain 종료와 새 작업 추가가 겹친 경우 다시 스케줄
+            if (!tasks.isEmpty()) {
+                try {
+                    schedule();
+                } catch (RejectedExecutionException e) {
+                    log.severe(name + " 재스케줄 거절 - 남은 작업은 다음 제출 시 실행됩니다");
+                }
+            }
+        }
+    }
+}
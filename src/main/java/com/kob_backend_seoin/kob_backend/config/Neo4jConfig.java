@@ -4,16 +4,23 @@ import org.neo4j.driver.AuthTokens;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.GraphDatabase;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.neo4j.config.AbstractNeo4jConfig;
+import org.springframework.data.neo4j.core.DatabaseSelectionProvider;
 import org.springframework.data.neo4j.repository.config.EnableNeo4jRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @Configuration
-@EnableNeo4jRepositories(basePackages = "com.kob_backend_seoin.kob_backend.repository.neo4j")
+@EnableNeo4jRepositories(basePackages = "com.kob_backend_seoin.kob_backend.repository.neo4j",
+                         transactionManagerRef = Neo4jConfig.TRANSACTION_MANAGER)
 @EnableTransactionManagement
 public class Neo4jConfig extends AbstractNeo4jConfig {
 
+    // 기본 트랜잭션 매니저(transactionManager)는 JPA용, Neo4j는 이름으로 지정하여 사용
+    public static final String TRANSACTION_MANAGER = "neo4jTransactionManager";
+
     @Value("${spring.neo4j.uri}")
     private String uri;
 
@@ -27,4 +34,10 @@ public class Neo4jConfig extends AbstractNeo4jConfig {
     public Driver driver() {
         return GraphDatabase.driver(uri, AuthTokens.basic(username, password));
     }
-}
\ No newline at end of file
+
+    @Override
+    @Bean(TRANSACTION_MANAGER)
+    public PlatformTransactionManager transactionManager(Driver driver, DatabaseSelectionProvider databaseSelectionProvider) {
+        return super.transactionManager(driver, databaseSelectionProvider);
+    }
+}
@@ -0,0 +1,68 @@
+package com.kob_backend_seoin.kob_backend.config;
+
+import com.kob_backend_seoin.kob_backend.service.StompAuthContext;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.logging.Logger;
+
+/**
+ * JWT 만료 시 WebSocket 세션 종료
+ *
+ * 핸드셰이크에서 저장한 StompAuthContext의 만료 시각에 세션 종료 작업을 예약하고,
+ * 세션이 먼저 끊기면 예약을 취소합니다. 클라이언트는 새 토큰으로 다시 연결해야 합니다.
+ */
+public class TokenExpiryWebSocketHandler extends WebSocketHandlerDecorator {
+
+    private static final Logger log = Logger.getLogger(TokenExpiryWebSocketHandler.class.getName());
+
+    static final CloseStatus TOKEN_EXPIRED = CloseStatus.POLICY_VIOLATION.withReason("JWT 토큰 만료");
+
+    private final TaskScheduler scheduler;
+    private final Map<String, ScheduledFuture<?>> expiryTasks = new ConcurrentHashMap<>();
+
+    public TokenExpiryWebSocketHandler(WebSocketHandler delegate, TaskScheduler scheduler) {
+        super(delegate);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        if (session.getAttributes().get("user") instanceof StompAuthContext auth) {
+            expiryTasks.put(session.getId(), scheduler.schedule(
+                    () -> closeExpired(session), Instant.ofEpochMilli(auth.getExpiresAtMillis())));
+        }
+        super.afterConnectionEstablished(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        ScheduledFuture<?> task = expiryTasks.remove(session.getId());
+        if (task != null) {
+            task.cancel(false);
+        }
+        super.afterConnectionClosed(session, closeStatus);
+    }
+
+
+    private void closeExpired(WebSocketSession session) {
+        expiryTasks.remove(session.getId());
+        if (!session.isOpen()) {
+            return;
+        }
+        try {
+            log.info("JWT 만료로 WebSocket 세션 종료: " + session.getId());
+            session.close(TOKEN_EXPIRED);
+        } catch (IOException e) {
+            log.warning("만료 세션 종료 실패: " + session.getId() + " - " + e.getMessage());
+        }
+    }
+}
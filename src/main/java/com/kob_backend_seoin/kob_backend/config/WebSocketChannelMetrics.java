@@ -0,0 +1,120 @@
+package com.kob_backend_seoin.kob_backend.config;
+
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.logging.Logger;
+
+/**
+ * 채팅 실행기별 지표 (instrument에 넘긴 이름별로 집계)
+ *
+ * - inbound / outbound: STOMP clientInbound / clientOutbound 채널 실행기 (WebSocketConfig)
+ * - room: 채팅방 메일박스 실행기 (ChatRoomExecutor)
+ * - send-sequence / send-persist / send-fanout: 메시지 전송 파이프라인 단계별 실행기 (ChatSendPipeline)
+ *
+ * - queued: 실행기에 제출되었지만 아직 시작되지 않은 작업 수 (큐 깊이)
+ * - active: 실행 중인 작업 수
+ * - queue wait: 제출부터 실행 시작까지 걸린 시간
+ * - handle: 메시지 처리(컨트롤러, 브로커 전달, 소켓 쓰기)에 걸린 시간
+ * 스레드 풀과 가상 스레드 실행기 모두 같은 방식으로 측정합니다.
+ */
+public class WebSocketChannelMetrics {
+
+    private static final Logger log = Logger.getLogger(WebSocketChannelMetrics.class.getName());
+
+    private final Map<String, ChannelStats> channels = new ConcurrentHashMap<>();
+    private final long slowThresholdNanos;
+
+    public WebSocketChannelMetrics(long slowThresholdMs) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+
+    /**
+     * 지표를 기록하는 실행기로 감싸기
+     */
+    public TaskExecutor instrument(String channel, Executor delegate) {
+        ChannelStats stats = channels.computeIfAbsent(channel, name -> new ChannelStats());
+        return task -> {
+            long submittedAt = System.nanoTime();
+            stats.queued.incrementAndGet();
+            stats.submitted.incrementAndGet();
+            try {
+                delegate.execute(() -> run(channel, stats, task, submittedAt));
+            } catch (RejectedExecutionException e) {
+                stats.queued.decrementAndGet();
+                stats.rejected.incrementAndGet();
+                log.warning("WebSocket " + channel + " 실행기 포화로 메시지 거절");
+                throw e;
+            }
+        };
+    }
+
+    private void run(String channel, ChannelStats stats, Runnable task, long submittedAt) {
+        long startedAt = System.nanoTime();
+        stats.queued.decrementAndGet();
+        stats.active.incrementAndGet();
+
+        long queueWait = startedAt - submittedAt;
+        stats.totalQueueWaitNanos.addAndGet(queueWait);
+        stats.maxQueueWaitNanos.accumulate(queueWait);
+        if (queueWait > slowThresholdNanos) {
+            log.warning("WebSocket " + channel + " 큐 대기 지연: " + TimeUnit.NANOSECONDS.toMillis(queueWait)
+                    + "ms (대기 " + stats.queued.get() + "건)");
+        }
+
+        try {
+            task.run();
+        } finally {
+            long handle = System.nanoTime() - startedAt;
+            stats.active.decrementAndGet();
+            stats.completed.incrementAndGet();
+            stats.totalHandleNanos.addAndGet(handle);
+            stats.maxHandleNanos.accumulate(handle);
+        }
+    }
+
+    /**
+     * 채널별 지표 스냅샷 (시간 단위: ms)
+     */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        channels.forEach((channel, stats) -> {
+            long completed = stats.completed.get();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("queued", stats.queued.get());
+            values.put("active", stats.active.get());
+            values.put("submitted", stats.submitted.get());
+            values.put("completed", completed);
+            values.put("rejected", stats.rejected.get());
+            values.put("avgQueueWaitMs", completed == 0 ? 0.0 : toMillis(stats.totalQueueWaitNanos.get()) / completed);
+            values.put("maxQueueWaitMs", toMillis(stats.maxQueueWaitNanos.get()));
+            values.put("avgHandleMs", completed == 0 ? 0.0 : toMillis(stats.totalHandleNanos.get()) / completed);
+            values.put("maxHandleMs", toMillis(stats.maxHandleNanos.get()));
+            result.put(channel, values);
+        });
+        return result;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static class ChannelStats {
+        private final AtomicLong queued = new AtomicLong();
+        private final AtomicLong active = new AtomicLong();
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+        private final AtomicLong totalHandleNanos = new AtomicLong();
+        private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+        private final LongAccumulator maxHandleNanos = new LongAccumulator(Math::max, 0);
+    }
+}
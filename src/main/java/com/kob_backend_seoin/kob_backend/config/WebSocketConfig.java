@@ -15,13 +15,31 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
-import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.context.event.EventListener;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import java.util.List;
+import com.kob_backend_seoin.kob_backend.service.StompAuthContext;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import com.kob_backend_seoin.kob_backend.dto.Chat.WsEnvelope;
+import com.kob_backend_seoin.kob_backend.exception.ChatErrorCode;
+import com.kob_backend_seoin.kob_backend.service.ChatBroadcaster;
+import com.kob_backend_seoin.kob_backend.service.ChatRateLimiter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -29,9 +47,90 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private static final Logger log = Logger.getLogger(WebSocketConfig.class.getName());
 
+    // 전송 제한을 적용하는 메시지 전송 목적지 (WebSocketChatController /send-message)
+    private static final String SEND_MESSAGE_DESTINATION = "/app/send-message";
+
     @Autowired
     private JwtProvider jwtProvider;
 
+    @Autowired
+    private ChatRateLimiter chatRateLimiter;
+
+    // 전송 제한 거절 알림용 (브로커 설정보다 늦게 생성되므로 지연 조회)
+    @Autowired
+    private ObjectProvider<ChatBroadcaster> chatBroadcaster;
+
+    // STOMP 채널 실행기 설정
+    // inbound: 클라이언트 프레임 처리 (@MessageMapping, JPA 작업 포함)
+    // outbound: 클라이언트 소켓으로 쓰기
+    // 브로커 채널은 실행기 없이 호출 스레드(전송 파이프라인 fan-out 단계)에서 SimpleBroker로 전달 (configureMessageBroker 참고)
+    // 채널마다 풀을 분리하여 느린 DB 작업이 다른 채팅방의 메시지 전달을 막지 않도록 함
+    @Value("${chat.websocket.virtual-threads:${spring.threads.virtual.enabled:false}}")
+    private boolean virtualThreads;
+
+    @Value("${chat.websocket.inbound.core-pool-size:16}")
+    private int inboundCorePoolSize;
+
+    @Value("${chat.websocket.inbound.max-pool-size:64}")
+    private int inboundMaxPoolSize;
+
+    @Value("${chat.websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${chat.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${chat.websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${chat.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${chat.websocket.heartbeat-pool-size:2}")
+    private int heartbeatPoolSize;
+
+    // 유휴 세션 감지: idle-timeout 동안 프레임(하트비트 포함)이 없던 세션에만 애플리케이션 핑 전송
+    @Value("${chat.websocket.idle.timeout-seconds:60}")
+    private long idleTimeoutSeconds;
+
+    @Value("${chat.websocket.idle.tick-ms:1000}")
+    private long idleTickMs;
+
+    // 토픽 브로드캐스트 프레임을 한 번만 인코딩하여 순수 WebSocket 구독자에게 공유 (false면 Spring 브로커 경로만 사용)
+    @Value("${chat.websocket.fanout.enabled:true}")
+    private boolean fanoutEnabled;
+
+    @Value("${chat.websocket.metrics.slow-threshold-ms:500}")
+    private long slowThresholdMs;
+
+    // 메시지 전송 파이프라인(ChatSendPipeline) 단계별 실행기 설정 (validate 단계는 채팅방 메일박스 사용)
+    // 단계 실행기 큐에는 메일박스(stripe)당 최대 1개의 작업만 올라가므로 큐 크기는 stripe 수로 충분함
+    @Value("${chat.pipeline.stripes:256}")
+    private int pipelineStripes;
+
+    // 채팅방 메일박스(ChatRoomExecutor) 실행기: 참여자 변경 등 채팅방 변경과 전송 검증 단계가 함께 사용
+    @Value("${chat.room-executor.stripes:256}")
+    private int roomStripes;
+
+    @Value("${chat.room-executor.pool-size:16}")
+    private int roomPoolSize;
+
+    // 접속 상태(PresenceService) 전환 처리 실행기 (클러스터 모드에서는 Redis 기록 포함)
+    @Value("${chat.presence.stripes:64}")
+    private int presenceStripes;
+
+    @Value("${chat.presence.pool-size:4}")
+    private int presencePoolSize;
+
+    @Value("${chat.pipeline.sequence.pool-size:8}")
+    private int sequencePoolSize;
+
+    @Value("${chat.pipeline.persist.pool-size:16}")
+    private int persistPoolSize;
+
+    @Value("${chat.pipeline.fanout.pool-size:8}")
+    private int fanOutPoolSize;
+
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -45,11 +144,18 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws/chat/raw")
                 .setAllowedOriginPatterns("*")
                 .addInterceptors(new JwtHandshakeInterceptor(jwtProvider)); // JWT 핸드셰이크 인터셉터 추가
+
+        // 한 세션에서 보낸 프레임은 inbound 실행기에서도 받은 순서대로 처리 (연속 전송한 메시지 순서 유지)
+        registry.setPreserveReceiveOrder(true);
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.setApplicationDestinationPrefixes("/app");
+        // 브로커 채널에는 실행기를 두지 않음: 전송 스레드(채팅방별 fan-out 단계)에서 바로 SimpleBroker로 전달해야
+        // 한 채팅방의 브로드캐스트가 발행 순서대로 구독자에게 나감 (풀에 넘기면 스레드 간 경쟁으로 순서가 바뀔 수 있음)
+        // 세션별 outbound 전송도 발행 순서 유지
+        registry.setPreservePublishOrder(true);
 
         var broker = registry.enableSimpleBroker("/topic", "/queue");
         broker.setTaskScheduler(wsHeartbeatTaskScheduler());
@@ -60,47 +166,173 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureClientInboundChannel(org.springframework.messaging.simp.config.ChannelRegistration registration) {
+        registration.executor(webSocketChannelMetrics().instrument("inbound", wsInboundExecutor()));
         registration.interceptors(new ChannelInterceptor() {
             @Override
             public Message<?> preSend(Message<?> message, MessageChannel channel) {
-                StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
-
-                if (StompCommand.CONNECT.equals(accessor.getCommand())) {
-                    // CONNECT 시 handshake에서 저장한 Principal을 STOMP 세션에 설정
-                    Object userPrincipal = accessor.getSessionAttributes().get("user");
-                    if (userPrincipal instanceof UsernamePasswordAuthenticationToken) {
-                        accessor.setUser((UsernamePasswordAuthenticationToken) userPrincipal);
-                        if (log.isLoggable(java.util.logging.Level.FINE)) {
-                            log.fine("STOMP CONNECT: Principal 설정됨 - " + ((UsernamePasswordAuthenticationToken) userPrincipal).getName());
-                        }
-                    } else {
-                        log.warning("STOMP CONNECT: Principal을 찾을 수 없음");
-                    }
-                } else if (StompCommand.SEND.equals(accessor.getCommand())) {
-                    // SEND 메시지에서 SessionAttributes에서 Principal 복원
-                    Object userPrincipal = accessor.getSessionAttributes().get("user");
-                    if (userPrincipal instanceof UsernamePasswordAuthenticationToken) {
-                        accessor.setUser((UsernamePasswordAuthenticationToken) userPrincipal);
-                        if (log.isLoggable(java.util.logging.Level.FINE) && accessor.getUser() == null) {
-                            log.fine("STOMP SEND: Principal 복원 실패");
-                        }
-                    } else {
-                        if (log.isLoggable(java.util.logging.Level.FINE)) {
-                            log.fine("STOMP SEND: SessionAttributes에 user 정보 없음");
-                        }
+                // 수신 활동 기록 (하트비트 프레임 포함, 세션 시각 필드 하나만 갱신)
+                String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+                if (sessionId != null) {
+                    idleSessionDetector().touch(sessionId);
+                }
+
+                // 메시지 전송 SEND 프레임은 @MessageMapping(DB 작업)으로 넘기기 전에 사용자/IP별 전송 제한 확인
+                // (구독/동기화/가입 요청 등 다른 목적지의 SEND 프레임은 제한하지 않음)
+                SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+                if (messageType == SimpMessageType.MESSAGE) {
+                    if (!SEND_MESSAGE_DESTINATION.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+                        return message;
                     }
+                    return admitSend(message, sessionId) ? message : null;
+                }
+
+                // CONNECT에서만 인증 정보를 STOMP 세션 사용자로 등록 (이후 프레임은 Spring이 세션 사용자를 붙여 전달하므로 작업 없음)
+                if (messageType != SimpMessageType.CONNECT) {
+                    return message;
                 }
 
+                // 원본(변경 가능) 헤더 접근자에 설정해야 세션 사용자로 저장됨 (wrap()으로 만든 복사본에 설정하면 이 프레임에만 적용)
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                Object userPrincipal = accessor != null && accessor.getSessionAttributes() != null
+                        ? accessor.getSessionAttributes().get("user") : null;
+                if (userPrincipal instanceof StompAuthContext auth) {
+                    accessor.setUser(auth);
+                    if (log.isLoggable(java.util.logging.Level.FINE)) {
+                        log.fine("STOMP CONNECT: 인증 정보 설정됨 - " + auth.getName());
+                    }
+                } else {
+                    log.warning("STOMP CONNECT: 인증 정보를 찾을 수 없음");
+                }
                 return message;
             }
         });
         log.info("WebSocket ChannelInterceptor 활성화");
     }
 
+    // 사용자/IP별 토큰 버킷 확인 (거절한 프레임은 버리고 해당 세션에 RATE_LIMITED 에러 전송)
+    // IP 제한을 먼저 확인: IP 제한으로 거절된 프레임이 사용자 토큰을 쓰지 않도록 (같은 IP의 다른 사용자 때문에 내 한도가 줄지 않음)
+    private boolean admitSend(Message<?> message, String sessionId) {
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        Map<String, Object> sessionAttributes = SimpMessageHeaderAccessor.getSessionAttributes(message.getHeaders());
+        String clientIp = sessionAttributes != null ? (String) sessionAttributes.get("clientIp") : null;
+
+        UUID userId = user instanceof StompAuthContext auth ? auth.getUserId() : null;
+        if (chatRateLimiter.allowIp(clientIp) && (userId == null || chatRateLimiter.allowMessage(userId))) {
+            return true;
+        }
+
+        if (userId != null && sessionId != null) {
+            WsEnvelope<WsEnvelope.ErrorPayload> error = new WsEnvelope<>(
+                    "error",
+                    WsEnvelope.newMessageId(),
+                    System.currentTimeMillis(),
+                    new WsEnvelope.ErrorPayload(ChatErrorCode.RATE_LIMITED.getCode(), ChatErrorCode.RATE_LIMITED.getMessage())
+            );
+            try {
+                chatBroadcaster.getObject().sendToSession(userId.toString(), sessionId, "/queue/errors", error);
+            } catch (Exception e) {
+                log.fine("전송 제한 알림 실패: " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // JWT 만료 시각에 세션을 닫음
+        registration.addDecoratorFactory(handler -> new TokenExpiryWebSocketHandler(handler, wsHeartbeatTaskScheduler()));
+        // 순수 WebSocket 세션에 세션별 출력 큐를 붙여 미리 인코딩한 브로드캐스트 프레임을 받을 수 있게 함
+        registration.addDecoratorFactory(webSocketFanout()::decorate);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(org.springframework.messaging.simp.config.ChannelRegistration registration) {
+        registration.executor(webSocketChannelMetrics().instrument("outbound", wsOutboundExecutor()));
+    }
+
+    @Bean
+    public WebSocketChannelMetrics webSocketChannelMetrics() {
+        return new WebSocketChannelMetrics(slowThresholdMs);
+    }
+
+    @Bean
+    public TaskExecutor wsInboundExecutor() {
+        return channelExecutor("ws-inbound-", inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity);
+    }
+
+    @Bean
+    public TaskExecutor wsOutboundExecutor() {
+        return channelExecutor("ws-outbound-", outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity);
+    }
+
+    @Bean
+    public TaskExecutor chatRoomTaskExecutor() {
+        return channelExecutor("chat-room-", roomPoolSize, roomPoolSize, roomStripes);
+    }
+
+    @Bean
+    public TaskExecutor presenceTaskExecutor() {
+        return channelExecutor("presence-", presencePoolSize, presencePoolSize, presenceStripes);
+    }
+
+    @Bean
+    public TaskExecutor chatSendSequenceExecutor() {
+        return channelExecutor("chat-send-sequence-", sequencePoolSize, sequencePoolSize, pipelineStripes);
+    }
+
+    @Bean
+    public TaskExecutor chatSendPersistExecutor() {
+        return channelExecutor("chat-send-persist-", persistPoolSize, persistPoolSize, pipelineStripes);
+    }
+
+    @Bean
+    public TaskExecutor chatSendFanOutExecutor() {
+        return channelExecutor("chat-send-fanout-", fanOutPoolSize, fanOutPoolSize, pipelineStripes);
+    }
+
+    // 가상 스레드 사용 시 메시지마다 가상 스레드를 만들고 (풀 크기/큐 설정 무시), 아니면 크기 제한 스레드 풀 사용
+    private TaskExecutor channelExecutor(String threadNamePrefix, int corePoolSize, int maxPoolSize, int queueCapacity) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public WebSocketFanout webSocketFanout() {
+        return new WebSocketFanout(fanoutEnabled);
+    }
+
+    // STOMP 프로토콜 핸들러가 공유 브로드캐스트 프레임을 쓰도록 감쌈
+    // (STOMP 엔드포인트 등록 시 핸들러가 추가되므로 모든 빈 생성 후 적용)
+    @Bean
+    public SmartInitializingSingleton webSocketFanoutInstaller(
+            @Qualifier("subProtocolWebSocketHandler") WebSocketHandler subProtocolWebSocketHandler) {
+        return () -> webSocketFanout().install((SubProtocolWebSocketHandler) subProtocolWebSocketHandler);
+    }
+
+    @Bean(destroyMethod = "stop")
+    public IdleSessionDetector idleSessionDetector() {
+        IdleSessionDetector detector = new IdleSessionDetector(wsHeartbeatTaskScheduler(),
+                Duration.ofSeconds(idleTimeoutSeconds), Duration.ofMillis(idleTickMs));
+        detector.start();
+        return detector;
+    }
+
     @Bean
     public TaskScheduler wsHeartbeatTaskScheduler() {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(1);
+        scheduler.setPoolSize(heartbeatPoolSize);
         scheduler.setThreadNamePrefix("ws-heartbeat-");
         scheduler.initialize();
         return scheduler;
@@ -197,26 +429,23 @@ class JwtHandshakeInterceptor implements org.springframework.web.socket.server.H
                 }
 
                 try {
-                    // JWT 검증 및 사용자 ID 추출
+                    // JWT 검증 및 사용자 ID 추출 (세션 동안 다시 검증하지 않도록 파싱 결과를 저장)
                     var decodedJWT = jwtProvider.verifyToken(token);
                     String userId = decodedJWT.getSubject();
 
                     log.info("JWT 검증 성공!");
                     log.info("User ID: " + userId);
 
-                    // attributes에 사용자 ID와 토큰 저장
-                    attributes.put("userId", userId);
-                    attributes.put("token", token);
-
-                    // Principal 생성하여 attributes에 저장 (핵심!)
-                    var principal = new UsernamePasswordAuthenticationToken(
-                            userId, null, List.of(new SimpleGrantedAuthority("USER"))
+                    var principal = new StompAuthContext(
+                            UUID.fromString(userId),
+                            StompAuthContext.USER_AUTHORITIES,
+                            decodedJWT.getExpiresAt().getTime()
                     );
                     attributes.put("user", principal);
-
-                    // 추가 정보 저장
-                    attributes.put("authenticated", true);
-                    attributes.put("authorities", List.of(new SimpleGrantedAuthority("USER")));
+                    // IP별 전송 제한 키 (프록시 뒤에서는 server.forward-headers-strategy로 X-Forwarded-For의 클라이언트 IP가 원격 주소가 됨)
+                    if (request.getRemoteAddress() != null) {
+                        attributes.put("clientIp", request.getRemoteAddress().getHostString());
+                    }
 
                     log.info("=== Handshake 인증 성공 ===");
                     log.info("Principal 설정됨: " + principal.getName());
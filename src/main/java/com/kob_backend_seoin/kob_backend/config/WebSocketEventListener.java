@@ -63,7 +63,7 @@ public class WebSocketEventListener {
 
         if (user != null) {
             String userId = user.getName();
-            healthCheckService.unregisterConnection(userId);
+            healthCheckService.unregisterConnection(userId, sessionId);
 
             log.info("WebSocket 연결 해제: 사용자 " + userId + ", 세션 " + sessionId);
         } else {
@@ -0,0 +1,141 @@
+package com.kob_backend_seoin.kob_backend.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.broker.OrderedMessageChannelDecorator;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.standard.StandardWebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+import org.springframework.web.socket.messaging.SubProtocolHandler;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 미리 인코딩한 브로드캐스트 프레임 전달 창구
+ *
+ * - 순수 WebSocket 세션(/ws/chat/raw)을 FanoutSession으로 감쌉니다.
+ *   SockJS 세션은 부분 메시지를 보낼 수 없으므로 감싸지 않고 Spring이 세션별로 인코딩합니다.
+ * - 브로드캐스트는 SimpleBroker → clientOutboundChannel → SubProtocolWebSocketHandler를 그대로 거치고,
+ *   STOMP 프로토콜 핸들러만 감싸 BroadcastFrame 헤더가 있는 메시지를 인코딩하지 않고 공유 프레임으로 씁니다.
+ *   세션별 순서(preservePublishOrder)와 출력 버퍼(ConcurrentWebSocketSessionDecorator)가 Spring 프레임과 같으므로
+ *   /user/queue 프레임과 보낸 순서가 유지됩니다.
+ */
+public class WebSocketFanout {
+
+    private final boolean enabled;
+
+    public WebSocketFanout(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * WebSocket 핸들러 데코레이터 (configureWebSocketTransport에서 등록)
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        if (!enabled) {
+            return handler;
+        }
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                if (session instanceof StandardWebSocketSession) {
+                    session = new FanoutSession(session);
+                }
+                super.afterConnectionEstablished(session);
+            }
+        };
+    }
+
+    /**
+     * STOMP 프로토콜 핸들러를 공유 프레임을 쓰는 핸들러로 감쌈 (모든 빈 생성 후 1회)
+     */
+    public void install(SubProtocolWebSocketHandler subProtocolWebSocketHandler) {
+        if (!enabled) {
+            return;
+        }
+        List<SubProtocolHandler> handlers = new ArrayList<>();
+        for (SubProtocolHandler handler : subProtocolWebSocketHandler.getProtocolHandlers()) {
+            handlers.add(handler instanceof StompSubProtocolHandler stompHandler ? new SharedFrameHandler(stompHandler) : handler);
+        }
+        subProtocolWebSocketHandler.setProtocolHandlers(handlers);
+    }
+
+    /**
+     * false면 브로드캐스트에 공유 프레임을 싣지 않음 (chat.websocket.fanout.enabled)
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static boolean isFanoutSession(WebSocketSession session) {
+        while (session instanceof WebSocketSessionDecorator decorator) {
+            if (decorator instanceof FanoutSession) {
+                return true;
+            }
+            session = decorator.getDelegate();
+        }
+        return false;
+    }
+
+    /**
+     * 공유 프레임이 실린 MESSAGE는 세션 출력 버퍼에 그대로 넣고, 나머지는 StompSubProtocolHandler에 위임
+     */
+    private static class SharedFrameHandler implements SubProtocolHandler {
+        private final StompSubProtocolHandler delegate;
+
+        private SharedFrameHandler(StompSubProtocolHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void handleMessageToClient(WebSocketSession session, Message<?> message) throws Exception {
+            String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+            if (!(message.getHeaders().get(BroadcastFrame.HEADER) instanceof BroadcastFrame frame)
+                    || subscriptionId == null || !isFanoutSession(session)) {
+                delegate.handleMessageToClient(session, message);
+                return;
+            }
+
+            // StompSubProtocolHandler와 같이 출력 버퍼에 들어가면 세션의 다음 메시지를 내보냄
+            Runnable task = OrderedMessageChannelDecorator.getNextMessageTask(message);
+            if (task != null && session instanceof ConcurrentWebSocketSessionDecorator concurrentSession) {
+                concurrentSession.setMessageCallback(m -> task.run());
+            }
+            session.sendMessage(new FanoutSession.SharedFrameMessage(frame.headersFor(session.getId(), subscriptionId), frame.getBody()));
+        }
+
+        @Override
+        public List<String> getSupportedProtocols() {
+            return delegate.getSupportedProtocols();
+        }
+
+        @Override
+        public void handleMessageFromClient(WebSocketSession session, WebSocketMessage<?> message, MessageChannel outputChannel) throws Exception {
+            delegate.handleMessageFromClient(session, message, outputChannel);
+        }
+
+        @Override
+        public String resolveSessionId(Message<?> message) {
+            return delegate.resolveSessionId(message);
+        }
+
+        @Override
+        public void afterSessionStarted(WebSocketSession session, MessageChannel outputChannel) throws Exception {
+            delegate.afterSessionStarted(session, outputChannel);
+        }
+
+        @Override
+        public void afterSessionEnded(WebSocketSession session, CloseStatus closeStatus, MessageChannel outputChannel) throws Exception {
+            delegate.afterSessionEnded(session, closeStatus, outputChannel);
+        }
+    }
+}
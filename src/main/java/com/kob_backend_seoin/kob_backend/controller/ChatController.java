@@ -2,8 +2,11 @@ package com.kob_backend_seoin.kob_backend.controller;
 
 import com.kob_backend_seoin.kob_backend.dto.ApiResponse;
 import com.kob_backend_seoin.kob_backend.dto.Chat.ChatMessageRequestDto;
+import com.kob_backend_seoin.kob_backend.dto.Chat.ChatMessageHistoryResponseDto;
 import com.kob_backend_seoin.kob_backend.dto.Chat.ChatMessageResponseDto;
 import com.kob_backend_seoin.kob_backend.dto.Chat.ChatRoomResponseDto;
+import com.kob_backend_seoin.kob_backend.dto.Chat.ChatSyncRequestDto;
+import com.kob_backend_seoin.kob_backend.dto.Chat.ChatSyncResponseDto;
 import com.kob_backend_seoin.kob_backend.dto.Chat.InviteUserRequestDto;
 import com.kob_backend_seoin.kob_backend.service.ChatService;
 import com.kob_backend_seoin.kob_backend.service.JwtProvider;
@@ -157,6 +160,30 @@ public class ChatController {
         return ResponseEntity.ok(new ApiResponse<>(true, messages, "메시지 내역을 성공적으로 조회했습니다."));
     }
 
+    @GetMapping("/rooms/{roomId}/messages/history")
+    @Operation(summary = "채팅방 메시지 히스토리 조회", description = "beforeSequence 이전 메시지를 최신순으로 조회합니다. (무한 스크롤, 전체 개수 조회 없음)")
+    public ResponseEntity<ApiResponse<ChatMessageHistoryResponseDto>> getChatRoomMessageHistory(
+            @RequestHeader("Authorization") String token,
+            @PathVariable UUID roomId,
+            @RequestParam(required = false) Long beforeSequence,
+            @RequestParam(defaultValue = "30") int size) {
+
+        UUID userId = extractUserIdFromToken(token);
+        ChatMessageHistoryResponseDto history = chatService.getChatRoomMessageHistory(userId, roomId, beforeSequence, size);
+        return ResponseEntity.ok(new ApiResponse<>(true, history, "메시지 내역을 성공적으로 조회했습니다."));
+    }
+
+    @PostMapping("/sync")
+    @Operation(summary = "재연결 동기화", description = "채팅방별 마지막으로 받은 sequence 이후 메시지와 채팅방별 최신 sequence, 안 읽은 메시지 수를 한 번에 조회합니다.")
+    public ResponseEntity<ApiResponse<ChatSyncResponseDto>> syncMessages(
+            @RequestHeader("Authorization") String token,
+            @RequestBody ChatSyncRequestDto requestDto) {
+
+        UUID userId = extractUserIdFromToken(token);
+        ChatSyncResponseDto sync = chatService.syncMessages(userId, requestDto);
+        return ResponseEntity.ok(new ApiResponse<>(true, sync, "동기화 데이터를 성공적으로 조회했습니다."));
+    }
+
     @PostMapping("/rooms/{roomId}/messages")
     @Operation(summary = "메시지 전송", description = "WebSocket 통신과 별개로, 전송된 메시지를 서버 DB에 기록합니다.")
     public ResponseEntity<ApiResponse<ChatMessageResponseDto>> sendMessage(
@@ -170,6 +197,18 @@ public class ChatController {
                 .body(new ApiResponse<>(true, message, "메시지를 성공적으로 전송했습니다."));
     }
 
+    @PostMapping("/rooms/{roomId}/read")
+    @Operation(summary = "메시지 읽음 처리", description = "채팅방의 지정한 sequence까지 모든 메시지를 읽음 처리합니다.")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> markMessagesAsRead(
+            @RequestHeader("Authorization") String token,
+            @PathVariable UUID roomId,
+            @RequestParam long upToSequence) {
+
+        UUID userId = extractUserIdFromToken(token);
+        Map<String, Object> readState = chatService.markMessagesAsRead(userId, roomId, upToSequence);
+        return ResponseEntity.ok(new ApiResponse<>(true, readState, "메시지를 읽음 처리했습니다."));
+    }
+
     @PostMapping("/rooms")
     @Operation(summary = "1:1 채팅방 생성", description = "새로운 1:1 채팅방을 생성하거나 기존 채팅방을 반환합니다.")
     public ResponseEntity<ApiResponse<ChatRoomResponseDto>> createChatRoom(
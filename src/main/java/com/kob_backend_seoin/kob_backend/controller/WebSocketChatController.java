@@ -1,27 +1,32 @@
 package com.kob_backend_seoin.kob_backend.controller;
 
-import com.kob_backend_seoin.kob_backend.domain.ChatMessage;
 import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
 import com.kob_backend_seoin.kob_backend.domain.User;
 import com.kob_backend_seoin.kob_backend.dto.Chat.WebSocketMessageDto;
 import com.kob_backend_seoin.kob_backend.dto.Chat.WsEnvelope;
 import com.kob_backend_seoin.kob_backend.exception.CustomException;
 import com.kob_backend_seoin.kob_backend.exception.ErrorCode;
-import com.kob_backend_seoin.kob_backend.repository.ChatMessageRepository;
 import com.kob_backend_seoin.kob_backend.repository.ChatRoomRepository;
 import com.kob_backend_seoin.kob_backend.repository.UserRepository;
 import com.kob_backend_seoin.kob_backend.service.WebSocketAuthService;
-import com.kob_backend_seoin.kob_backend.service.ChatMessageService;
+import com.kob_backend_seoin.kob_backend.service.ChatSendPipeline;
+import com.kob_backend_seoin.kob_backend.service.ChatRoomExecutor;
+import com.kob_backend_seoin.kob_backend.service.WebSocketChatService;
+import com.kob_backend_seoin.kob_backend.service.ChatService;
+import com.kob_backend_seoin.kob_backend.service.ChatMembershipService;
+import com.kob_backend_seoin.kob_backend.dto.Chat.ChatMessageResponseDto;
+import com.kob_backend_seoin.kob_backend.dto.Chat.ChatSyncRequestDto;
+import com.kob_backend_seoin.kob_backend.dto.Chat.ChatSyncResponseDto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import com.kob_backend_seoin.kob_backend.service.ChatBroadcaster;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 import java.util.List;
 import java.util.ArrayList;
@@ -38,50 +43,47 @@ public class WebSocketChatController {
     
 
     
-    private final SimpMessagingTemplate messagingTemplate;
-    private final ChatMessageRepository chatMessageRepository;
+    private final ChatBroadcaster chatBroadcaster;
     private final ChatRoomRepository chatRoomRepository;
     private final UserRepository userRepository;
     private final WebSocketAuthService webSocketAuthService;
-    private final ChatMessageService chatMessageService;
+    private final ChatSendPipeline chatSendPipeline;
+    private final ChatRoomExecutor chatRoomExecutor;
+    private final WebSocketChatService webSocketChatService;
+    private final ChatService chatService;
+    private final ChatMembershipService chatMembershipService;
+
+    // 동기화 응답 프레임당 최대 메시지 수
+    @Value("${chat.sync.chunk-size:50}")
+    private int syncChunkSize;
 
     @Autowired
-    public WebSocketChatController(SimpMessagingTemplate messagingTemplate,
-                                 ChatMessageRepository chatMessageRepository,
+    public WebSocketChatController(ChatBroadcaster chatBroadcaster,
                                  ChatRoomRepository chatRoomRepository,
                                  UserRepository userRepository,
                                  WebSocketAuthService webSocketAuthService,
-                                 ChatMessageService chatMessageService) {
-        this.messagingTemplate = messagingTemplate;
-        this.chatMessageRepository = chatMessageRepository;
+                                 ChatSendPipeline chatSendPipeline,
+                                 ChatRoomExecutor chatRoomExecutor,
+                                 WebSocketChatService webSocketChatService,
+                                 ChatService chatService,
+                                 ChatMembershipService chatMembershipService) {
+        this.chatBroadcaster = chatBroadcaster;
         this.chatRoomRepository = chatRoomRepository;
         this.userRepository = userRepository;
         this.webSocketAuthService = webSocketAuthService;
-        this.chatMessageService = chatMessageService;
+        this.chatSendPipeline = chatSendPipeline;
+        this.chatRoomExecutor = chatRoomExecutor;
+        this.webSocketChatService = webSocketChatService;
+        this.chatService = chatService;
+        this.chatMembershipService = chatMembershipService;
     }
 
     @MessageMapping("/create-room")
     public void createRoom(@Payload WebSocketMessageDto.CreateRoomRequest request,
                           SimpMessageHeaderAccessor headerAccessor) {
         try {
-            // SimpMessageHeaderAccessor에서 직접 Principal 가져오기 (ChannelInterceptor에서 설정됨)
-            java.security.Principal principal = headerAccessor.getUser();
-
-            // Principal이 null인 경우 SessionAttributes에서 직접 가져오기
-            if (principal == null) {
-                var sessionAttributes = headerAccessor.getSessionAttributes();
-                if (sessionAttributes != null && sessionAttributes.containsKey("user")) {
-                    var restoredPrincipal = (java.security.Principal) sessionAttributes.get("user");
-                    principal = restoredPrincipal;
-                    log.info("Controller에서 Principal 복원 성공: " + principal.getName());
-                }
-            }
-
-            // Principal에서 사용자 ID 추출
-            if (principal == null) {
-                throw new CustomException("WebSocket 인증 실패: Principal 없음", ErrorCode.UNAUTHORIZED);
-            }
-            UUID creatorId = UUID.fromString(principal.getName());
+            // CONNECT에서 세션 사용자로 등록한 인증 정보 (사용자 ID가 미리 파싱되어 있음)
+            UUID creatorId = webSocketAuthService.validateAndExtractUserId(headerAccessor.getUser(), headerAccessor);
             
             // 사용자 정보 조회
             User creator = userRepository.findById(creatorId)
@@ -110,6 +112,7 @@ public class WebSocketChatController {
             chatRoom.setParticipants(participantSet);
             
             ChatRoom savedRoom = chatRoomRepository.save(chatRoom);
+            chatMembershipService.membershipChanged(savedRoom.getId());
             
             // 생성 성공 응답
             WsEnvelope<Map<String, Object>> response = new WsEnvelope<>(
@@ -124,7 +127,7 @@ public class WebSocketChatController {
             );
             
             // 생성자에게 응답
-            messagingTemplate.convertAndSendToUser(creatorId.toString(), "/queue/rooms", response);
+            chatBroadcaster.sendToUser(creatorId.toString(), "/queue/rooms", response);
             
             // 모든 참여자에게 채팅방 생성 알림
             for (User participant : participants) {
@@ -139,7 +142,7 @@ public class WebSocketChatController {
                                     "invitedBy", creator.getNickname()
                             )
                     );
-                    messagingTemplate.convertAndSendToUser(participant.getId().toString(), "/queue/rooms", notification);
+                    chatBroadcaster.sendToUser(participant.getId().toString(), "/queue/rooms", notification);
                 }
             }
             
@@ -153,7 +156,7 @@ public class WebSocketChatController {
                         System.currentTimeMillis(),
                         new WsEnvelope.ErrorPayload("CREATE_ROOM_ERROR", e.getMessage())
                 );
-                messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/errors", response);
+                chatBroadcaster.sendToUser(principal.getName(), "/queue/errors", response);
             }
         }
     }
@@ -201,7 +204,7 @@ public class WebSocketChatController {
                         )
                 );
                 
-                messagingTemplate.convertAndSendToUser(roomOwner.getId().toString(), "/queue/join-requests", joinRequest);
+                chatBroadcaster.sendToUser(roomOwner.getId().toString(), "/queue/join-requests", joinRequest);
                 log.info("가입 요청을 채팅방 소유자 {}에게 전송했습니다".formatted(roomOwner.getId()));
             }
             
@@ -222,35 +225,28 @@ public class WebSocketChatController {
             log.info("가입 응답 수신: 요청 {}에 대한 응답 = {}".formatted(requestId, accepted ? "수락" : "거절"));
 
             if (accepted) {
-                // 채팅방에 사용자 추가
-                Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(roomId);
-                Optional<User> userOpt = userRepository.findById(requesterId);
-                
-                if (chatRoomOpt.isPresent() && userOpt.isPresent()) {
-                    ChatRoom chatRoom = chatRoomOpt.get();
-                    User user = userOpt.get();
-                    
-                    // 새로운 참여자 Set을 생성하여 설정
-                    Set<User> newParticipants = new HashSet<>(chatRoom.getParticipants());
-                    newParticipants.add(user);
-                    chatRoom.setParticipants(newParticipants);
-                    chatRoomRepository.save(chatRoom);
-                    
-                    log.info("사용자 {}를 채팅방 {}에 추가했습니다".formatted(requesterId, roomId));
-                    
-                    // 요청자에게 수락 알림 전송
-                    WsEnvelope<Map<String, Object>> acceptNotification = new WsEnvelope<>(
-                            "join.accepted",
-                            WsEnvelope.newMessageId(),
-                            System.currentTimeMillis(),
-                            Map.of(
-                                    "roomId", roomId.toString(),
-                                    "roomName", chatRoom.getName()
-                            )
-                    );
-
-                    messagingTemplate.convertAndSendToUser(requesterId.toString(), "/queue/rooms", acceptNotification);
-                }
+                // 채팅방에 사용자 추가 (채팅방 메일박스에서 다른 변경과 순서대로 실행, inbound 스레드는 기다리지 않음)
+                chatRoomExecutor.execute(roomId, () -> {
+                    try {
+                        Map<String, Object> result = webSocketChatService.handleJoinResponse(response);
+                        log.info("사용자 {}를 채팅방 {}에 추가했습니다".formatted(requesterId, roomId));
+
+                        // 요청자에게 수락 알림 전송
+                        WsEnvelope<Map<String, Object>> acceptNotification = new WsEnvelope<>(
+                                "join.accepted",
+                                WsEnvelope.newMessageId(),
+                                System.currentTimeMillis(),
+                                Map.of(
+                                        "roomId", roomId.toString(),
+                                        "roomName", result.get("roomName")
+                                )
+                        );
+
+                        chatBroadcaster.sendToUser(requesterId.toString(), "/queue/rooms", acceptNotification);
+                    } catch (Exception e) {
+                        log.severe("가입 응답 처리 중 오류 발생: " + e.getMessage());
+                    }
+                });
             } else {
                 // 요청자에게 거절 알림 전송
                 WsEnvelope<Map<String, Object>> rejectNotification = new WsEnvelope<>(
@@ -262,7 +258,7 @@ public class WebSocketChatController {
                         )
                 );
 
-                messagingTemplate.convertAndSendToUser(requesterId.toString(), "/queue/rooms", rejectNotification);
+                chatBroadcaster.sendToUser(requesterId.toString(), "/queue/rooms", rejectNotification);
             }
             
         } catch (Exception e) {
@@ -274,32 +270,15 @@ public class WebSocketChatController {
     public void subscribe(@Payload WebSocketMessageDto.SubscribeRequest request,
                          SimpMessageHeaderAccessor headerAccessor) {
         try {
-            // SimpMessageHeaderAccessor에서 직접 Principal 가져오기 (ChannelInterceptor에서 설정됨)
-            java.security.Principal principal = headerAccessor.getUser();
-
-            // Principal이 null인 경우 SessionAttributes에서 직접 가져오기
-            if (principal == null) {
-                var sessionAttributes = headerAccessor.getSessionAttributes();
-                if (sessionAttributes != null && sessionAttributes.containsKey("user")) {
-                    var restoredPrincipal = (java.security.Principal) sessionAttributes.get("user");
-                    principal = restoredPrincipal;
-                    log.info("Controller에서 Principal 복원 성공: " + principal.getName());
-                }
-            }
-
-            // Principal에서 사용자 ID 추출
-            if (principal == null) {
-                throw new CustomException("WebSocket 인증 실패: Principal 없음", ErrorCode.UNAUTHORIZED);
-            }
-            UUID userId = UUID.fromString(principal.getName());
+            // CONNECT에서 세션 사용자로 등록한 인증 정보 (사용자 ID가 미리 파싱되어 있음)
+            UUID userId = webSocketAuthService.validateAndExtractUserId(headerAccessor.getUser(), headerAccessor);
             
             // 채팅방 존재 여부 및 사용자 참여 여부 확인
             ChatRoom chatRoom = chatRoomRepository.findById(request.getRoomId())
                     .orElseThrow(() -> new CustomException("채팅방을 찾을 수 없습니다.", ErrorCode.CHAT_ROOM_NOT_FOUND));
             
             // 사용자가 해당 채팅방에 참여하고 있는지 확인
-            if (!chatRoom.getParticipants().stream()
-                    .anyMatch(participant -> participant.getId().equals(userId))) {
+            if (!chatMembershipService.isParticipant(chatRoom.getId(), userId)) {
                 throw new CustomException("사용자가 해당 채팅방에 참여하지 않습니다.", ErrorCode.USER_NOT_IN_CHAT_ROOM);
             }
             
@@ -310,7 +289,7 @@ public class WebSocketChatController {
                     System.currentTimeMillis(),
                     "채팅방 " + chatRoom.getName() + "에 성공적으로 구독했습니다."
             );
-            messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/subscribe", response);
+            chatBroadcaster.sendToUser(userId.toString(), "/queue/subscribe", response);
             
         } catch (Exception e) {
             // 에러 응답 - Principal 기반으로 전송
@@ -322,7 +301,67 @@ public class WebSocketChatController {
                         System.currentTimeMillis(),
                         new WsEnvelope.ErrorPayload("SUBSCRIBE_ERROR", e.getMessage())
                 );
-                messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/errors", response);
+                chatBroadcaster.sendToUser(principal.getName(), "/queue/errors", response);
+            }
+        }
+    }
+
+    /**
+     * 재연결 동기화: 채팅방별 놓친 메시지를 /user/queue/sync 로 나누어 전송
+     * 채팅방마다 최대 chunk-size 건씩 "chat.sync" 프레임을 보내고, 마지막에 "chat.sync.complete"를 보냅니다.
+     */
+    @MessageMapping("/sync")
+    public void sync(@Payload ChatSyncRequestDto request,
+                     SimpMessageHeaderAccessor headerAccessor) {
+        try {
+            // CONNECT에서 세션 사용자로 등록한 인증 정보 (사용자 ID가 미리 파싱되어 있음)
+            UUID userId = webSocketAuthService.validateAndExtractUserId(headerAccessor.getUser(), headerAccessor);
+            ChatSyncResponseDto sync = chatService.syncMessages(userId, request);
+
+            int frames = 0;
+            for (ChatSyncResponseDto.RoomSyncDto room : sync.getRooms()) {
+                List<ChatMessageResponseDto> messages = room.getMessages();
+                int chunkSize = Math.max(1, syncChunkSize);
+                int from = 0;
+                do {
+                    int to = Math.min(from + chunkSize, messages.size());
+                    ChatSyncResponseDto.RoomSyncDto chunk = new ChatSyncResponseDto.RoomSyncDto(
+                            room.getRoomId(),
+                            room.getLastSequence(),
+                            room.getUnreadCount(),
+                            messages.subList(from, to),
+                            room.isHasMore() || to < messages.size()
+                    );
+                    chatBroadcaster.sendToUser(userId.toString(), "/queue/sync", new WsEnvelope<>(
+                            "chat.sync",
+                            WsEnvelope.newMessageId(),
+                            System.currentTimeMillis(),
+                            chunk
+                    ));
+                    frames++;
+                    from = to;
+                } while (from < messages.size());
+            }
+
+            chatBroadcaster.sendToUser(userId.toString(), "/queue/sync", new WsEnvelope<>(
+                    "chat.sync.complete",
+                    WsEnvelope.newMessageId(),
+                    System.currentTimeMillis(),
+                    Map.of("rooms", sync.getRooms().size(), "frames", frames)
+            ));
+
+        } catch (Exception e) {
+            log.severe("동기화 중 오류 발생: " + e.getMessage());
+
+            java.security.Principal principal = headerAccessor.getUser();
+            if (principal != null) {
+                WsEnvelope<WsEnvelope.ErrorPayload> response = new WsEnvelope<>(
+                        "error",
+                        WsEnvelope.newMessageId(),
+                        System.currentTimeMillis(),
+                        new WsEnvelope.ErrorPayload("SYNC_ERROR", e.getMessage())
+                );
+                chatBroadcaster.sendToUser(principal.getName(), "/queue/errors", response);
             }
         }
     }
@@ -354,7 +393,7 @@ public class WebSocketChatController {
                             System.currentTimeMillis(),
                             new WsEnvelope.ErrorPayload("AUTH_ERROR", "채팅방 정보 조회 실패: 인증 실패")
                     );
-                    messagingTemplate.convertAndSend("/topic/errors", errorResponse);
+                    chatBroadcaster.sendToTopic("/topic/errors", errorResponse);
                     return;
                 }
             }
@@ -363,7 +402,7 @@ public class WebSocketChatController {
             final UUID roomId = request.getRoomId();
 
             // 채팅방 존재 여부 및 참가자 확인 (LazyInitializationException 방지)
-            boolean isParticipant = chatRoomRepository.isUserParticipant(roomId, UUID.fromString(userId));
+            boolean isParticipant = chatMembershipService.isParticipant(roomId, UUID.fromString(userId));
             var chatRoom = chatRoomRepository.findByIdWithParticipants(roomId).orElse(null);
 
             if (chatRoom != null && isParticipant) {
@@ -382,7 +421,7 @@ public class WebSocketChatController {
                             )
                     );
                     
-                    messagingTemplate.convertAndSendToUser(userId, "/queue/room-info", response);
+                    chatBroadcaster.sendToUser(userId, "/queue/room-info", response);
 
             } else {
                 log.warning("채팅방을 찾을 수 없음: " + roomId);
@@ -393,7 +432,7 @@ public class WebSocketChatController {
                         System.currentTimeMillis(),
                         new WsEnvelope.ErrorPayload("ROOM_NOT_FOUND", "채팅방을 찾을 수 없습니다")
                 );
-                messagingTemplate.convertAndSendToUser(userId, "/queue/room-info", errorResponse);
+                chatBroadcaster.sendToUser(userId, "/queue/room-info", errorResponse);
             }
             
         } catch (Exception e) {
@@ -411,7 +450,7 @@ public class WebSocketChatController {
                 
                 java.security.Principal principal = headerAccessor.getUser();
                 if (principal != null) {
-                    messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/room-info", errorResponse);
+                    chatBroadcaster.sendToUser(principal.getName(), "/queue/room-info", errorResponse);
                 }
             } catch (Exception ex) {
                 log.severe("에러 응답 전송 실패: " + ex.getMessage());
@@ -429,136 +468,12 @@ public class WebSocketChatController {
             log.info("content length: " + request.getContent().length());
             log.info("clientMessageId: " + request.getClientMessageId());
 
-            // SimpMessageHeaderAccessor에서 직접 Principal 가져오기 (ChannelInterceptor에서 설정됨)
-            java.security.Principal principal = headerAccessor.getUser();
-
-            // Principal이 null인 경우 SessionAttributes에서 직접 가져오기
-            if (principal == null) {
-                var sessionAttributes = headerAccessor.getSessionAttributes();
-                if (sessionAttributes != null && sessionAttributes.containsKey("user")) {
-                    var restoredPrincipal = (java.security.Principal) sessionAttributes.get("user");
-                    principal = restoredPrincipal;
-                    log.info("Controller에서 Principal 복원 성공: " + principal.getName());
-                }
-            }
-
-            // 공통 인증 검증 로직 사용
-            final UUID userId = webSocketAuthService.validateAndExtractUserId(principal, headerAccessor);
-            
-            // 사용자 정보 조회
-            User sender = userRepository.findById(userId)
-                    .orElseThrow(() -> new CustomException("사용자를 찾을 수 없습니다.", ErrorCode.USER_NOT_FOUND));
-            
-            // 채팅방 정보 조회 및 사용자 참여 여부 확인 (LazyInitializationException 방지)
-            UUID roomId = request.getRoomId();
-            boolean isParticipant = chatRoomRepository.isUserParticipant(roomId, userId);
-            ChatRoom chatRoom = chatRoomRepository.findById(roomId)
-                    .orElseThrow(() -> new CustomException("채팅방을 찾을 수 없습니다.", ErrorCode.CHAT_ROOM_NOT_FOUND));
-            
-            if (!isParticipant) {
-                throw new CustomException("사용자가 해당 채팅방에 참여하지 않습니다.", ErrorCode.USER_NOT_IN_CHAT_ROOM);
-            }
-                
-            // 멱등성 체크: clientMessageId가 있으면 중복 저장 방지
-            if (request.getClientMessageId() != null && !request.getClientMessageId().trim().isEmpty()) {
-                var existing = chatMessageRepository.findByChatRoom_IdAndClientMessageId(chatRoom.getId(), request.getClientMessageId());
-                if (existing.isPresent()) {
-                    log.info("중복 메시지 감지 - clientMessageId: " + request.getClientMessageId());
-
-                    // 기존 메시지를 다시 브로드캐스트 (네트워크 문제로 누락된 경우 대비)
-                    ChatMessage existingMessage = existing.get();
-                    WebSocketMessageDto.UserInfoDto senderInfo = new WebSocketMessageDto.UserInfoDto(
-                            existingMessage.getSender().getId(),
-                            existingMessage.getSender().getNickname()
-                    );
-
-                    WebSocketMessageDto.NewMessageNotification notification = new WebSocketMessageDto.NewMessageNotification(
-                            existingMessage.getId(),
-                            chatRoom.getId(),
-                            existingMessage.getContent(),
-                            senderInfo,
-                            existingMessage.getSentAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                            existingMessage.getSequence()
-                    );
-
-                    WsEnvelope<WebSocketMessageDto.NewMessageNotification> response = new WsEnvelope<>(
-                            "chat.message",
-                            WsEnvelope.newMessageId(),
-                            System.currentTimeMillis(),
-                            notification
-                    );
-
-                    // 채팅방 토픽으로 메시지 재브로드캐스트
-                    String topicDestination = "/topic/chat/" + chatRoom.getId().toString();
-                    messagingTemplate.convertAndSend(topicDestination, response);
-
-                    WsEnvelope<WsEnvelope.ReceiptPayload> dupReceipt = new WsEnvelope<>(
-                            "chat.receipt",
-                            WsEnvelope.newMessageId(),
-                            System.currentTimeMillis(),
-                            new WsEnvelope.ReceiptPayload(request.getClientMessageId(), "duplicate", existing.get().getId().toString())
-                    );
-                    messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/receipts", dupReceipt);
-                    return;
-                }
-            }
-
-            // 순서 번호 발행
-            long sequence = chatRoom.issueSequence();
+            // CONNECT에서 세션 사용자로 등록한 인증 정보 (사용자 ID가 미리 파싱되어 있음)
+            final UUID userId = webSocketAuthService.validateAndExtractUserId(headerAccessor.getUser(), headerAccessor);
 
-            // ChatMessageService를 통한 트랜잭션 처리된 메시지 저장
-            ChatMessage savedMessage = chatMessageService.saveMessage(
-                request.getContent(),
-                sender,
-                chatRoom,
-                sequence,
-                request.getClientMessageId()
-            );
-            
-            // 새 메시지 알림 생성
-            WebSocketMessageDto.UserInfoDto senderInfo = new WebSocketMessageDto.UserInfoDto(
-                    sender.getId(),
-                    sender.getNickname()
-            );
-            
-            WebSocketMessageDto.NewMessageNotification notification = new WebSocketMessageDto.NewMessageNotification(
-                    savedMessage.getId(),
-                    chatRoom.getId(),
-                    savedMessage.getContent(),
-                    senderInfo,
-                    savedMessage.getSentAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                    savedMessage.getSequence()
-            );
+            // 조회/저장/브로드캐스트는 전송 파이프라인에서 채팅방 순서대로 처리 (inbound 스레드는 접수만)
+            chatSendPipeline.submit(userId, request);
 
-            WsEnvelope<WebSocketMessageDto.NewMessageNotification> response = new WsEnvelope<>(
-                    "chat.message",
-                    WsEnvelope.newMessageId(),
-                    System.currentTimeMillis(),
-                    notification
-            );
-            
-            
-            // 채팅방 토픽으로 메시지 브로드캐스트
-            String topicDestination = "/topic/chat/" + chatRoom.getId().toString();
-
-            log.info("=== 메시지 브로드캐스트 ===");
-            log.info("Destination: " + topicDestination);
-            log.info("Message ID: " + savedMessage.getId());
-            log.info("Sequence: " + savedMessage.getSequence());
-
-            messagingTemplate.convertAndSend(topicDestination, response);
-
-            log.info("메시지 브로드캐스트 완료");
-
-            // 송신자에게 수신증명(ack) 전송
-            WsEnvelope<WsEnvelope.ReceiptPayload> receipt = new WsEnvelope<>(
-                    "chat.receipt",
-                    WsEnvelope.newMessageId(),
-                    System.currentTimeMillis(),
-                    new WsEnvelope.ReceiptPayload(request.getClientMessageId(), "ok", savedMessage.getId().toString())
-            );
-            messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/receipts", receipt);
-            
         } catch (Exception e) {
             log.severe("메시지 전송 중 오류 발생: " + e.getMessage());
             e.printStackTrace();
@@ -575,15 +490,13 @@ public class WebSocketChatController {
             if (principal != null) {
                 try {
                     UUID userId = webSocketAuthService.extractUserId(principal);
-                    messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/errors", response);
+                    chatBroadcaster.sendToUser(userId.toString(), "/queue/errors", response);
                 } catch (Exception ex) {
-                    messagingTemplate.convertAndSend("/topic/errors", response);
+                    chatBroadcaster.sendToTopic("/topic/errors", response);
                 }
             } else {
-                messagingTemplate.convertAndSend("/topic/errors", response);
+                chatBroadcaster.sendToTopic("/topic/errors", response);
             }
         }
     }
-
-
-} 
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.kob_backend_seoin.kob_backend.controller;
 
+import com.kob_backend_seoin.kob_backend.config.WebSocketChannelMetrics;
 import com.kob_backend_seoin.kob_backend.dto.ApiResponse;
 import com.kob_backend_seoin.kob_backend.service.WebSocketHealthCheckService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,10 +18,13 @@ import java.util.Set;
 public class WebSocketHealthController {
 
     private final WebSocketHealthCheckService healthCheckService;
+    private final WebSocketChannelMetrics channelMetrics;
 
     @Autowired
-    public WebSocketHealthController(WebSocketHealthCheckService healthCheckService) {
+    public WebSocketHealthController(WebSocketHealthCheckService healthCheckService,
+                                     WebSocketChannelMetrics channelMetrics) {
         this.healthCheckService = healthCheckService;
+        this.channelMetrics = channelMetrics;
     }
 
     /**
@@ -33,6 +37,15 @@ public class WebSocketHealthController {
         return ResponseEntity.ok(new ApiResponse<>(true, stats, "WebSocket 상태 조회 성공"));
     }
 
+    /**
+     * STOMP 채널별 실행기 지표 조회
+     */
+    @GetMapping("/channels")
+    @Operation(summary = "WebSocket 채널 지표 조회", description = "STOMP inbound/outbound 채널, 채팅방 메일박스(room), 전송 파이프라인 단계(send-sequence/send-persist/send-fanout) 실행기별 큐 깊이와 대기/처리 시간을 조회합니다.")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getChannelMetrics() {
+        return ResponseEntity.ok(new ApiResponse<>(true, channelMetrics.snapshot(), "WebSocket 채널 지표 조회 성공"));
+    }
+
     /**
      * 현재 온라인 사용자 목록 조회
      */
@@ -5,7 +5,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+    @Index(name = "idx_chat_messages_room_sequence", columnList = "chat_room_id, sequence"),
+    @Index(name = "uk_chat_messages_room_client_message_id", columnList = "chat_room_id, client_message_id", unique = true)
+})
 public class ChatMessage {
     @Id
     @GeneratedValue
@@ -5,7 +5,6 @@ import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
 
 @Entity
 @Table(name = "chat_rooms")
@@ -39,10 +38,7 @@ public class ChatRoom {
     private Set<User> participants = new HashSet<>();
 
     @Column(nullable = false)
-    private long nextSequence = 1L; // 방 단위 순차 번호 발행기
-
-    @Transient
-    private AtomicLong sequenceGenerator = new AtomicLong(1L);
+    private long nextSequence = 1L; // 레거시: sequence 발행은 chat_room_sequences(ChatSequenceAllocator)로 이전, 카운터 초기값으로만 사용
 
     // 채팅방 타입 enum
     public enum ChatRoomType {
@@ -59,7 +55,6 @@ public class ChatRoom {
         this.createdAt = LocalDateTime.now();
         this.type = ChatRoomType.ONE_TO_ONE; // 기본값은 1:1
         this.participants.add(creator);
-        this.sequenceGenerator = new AtomicLong(this.nextSequence);
     }
 
     public ChatRoom(String name, User creator, ChatRoomType type) {
@@ -68,7 +63,6 @@ public class ChatRoom {
         this.createdAt = LocalDateTime.now();
         this.type = type;
         this.participants.add(creator);
-        this.sequenceGenerator = new AtomicLong(this.nextSequence);
     }
 
     public UUID getId() {
@@ -153,28 +147,7 @@ public class ChatRoom {
         this.type = ChatRoomType.ONE_TO_ONE;
     }
 
-    public synchronized long issueSequence() {
-        if (this.sequenceGenerator == null) {
-            this.sequenceGenerator = new AtomicLong(this.nextSequence);
-        }
-        long current = this.sequenceGenerator.getAndIncrement();
-        this.nextSequence = this.sequenceGenerator.get();
-        return current;
-    }
-
     public void setNextSequence(long nextSequence) {
         this.nextSequence = nextSequence;
-        if (this.sequenceGenerator == null) {
-            this.sequenceGenerator = new AtomicLong(nextSequence);
-        } else {
-            this.sequenceGenerator.set(nextSequence);
-        }
-    }
-
-    @PostLoad
-    private void initializeSequenceGenerator() {
-        if (this.sequenceGenerator == null) {
-            this.sequenceGenerator = new AtomicLong(this.nextSequence);
-        }
     }
-} 
\ No newline at end of file
+}
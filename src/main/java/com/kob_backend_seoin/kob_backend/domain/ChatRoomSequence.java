@@ -0,0 +1,46 @@
+package com.kob_backend_seoin.kob_backend.domain;
+
+import jakarta.persistence.*;
+import java.util.UUID;
+
+/**
+ * 채팅방별 메시지 sequence 카운터.
+ * chat_rooms 행과 분리하여 메시지 전송 시 채팅방 엔티티 전체를 갱신하지 않고
+ * 이 작은 행만 원자적으로 증가시킨다. (ChatSequenceAllocator 참고)
+ */
+@Entity
+@Table(name = "chat_room_sequences")
+public class ChatRoomSequence {
+
+    @Id
+    @Column(name = "chat_room_id")
+    private UUID chatRoomId;
+
+    // 다음에 예약될 sequence (이미 예약된 값은 모두 이보다 작음)
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+
+    // 기본 생성자
+    public ChatRoomSequence() {}
+
+    public ChatRoomSequence(UUID chatRoomId, long nextValue) {
+        this.chatRoomId = chatRoomId;
+        this.nextValue = nextValue;
+    }
+
+    public UUID getChatRoomId() {
+        return chatRoomId;
+    }
+
+    public long getNextValue() {
+        return nextValue;
+    }
+
+    public void setChatRoomId(UUID chatRoomId) {
+        this.chatRoomId = chatRoomId;
+    }
+
+    public void setNextValue(long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
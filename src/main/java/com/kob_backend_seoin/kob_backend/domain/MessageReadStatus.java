@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
+// 메시지별 읽음 상태 (레거시)
+// 신규 읽음 처리는 ReadWatermark를 사용하며, 기존 데이터는 ReadWatermarkService.backfillFromMessageReadStatus()로 이전
 @Entity
 @Table(name = "message_read_status")
 public class MessageReadStatus {
@@ -0,0 +1,82 @@
+package com.kob_backend_seoin.kob_backend.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * (채팅방, 사용자) 단위 읽음 워터마크.
+ * 사용자가 해당 채팅방에서 읽은 마지막 메시지의 sequence만 저장하므로
+ * 메시지 x 참여자 만큼 행이 쌓이는 MessageReadStatus를 대체한다.
+ * 안 읽은 메시지 수 = (채팅방의 마지막 sequence) - lastReadSequence
+ */
+@Entity
+@Table(name = "chat_read_watermarks")
+public class ReadWatermark {
+
+    @EmbeddedId
+    private ReadWatermarkId id;
+
+    // 읽은 마지막 메시지의 sequence (0이면 아직 읽은 메시지 없음)
+    @Column(name = "last_read_sequence", nullable = false)
+    private long lastReadSequence;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // 기본 생성자
+    public ReadWatermark() {}
+
+    public ReadWatermark(ReadWatermarkId id, long lastReadSequence) {
+        this.id = id;
+        this.lastReadSequence = lastReadSequence;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public ReadWatermarkId getId() {
+        return id;
+    }
+
+    public void setId(ReadWatermarkId id) {
+        this.id = id;
+    }
+
+    public long getLastReadSequence() {
+        return lastReadSequence;
+    }
+
+    public void setLastReadSequence(long lastReadSequence) {
+        this.lastReadSequence = lastReadSequence;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ReadWatermark that = (ReadWatermark) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ReadWatermark{" +
+                "id=" + id +
+                ", lastReadSequence=" + lastReadSequence +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
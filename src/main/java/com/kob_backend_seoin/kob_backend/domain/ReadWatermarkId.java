@@ -0,0 +1,64 @@
+package com.kob_backend_seoin.kob_backend.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+@Embeddable
+public class ReadWatermarkId implements Serializable {
+
+    @Column(name = "chat_room_id")
+    private UUID chatRoomId;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    // 기본 생성자
+    public ReadWatermarkId() {}
+
+    public ReadWatermarkId(UUID chatRoomId, UUID userId) {
+        this.chatRoomId = chatRoomId;
+        this.userId = userId;
+    }
+
+    // Getters and Setters
+    public UUID getChatRoomId() {
+        return chatRoomId;
+    }
+
+    public void setChatRoomId(UUID chatRoomId) {
+        this.chatRoomId = chatRoomId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ReadWatermarkId that = (ReadWatermarkId) o;
+        return Objects.equals(chatRoomId, that.chatRoomId) &&
+               Objects.equals(userId, that.userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(chatRoomId, userId);
+    }
+
+    @Override
+    public String toString() {
+        return "ReadWatermarkId{" +
+                "chatRoomId=" + chatRoomId +
+                ", userId=" + userId +
+                '}';
+    }
+}
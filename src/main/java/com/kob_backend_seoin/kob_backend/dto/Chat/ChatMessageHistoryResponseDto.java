@@ -0,0 +1,45 @@
+package com.kob_backend_seoin.kob_backend.dto.Chat;
+
+import java.util.List;
+
+/**
+ * 채팅방 메시지 히스토리 (sequence 커서 기반 무한 스크롤)
+ */
+public class ChatMessageHistoryResponseDto {
+    private List<ChatMessageResponseDto> messages; // 최신순
+    private boolean hasMore; // 더 이전 메시지 존재 여부
+    private Long nextBeforeSequence; // 다음 페이지 요청 시 beforeSequence 값 (없으면 null)
+
+    // 기본 생성자
+    public ChatMessageHistoryResponseDto() {}
+
+    public ChatMessageHistoryResponseDto(List<ChatMessageResponseDto> messages, boolean hasMore, Long nextBeforeSequence) {
+        this.messages = messages;
+        this.hasMore = hasMore;
+        this.nextBeforeSequence = nextBeforeSequence;
+    }
+
+    public List<ChatMessageResponseDto> getMessages() {
+        return messages;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public Long getNextBeforeSequence() {
+        return nextBeforeSequence;
+    }
+
+    public void setMessages(List<ChatMessageResponseDto> messages) {
+        this.messages = messages;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public void setNextBeforeSequence(Long nextBeforeSequence) {
+        this.nextBeforeSequence = nextBeforeSequence;
+    }
+}
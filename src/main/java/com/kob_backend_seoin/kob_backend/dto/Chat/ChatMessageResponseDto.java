@@ -9,6 +9,7 @@ public class ChatMessageResponseDto {
     private UserInfoDto sender;
     private UUID chatRoomId;
     private LocalDateTime sentAt;
+    private long sequence; // 채팅방 내 순서 번호 (히스토리 커서, 동기화 기준)
 
     // 기본 생성자
     public ChatMessageResponseDto() {}
@@ -21,6 +22,11 @@ public class ChatMessageResponseDto {
         this.sentAt = sentAt;
     }
 
+    public ChatMessageResponseDto(UUID id, String content, UserInfoDto sender, UUID chatRoomId, LocalDateTime sentAt, long sequence) {
+        this(id, content, sender, chatRoomId, sentAt);
+        this.sequence = sequence;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -41,6 +47,10 @@ public class ChatMessageResponseDto {
         return sentAt;
     }
 
+    public long getSequence() {
+        return sequence;
+    }
+
     public void setId(UUID id) {
         this.id = id;
     }
@@ -61,6 +71,10 @@ public class ChatMessageResponseDto {
         this.sentAt = sentAt;
     }
 
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
     // 내부 클래스: 사용자 정보
     public static class UserInfoDto {
         private UUID id;
@@ -0,0 +1,27 @@
+package com.kob_backend_seoin.kob_backend.dto.Chat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 재연결 동기화 요청 (채팅방 ID → 클라이언트가 마지막으로 받은 sequence)
+ */
+public class ChatSyncRequestDto {
+    private Map<UUID, Long> rooms = new HashMap<>();
+
+    // 기본 생성자
+    public ChatSyncRequestDto() {}
+
+    public ChatSyncRequestDto(Map<UUID, Long> rooms) {
+        this.rooms = rooms;
+    }
+
+    public Map<UUID, Long> getRooms() {
+        return rooms;
+    }
+
+    public void setRooms(Map<UUID, Long> rooms) {
+        this.rooms = rooms;
+    }
+}
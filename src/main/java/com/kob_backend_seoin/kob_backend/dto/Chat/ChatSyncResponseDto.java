@@ -0,0 +1,86 @@
+package com.kob_backend_seoin.kob_backend.dto.Chat;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 재연결 동기화 응답 (사용자가 참여한 모든 채팅방의 최신 상태와 놓친 메시지)
+ */
+public class ChatSyncResponseDto {
+    private List<RoomSyncDto> rooms;
+
+    // 기본 생성자
+    public ChatSyncResponseDto() {}
+
+    public ChatSyncResponseDto(List<RoomSyncDto> rooms) {
+        this.rooms = rooms;
+    }
+
+    public List<RoomSyncDto> getRooms() {
+        return rooms;
+    }
+
+    public void setRooms(List<RoomSyncDto> rooms) {
+        this.rooms = rooms;
+    }
+
+    // 내부 클래스: 채팅방별 동기화 결과
+    public static class RoomSyncDto {
+        private UUID roomId;
+        private long lastSequence; // 채팅방의 마지막 sequence
+        private long unreadCount;
+        private List<ChatMessageResponseDto> messages; // 요청한 sequence 이후 메시지 (sequence 오름차순)
+        private boolean hasMore; // 최대 개수 초과로 남은 메시지가 있으면 마지막 메시지 sequence로 다시 요청
+
+        public RoomSyncDto() {}
+
+        public RoomSyncDto(UUID roomId, long lastSequence, long unreadCount,
+                           List<ChatMessageResponseDto> messages, boolean hasMore) {
+            this.roomId = roomId;
+            this.lastSequence = lastSequence;
+            this.unreadCount = unreadCount;
+            this.messages = messages;
+            this.hasMore = hasMore;
+        }
+
+        public UUID getRoomId() {
+            return roomId;
+        }
+
+        public long getLastSequence() {
+            return lastSequence;
+        }
+
+        public long getUnreadCount() {
+            return unreadCount;
+        }
+
+        public List<ChatMessageResponseDto> getMessages() {
+            return messages;
+        }
+
+        public boolean isHasMore() {
+            return hasMore;
+        }
+
+        public void setRoomId(UUID roomId) {
+            this.roomId = roomId;
+        }
+
+        public void setLastSequence(long lastSequence) {
+            this.lastSequence = lastSequence;
+        }
+
+        public void setUnreadCount(long unreadCount) {
+            this.unreadCount = unreadCount;
+        }
+
+        public void setMessages(List<ChatMessageResponseDto> messages) {
+            this.messages = messages;
+        }
+
+        public void setHasMore(boolean hasMore) {
+            this.hasMore = hasMore;
+        }
+    }
+}
@@ -65,7 +65,7 @@ public class WsEnvelope<T> {
     // Receipt payload
     public static class ReceiptPayload {
         private String clientMessageId;
-        private String status; // ok | duplicate | error
+        private String status; // accepted | ok | duplicate | error
         private String savedMessageId; // server-side message UUID
 
         public ReceiptPayload() {}
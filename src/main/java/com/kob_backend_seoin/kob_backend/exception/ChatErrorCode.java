@@ -12,6 +12,8 @@ public enum ChatErrorCode {
     MESSAGE_EMPTY("CHAT_006", "메시지 내용이 비어있습니다"),
     MESSAGE_SEND_FAILED("CHAT_007", "메시지 전송에 실패했습니다"),
     DUPLICATE_MESSAGE("CHAT_008", "중복된 메시지입니다"),
+    SERVER_BUSY("CHAT_016", "메시지 처리량이 많습니다. 잠시 후 다시 시도해주세요"),
+    RATE_LIMITED("CHAT_017", "메시지를 너무 빠르게 보내고 있습니다. 잠시 후 다시 시도해주세요"),
 
     // 사용자 관련 에러
     USER_NOT_IN_ROOM("CHAT_009", "사용자가 해당 채팅방에 참여하지 않습니다"),
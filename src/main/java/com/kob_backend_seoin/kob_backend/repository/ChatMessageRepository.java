@@ -3,11 +3,15 @@ package com.kob_backend_seoin.kob_backend.repository;
 import com.kob_backend_seoin.kob_backend.domain.ChatMessage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -36,8 +40,41 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID>
             @Param("lastSeq") long lastSeq,
             Pageable pageable);
     
+    // sequence 커서 이전 메시지 조회 (Slice: COUNT 없이 size + 1건만 조회하여 다음 페이지 여부 판단)
+    // (chat_room_id, sequence) 인덱스 역순 스캔으로 페이지 크기만큼만 읽음
+    @Query("SELECT cm FROM ChatMessage cm " +
+           "JOIN FETCH cm.sender " +
+           "WHERE cm.chatRoom.id = :roomId AND cm.sequence < :beforeSeq ORDER BY cm.sequence DESC")
+    Slice<ChatMessage> findSliceByChatRoomIdAndSequenceBefore(
+            @Param("roomId") UUID roomId,
+            @Param("beforeSeq") long beforeSeq,
+            Pageable pageable);
+
+    // sequence 이후 메시지 조회 (재연결 동기화용, 오름차순, 최대 개수 제한)
+    @Query("SELECT cm FROM ChatMessage cm " +
+           "JOIN FETCH cm.sender " +
+           "WHERE cm.chatRoom.id = :roomId AND cm.sequence > :afterSeq ORDER BY cm.sequence ASC")
+    Slice<ChatMessage> findSliceByChatRoomIdAndSequenceAfter(
+            @Param("roomId") UUID roomId,
+            @Param("afterSeq") long afterSeq,
+            Pageable pageable);
+
     // 채팅방의 마지막 메시지 조회 (Spring Data JPA 메서드명 규칙 사용)
     Optional<ChatMessage> findTop1ByChatRoomIdOrderBySequenceDesc(@Param("roomId") UUID roomId);
+
+    // 여러 채팅방의 마지막 메시지를 한 번에 조회 (LATERAL JOIN, 방마다 (chat_room_id, sequence) 인덱스 역순 1건)
+    @Query(value = "SELECT lm.id AS id, lm.chat_room_id AS chatRoomId, lm.content AS content, " +
+                   "lm.sent_at AS sentAt, lm.sequence AS sequence, u.id AS senderId, u.nickname AS senderNickname " +
+                   "FROM chat_rooms r " +
+                   "CROSS JOIN LATERAL (" +
+                   "    SELECT m.id, m.chat_room_id, m.sender_id, m.content, m.sent_at, m.sequence " +
+                   "    FROM chat_messages m WHERE m.chat_room_id = r.id " +
+                   "    ORDER BY m.sequence DESC LIMIT 1" +
+                   ") lm " +
+                   "JOIN users u ON u.id = lm.sender_id " +
+                   "WHERE r.id IN (:roomIds)",
+           nativeQuery = true)
+    List<LastMessageView> findLastMessagesByChatRoomIds(@Param("roomIds") Collection<UUID> roomIds);
     
     // 채팅방의 메시지 개수 조회
     @Query("SELECT COUNT(cm) FROM ChatMessage cm WHERE cm.chatRoom.id = :roomId")
@@ -57,4 +94,39 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID>
             Pageable pageable);
 
     Optional<ChatMessage> findByChatRoom_IdAndClientMessageId(UUID roomId, String clientMessageId);
+
+    // 멱등 저장: (chat_room_id, client_message_id) 유니크 인덱스 충돌 시 저장하지 않고 null 반환
+    // 동시에 들어온 재전송도 유니크 인덱스에서 직렬화되어 한 행만 저장됨
+    @Transactional
+    @Query(value = "INSERT INTO chat_messages (id, chat_room_id, sender_id, content, sent_at, sequence, client_message_id) " +
+                   "VALUES (:id, :roomId, :senderId, :content, :sentAt, :sequence, CAST(:clientMessageId AS VARCHAR)) " +
+                   "ON CONFLICT (chat_room_id, client_message_id) DO NOTHING " +
+                   "RETURNING id",
+           nativeQuery = true)
+    UUID insertIfAbsent(@Param("id") UUID id,
+                        @Param("roomId") UUID roomId,
+                        @Param("senderId") UUID senderId,
+                        @Param("content") String content,
+                        @Param("sentAt") LocalDateTime sentAt,
+                        @Param("sequence") long sequence,
+                        @Param("clientMessageId") String clientMessageId);
+
+    // 멱등 저장 충돌 시 기존 메시지 조회 (발신자 정보 포함)
+    @Query("SELECT cm FROM ChatMessage cm " +
+           "JOIN FETCH cm.sender " +
+           "WHERE cm.chatRoom.id = :roomId AND cm.clientMessageId = :clientMessageId")
+    Optional<ChatMessage> findWithSenderByChatRoomIdAndClientMessageId(
+            @Param("roomId") UUID roomId,
+            @Param("clientMessageId") String clientMessageId);
+
+    // 채팅방 목록용 마지막 메시지 프로젝션
+    interface LastMessageView {
+        UUID getId();
+        UUID getChatRoomId();
+        String getContent();
+        LocalDateTime getSentAt();
+        long getSequence();
+        UUID getSenderId();
+        String getSenderNickname();
+    }
 } 
\ No newline at end of file
@@ -27,10 +27,18 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, UUID> {
     @Query("SELECT cr FROM ChatRoom cr JOIN cr.participants p WHERE p.id = :userId ORDER BY cr.createdAt DESC")
     Page<ChatRoom> findByParticipantIdSafe(@Param("userId") UUID userId, Pageable pageable);
     
+    // 사용자가 참여한 모든 채팅방 조회 (페이지 없음, 재연결 동기화용)
+    @Query("SELECT cr FROM ChatRoom cr JOIN cr.participants p WHERE p.id = :userId")
+    List<ChatRoom> findAllByParticipantId(@Param("userId") UUID userId);
+
     // 사용자가 참여한 모든 채팅방 ID 목록 조회
     @Query("SELECT cr.id FROM ChatRoom cr JOIN cr.participants p WHERE p.id = :userId")
     List<UUID> findChatRoomIdsByParticipantId(@Param("userId") UUID userId);
     
+    // 채팅방 참여자 ID 목록 조회 (참여 여부 캐시 적재용)
+    @Query("SELECT p.id FROM ChatRoom cr JOIN cr.participants p WHERE cr.id = :roomId")
+    List<UUID> findParticipantIdsByChatRoomId(@Param("roomId") UUID roomId);
+
     // 사용자가 참여한 채팅방 개수 조회
     @Query("SELECT COUNT(cr) FROM ChatRoom cr JOIN cr.participants p WHERE p.id = :userId")
     long countByParticipantId(@Param("userId") UUID userId);
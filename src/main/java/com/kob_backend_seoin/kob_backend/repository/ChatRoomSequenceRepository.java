@@ -0,0 +1,49 @@
+package com.kob_backend_seoin.kob_backend.repository;
+
+import com.kob_backend_seoin.kob_backend.domain.ChatRoomSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ChatRoomSequenceRepository extends JpaRepository<ChatRoomSequence, UUID> {
+
+    // count개의 sequence를 원자적으로 예약하고 예약 구간의 끝(배타적)을 반환
+    // 호출 측 트랜잭션이 있으면 참여 (채팅방 메일박스 트랜잭션 안에서 커넥션을 하나 더 잡지 않도록), 없으면 이 문장만의 트랜잭션
+    // 카운터 행이 아직 없으면 null 반환
+    @Transactional
+    @Query(value = "UPDATE chat_room_sequences SET next_value = next_value + :count " +
+                   "WHERE chat_room_id = :roomId " +
+                   "RETURNING next_value",
+           nativeQuery = true)
+    Long reserve(@Param("roomId") UUID roomId, @Param("count") long count);
+
+    // 카운터 행 생성 (기존 chat_rooms.next_sequence와 저장된 메시지의 최대 sequence 중 큰 값 이후부터 시작)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO chat_room_sequences (chat_room_id, next_value) " +
+                   "SELECT r.id, GREATEST(r.next_sequence, " +
+                   "    COALESCE((SELECT MAX(m.sequence) FROM chat_messages m WHERE m.chat_room_id = r.id), 0) + 1) " +
+                   "FROM chat_rooms r WHERE r.id = :roomId " +
+                   "ON CONFLICT (chat_room_id) DO NOTHING",
+           nativeQuery = true)
+    int initialize(@Param("roomId") UUID roomId);
+
+    // 여러 채팅방의 저장된 마지막 메시지 sequence 일괄 조회 (안 읽은 메시지 수 계산용)
+    // 방마다 (chat_room_id, sequence) 인덱스 역순 1건, 메시지가 없는 방은 0
+    @Query(value = "SELECT r.id, COALESCE((SELECT MAX(m.sequence) FROM chat_messages m WHERE m.chat_room_id = r.id), 0) " +
+                   "FROM chat_rooms r WHERE r.id IN (:roomIds)",
+           nativeQuery = true)
+    List<Object[]> findLastMessageSequences(@Param("roomIds") Collection<UUID> roomIds);
+
+    // 채팅방 카운터의 마지막 예약 sequence (없으면 null)
+    @Query("SELECT s.nextValue - 1 FROM ChatRoomSequence s WHERE s.chatRoomId = :roomId")
+    Long findLastReservedSequence(@Param("roomId") UUID roomId);
+}
@@ -0,0 +1,53 @@
+package com.kob_backend_seoin.kob_backend.repository;
+
+import com.kob_backend_seoin.kob_backend.domain.ReadWatermark;
+import com.kob_backend_seoin.kob_backend.domain.ReadWatermarkId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReadWatermarkRepository extends JpaRepository<ReadWatermark, ReadWatermarkId> {
+
+    // 사용자의 여러 채팅방 워터마크를 한 번에 조회 (채팅방 목록 페이지용)
+    @Query("SELECT w FROM ReadWatermark w " +
+           "WHERE w.id.userId = :userId AND w.id.chatRoomId IN :roomIds")
+    List<ReadWatermark> findByUserIdAndChatRoomIds(@Param("userId") UUID userId,
+                                                   @Param("roomIds") Collection<UUID> roomIds);
+
+    // "sequence N까지 읽음" 처리 (단일 UPSERT, 워터마크는 뒤로 가지 않음)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO chat_read_watermarks (chat_room_id, user_id, last_read_sequence, updated_at) " +
+                   "VALUES (:roomId, :userId, :sequence, now()) " +
+                   "ON CONFLICT (chat_room_id, user_id) DO UPDATE " +
+                   "SET last_read_sequence = EXCLUDED.last_read_sequence, updated_at = EXCLUDED.updated_at " +
+                   "WHERE chat_read_watermarks.last_read_sequence < EXCLUDED.last_read_sequence",
+           nativeQuery = true)
+    int advance(@Param("roomId") UUID roomId,
+                @Param("userId") UUID userId,
+                @Param("sequence") long sequence);
+
+    // 기존 message_read_status 데이터로부터 워터마크 생성 (마이그레이션용)
+    // (채팅방, 사용자)별로 읽음 처리된 메시지 중 가장 큰 sequence를 워터마크로 사용
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO chat_read_watermarks (chat_room_id, user_id, last_read_sequence, updated_at) " +
+                   "SELECT m.chat_room_id, mrs.user_id, MAX(m.sequence), MAX(mrs.read_at) " +
+                   "FROM message_read_status mrs " +
+                   "JOIN chat_messages m ON m.id = mrs.message_id " +
+                   "WHERE mrs.status = 'read' " +
+                   "GROUP BY m.chat_room_id, mrs.user_id " +
+                   "ON CONFLICT (chat_room_id, user_id) DO UPDATE " +
+                   "SET last_read_sequence = EXCLUDED.last_read_sequence, updated_at = EXCLUDED.updated_at " +
+                   "WHERE chat_read_watermarks.last_read_sequence < EXCLUDED.last_read_sequence",
+           nativeQuery = true)
+    int backfillFromMessageReadStatus();
+}
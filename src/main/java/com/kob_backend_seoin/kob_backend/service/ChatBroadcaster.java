@@ -0,0 +1,119 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kob_backend_seoin.kob_backend.config.BroadcastFrame;
+import com.kob_backend_seoin.kob_backend.config.WebSocketFanout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.logging.Logger;
+
+/**
+ * WebSocket 메시지 발송 창구
+ *
+ * - 페이로드를 한 번만 JSON으로 직렬화하여 이 노드의 구독자에게 바로 전달합니다.
+ * - chat.cluster.enabled=true 이면 ChatClusterRelay가 같은 프레임을 Redis로 다른 노드에 전파합니다.
+ * - 채팅 코드는 SimpMessagingTemplate 대신 이 서비스를 통해 발송해야 다중 노드에서도 메시지가 전달됩니다.
+ * - 토픽 발송은 STOMP 프레임도 한 번만 만들어(BroadcastFrame) 브로커 메시지 헤더에 싣고, 순수 WebSocket 구독자는
+ *   WebSocketFanout이 이 프레임 바이트를 공유해 씁니다 (구독자마다 프레임 인코딩, 문자열 변환, UTF-8 재인코딩이 반복되지 않음).
+ *   구독자별 전달은 SimpleBroker와 clientOutboundChannel을 그대로 거치므로 /user/queue 프레임과의 세션별 순서가 유지되고,
+ *   SockJS 구독자는 기존처럼 Spring이 세션별로 인코딩합니다.
+ */
+@Service
+public class ChatBroadcaster {
+
+    private static final Logger log = Logger.getLogger(ChatBroadcaster.class.getName());
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<ChatClusterRelay> clusterRelay;
+    private final ObjectProvider<WebSocketFanout> fanout;
+
+    @Autowired
+    public ChatBroadcaster(SimpMessagingTemplate messagingTemplate,
+                           ObjectMapper objectMapper,
+                           ObjectProvider<ChatClusterRelay> clusterRelay,
+                           ObjectProvider<WebSocketFanout> fanout) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.clusterRelay = clusterRelay;
+        this.fanout = fanout;
+    }
+
+    /**
+     * 토픽(/topic/...) 구독자 전체에게 발송
+     */
+    public void sendToTopic(String destination, Object payload) {
+        byte[] body = serialize(payload);
+        deliverToTopic(destination, body);
+
+        ChatClusterRelay relay = clusterRelay.getIfAvailable();
+        if (relay != null) {
+            relay.publishToTopic(destination, body);
+        }
+    }
+
+    /**
+     * 특정 사용자의 모든 세션(/user/{userId}/queue/...)에 발송
+     */
+    public void sendToUser(String userId, String destination, Object payload) {
+        byte[] body = serialize(payload);
+        deliverToUser(userId, destination, body);
+
+        ChatClusterRelay relay = clusterRelay.getIfAvailable();
+        if (relay != null) {
+            relay.publishToUser(userId, destination, body);
+        }
+    }
+
+    /**
+     * 이 노드에 연결된 사용자 세션 하나(/user/{userId}/queue/...)에만 발송 (다른 노드로 전파하지 않음)
+     */
+    public void sendToSession(String userId, String sessionId, String destination, Object payload) {
+        Message<byte[]> message = jsonMessage(serialize(payload));
+        SimpMessageHeaderAccessor.getAccessor(message, SimpMessageHeaderAccessor.class).setSessionId(sessionId);
+        String prefix = messagingTemplate.getUserDestinationPrefix();
+        messagingTemplate.send(prefix + userId + (destination.startsWith("/") ? destination : "/" + destination), message);
+    }
+
+    // 이미 직렬화된 JSON을 이 노드의 토픽 구독자에게 전달
+    void deliverToTopic(String destination, byte[] body) {
+        Message<byte[]> message = jsonMessage(body);
+        WebSocketFanout webSocketFanout = fanout.getIfAvailable();
+        if (webSocketFanout != null && webSocketFanout.isEnabled()) {
+            SimpMessageHeaderAccessor.getAccessor(message, SimpMessageHeaderAccessor.class)
+                    .setHeader(BroadcastFrame.HEADER, BroadcastFrame.of(destination, body));
+        }
+        messagingTemplate.send(destination, message);
+    }
+
+    // 이미 직렬화된 JSON을 이 노드에 연결된 사용자 세션에 전달
+    void deliverToUser(String userId, String destination, byte[] body) {
+        String prefix = messagingTemplate.getUserDestinationPrefix();
+        messagingTemplate.send(prefix + userId + (destination.startsWith("/") ? destination : "/" + destination), jsonMessage(body));
+    }
+
+    private static Message<byte[]> jsonMessage(byte[] body) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(body, accessor.getMessageHeaders());
+    }
+
+    private byte[] serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            log.severe("WebSocket 페이로드 직렬화 실패: " + e.getMessage());
+            throw new IllegalArgumentException("WebSocket 페이로드 직렬화 실패", e);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 다중 노드 WebSocket 메시지 전파 (Redis pub/sub)
+ *
+ * - 토픽 메시지는 {prefix}:topic 채널로 모든 노드에 전파하고, 각 노드는 자기 SimpleBroker 구독자에게 전달합니다.
+ * - 사용자 메시지는 {prefix}:user-sessions:{userId} 해시(세션 ID → 노드 ID)로 사용자가 접속한 노드를 찾아
+ *   해당 노드의 {prefix}:node:{nodeId} 채널로만 보냅니다.
+ * - 각 노드는 하트비트마다 {prefix}:node-alive:{nodeId} 키의 TTL과 자기 세션 사용자의 해시 TTL을 연장합니다.
+ *   비정상 종료된 노드의 세션은 조회 시 살아 있는 노드가 아니면 무시하고 해시에서 지우며,
+ *   그 사용자를 연장하는 노드가 없으면 해시 자체도 node-ttl-seconds 뒤 만료됩니다.
+ * - 발신 노드는 ChatBroadcaster가 이미 로컬로 전달했으므로 자기가 보낸 프레임은 무시합니다.
+ * - 채팅방 메시지 순서를 지키기 위해 수신 프레임은 구독 스레드에서 순서대로 전달합니다.
+ * - 채팅방 참여자 변경은 {prefix}:membership 채널로 전파하여 모든 노드의 참여자 캐시를 무효화합니다.
+ */
+@Service
+@ConditionalOnProperty(name = "chat.cluster.enabled", havingValue = "true")
+public class ChatClusterRelay {
+
+    private static final Logger log = Logger.getLogger(ChatClusterRelay.class.getName());
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final ChatBroadcaster chatBroadcaster;
+    private final ObjectProvider<ChatMembershipService> chatMembershipService;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final String channelPrefix;
+    private final TaskScheduler scheduler;
+    private final Duration heartbeatInterval;
+    private final Duration nodeTtl;
+
+    // 이 노드에 연결된 세션 (세션 ID → 사용자 ID), 종료 시 Redis에서 정리
+    private final Map<String, String> localSessions = new ConcurrentHashMap<>();
+
+    private RedisMessageListenerContainer listenerContainer;
+    private ScheduledFuture<?> heartbeat;
+
+    @Autowired
+    public ChatClusterRelay(StringRedisTemplate redisTemplate,
+                            RedisConnectionFactory connectionFactory,
+                            ChatBroadcaster chatBroadcaster,
+                            ObjectProvider<ChatMembershipService> chatMembershipService,
+                            ObjectMapper objectMapper,
+                            @Value("${chat.cluster.node-id:}") String nodeId,
+                            @Value("${chat.cluster.channel-prefix:chat:cluster}") String channelPrefix,
+                            @Qualifier("wsHeartbeatTaskScheduler") TaskScheduler scheduler,
+                            @Value("${chat.cluster.heartbeat-seconds:10}") long heartbeatSeconds,
+                            @Value("${chat.cluster.node-ttl-seconds:30}") long nodeTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.chatBroadcaster = chatBroadcaster;
+        this.chatMembershipService = chatMembershipService;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.channelPrefix = channelPrefix;
+        this.scheduler = scheduler;
+        this.heartbeatInterval = Duration.ofSeconds(heartbeatSeconds);
+        this.nodeTtl = Duration.ofSeconds(nodeTtlSeconds);
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.setTaskExecutor(new SyncTaskExecutor());
+        listenerContainer.addMessageListener((message, pattern) -> onFrame(message.getBody()),
+                List.of(new ChannelTopic(topicChannel()), new ChannelTopic(nodeChannel(nodeId))));
+        listenerContainer.addMessageListener((message, pattern) -> onMembershipFrame(message.getBody()),
+                new ChannelTopic(membershipChannel()));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        sendHeartbeat();
+        heartbeat = scheduler.scheduleAtFixedRate(this::sendHeartbeat, heartbeatInterval);
+        log.info("클러스터 메시지 전파 시작 - nodeId: " + nodeId);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+
+        // 이 노드의 세션을 사용자별 접속 노드 목록에서 제거
+        localSessions.forEach((sessionId, userId) -> {
+            try {
+                redisTemplate.opsForHash().delete(userSessionsKey(userId), sessionId);
+            } catch (Exception e) {
+                log.warning("세션 정리 실패 - sessionId: " + sessionId + ", " + e.getMessage());
+            }
+        });
+        localSessions.clear();
+        try {
+            redisTemplate.delete(nodeAliveKey(nodeId));
+        } catch (Exception e) {
+            log.warning("노드 하트비트 정리 실패 - nodeId: " + nodeId + ", " + e.getMessage());
+        }
+
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 사용자가 접속한 살아 있는 노드 ID 목록
+     * 하트비트가 끊긴 노드의 세션은 제외하고 해시에서 지웁니다.
+     */
+    public Set<String> findUserNodes(String userId) {
+        String key = userSessionsKey(userId);
+        Map<String, List<Object>> sessionsByNode = new HashMap<>();
+        redisTemplate.opsForHash().entries(key).forEach((sessionId, node) ->
+                sessionsByNode.computeIfAbsent(node.toString(), n -> new ArrayList<>()).add(sessionId));
+
+        Set<String> nodes = new HashSet<>(sessionsByNode.keySet());
+        List<String> others = new ArrayList<>(nodes);
+        others.remove(nodeId);
+        if (others.isEmpty()) {
+            return nodes;
+        }
+
+        List<String> aliveKeys = others.stream().map(this::nodeAliveKey).toList();
+        List<String> alive = redisTemplate.opsForValue().multiGet(aliveKeys);
+        for (int i = 0; i < others.size(); i++) {
+            if (alive == null || alive.get(i) == null) {
+                String deadNode = others.get(i);
+                nodes.remove(deadNode);
+                redisTemplate.opsForHash().delete(key, sessionsByNode.get(deadNode).toArray());
+            }
+        }
+        return nodes;
+    }
+
+    void publishToTopic(String destination, byte[] body) {
+        publish(topicChannel(), new ClusterFrame(nodeId, null, destination, new String(body, StandardCharsets.UTF_8)));
+    }
+
+    void publishToUser(String userId, String destination, byte[] body) {
+        Set<String> nodes;
+        try {
+            nodes = findUserNodes(userId);
+        } catch (Exception e) {
+            log.warning("사용자 접속 노드 조회 실패 - userId: " + userId + ", " + e.getMessage());
+            return;
+        }
+        nodes.remove(nodeId);
+        if (nodes.isEmpty()) {
+            return;
+        }
+
+        ClusterFrame frame = new ClusterFrame(nodeId, userId, destination, new String(body, StandardCharsets.UTF_8));
+        for (String node : nodes) {
+            publish(nodeChannel(node), frame);
+        }
+    }
+
+    /**
+     * 채팅방 참여자 변경을 다른 노드에 전파 (각 노드는 해당 채팅방의 참여자 캐시를 무효화)
+     */
+    public void publishMembershipChanged(UUID roomId) {
+        publish(membershipChannel(), new ClusterFrame(nodeId, null, null, roomId.toString()));
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (user == null || sessionId == null) {
+            return;
+        }
+
+        localSessions.put(sessionId, user.getName());
+        try {
+            String key = userSessionsKey(user.getName());
+            redisTemplate.opsForHash().put(key, sessionId, nodeId);
+            redisTemplate.expire(key, nodeTtl);
+        } catch (Exception e) {
+            log.warning("세션 등록 실패 - sessionId: " + sessionId + ", " + e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        String userId = localSessions.remove(event.getSessionId());
+        if (userId == null) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForHash().delete(userSessionsKey(userId), event.getSessionId());
+        } catch (Exception e) {
+            log.warning("세션 해제 실패 - sessionId: " + event.getSessionId() + ", " + e.getMessage());
+        }
+    }
+
+    // 이 노드가 살아 있음을 기록하고 이 노드에 세션이 있는 사용자의 해시 TTL 연장 (파이프라인 한 번으로 전송)
+    // 연장만 하므로 목록을 읽은 뒤 해제된 세션을 다시 등록하지 않음
+    private void sendHeartbeat() {
+        Set<String> users = new HashSet<>(localSessions.values());
+        String now = String.valueOf(System.currentTimeMillis());
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                redis.setEx(nodeAliveKey(nodeId), nodeTtl.toSeconds(), now);
+                for (String userId : users) {
+                    redis.expire(userSessionsKey(userId), nodeTtl.toSeconds());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warning("클러스터 노드 하트비트 실패 - nodeId: " + nodeId + ", " + e.getMessage());
+        }
+    }
+
+    private void publish(String channel, ClusterFrame frame) {
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(frame));
+        } catch (Exception e) {
+            // 전파 실패는 로컬 전달에 영향을 주지 않음 (다른 노드 클라이언트는 재연결 동기화로 복구)
+            log.warning("클러스터 메시지 전파 실패 - channel: " + channel + ", " + e.getMessage());
+        }
+    }
+
+    private void onFrame(byte[] raw) {
+        try {
+            ClusterFrame frame = objectMapper.readValue(raw, ClusterFrame.class);
+            if (nodeId.equals(frame.getOrigin())) {
+                return;
+            }
+
+            byte[] body = frame.getBody().getBytes(StandardCharsets.UTF_8);
+            if (frame.getUserId() == null) {
+                chatBroadcaster.deliverToTopic(frame.getDestination(), body);
+            } else {
+                chatBroadcaster.deliverToUser(frame.getUserId(), frame.getDestination(), body);
+            }
+        } catch (Exception e) {
+            log.log(Level.WARNING, "클러스터 메시지 처리 실패: " + e.getMessage(), e);
+        }
+    }
+
+    private void onMembershipFrame(byte[] raw) {
+        try {
+            ClusterFrame frame = objectMapper.readValue(raw, ClusterFrame.class);
+            if (nodeId.equals(frame.getOrigin())) {
+                return;
+            }
+
+            ChatMembershipService membershipService = chatMembershipService.getIfAvailable();
+            if (membershipService != null) {
+                membershipService.invalidate(UUID.fromString(frame.getBody()));
+            }
+        } catch (Exception e) {
+            log.log(Level.WARNING, "참여자 변경 전파 처리 실패: " + e.getMessage(), e);
+        }
+    }
+
+    private String topicChannel() {
+        return channelPrefix + ":topic";
+    }
+
+    private String membershipChannel() {
+        return channelPrefix + ":membership";
+    }
+
+    private String nodeChannel(String node) {
+        return channelPrefix + ":node:" + node;
+    }
+
+    private String nodeAliveKey(String node) {
+        return channelPrefix + ":node-alive:" + node;
+    }
+
+    private String userSessionsKey(String userId) {
+        return channelPrefix + ":user-sessions:" + userId;
+    }
+
+    /**
+     * 노드 간 전파 프레임 (body는 직렬화된 JSON 페이로드)
+     */
+    public static class ClusterFrame {
+        private String origin;
+        private String userId;
+        private String destination;
+        private String body;
+
+        public ClusterFrame() {
+        }
+
+        public ClusterFrame(String origin, String userId, String destination, String body) {
+            this.origin = origin;
+            this.userId = userId;
+            this.destination = destination;
+            this.body = body;
+        }
+
+        public String getOrigin() {
+            return origin;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public String getDestination() {
+            return destination;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public void setOrigin(String origin) {
+            this.origin = origin;
+        }
+
+        public void setUserId(String userId) {
+            this.userId = userId;
+        }
+
+        public void setDestination(String destination) {
+            this.destination = destination;
+        }
+
+        public void setBody(String body) {
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kob_backend_seoin.kob_backend.repository.ChatRoomRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Logger;
+
+/**
+ * 채팅방 참여 여부 확인 서비스
+ *
+ * - 채팅방별 참여자 ID 집합을 크기 제한이 있는 로컬 캐시에 보관하여 "사용자 U가 채팅방 R에 참여 중인가"를 O(1)로 응답합니다.
+ * - 참여자가 바뀌면 membershipChanged()로 이벤트를 발행하고, 트랜잭션 커밋 후 해당 채팅방 항목을 무효화합니다.
+ * - chat.cluster.enabled=true 이면 무효화를 ChatClusterRelay로 다른 노드에도 전파합니다.
+ *   전파가 유실될 수 있으므로 이때는 보관 시간을 cluster-ttl-seconds 이하로 줄여 그 안에는 반드시 다시 조회합니다.
+ * - DB 조회는 캐시 잠금(ConcurrentHashMap 버킷의 synchronized) 밖에서 하므로 가상 스레드가 조회 중 캐리어 스레드를 점유하지 않습니다.
+ */
+@Service
+public class ChatMembershipService {
+
+    private static final Logger log = Logger.getLogger(ChatMembershipService.class.getName());
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<ChatClusterRelay> clusterRelay;
+    private final AsyncCache<UUID, Set<UUID>> participantsByRoom;
+
+    @Autowired
+    public ChatMembershipService(ChatRoomRepository chatRoomRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectProvider<ChatClusterRelay> clusterRelay,
+                                 @Value("${chat.membership.cache.max-rooms:10000}") long maxRooms,
+                                 @Value("${chat.membership.cache.ttl-seconds:600}") long ttlSeconds,
+                                 @Value("${chat.membership.cache.cluster-ttl-seconds:30}") long clusterTtlSeconds,
+                                 @Value("${chat.cluster.enabled:false}") boolean clusterEnabled) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.eventPublisher = eventPublisher;
+        this.clusterRelay = clusterRelay;
+        this.participantsByRoom = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterWrite(Duration.ofSeconds(clusterEnabled ? Math.min(ttlSeconds, clusterTtlSeconds) : ttlSeconds))
+                .buildAsync();
+    }
+
+    /**
+     * 사용자가 채팅방에 참여하고 있는지 확인 (캐시 미스일 때만 DB 조회)
+     */
+    public boolean isParticipant(UUID roomId, UUID userId) {
+        if (roomId == null || userId == null) {
+            return false;
+        }
+
+        CompletableFuture<Set<UUID>> participants = participantsByRoom.getIfPresent(roomId);
+        if (participants == null) {
+            // 빈 future를 먼저 등록하고 등록한 스레드만 조회 (동시 요청은 같은 결과를 기다림)
+            CompletableFuture<Set<UUID>> loading = new CompletableFuture<>();
+            participants = participantsByRoom.asMap().putIfAbsent(roomId, loading);
+            if (participants == null) {
+                participants = loading;
+                try {
+                    loading.complete(loadParticipants(roomId));
+                } catch (RuntimeException e) {
+                    // 실패한 future는 캐시에서 자동으로 제거됨
+                    loading.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+
+        try {
+            return participants.join().contains(userId);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 채팅방 참여자가 바뀌었음을 알림 (트랜잭션 안이면 커밋 후, 밖이면 즉시 캐시 무효화)
+     */
+    public void membershipChanged(UUID roomId) {
+        if (roomId != null) {
+            eventPublisher.publishEvent(new MembershipChangedEvent(roomId));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        invalidate(event.getRoomId());
+
+        // 다른 노드의 캐시도 무효화 (커밋 후 전파하므로 다른 노드는 새 참여자 목록을 조회)
+        ChatClusterRelay relay = clusterRelay.getIfAvailable();
+        if (relay != null) {
+            relay.publishMembershipChanged(event.getRoomId());
+        }
+    }
+
+    /**
+     * 이 노드의 채팅방 참여자 캐시 무효화 (다른 노드에서 전파된 변경에도 사용)
+     */
+    public void invalidate(UUID roomId) {
+        participantsByRoom.synchronous().invalidate(roomId);
+        log.fine("채팅방 참여자 캐시 무효화 - roomId: " + roomId);
+    }
+
+    private Set<UUID> loadParticipants(UUID roomId) {
+        return Set.copyOf(chatRoomRepository.findParticipantIdsByChatRoomId(roomId));
+    }
+
+    /**
+     * 채팅방 참여자 변경 이벤트
+     */
+    public static class MembershipChangedEvent {
+        private final UUID roomId;
+
+        public MembershipChangedEvent(UUID roomId) {
+            this.roomId = roomId;
+        }
+
+        public UUID getRoomId() {
+            return roomId;
+        }
+    }
+}
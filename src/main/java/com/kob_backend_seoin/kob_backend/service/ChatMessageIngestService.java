@@ -0,0 +1,391 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import com.kob_backend_seoin.kob_backend.dto.Chat.WsEnvelope;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * WebSocket 채팅 메시지 write-behind 저장 파이프라인
+ *
+ * - 메시지는 sequence 발행 후 큐에 적재되고 곧바로 브로드캐스트됩니다. (수신증명 "accepted")
+ * - 백그라운드 스레드가 batch-size 건 또는 flush-interval-ms 마다 JDBC 배치 INSERT로 저장합니다.
+ * - 저장이 끝나면 /queue/receipts 로 "ok", 실패하면 "error" 수신증명을 보냅니다.
+ * - 같은 clientMessageId가 이미 저장되어 있으면 유니크 제약으로 건너뛰고 기존 메시지 ID로 "duplicate"를 보냅니다.
+ * - 큐가 가득 차면 offer-timeout-ms 동안 대기 후 거절하여 발신자에게 재시도를 요청합니다.
+ * - 같은 clientMessageId의 재전송은 검증 단계에서 reserve로 자리를 먼저 차지한 메시지만 저장하고,
+ *   나머지는 먼저 차지한 메시지의 중복으로 처리합니다 (저장 전 재전송이 두 번 저장/브로드캐스트되지 않음).
+ */
+@Service
+public class ChatMessageIngestService {
+
+    private static final Logger log = Logger.getLogger(ChatMessageIngestService.class.getName());
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_messages (id, content, sender_id, chat_room_id, sent_at, sequence, client_message_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (chat_room_id, client_message_id) DO NOTHING";
+
+    private static final String SELECT_EXISTING_ID_SQL =
+            "SELECT id FROM chat_messages WHERE chat_room_id = ? AND client_message_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChatBroadcaster chatBroadcaster;
+    private final ReadWatermarkService readWatermarkService;
+
+    @Value("${chat.ingest.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.ingest.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.ingest.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${chat.ingest.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.ingest.write-behind.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    private BlockingQueue<PendingMessage> queue;
+
+    // 저장 대기 중인 메시지 자리 (채팅방:clientMessageId → 자리), 저장 전 재전송의 중복 판단용
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    @Autowired
+    public ChatMessageIngestService(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    ChatBroadcaster chatBroadcaster,
+                                    ReadWatermarkService readWatermarkService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chatBroadcaster = chatBroadcaster;
+        this.readWatermarkService = readWatermarkService;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "chat-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("채팅 메시지 write-behind 파이프라인 시작 (batch-size=" + batchSize
+                + ", flush-interval-ms=" + flushIntervalMs + ", queue-capacity=" + queueCapacity + ")");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+
+        // 진행 중인 배치 저장이 끊기지 않도록 interrupt 없이 현재 대기(poll) 종료를 기다림
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 종료 시 남은 메시지 저장
+        List<PendingMessage> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        while (!remaining.isEmpty()) {
+            List<PendingMessage> batch = new ArrayList<>(remaining.subList(0, Math.min(batchSize, remaining.size())));
+            remaining.subList(0, batch.size()).clear();
+            flush(batch);
+        }
+        log.info("채팅 메시지 write-behind 파이프라인 종료");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * clientMessageId 자리를 원자적으로 차지 (putIfAbsent)
+     * @return 이미 같은 clientMessageId를 처리 중인 자리 (없으면 null, 이 호출이 자리를 차지함)
+     */
+    public InFlight reserve(UUID chatRoomId, String clientMessageId, InFlight placeholder) {
+        String key = inFlightKey(chatRoomId, clientMessageId);
+        return key != null ? inFlight.putIfAbsent(key, placeholder) : null;
+    }
+
+    /**
+     * 적재 전에 실패한 메시지의 자리 반환 (뒤따르는 재전송이 새로 처리될 수 있도록)
+     */
+    public void release(UUID chatRoomId, String clientMessageId, InFlight placeholder) {
+        String key = inFlightKey(chatRoomId, clientMessageId);
+        if (key != null) {
+            inFlight.remove(key, placeholder);
+        }
+    }
+
+    /**
+     * 메시지를 저장 큐에 적재 (큐가 가득 차면 offer-timeout-ms 동안 대기)
+     * reserve로 차지한 자리가 있으면 메시지를 채우고, 적재에 실패하면 자리를 반환합니다.
+     * @return 적재 성공 여부 (false면 발신자에게 재시도를 요청해야 함)
+     */
+    public boolean enqueue(PendingMessage message, InFlight placeholder) {
+        if (placeholder != null) {
+            placeholder.message = message;
+        }
+
+        try {
+            if (queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (placeholder != null) {
+            placeholder.message = null;
+            release(message.getChatRoomId(), message.getClientMessageId(), placeholder);
+        }
+        log.warning("저장 큐 포화로 메시지 거절 - roomId: " + message.getChatRoomId());
+        return false;
+    }
+
+    private void runFlushLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                // 첫 메시지를 기다린 뒤 batch-size 또는 flush-interval-ms 중 먼저 도달할 때까지 모음
+                PendingMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        break;
+                    }
+                    PendingMessage next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        List<PendingMessage> saved = new ArrayList<>(batch.size());
+        List<PendingMessage> duplicates = new ArrayList<>();
+        List<PendingMessage> failed = new ArrayList<>();
+
+        try {
+            int[] counts = transactionTemplate.execute(status -> insertBatch(batch));
+            classify(batch, counts, saved, duplicates);
+        } catch (Exception e) {
+            // 배치 실패 시 한 건씩 저장하여 실패한 메시지만 골라냄
+            log.log(Level.WARNING, "메시지 배치 저장 실패, 개별 저장으로 재시도: " + e.getMessage());
+            for (PendingMessage message : batch) {
+                try {
+                    int[] counts = transactionTemplate.execute(status -> insertBatch(List.of(message)));
+                    classify(List.of(message), counts, saved, duplicates);
+                } catch (Exception ex) {
+                    log.warning("메시지 저장 실패 - id: " + message.getId() + ", " + ex.getMessage());
+                    failed.add(message);
+                }
+            }
+        }
+
+        advanceSenderWatermarks(saved);
+
+        for (PendingMessage message : saved) {
+            complete(message, "ok", message.getId());
+        }
+        for (PendingMessage message : duplicates) {
+            // 다른 노드나 이전 연결에서 이미 저장된 메시지 → 기존 메시지 ID로 수신증명
+            complete(message, "duplicate", findExistingId(message));
+        }
+        for (PendingMessage message : failed) {
+            complete(message, "error", message.getId());
+        }
+    }
+
+    // 영향받은 행 수가 0이면 (chat_room_id, client_message_id) 유니크 제약에 걸린 중복 메시지
+    private static void classify(List<PendingMessage> batch, int[] counts,
+                                 List<PendingMessage> saved, List<PendingMessage> duplicates) {
+        for (int i = 0; i < batch.size(); i++) {
+            if (counts != null && i < counts.length && counts[i] == 0) {
+                duplicates.add(batch.get(i));
+            } else {
+                saved.add(batch.get(i));
+            }
+        }
+    }
+
+    private int[] insertBatch(List<PendingMessage> batch) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, message) -> {
+            ps.setObject(1, message.getId());
+            ps.setString(2, message.getContent());
+            ps.setObject(3, message.getSenderId());
+            ps.setObject(4, message.getChatRoomId());
+            ps.setTimestamp(5, Timestamp.valueOf(message.getSentAt()));
+            ps.setLong(6, message.getSequence());
+            ps.setString(7, message.getClientMessageId());
+        });
+        return counts.length > 0 ? counts[0] : new int[0];
+    }
+
+    private UUID findExistingId(PendingMessage message) {
+        try {
+            List<UUID> ids = jdbcTemplate.queryForList(SELECT_EXISTING_ID_SQL, UUID.class,
+                    message.getChatRoomId(), message.getClientMessageId());
+            return ids.isEmpty() ? message.getId() : ids.get(0);
+        } catch (Exception e) {
+            log.warning("중복 메시지 ID 조회 실패: " + e.getMessage());
+            return message.getId();
+        }
+    }
+
+    // 보낸 사람은 자신의 메시지까지 읽은 것으로 처리 ((채팅방, 발신자)별 최대 sequence로 1회씩)
+    private void advanceSenderWatermarks(List<PendingMessage> saved) {
+        Map<List<UUID>, Long> maxSequences = new HashMap<>();
+        for (PendingMessage message : saved) {
+            maxSequences.merge(List.of(message.getChatRoomId(), message.getSenderId()), message.getSequence(), Math::max);
+        }
+        maxSequences.forEach((key, sequence) -> {
+            try {
+                readWatermarkService.markReadUpTo(key.get(0), key.get(1), sequence);
+            } catch (Exception e) {
+                log.warning("발신자 읽음 워터마크 갱신 실패: " + e.getMessage());
+            }
+        });
+    }
+
+    private void complete(PendingMessage message, String status, UUID messageId) {
+        String key = inFlightKey(message.getChatRoomId(), message.getClientMessageId());
+        if (key != null) {
+            inFlight.computeIfPresent(key, (k, placeholder) -> placeholder.message == message ? null : placeholder);
+        }
+
+        try {
+            WsEnvelope<WsEnvelope.ReceiptPayload> receipt = new WsEnvelope<>(
+                    "chat.receipt",
+                    WsEnvelope.newMessageId(),
+                    System.currentTimeMillis(),
+                    new WsEnvelope.ReceiptPayload(message.getClientMessageId(), status, messageId.toString())
+            );
+            chatBroadcaster.sendToUser(message.getSenderId().toString(), "/queue/receipts", receipt);
+        } catch (Exception e) {
+            log.warning("수신증명 전송 실패: " + e.getMessage());
+        }
+    }
+
+    private static String inFlightKey(UUID chatRoomId, String clientMessageId) {
+        if (clientMessageId == null || clientMessageId.trim().isEmpty()) {
+            return null;
+        }
+        return chatRoomId + ":" + clientMessageId;
+    }
+
+    /**
+     * clientMessageId별 처리 중 자리 (검증 단계에서 차지, 적재 시 메시지를 채우고 저장이 끝나면 제거)
+     */
+    public static class InFlight {
+        private volatile PendingMessage message;
+
+        // 아직 적재되지 않았거나 적재에 실패했으면 null
+        public PendingMessage getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * 저장 대기 중인 메시지 (id는 적재 시점에 미리 발급)
+     */
+    public static class PendingMessage {
+        private final UUID id;
+        private final UUID chatRoomId;
+        private final UUID senderId;
+        private final String content;
+        private final LocalDateTime sentAt;
+        private final long sequence;
+        private final String clientMessageId;
+
+        public PendingMessage(UUID chatRoomId, UUID senderId, String content, long sequence, String clientMessageId) {
+            this.id = UUID.randomUUID();
+            this.chatRoomId = chatRoomId;
+            this.senderId = senderId;
+            this.content = content;
+            this.sentAt = LocalDateTime.now();
+            this.sequence = sequence;
+            this.clientMessageId = clientMessageId;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public UUID getChatRoomId() {
+            return chatRoomId;
+        }
+
+        public UUID getSenderId() {
+            return senderId;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public LocalDateTime getSentAt() {
+            return sentAt;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public String getClientMessageId() {
+            return clientMessageId;
+        }
+    }
+}
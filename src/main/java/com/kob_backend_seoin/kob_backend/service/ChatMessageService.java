@@ -3,12 +3,14 @@ package com.kob_backend_seoin.kob_backend.service;
 import com.kob_backend_seoin.kob_backend.domain.ChatMessage;
 import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
 import com.kob_backend_seoin.kob_backend.domain.User;
+import com.kob_backend_seoin.kob_backend.exception.ChatErrorCode;
+import com.kob_backend_seoin.kob_backend.exception.ChatException;
 import com.kob_backend_seoin.kob_backend.repository.ChatMessageRepository;
-import com.kob_backend_seoin.kob_backend.repository.ChatRoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.UUID;
 import java.util.logging.Logger;
 
 @Service
@@ -17,16 +19,22 @@ public class ChatMessageService {
     private static final Logger log = Logger.getLogger(ChatMessageService.class.getName());
 
     private final ChatMessageRepository chatMessageRepository;
-    private final ChatRoomRepository chatRoomRepository;
+    private final ReadWatermarkService readWatermarkService;
 
     @Autowired
-    public ChatMessageService(ChatMessageRepository chatMessageRepository, ChatRoomRepository chatRoomRepository) {
+    public ChatMessageService(ChatMessageRepository chatMessageRepository,
+                              ReadWatermarkService readWatermarkService) {
         this.chatMessageRepository = chatMessageRepository;
-        this.chatRoomRepository = chatRoomRepository;
+        this.readWatermarkService = readWatermarkService;
     }
 
+    /**
+     * 메시지 저장
+     * clientMessageId가 있으면 유니크 제약 기반 INSERT ... ON CONFLICT DO NOTHING 한 문장으로 저장하고,
+     * 이미 저장된 메시지가 있으면 기존 메시지를 조회하여 중복으로 반환합니다.
+     */
     @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
-    public ChatMessage saveMessage(String content, User sender, ChatRoom chatRoom, long sequence, String clientMessageId) {
+    public SaveResult saveMessage(String content, User sender, ChatRoom chatRoom, long sequence, String clientMessageId) {
         log.info("=== ChatMessageService: 메시지 저장 시작 ===");
 
         // 메시지 생성
@@ -40,18 +48,62 @@ public class ChatMessageService {
         log.info("Sequence: " + message.getSequence());
         log.info("ClientMessageId: " + message.getClientMessageId());
 
-        // 메시지 저장 (즉시 데이터베이스에 반영)
-        ChatMessage savedMessage = chatMessageRepository.saveAndFlush(message);
+        ChatMessage savedMessage;
+        if (clientMessageId == null || clientMessageId.trim().isEmpty()) {
+            // 메시지 저장 (sequence는 ChatSequenceAllocator가 발행하므로 채팅방 행은 갱신하지 않음)
+            savedMessage = chatMessageRepository.save(message);
+        } else {
+            UUID insertedId = chatMessageRepository.insertIfAbsent(
+                    UUID.randomUUID(),
+                    chatRoom.getId(),
+                    sender.getId(),
+                    content,
+                    message.getSentAt(),
+                    sequence,
+                    clientMessageId
+            );
 
-        // ChatRoom의 nextSequence 업데이트 (중요!)
-        chatRoom.setNextSequence(sequence + 1);
-        chatRoomRepository.saveAndFlush(chatRoom);
+            if (insertedId == null) {
+                // 같은 clientMessageId로 이미 저장된 메시지 (재전송)
+                ChatMessage existing = chatMessageRepository
+                        .findWithSenderByChatRoomIdAndClientMessageId(chatRoom.getId(), clientMessageId)
+                        .orElseThrow(() -> new ChatException(ChatErrorCode.MESSAGE_SEND_FAILED, "중복 메시지를 찾을 수 없습니다"));
+                log.info("중복 메시지 감지 - clientMessageId: " + clientMessageId + ", 기존 메시지 ID: " + existing.getId());
+                return new SaveResult(existing, true);
+            }
+
+            message.setId(insertedId);
+            savedMessage = message;
+        }
+
+        // 보낸 사람은 자신의 메시지까지 읽은 것으로 처리
+        readWatermarkService.markReadUpTo(chatRoom.getId(), sender.getId(), sequence);
 
         log.info("=== ChatMessageService: 메시지 저장 완료 ===");
         log.info("Saved Message ID: " + savedMessage.getId());
         log.info("Saved Message SentAt: " + savedMessage.getSentAt());
-        log.info("ChatRoom nextSequence updated to: " + chatRoom.getNextSequence());
 
-        return savedMessage;
+        return new SaveResult(savedMessage, false);
+    }
+
+    /**
+     * 메시지 저장 결과 (duplicate면 기존에 저장된 메시지)
+     */
+    public static class SaveResult {
+        private final ChatMessage message;
+        private final boolean duplicate;
+
+        public SaveResult(ChatMessage message, boolean duplicate) {
+            this.message = message;
+            this.duplicate = duplicate;
+        }
+
+        public ChatMessage getMessage() {
+            return message;
+        }
+
+        public boolean isDuplicate() {
+            return duplicate;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,111 +1,120 @@
 package com.kob_backend_seoin.kob_backend.service;
 
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * 전송 제한 (사용자별 / 채팅방별 / IP별 토큰 버킷)
+ *
+ * - 사용자, IP 제한은 STOMP inbound 인터셉터에서 메시지 전송(/app/send-message) SEND 프레임마다 확인하여 DB 작업 전에 거절합니다.
+ * - 채팅방 제한은 메시지 본문의 채팅방 ID가 필요하므로 전송 파이프라인 접수(ChatSendPipeline.submit)에서 확인합니다.
+ * - 버킷은 정책별 ExpiringKeyStore에 저장하고, 버킷이 다시 가득 차면 타이머 휠에서 제거합니다.
+ *   가득 찬 버킷은 새 버킷과 같으므로 제한 결과는 달라지지 않고, 전체 버킷을 주기적으로 훑지 않습니다.
+ * - 정책별 버킷 수는 max-keys를 넘지 않습니다. 넘으면 가장 먼저 다시 가득 찰 버킷부터 제거되며, 제거된 키는 새 버킷으로 다시 시작합니다.
+ * - 허용 경로에서는 로그를 남기지 않고 거절 수만 집계합니다.
+ * - chat.rate-limit.distributed.enabled이면 로컬 버킷을 통과한 요청만 DistributedRateLimiter로 클러스터 전체 한도를 확인합니다.
+ */
 @Component
 public class ChatRateLimiter {
 
     private static final Logger log = Logger.getLogger(ChatRateLimiter.class.getName());
 
-    // 간단한 Rate Limiter 구현을 위한 내부 클래스
-    private static class SimpleRateLimiter {
-        private final double permitsPerSecond;
-        private volatile long lastPermitTime;
-        private volatile double availablePermits;
+    private static final long DEFAULT_MAX_KEYS = 100_000;
 
-        public SimpleRateLimiter(double permitsPerSecond) {
-            this.permitsPerSecond = permitsPerSecond;
-            this.availablePermits = permitsPerSecond;
-            this.lastPermitTime = System.currentTimeMillis();
-        }
-
-        public synchronized boolean tryAcquire() {
-            long currentTime = System.currentTimeMillis();
-            double timeDiff = (currentTime - lastPermitTime) / 1000.0;
+    private final Limiter userLimiter;
+    private final Limiter roomLimiter;
+    private final Limiter ipLimiter;
 
-            // 시간이 지나면서 누적된 허용량 추가
-            availablePermits = Math.min(permitsPerSecond, availablePermits + timeDiff * permitsPerSecond);
-            lastPermitTime = currentTime;
+    // 다중 노드 전송 제한 (로컬 전용이면 null)
+    private final DistributedRateLimiter distributedRateLimiter;
 
-            if (availablePermits >= 1.0) {
-                availablePermits -= 1.0;
-                return true;
-            }
-            return false;
-        }
+    public ChatRateLimiter() {
+        this(new RateLimitPolicy("user", 10, 20),
+                new RateLimitPolicy("room", 50, 100),
+                new RateLimitPolicy("ip", 30, 60));
     }
 
-    // 사용자별 Rate Limiter 저장
-    private final ConcurrentHashMap<UUID, SimpleRateLimiter> userLimiters = new ConcurrentHashMap<>();
-
-    // 정리 작업을 위한 스케줄러
-    private final ScheduledExecutorService cleanupScheduler = Executors.newSingleThreadScheduledExecutor();
+    @Autowired
+    public ChatRateLimiter(@Value("${chat.rate-limit.user.permits-per-second:10}") double userPermitsPerSecond,
+                           @Value("${chat.rate-limit.user.burst:20}") int userBurst,
+                           @Value("${chat.rate-limit.room.permits-per-second:50}") double roomPermitsPerSecond,
+                           @Value("${chat.rate-limit.room.burst:100}") int roomBurst,
+                           @Value("${chat.rate-limit.ip.permits-per-second:30}") double ipPermitsPerSecond,
+                           @Value("${chat.rate-limit.ip.burst:60}") int ipBurst,
+                           @Value("${chat.rate-limit.max-keys:100000}") long maxKeys,
+                           ObjectProvider<DistributedRateLimiter> distributedRateLimiter) {
+        this(new RateLimitPolicy("user", userPermitsPerSecond, userBurst),
+                new RateLimitPolicy("room", roomPermitsPerSecond, roomBurst),
+                new RateLimitPolicy("ip", ipPermitsPerSecond, ipBurst),
+                maxKeys,
+                distributedRateLimiter.getIfAvailable());
+    }
 
-    // 설정값들
-    private static final double MESSAGES_PER_SECOND = 10.0; // 초당 10개 메시지
-    private static final long CLEANUP_INTERVAL_MINUTES = 30; // 30분마다 정리
-    private static final long LIMITER_EXPIRE_MINUTES = 60; // 1시간 사용하지 않으면 제거
+    public ChatRateLimiter(RateLimitPolicy userPolicy, RateLimitPolicy roomPolicy, RateLimitPolicy ipPolicy) {
+        this(userPolicy, roomPolicy, ipPolicy, DEFAULT_MAX_KEYS, null);
+    }
 
-    // 마지막 사용 시간 추적
-    private final ConcurrentHashMap<UUID, Long> lastUsedTime = new ConcurrentHashMap<>();
+    public ChatRateLimiter(RateLimitPolicy userPolicy, RateLimitPolicy roomPolicy, RateLimitPolicy ipPolicy,
+                           DistributedRateLimiter distributedRateLimiter) {
+        this(userPolicy, roomPolicy, ipPolicy, DEFAULT_MAX_KEYS, distributedRateLimiter);
+    }
 
-    public ChatRateLimiter() {
-        // 주기적으로 사용하지 않는 Rate Limiter 정리
-        cleanupScheduler.scheduleAtFixedRate(
-                this::cleanupUnusedLimiters,
-                CLEANUP_INTERVAL_MINUTES,
-                CLEANUP_INTERVAL_MINUTES,
-                TimeUnit.MINUTES
-        );
+    public ChatRateLimiter(RateLimitPolicy userPolicy, RateLimitPolicy roomPolicy, RateLimitPolicy ipPolicy,
+                           long maxKeys, DistributedRateLimiter distributedRateLimiter) {
+        this.distributedRateLimiter = distributedRateLimiter;
+        this.userLimiter = new Limiter(userPolicy, maxKeys, distributedRateLimiter);
+        this.roomLimiter = new Limiter(roomPolicy, maxKeys, distributedRateLimiter);
+        this.ipLimiter = new Limiter(ipPolicy, maxKeys, distributedRateLimiter);
+        if (distributedRateLimiter != null) {
+            log.info("분산 전송 제한 활성화 (Redis)");
+        }
     }
 
     /**
-     * 사용자가 메시지를 전송할 수 있는지 확인
+     * 사용자가 메시지(SEND 프레임)를 전송할 수 있는지 확인
      */
     public boolean allowMessage(UUID userId) {
         if (userId == null) {
             return false;
         }
+        return userLimiter.tryAcquire(userId);
+    }
 
-        SimpleRateLimiter limiter = userLimiters.computeIfAbsent(userId,
-            k -> {
-                log.info("새로운 Rate Limiter 생성: 사용자 " + userId);
-                return new SimpleRateLimiter(MESSAGES_PER_SECOND);
-            });
-
-        // 마지막 사용 시간 업데이트
-        lastUsedTime.put(userId, System.currentTimeMillis());
-
-        boolean allowed = limiter.tryAcquire();
-
-        if (!allowed) {
-            log.warning("Rate Limit 초과: 사용자 " + userId + " (초당 " + MESSAGES_PER_SECOND + "개 제한)");
-        }
+    /**
+     * 채팅방에 메시지를 더 받을 수 있는지 확인
+     */
+    public boolean allowRoomMessage(UUID roomId) {
+        return roomId != null && roomLimiter.tryAcquire(roomId);
+    }
 
-        return allowed;
+    /**
+     * 같은 IP에서 보낸 프레임을 더 받을 수 있는지 확인 (IP를 알 수 없으면 허용)
+     */
+    public boolean allowIp(String clientIp) {
+        return clientIp == null || ipLimiter.tryAcquire(clientIp);
     }
 
     /**
      * 특정 사용자의 Rate Limit 정보 조회
      */
     public double getAvailablePermits(UUID userId) {
-        SimpleRateLimiter limiter = userLimiters.get(userId);
-        return limiter != null ? limiter.availablePermits : 0.0;
+        TokenBucket bucket = userLimiter.buckets.get(userId);
+        return bucket != null ? bucket.getAvailableTokens() : userLimiter.policy.getBurst();
     }
 
     /**
      * 사용자의 Rate Limiter 초기화 (관리자 기능)
      */
     public void resetUserLimit(UUID userId) {
-        userLimiters.remove(userId);
-        lastUsedTime.remove(userId);
+        userLimiter.buckets.remove(userId);
         log.info("사용자 " + userId + "의 Rate Limit 초기화");
     }
 
@@ -113,43 +122,18 @@ public class ChatRateLimiter {
      * 모든 Rate Limiter 초기화 (관리자 기능)
      */
     public void resetAllLimits() {
-        int removedCount = userLimiters.size();
-        userLimiters.clear();
-        lastUsedTime.clear();
+        int removedCount = getActiveLimitersCount();
+        userLimiter.buckets.clear();
+        roomLimiter.buckets.clear();
+        ipLimiter.buckets.clear();
         log.info("모든 Rate Limiter 초기화: " + removedCount + "개 제거");
     }
 
     /**
-     * 현재 활성 사용자 수 조회
+     * 현재 활성 버킷 수 조회 (만료된 버킷을 먼저 정리하여 정확한 수를 반환)
      */
     public int getActiveLimitersCount() {
-        return userLimiters.size();
-    }
-
-    /**
-     * 사용하지 않는 Rate Limiter 정리
-     */
-    private void cleanupUnusedLimiters() {
-        long currentTime = System.currentTimeMillis();
-        long expireThreshold = LIMITER_EXPIRE_MINUTES * 60 * 1000; // 분을 밀리초로 변환
-
-        int removedCount = 0;
-
-        // 만료된 항목들 찾기
-        for (var entry : lastUsedTime.entrySet()) {
-            UUID userId = entry.getKey();
-            long lastUsed = entry.getValue();
-
-            if (currentTime - lastUsed > expireThreshold) {
-                userLimiters.remove(userId);
-                lastUsedTime.remove(userId);
-                removedCount++;
-            }
-        }
-
-        if (removedCount > 0) {
-            log.info("사용하지 않는 Rate Limiter " + removedCount + "개 정리 완료");
-        }
+        return userLimiter.buckets.size() + roomLimiter.buckets.size() + ipLimiter.buckets.size();
     }
 
     /**
@@ -157,9 +141,13 @@ public class ChatRateLimiter {
      */
     public RateLimiterInfo getLimiterInfo() {
         return new RateLimiterInfo(
-                MESSAGES_PER_SECOND,
+                userLimiter.policy.getPermitsPerSecond(),
+                userLimiter.policy.getBurst(),
+                roomLimiter.policy.getPermitsPerSecond(),
+                ipLimiter.policy.getPermitsPerSecond(),
                 getActiveLimitersCount(),
-                LIMITER_EXPIRE_MINUTES
+                userLimiter.rejected.sum() + roomLimiter.rejected.sum() + ipLimiter.rejected.sum(),
+                distributedRateLimiter != null ? distributedRateLimiter.getStats() : null
         );
     }
 
@@ -168,32 +156,68 @@ public class ChatRateLimiter {
      */
     public static class RateLimiterInfo {
         private final double messagesPerSecond;
+        private final int burst;
+        private final double roomMessagesPerSecond;
+        private final double ipMessagesPerSecond;
         private final int activeLimiters;
-        private final long expireMinutes;
+        private final long rejectedCount;
+        private final DistributedRateLimiter.Stats distributed;
 
-        public RateLimiterInfo(double messagesPerSecond, int activeLimiters, long expireMinutes) {
+        public RateLimiterInfo(double messagesPerSecond, int burst, double roomMessagesPerSecond,
+                               double ipMessagesPerSecond, int activeLimiters, long rejectedCount,
+                               DistributedRateLimiter.Stats distributed) {
             this.messagesPerSecond = messagesPerSecond;
+            this.burst = burst;
+            this.roomMessagesPerSecond = roomMessagesPerSecond;
+            this.ipMessagesPerSecond = ipMessagesPerSecond;
             this.activeLimiters = activeLimiters;
-            this.expireMinutes = expireMinutes;
+            this.rejectedCount = rejectedCount;
+            this.distributed = distributed;
         }
 
         public double getMessagesPerSecond() { return messagesPerSecond; }
+        public int getBurst() { return burst; }
+        public double getRoomMessagesPerSecond() { return roomMessagesPerSecond; }
+        public double getIpMessagesPerSecond() { return ipMessagesPerSecond; }
         public int getActiveLimiters() { return activeLimiters; }
-        public long getExpireMinutes() { return expireMinutes; }
+        public long getRejectedCount() { return rejectedCount; }
+        public DistributedRateLimiter.Stats getDistributed() { return distributed; }
     }
 
     /**
-     * 애플리케이션 종료 시 스케줄러 정리
+     * 애플리케이션 종료 시 버킷 정리 (정리 스레드는 없음)
      */
+    @PreDestroy
     public void shutdown() {
-        cleanupScheduler.shutdown();
-        try {
-            if (!cleanupScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                cleanupScheduler.shutdownNow();
+        userLimiter.buckets.clear();
+        roomLimiter.buckets.clear();
+        ipLimiter.buckets.clear();
+    }
+
+    // 정책 하나의 키별 버킷 저장소
+    private static class Limiter {
+        private final RateLimitPolicy policy;
+        private final ExpiringKeyStore<TokenBucket> buckets;
+        private final LongAdder rejected = new LongAdder();
+        private final DistributedRateLimiter.PolicyLeases distributed;
+
+        private Limiter(RateLimitPolicy policy, long maxKeys, DistributedRateLimiter distributedRateLimiter) {
+            this.policy = policy;
+            this.distributed = distributedRateLimiter != null ? distributedRateLimiter.leases(policy) : null;
+            this.buckets = new ExpiringKeyStore<>(maxKeys, key -> policy.newBucket(), TokenBucket::nanosUntilFull);
+        }
+
+        private boolean tryAcquire(Object key) {
+            TokenBucket bucket = buckets.getOrCreate(key);
+            if (bucket.tryAcquire() && (distributed == null || distributed.tryAcquire(key))) {
+                return true;
             }
-        } catch (InterruptedException e) {
-            cleanupScheduler.shutdownNow();
-            Thread.currentThread().interrupt();
+
+            rejected.increment();
+            if (log.isLoggable(Level.FINE)) {
+                log.fine("Rate Limit 초과 (" + policy.getName() + "): " + key);
+            }
+            return false;
         }
     }
-}
\ No newline at end of file
+}
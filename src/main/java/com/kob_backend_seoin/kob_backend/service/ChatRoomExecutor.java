@@ -0,0 +1,129 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import com.kob_backend_seoin.kob_backend.config.KeyedSerialExecutor;
+import com.kob_backend_seoin.kob_backend.config.WebSocketChannelMetrics;
+import com.kob_backend_seoin.kob_backend.exception.ChatErrorCode;
+import com.kob_backend_seoin.kob_backend.exception.ChatException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 채팅방 단위 순차 실행기 (채팅방별 메일박스)
+ *
+ * - 참여자 초대/내보내기/가입 수락, 채팅방 이름 변경, 메시지 전송 검증 단계가 모두 채팅방 메일박스를 거칩니다.
+ *   같은 채팅방의 변경은 한 번에 하나씩 트랜잭션으로 실행되고 커밋된 뒤 다음 작업이 시작되므로
+ *   load-modify-save 사이에 다른 변경이 끼어들어 사라지는 일(lost update)이 없습니다.
+ * - 다른 채팅방의 작업은 다른 메일박스에서 병렬로 실행됩니다.
+ * - 호출 스레드는 트랜잭션 없이 결과만 기다려야 합니다 (기다리는 동안 DB 커넥션을 잡고 있지 않도록).
+ * - call이 대기 시간을 넘기면 아직 시작하지 않은 작업을 취소하고 SERVER_BUSY를 반환합니다.
+ *   취소된 작업은 차례가 와도 실행하지 않으므로, 실패를 받은 호출자의 변경이 나중에 반영되는 일이 없습니다.
+ *   이미 실행 중이면 취소할 수 없으므로 끝날 때까지 기다려 실제 결과를 반환합니다.
+ */
+@Service
+public class ChatRoomExecutor extends KeyedSerialExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final long callTimeoutMs;
+
+    @Autowired
+    public ChatRoomExecutor(@Qualifier("chatRoomTaskExecutor") TaskExecutor delegate,
+                            WebSocketChannelMetrics channelMetrics,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${chat.room-executor.stripes:256}") int stripes,
+                            @Value("${chat.room-executor.call-timeout-ms:10000}") long callTimeoutMs) {
+        super("chat-room", channelMetrics.instrument("room", delegate), stripes);
+        this.transactionTemplate = transactionTemplate;
+        this.callTimeoutMs = callTimeoutMs;
+    }
+
+    /**
+     * 채팅방 메일박스에서 트랜잭션으로 실행하고 결과를 기다림
+     * 이미 같은 메일박스 작업 안이면 바로 실행합니다.
+     */
+    public <T> T call(UUID roomId, Supplier<T> action) {
+        if (isCurrentMailbox(roomId)) {
+            return transactionTemplate.execute(status -> action.get());
+        }
+
+        CompletableFuture<T> result = submit(roomId, action);
+        try {
+            return result.get(callTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (TimeoutException e) {
+            if (result.cancel(false)) {
+                // 아직 시작 전: 차례가 와도 실행하지 않음
+                throw new ChatException(ChatErrorCode.SERVER_BUSY, "채팅방 작업 대기 시간 초과");
+            }
+            // 이미 실행 중이거나 끝남: 실제 결과를 반환
+            try {
+                return result.get();
+            } catch (ExecutionException ex) {
+                throw unwrap(ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ChatException(ChatErrorCode.SERVER_BUSY, "채팅방 작업 대기 중 중단됨");
+            }
+        } catch (InterruptedException e) {
+            // 대기를 포기하므로 시작 전이면 취소
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ChatException(ChatErrorCode.SERVER_BUSY, "채팅방 작업 대기 중 중단됨");
+        }
+    }
+
+    /**
+     * 채팅방 메일박스에 트랜잭션 작업 추가 (결과는 future로 전달)
+     * 시작 전에 future를 취소하면 작업은 실행되지 않습니다. 시작한 뒤에는 cancel이 false를 반환합니다.
+     */
+    public <T> CompletableFuture<T> submit(UUID roomId, Supplier<T> action) {
+        RoomTask<T> result = new RoomTask<>();
+        execute(roomId, () -> {
+            if (!result.start()) {
+                return;
+            }
+            try {
+                result.complete(transactionTemplate.execute(status -> action.get()));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    /**
+     * 시작과 취소 중 먼저 일어난 쪽만 성공하는 작업 결과 (FutureTask와 같은 취소 규칙)
+     */
+    private static class RoomTask<T> extends CompletableFuture<T> {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        // 메일박스 차례가 왔을 때 호출 (취소되었으면 false)
+        boolean start() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return claimed.compareAndSet(false, true) && super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import com.kob_backend_seoin.kob_backend.config.KeyedSerialExecutor;
+import com.kob_backend_seoin.kob_backend.config.WebSocketChannelMetrics;
+import com.kob_backend_seoin.kob_backend.domain.ChatMessage;
+import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
+import com.kob_backend_seoin.kob_backend.domain.User;
+import com.kob_backend_seoin.kob_backend.dto.Chat.WebSocketMessageDto;
+import com.kob_backend_seoin.kob_backend.dto.Chat.WsEnvelope;
+import com.kob_backend_seoin.kob_backend.exception.ChatErrorCode;
+import com.kob_backend_seoin.kob_backend.exception.ChatException;
+import com.kob_backend_seoin.kob_backend.exception.CustomException;
+import com.kob_backend_seoin.kob_backend.exception.ErrorCode;
+import com.kob_backend_seoin.kob_backend.repository.ChatRoomRepository;
+import com.kob_backend_seoin.kob_backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * WebSocket 메시지 전송 파이프라인
+ *
+ * validate → sequence → persist → fan-out(브로드캐스트 + 수신증명) 단계를 각각 별도 실행기에서 처리합니다.
+ * - 단계마다 채팅방 ID로 나눈 KeyedSerialExecutor를 사용하므로 한 채팅방의 메시지는 모든 단계를 도착 순서대로 통과합니다.
+ *   (sequence 발행 순서 = 저장 순서 = 브로드캐스트 순서)
+ * - validate 단계는 채팅방 변경과 같은 ChatRoomExecutor 메일박스에서 실행되므로
+ *   내보내기가 커밋된 뒤 도착한 메시지는 항상 새 참여자 목록으로 검증됩니다.
+ * - 다른 채팅방의 메시지는 다른 메일박스에서 병렬로 처리되어 느린 DB 저장이 다른 채팅방이나 STOMP inbound 스레드를 막지 않습니다.
+ * - 처리 중인 메시지가 max-pending을 넘으면 접수하지 않고 SERVER_BUSY로 재시도를 요청합니다.
+ * - 채팅방별 전송 제한(ChatRateLimiter)은 참여 여부를 확인한 뒤 차감하고, 넘은 메시지는 sequence 발행/저장 전에 RATE_LIMITED로 거절합니다.
+ * - 단계에서 오류가 나면 이후 단계는 건너뛰고 발신자에게 에러 프레임과 "error" 수신증명을 보냅니다.
+ */
+@Service
+public class ChatSendPipeline {
+
+    private static final Logger log = Logger.getLogger(ChatSendPipeline.class.getName());
+
+    private final UserRepository userRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMembershipService chatMembershipService;
+    private final ChatSequenceAllocator chatSequenceAllocator;
+    private final ChatMessageService chatMessageService;
+    private final ChatMessageIngestService chatMessageIngestService;
+    private final ChatBroadcaster chatBroadcaster;
+
+    private final ChatRateLimiter chatRateLimiter;
+
+    private final KeyedSerialExecutor validateStage;
+    private final KeyedSerialExecutor sequenceStage;
+    private final KeyedSerialExecutor persistStage;
+    private final KeyedSerialExecutor fanOutStage;
+
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    @Autowired
+    public ChatSendPipeline(UserRepository userRepository,
+                            ChatRoomRepository chatRoomRepository,
+                            ChatMembershipService chatMembershipService,
+                            ChatSequenceAllocator chatSequenceAllocator,
+                            ChatMessageService chatMessageService,
+                            ChatMessageIngestService chatMessageIngestService,
+                            ChatBroadcaster chatBroadcaster,
+                            ChatRoomExecutor chatRoomExecutor,
+                            ChatRateLimiter chatRateLimiter,
+                            WebSocketChannelMetrics channelMetrics,
+                            @Qualifier("chatSendSequenceExecutor") TaskExecutor sequenceExecutor,
+                            @Qualifier("chatSendPersistExecutor") TaskExecutor persistExecutor,
+                            @Qualifier("chatSendFanOutExecutor") TaskExecutor fanOutExecutor,
+                            @Value("${chat.pipeline.stripes:256}") int stripes,
+                            @Value("${chat.pipeline.max-pending:10000}") int maxPending) {
+        this.userRepository = userRepository;
+        this.chatRoomRepository = chatRoomRepository;
+        this.chatMembershipService = chatMembershipService;
+        this.chatSequenceAllocator = chatSequenceAllocator;
+        this.chatMessageService = chatMessageService;
+        this.chatMessageIngestService = chatMessageIngestService;
+        this.chatBroadcaster = chatBroadcaster;
+        this.chatRateLimiter = chatRateLimiter;
+        this.validateStage = chatRoomExecutor;
+        this.sequenceStage = new KeyedSerialExecutor("send-sequence",
+                channelMetrics.instrument("send-sequence", sequenceExecutor), stripes);
+        this.persistStage = new KeyedSerialExecutor("send-persist",
+                channelMetrics.instrument("send-persist", persistExecutor), stripes);
+        this.fanOutStage = new KeyedSerialExecutor("send-fanout",
+                channelMetrics.instrument("send-fanout", fanOutExecutor), stripes);
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * 메시지 전송 접수 (인증된 사용자 ID만 확인하고 바로 반환, 결과는 수신증명으로 통지)
+     */
+    public void submit(UUID userId, WebSocketMessageDto.SendMessageRequest request) {
+        if (request.getRoomId() == null) {
+            throw new CustomException("채팅방 ID는 필수입니다.", ErrorCode.CHAT_ROOM_NOT_FOUND);
+        }
+
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            sendReceipt(userId, request.getClientMessageId(), "error", null);
+            throw new ChatException(ChatErrorCode.SERVER_BUSY, "전송 대기 메시지가 너무 많습니다");
+        }
+
+        advance(validateStage, new SendContext(userId, request), this::validate);
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    // 1단계: 발신자 조회, 참여 여부 확인, 채팅방 전송 제한, 저장 대기 중인 재전송 감지
+    private void validate(SendContext context) {
+        context.sender = userRepository.findById(context.userId)
+                .orElseThrow(() -> new CustomException("사용자를 찾을 수 없습니다.", ErrorCode.USER_NOT_FOUND));
+
+        // 참여 중이면 채팅방이 존재하므로 프록시 참조만 사용
+        if (!chatMembershipService.isParticipant(context.roomId, context.userId)) {
+            throw new CustomException("사용자가 해당 채팅방에 참여하지 않습니다.", ErrorCode.USER_NOT_IN_CHAT_ROOM);
+        }
+        context.chatRoom = chatRoomRepository.getReferenceById(context.roomId);
+
+        // 채팅방별 전송 제한 (사용자/IP 제한은 STOMP inbound 인터셉터에서 이미 확인)
+        // 참여자가 아닌 사용자가 임의의 채팅방 ID로 다른 사람들의 전송 한도를 소모하지 못하도록 참여 확인 후 차감
+        if (!chatRateLimiter.allowRoomMessage(context.roomId)) {
+            throw new ChatException(ChatErrorCode.RATE_LIMITED, "채팅방 전송 한도 초과");
+        }
+
+        // write-behind 모드: 아직 저장되지 않은 메시지의 재전송은 메모리에서 중복 판단
+        // 같은 clientMessageId는 자리를 먼저 차지한 메시지만 저장하고, 나머지는 그 메시지의 중복으로 처리
+        // (저장된 메시지의 중복은 (chat_room_id, client_message_id) 유니크 제약으로 처리)
+        if (chatMessageIngestService.isEnabled() && hasClientMessageId(context)) {
+            ChatMessageIngestService.InFlight placeholder = new ChatMessageIngestService.InFlight();
+            ChatMessageIngestService.InFlight original = chatMessageIngestService.reserve(
+                    context.roomId, context.request.getClientMessageId(), placeholder);
+            if (original == null) {
+                context.reservation = placeholder;
+            } else {
+                log.info("저장 대기 중인 중복 메시지 감지 - clientMessageId: " + context.request.getClientMessageId());
+                context.duplicateOf = original;
+                if (original.getMessage() != null) {
+                    acceptDuplicate(context, original.getMessage());
+                    advance(fanOutStage, context, this::fanOut);
+                    return;
+                }
+                // 먼저 도착한 메시지가 아직 적재 전: 같은 채팅방 단계 순서상 그 메시지의 persist 이후에 판단
+            }
+        }
+
+        advance(sequenceStage, context, this::sequence);
+    }
+
+    // 2단계: 채팅방 순서 번호 발행 (중복 메시지는 번호를 발행하지 않음)
+    private void sequence(SendContext context) {
+        if (context.duplicateOf == null) {
+            context.sequence = chatSequenceAllocator.nextSequence(context.roomId);
+        }
+        advance(persistStage, context, this::persist);
+    }
+
+    // 3단계: 저장 (write-behind 모드면 저장 큐 적재)
+    private void persist(SendContext context) {
+        WebSocketMessageDto.SendMessageRequest request = context.request;
+
+        if (context.duplicateOf != null) {
+            ChatMessageIngestService.PendingMessage original = context.duplicateOf.getMessage();
+            if (original == null) {
+                throw new ChatException(ChatErrorCode.SERVER_BUSY, "같은 clientMessageId의 이전 메시지를 접수하지 못했습니다");
+            }
+            acceptDuplicate(context, original);
+        } else if (chatMessageIngestService.isEnabled()) {
+            ChatMessageIngestService.PendingMessage message = new ChatMessageIngestService.PendingMessage(
+                    context.roomId, context.userId, request.getContent(), context.sequence, request.getClientMessageId());
+            if (!chatMessageIngestService.enqueue(message, context.reservation)) {
+                throw new ChatException(ChatErrorCode.SERVER_BUSY, "저장 큐가 가득 찼습니다");
+            }
+            // 저장 완료는 ChatMessageIngestService가 "ok" 수신증명으로 통지
+            context.accept(message.getId(), message.getContent(), context.sender,
+                    message.getSentAt(), message.getSequence(), "accepted");
+        } else {
+            // clientMessageId 중복이면 기존 메시지 반환 (네트워크 문제로 누락된 경우 대비해 다시 브로드캐스트)
+            ChatMessageService.SaveResult result = chatMessageService.saveMessage(
+                    request.getContent(), context.sender, context.chatRoom, context.sequence, request.getClientMessageId());
+            ChatMessage saved = result.getMessage();
+            context.accept(saved.getId(), saved.getContent(), saved.getSender(),
+                    saved.getSentAt(), saved.getSequence(), result.isDuplicate() ? "duplicate" : "ok");
+        }
+
+        advance(fanOutStage, context, this::fanOut);
+    }
+
+    // 4단계: 채팅방 토픽 브로드캐스트 후 발신자에게 수신증명
+    private void fanOut(SendContext context) {
+        pending.decrementAndGet();
+        try {
+            broadcastMessage(context);
+            sendReceipt(context.userId, context.request.getClientMessageId(), context.status, context.messageId);
+        } catch (Exception e) {
+            // 이미 저장된 메시지이므로 에러 수신증명은 보내지 않음 (재연결 동기화로 복구)
+            log.warning("메시지 브로드캐스트 실패 - messageId: " + context.messageId + ", " + e.getMessage());
+        }
+    }
+
+    // 다음 단계 실행기에 넘김 (같은 채팅방 메일박스에서 순서대로 실행)
+    private void advance(KeyedSerialExecutor stage, SendContext context, Consumer<SendContext> step) {
+        try {
+            stage.execute(context.roomId, () -> {
+                try {
+                    step.accept(context);
+                } catch (Exception e) {
+                    fail(context, e);
+                }
+            });
+        } catch (Exception e) {
+            fail(context, e);
+        }
+    }
+
+    private void fail(SendContext context, Exception e) {
+        pending.decrementAndGet();
+        if (context.reservation != null && context.reservation.getMessage() == null) {
+            chatMessageIngestService.release(context.roomId, context.request.getClientMessageId(), context.reservation);
+        }
+        if (e instanceof CustomException || e instanceof ChatException) {
+            log.warning("메시지 전송 실패 - roomId: " + context.roomId + ", " + e.getMessage());
+        } else {
+            log.log(Level.SEVERE, "메시지 전송 중 오류 발생 - roomId: " + context.roomId, e);
+        }
+
+        try {
+            WsEnvelope<WsEnvelope.ErrorPayload> error = new WsEnvelope<>(
+                    "error",
+                    WsEnvelope.newMessageId(),
+                    System.currentTimeMillis(),
+                    new WsEnvelope.ErrorPayload(
+                            e instanceof ChatException chatException ? chatException.getErrorCodeString() : "SEND_MESSAGE_ERROR",
+                            e.getMessage())
+            );
+            chatBroadcaster.sendToUser(context.userId.toString(), "/queue/errors", error);
+            sendReceipt(context.userId, context.request.getClientMessageId(), "error", null);
+        } catch (Exception ex) {
+            log.severe("에러 응답 전송 실패: " + ex.getMessage());
+        }
+    }
+
+    private void broadcastMessage(SendContext context) {
+        WebSocketMessageDto.UserInfoDto senderInfo = new WebSocketMessageDto.UserInfoDto(
+                context.messageSender.getId(),
+                context.messageSender.getNickname()
+        );
+
+        WebSocketMessageDto.NewMessageNotification notification = new WebSocketMessageDto.NewMessageNotification(
+                context.messageId,
+                context.roomId,
+                context.content,
+                senderInfo,
+                context.sentAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                context.sequence
+        );
+
+        WsEnvelope<WebSocketMessageDto.NewMessageNotification> response = new WsEnvelope<>(
+                "chat.message",
+                WsEnvelope.newMessageId(),
+                System.currentTimeMillis(),
+                notification
+        );
+
+        chatBroadcaster.sendToTopic("/topic/chat/" + context.roomId, response);
+    }
+
+    // 송신자에게 수신증명 전송
+    private void sendReceipt(UUID userId, String clientMessageId, String status, UUID savedMessageId) {
+        WsEnvelope<WsEnvelope.ReceiptPayload> receipt = new WsEnvelope<>(
+                "chat.receipt",
+                WsEnvelope.newMessageId(),
+                System.currentTimeMillis(),
+                new WsEnvelope.ReceiptPayload(clientMessageId, status, savedMessageId != null ? savedMessageId.toString() : null)
+        );
+        chatBroadcaster.sendToUser(userId.toString(), "/queue/receipts", receipt);
+    }
+
+    // 먼저 접수된 같은 clientMessageId 메시지를 다시 브로드캐스트
+    private static void acceptDuplicate(SendContext context, ChatMessageIngestService.PendingMessage original) {
+        context.accept(original.getId(), original.getContent(), context.sender,
+                original.getSentAt(), original.getSequence(), "duplicate");
+    }
+
+    private static boolean hasClientMessageId(SendContext context) {
+        String clientMessageId = context.request.getClientMessageId();
+        return clientMessageId != null && !clientMessageId.trim().isEmpty();
+    }
+
+    /**
+     * 단계 사이에 전달되는 메시지 처리 상태 (한 시점에는 한 단계에서만 접근)
+     */
+    private static class SendContext {
+        private final UUID userId;
+        private final UUID roomId;
+        private final WebSocketMessageDto.SendMessageRequest request;
+
+        private User sender;
+        private ChatRoom chatRoom;
+        private long sequence;
+
+        // write-behind 모드에서 이 메시지가 차지한 clientMessageId 자리 / 먼저 차지한 메시지의 자리
+        private ChatMessageIngestService.InFlight reservation;
+        private ChatMessageIngestService.InFlight duplicateOf;
+
+        // 브로드캐스트할 메시지 (저장 결과 또는 중복으로 판단된 기존 메시지)
+        private UUID messageId;
+        private String content;
+        private User messageSender;
+        private LocalDateTime sentAt;
+        private String status;
+
+        private SendContext(UUID userId, WebSocketMessageDto.SendMessageRequest request) {
+            this.userId = userId;
+            this.roomId = request.getRoomId();
+            this.request = request;
+        }
+
+        private void accept(UUID messageId, String content, User messageSender,
+                            LocalDateTime sentAt, long sequence, String status) {
+            this.messageId = messageId;
+            this.content = content;
+            this.messageSender = messageSender;
+            this.sentAt = sentAt;
+            this.sequence = sequence;
+            this.status = status;
+        }
+    }
+}
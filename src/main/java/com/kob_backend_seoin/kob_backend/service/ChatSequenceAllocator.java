@@ -0,0 +1,153 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
+import com.kob_backend_seoin.kob_backend.exception.CustomException;
+import com.kob_backend_seoin.kob_backend.exception.ErrorCode;
+import com.kob_backend_seoin.kob_backend.repository.ChatRoomSequenceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 채팅방 메시지 sequence 발행기
+ *
+ * - chat_room_sequences 행을 UPDATE ... RETURNING 으로 원자적으로 증가시키므로
+ *   REST/WebSocket 경로나 여러 서버 노드가 동시에 발행해도 같은 값이 두 번 나오지 않습니다.
+ * - block-size > 1 이면 노드별로 구간을 미리 예약해 두고 메모리에서 CAS로 나눠 줍니다.
+ *   이 경우 노드 간에는 발행 순서와 sequence 순서가 어긋날 수 있으므로 단일 노드 배포에서만 권장합니다.
+ * - 저장에 실패한 메시지나 사용되지 않은 예약 구간만큼 빈 번호가 생길 수 있습니다 (gap 허용).
+ * - block-size = 1 이면 호출 측 트랜잭션에서 예약하므로 메시지 저장이 롤백되면 예약도 함께 롤백되고,
+ *   채팅방 메일박스 작업이 커넥션 하나로 끝납니다 (메일박스 스레드마다 커넥션을 두 개씩 잡으면 풀이 고갈되어 서로 기다림).
+ * - block-size > 1 이면 예약 구간을 별도 트랜잭션으로 곧바로 커밋합니다.
+ *   호출 측이 롤백되어도 이미 나눠 준 구간이 다시 발행되지 않도록 하기 위해서이며, 구간마다 한 번 커넥션이 하나 더 필요합니다.
+ */
+@Service
+public class ChatSequenceAllocator {
+
+    private final ChatRoomSequenceRepository chatRoomSequenceRepository;
+    private final TransactionTemplate blockTransaction;
+    private final int blockSize;
+
+    // 노드 로컬 예약 구간 (block-size > 1 일 때만 사용)
+    private final ConcurrentHashMap<UUID, SequenceBlock> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ChatSequenceAllocator(ChatRoomSequenceRepository chatRoomSequenceRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${chat.sequence.block-size:1}") int blockSize) {
+        this.chatRoomSequenceRepository = chatRoomSequenceRepository;
+        this.blockTransaction = new TransactionTemplate(transactionManager);
+        this.blockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /**
+     * 채팅방의 다음 sequence 발행
+     */
+    public long nextSequence(UUID roomId) {
+        if (blockSize == 1) {
+            return reserve(roomId, 1);
+        }
+
+        while (true) {
+            SequenceBlock block = blocks.get(roomId);
+            if (block != null) {
+                long sequence = block.next();
+                if (sequence > 0) {
+                    return sequence;
+                }
+            }
+
+            // 구간 소진: 새 구간 예약 후 더 앞선 구간만 교체 (동시 예약 시 남는 구간은 버림)
+            long start = blockTransaction.execute(status -> reserve(roomId, blockSize));
+            SequenceBlock reserved = new SequenceBlock(start, start + blockSize);
+            long sequence = reserved.next();
+            blocks.merge(roomId, reserved, (current, candidate) -> candidate.end > current.end ? candidate : current);
+            return sequence;
+        }
+    }
+
+    /**
+     * 채팅방별 저장된 마지막 메시지 sequence 일괄 조회 (쿼리 1회, 메시지가 없으면 0)
+     * 예약 카운터(next_value - 1)는 사용하지 않습니다. block-size > 1 로 남은 예약 구간이나
+     * 저장에 실패한 마지막 메시지처럼 실제 메시지가 없는 번호까지 안 읽은 메시지로 세면
+     * 클라이언트가 받은 마지막 메시지까지 읽어도 0이 되지 않기 때문입니다.
+     */
+    public Map<UUID, Long> lastMessageSequences(Collection<ChatRoom> chatRooms) {
+        if (chatRooms.isEmpty()) {
+            return Map.of();
+        }
+
+        List<UUID> roomIds = chatRooms.stream()
+                .map(ChatRoom::getId)
+                .collect(Collectors.toList());
+
+        Map<UUID, Long> lastSequences = new HashMap<>();
+        for (UUID roomId : roomIds) {
+            lastSequences.put(roomId, 0L);
+        }
+        for (Object[] row : chatRoomSequenceRepository.findLastMessageSequences(roomIds)) {
+            lastSequences.put((UUID) row[0], ((Number) row[1]).longValue());
+        }
+        return lastSequences;
+    }
+
+    public long lastMessageSequence(ChatRoom chatRoom) {
+        return lastMessageSequences(List.of(chatRoom)).get(chatRoom.getId());
+    }
+
+    /**
+     * 지금까지 발행될 수 있었던 가장 큰 sequence (읽음 처리 상한용)
+     * write-behind로 아직 저장되지 않았지만 이미 전달된 메시지까지 읽음 처리할 수 있도록 예약 카운터 기준입니다.
+     * 카운터 행이 없는 채팅방(메시지를 한 번도 보내지 않은 방)은 레거시 next_sequence 기준입니다.
+     */
+    public long lastReservedSequence(ChatRoom chatRoom) {
+        Long reserved = chatRoomSequenceRepository.findLastReservedSequence(chatRoom.getId());
+        return reserved != null ? reserved : chatRoom.getNextSequence() - 1;
+    }
+
+    // count개를 예약하고 구간의 첫 번째 값 반환
+    private long reserve(UUID roomId, int count) {
+        Long end = chatRoomSequenceRepository.reserve(roomId, count);
+        if (end == null) {
+            // 처음 메시지를 보내는 채팅방: 카운터 행 생성 후 재시도 (동시 생성은 ON CONFLICT로 무시)
+            chatRoomSequenceRepository.initialize(roomId);
+            end = chatRoomSequenceRepository.reserve(roomId, count);
+            if (end == null) {
+                throw new CustomException("채팅방을 찾을 수 없습니다.", ErrorCode.CHAT_ROOM_NOT_FOUND);
+            }
+        }
+        return end - count;
+    }
+
+    /**
+     * 노드 로컬 예약 구간 [start, end)
+     */
+    private static class SequenceBlock {
+        private final AtomicLong next;
+        private final long end;
+
+        SequenceBlock(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+
+        // 구간이 소진되었으면 -1
+        long next() {
+            long sequence = next.getAndIncrement();
+            return sequence < end ? sequence : -1;
+        }
+    }
+}
@@ -4,9 +4,12 @@ import com.kob_backend_seoin.kob_backend.domain.BusinessCard;
 import com.kob_backend_seoin.kob_backend.domain.ChatMessage;
 import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
 import com.kob_backend_seoin.kob_backend.domain.User;
+import com.kob_backend_seoin.kob_backend.dto.Chat.ChatMessageHistoryResponseDto;
 import com.kob_backend_seoin.kob_backend.dto.Chat.ChatMessageRequestDto;
 import com.kob_backend_seoin.kob_backend.dto.Chat.ChatMessageResponseDto;
 import com.kob_backend_seoin.kob_backend.dto.Chat.ChatRoomResponseDto;
+import com.kob_backend_seoin.kob_backend.dto.Chat.ChatSyncRequestDto;
+import com.kob_backend_seoin.kob_backend.dto.Chat.ChatSyncResponseDto;
 import com.kob_backend_seoin.kob_backend.exception.CustomException;
 import com.kob_backend_seoin.kob_backend.exception.ErrorCode;
 import com.kob_backend_seoin.kob_backend.repository.BusinessCardRepository;
@@ -14,6 +17,7 @@ import com.kob_backend_seoin.kob_backend.repository.ChatMessageRepository;
 import com.kob_backend_seoin.kob_backend.repository.ChatRoomRepository;
 import com.kob_backend_seoin.kob_backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 // import org.springframework.cache.annotation.Cacheable;
 // import org.springframework.cache.annotation.CacheEvict;
 // import org.springframework.cache.CacheManager;
@@ -22,11 +26,16 @@ import org.springframework.data.domain.Page;
 // import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -34,11 +43,21 @@ import java.util.stream.Collectors;
 @Service
 @Transactional
 public class ChatService {
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 100; // 히스토리 조회 최대 페이지 크기
+
+    // 재연결 동기화 시 채팅방당 최대 메시지 수 (초과분은 hasMore로 재요청)
+    @Value("${chat.sync.max-messages-per-room:200}")
+    private int syncMaxMessagesPerRoom;
     
     private final ChatRoomRepository chatRoomRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final UserRepository userRepository;
     private final BusinessCardRepository businessCardRepository;
+    private final ReadWatermarkService readWatermarkService;
+    private final ChatSequenceAllocator chatSequenceAllocator;
+    private final ChatMembershipService chatMembershipService;
+    private final ChatRoomExecutor chatRoomExecutor;
     // private final ManualCacheService manualCacheService;
     // private final CacheManager cacheManager;
     
@@ -51,11 +70,19 @@ public class ChatService {
     public ChatService(ChatRoomRepository chatRoomRepository,
                        ChatMessageRepository chatMessageRepository,
                        UserRepository userRepository,
-                       BusinessCardRepository businessCardRepository) {
+                       BusinessCardRepository businessCardRepository,
+                       ReadWatermarkService readWatermarkService,
+                       ChatSequenceAllocator chatSequenceAllocator,
+                       ChatMembershipService chatMembershipService,
+                       ChatRoomExecutor chatRoomExecutor) {
         this.chatRoomRepository = chatRoomRepository;
         this.chatMessageRepository = chatMessageRepository;
         this.userRepository = userRepository;
         this.businessCardRepository = businessCardRepository;
+        this.readWatermarkService = readWatermarkService;
+        this.chatSequenceAllocator = chatSequenceAllocator;
+        this.chatMembershipService = chatMembershipService;
+        this.chatRoomExecutor = chatRoomExecutor;
         // this.manualCacheService = manualCacheService;
         // this.cacheManager = cacheManager;
     }
@@ -127,20 +154,15 @@ public class ChatService {
         Pageable pageable = PageRequest.of(page, size);
         Page<ChatRoom> chatRooms = chatRoomRepository.findByParticipantId(userId, pageable);
 
-        Page<ChatRoomResponseDto> result = chatRooms.map(chatRoom -> {
-            // 마지막 메시지 조회
-            Optional<ChatMessage> lastMessageOpt = chatMessageRepository.findTop1ByChatRoomIdOrderBySequenceDesc(chatRoom.getId());
-            ChatMessageResponseDto lastMessageDto = null;
-            if (lastMessageOpt.isPresent()) {
-                ChatMessage lastMessage = lastMessageOpt.get();
-                lastMessageDto = convertToMessageResponseDto(lastMessage);
-            }
-
-            // 안 읽은 메시지 수 계산 (임시로 0으로 설정, 실제로는 읽음 상태 테이블 필요)
-            long unreadCount = 0;
+        // 페이지 내 모든 채팅방의 마지막 메시지와 안 읽은 메시지 수를 각각 한 번의 쿼리로 조회
+        Map<UUID, ChatMessageResponseDto> lastMessages = findLastMessages(chatRooms.getContent());
+        Map<UUID, Long> unreadCounts = readWatermarkService.getUnreadCounts(userId, chatRooms.getContent());
 
-            return convertToRoomResponseDto(chatRoom, lastMessageDto, unreadCount);
-        });
+        Page<ChatRoomResponseDto> result = chatRooms.map(chatRoom -> convertToRoomResponseDto(
+                chatRoom,
+                lastMessages.get(chatRoom.getId()),
+                unreadCounts.getOrDefault(chatRoom.getId(), 0L)
+        ));
         
         return result;
     }
@@ -160,20 +182,17 @@ public class ChatService {
         Pageable pageable = PageRequest.of(page, size);
         Page<ChatRoom> chatRooms = chatRoomRepository.findByParticipantId(userId, pageable);
 
-        List<ChatRoomResponseDto> result = chatRooms.getContent().stream().map(chatRoom -> {
-            // 마지막 메시지 조회
-            Optional<ChatMessage> lastMessageOpt = chatMessageRepository.findTop1ByChatRoomIdOrderBySequenceDesc(chatRoom.getId());
-            ChatMessageResponseDto lastMessageDto = null;
-            if (lastMessageOpt.isPresent()) {
-                ChatMessage lastMessage = lastMessageOpt.get();
-                lastMessageDto = convertToMessageResponseDto(lastMessage);
-            }
-
-            // 안 읽은 메시지 수 계산 (임시로 0으로 설정, 실제로는 읽음 상태 테이블 필요)
-            long unreadCount = 0;
+        // 페이지 내 모든 채팅방의 마지막 메시지와 안 읽은 메시지 수를 각각 한 번의 쿼리로 조회
+        Map<UUID, ChatMessageResponseDto> lastMessages = findLastMessages(chatRooms.getContent());
+        Map<UUID, Long> unreadCounts = readWatermarkService.getUnreadCounts(userId, chatRooms.getContent());
 
-            return convertToRoomResponseDto(chatRoom, lastMessageDto, unreadCount);
-        }).collect(Collectors.toList());
+        List<ChatRoomResponseDto> result = chatRooms.getContent().stream()
+                .map(chatRoom -> convertToRoomResponseDto(
+                        chatRoom,
+                        lastMessages.get(chatRoom.getId()),
+                        unreadCounts.getOrDefault(chatRoom.getId(), 0L)
+                ))
+                .collect(Collectors.toList());
         
         return result;
     }
@@ -268,17 +287,16 @@ public class ChatService {
         // 사용자가 해당 채팅방에 참여하고 있는지 확인
         validateUserInChatRoom(userId, roomId);
 
-        Pageable pageable = PageRequest.of(0, size);
-        Page<ChatMessage> messages;
-
+        // List만 반환하므로 COUNT 쿼리가 없는 Slice 조회 사용
+        long beforeSequence = Long.MAX_VALUE;
         if (lastMessageId != null) {
             // messageId를 sequence로 변환하여 커서 조회는 sequence 기준으로 수행
             ChatMessage last = chatMessageRepository.findById(lastMessageId)
                     .orElseThrow(() -> new CustomException("메시지를 찾을 수 없습니다.", ErrorCode.NOT_FOUND));
-            messages = chatMessageRepository.findByChatRoomIdAndSequenceBeforeOrderBySequenceDesc(roomId, last.getSequence(), pageable);
-        } else {
-            messages = chatMessageRepository.findByChatRoomIdOrderBySentAtDesc(roomId, pageable);
+            beforeSequence = last.getSequence();
         }
+        Slice<ChatMessage> messages = chatMessageRepository.findSliceByChatRoomIdAndSequenceBefore(
+                roomId, beforeSequence, PageRequest.of(0, size));
 
         List<ChatMessageResponseDto> result = messages.getContent().stream()
                 .map(this::convertToMessageResponseDto)
@@ -300,8 +318,74 @@ public class ChatService {
         return result;
     }
 
-    // 메시지 전송 (수동 캐시 무효화 적용)
+    // 메시지 히스토리 조회 (sequence 커서 기반, 커서 메시지 조회와 COUNT 쿼리 없음)
+    public ChatMessageHistoryResponseDto getChatRoomMessageHistory(UUID userId, UUID roomId,
+                                                                   Long beforeSequence, int size) {
+        // 사용자가 해당 채팅방에 참여하고 있는지 확인
+        validateUserInChatRoom(userId, roomId);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        long cursor = beforeSequence != null ? beforeSequence : Long.MAX_VALUE;
+
+        Slice<ChatMessage> slice = chatMessageRepository.findSliceByChatRoomIdAndSequenceBefore(
+                roomId, cursor, PageRequest.of(0, pageSize));
+
+        List<ChatMessageResponseDto> messages = slice.getContent().stream()
+                .map(this::convertToMessageResponseDto)
+                .collect(Collectors.toList());
+
+        Long nextBeforeSequence = slice.hasNext() && !messages.isEmpty()
+                ? messages.get(messages.size() - 1).getSequence()
+                : null;
+
+        return new ChatMessageHistoryResponseDto(messages, slice.hasNext(), nextBeforeSequence);
+    }
+
+    // 재연결 동기화: 채팅방별 마지막으로 받은 sequence 이후 메시지와 최신 상태를 한 번에 조회
+    // 요청에 없는 채팅방(새로 참여한 방 등)은 메시지 없이 상태만 반환
+    public ChatSyncResponseDto syncMessages(UUID userId, ChatSyncRequestDto request) {
+        Map<UUID, Long> lastSeenSequences = request.getRooms() != null ? request.getRooms() : Map.of();
+
+        // 참여 중인 채팅방만 동기화 대상 (채팅방 목록, 마지막 sequence, 워터마크 각 1회 조회)
+        List<ChatRoom> chatRooms = chatRoomRepository.findAllByParticipantId(userId);
+        List<UUID> roomIds = chatRooms.stream()
+                .map(ChatRoom::getId)
+                .collect(Collectors.toList());
+        Map<UUID, Long> lastSequences = chatSequenceAllocator.lastMessageSequences(chatRooms);
+        Map<UUID, Long> lastReadSequences = readWatermarkService.getLastReadSequences(userId, roomIds);
+
+        List<ChatSyncResponseDto.RoomSyncDto> rooms = new ArrayList<>();
+        for (ChatRoom chatRoom : chatRooms) {
+            UUID roomId = chatRoom.getId();
+            long lastSequence = lastSequences.get(roomId);
+            long unreadCount = ReadWatermarkService.unreadCount(lastSequence, lastReadSequences.getOrDefault(roomId, 0L));
+
+            List<ChatMessageResponseDto> messages = List.of();
+            boolean hasMore = false;
+
+            Long lastSeen = lastSeenSequences.get(roomId);
+            if (lastSeen != null && lastSeen < lastSequence) {
+                Slice<ChatMessage> slice = chatMessageRepository.findSliceByChatRoomIdAndSequenceAfter(
+                        roomId, lastSeen, PageRequest.of(0, syncMaxMessagesPerRoom));
+                messages = slice.getContent().stream()
+                        .map(this::convertToMessageResponseDto)
+                        .collect(Collectors.toList());
+                hasMore = slice.hasNext();
+            }
+
+            rooms.add(new ChatSyncResponseDto.RoomSyncDto(roomId, lastSequence, unreadCount, messages, hasMore));
+        }
+
+        return new ChatSyncResponseDto(rooms);
+    }
+
+    // 메시지 전송 (수동 캐시 무효화 적용, 채팅방 메일박스에서 실행)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ChatMessageResponseDto sendMessage(UUID userId, UUID roomId, ChatMessageRequestDto requestDto) {
+        return chatRoomExecutor.call(roomId, () -> sendMessageInRoom(userId, roomId, requestDto));
+    }
+
+    private ChatMessageResponseDto sendMessageInRoom(UUID userId, UUID roomId, ChatMessageRequestDto requestDto) {
         System.out.println("=== 메시지 전송 및 수동 캐시 무효화 ===");
         
         // 사용자가 해당 채팅방에 참여하고 있는지 확인
@@ -314,11 +398,14 @@ public class ChatService {
                 .orElseThrow(() -> new CustomException("채팅방을 찾을 수 없습니다.", ErrorCode.CHAT_ROOM_NOT_FOUND));
 
         // 메시지 생성 및 저장
-        long sequence = chatRoom.issueSequence();
+        long sequence = chatSequenceAllocator.nextSequence(roomId);
         ChatMessage message = new ChatMessage(requestDto.getContent(), sender, chatRoom);
         message.setSequence(sequence);
         ChatMessage savedMessage = chatMessageRepository.save(message);
 
+        // 보낸 사람은 자신의 메시지까지 읽은 것으로 처리
+        readWatermarkService.markReadUpTo(roomId, userId, sequence);
+
         // 수동 캐시 무효화 - 해당 채팅방의 모든 메시지 캐시 삭제 (비활성화)
         // try {
         //     String cachePattern = "chatMessages:" + roomId + "_*";
@@ -334,6 +421,29 @@ public class ChatService {
         return convertToMessageResponseDto(savedMessage);
     }
 
+    // 읽음 처리 (sequence까지 읽음, 워터마크 UPSERT 1회)
+    public Map<String, Object> markMessagesAsRead(UUID userId, UUID roomId, long upToSequence) {
+        // 사용자가 해당 채팅방에 참여하고 있는지 확인
+        validateUserInChatRoom(userId, roomId);
+
+        ChatRoom chatRoom = chatRoomRepository.findById(roomId)
+                .orElseThrow(() -> new CustomException("채팅방을 찾을 수 없습니다.", ErrorCode.CHAT_ROOM_NOT_FOUND));
+
+        // 아직 발행되지 않은 sequence까지 읽음 처리되지 않도록 제한
+        long readSequence = Math.min(upToSequence, chatSequenceAllocator.lastReservedSequence(chatRoom));
+        readWatermarkService.markReadUpTo(roomId, userId, readSequence);
+
+        long lastReadSequence = readWatermarkService.getLastReadSequences(userId, List.of(roomId))
+                .getOrDefault(roomId, 0L);
+
+        return Map.of(
+                "roomId", roomId,
+                "lastReadSequence", lastReadSequence,
+                "unreadCount", ReadWatermarkService.unreadCount(
+                        chatSequenceAllocator.lastMessageSequence(chatRoom), lastReadSequence)
+        );
+    }
+
     // 1:1 채팅방 생성
     public ChatRoomResponseDto createChatRoom(UUID creatorId, UUID participantId) {
         User creator = userRepository.findById(creatorId)
@@ -356,6 +466,7 @@ public class ChatService {
         chatRoom.addParticipant(participant);
 
         ChatRoom savedChatRoom = chatRoomRepository.save(chatRoom);
+        chatMembershipService.membershipChanged(savedChatRoom.getId());
         return convertToRoomResponseDto(savedChatRoom, null, 0);
     }
 
@@ -409,6 +520,7 @@ public class ChatService {
         chatRoom.addParticipant(participant);
 
         ChatRoom savedChatRoom = chatRoomRepository.save(chatRoom);
+        chatMembershipService.membershipChanged(savedChatRoom.getId());
         return convertToRoomResponseDto(savedChatRoom, null, 0);
     }
 
@@ -430,11 +542,17 @@ public class ChatService {
         }
 
         ChatRoom savedChatRoom = chatRoomRepository.save(chatRoom);
+        chatMembershipService.membershipChanged(savedChatRoom.getId());
         return convertToRoomResponseDto(savedChatRoom, null, 0);
     }
 
-    // 사용자 초대
+    // 사용자 초대 (채팅방 메일박스에서 실행)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ChatRoomResponseDto inviteUsers(UUID inviterId, UUID roomId, List<UUID> userIds) {
+        return chatRoomExecutor.call(roomId, () -> inviteUsersInRoom(inviterId, roomId, userIds));
+    }
+
+    private ChatRoomResponseDto inviteUsersInRoom(UUID inviterId, UUID roomId, List<UUID> userIds) {
         // 초대하는 사용자가 해당 채팅방에 참여하고 있는지 확인
         validateUserInChatRoom(inviterId, roomId);
 
@@ -459,6 +577,7 @@ public class ChatService {
 
         // 채팅방 저장
         ChatRoom savedChatRoom = chatRoomRepository.save(chatRoom);
+        chatMembershipService.membershipChanged(savedChatRoom.getId());
         return convertToRoomResponseDto(savedChatRoom, null, 0);
     }
 
@@ -484,10 +603,9 @@ public class ChatService {
         return Optional.empty();
     }
 
-    // 사용자가 채팅방에 참여하고 있는지 확인
+    // 사용자가 채팅방에 참여하고 있는지 확인 (참여자 캐시 사용)
     private void validateUserInChatRoom(UUID userId, UUID roomId) {
-        List<UUID> userChatRoomIds = chatRoomRepository.findChatRoomIdsByParticipantId(userId);
-        if (!userChatRoomIds.contains(roomId)) {
+        if (!chatMembershipService.isParticipant(roomId, userId)) {
             throw new CustomException("사용자가 해당 채팅방에 참여하지 않습니다.", ErrorCode.USER_NOT_IN_CHAT_ROOM);
         }
     }
@@ -517,6 +635,34 @@ public class ChatService {
         );
     }
 
+    // 채팅방 목록의 마지막 메시지 일괄 조회 (채팅방 수와 무관하게 쿼리 1회)
+    private Map<UUID, ChatMessageResponseDto> findLastMessages(List<ChatRoom> chatRooms) {
+        if (chatRooms.isEmpty()) {
+            return Map.of();
+        }
+
+        List<UUID> roomIds = chatRooms.stream()
+                .map(ChatRoom::getId)
+                .collect(Collectors.toList());
+
+        Map<UUID, ChatMessageResponseDto> lastMessages = new HashMap<>();
+        for (ChatMessageRepository.LastMessageView view : chatMessageRepository.findLastMessagesByChatRoomIds(roomIds)) {
+            ChatMessageResponseDto.UserInfoDto sender = new ChatMessageResponseDto.UserInfoDto(
+                    view.getSenderId(),
+                    view.getSenderNickname()
+            );
+            lastMessages.put(view.getChatRoomId(), new ChatMessageResponseDto(
+                    view.getId(),
+                    view.getContent(),
+                    sender,
+                    view.getChatRoomId(),
+                    view.getSentAt(),
+                    view.getSequence()
+            ));
+        }
+        return lastMessages;
+    }
+
     // ChatMessage를 ChatMessageResponseDto로 변환
     private ChatMessageResponseDto convertToMessageResponseDto(ChatMessage message) {
         ChatMessageResponseDto.UserInfoDto sender = new ChatMessageResponseDto.UserInfoDto(
@@ -529,12 +675,18 @@ public class ChatService {
                 message.getContent(),
                 sender,
                 message.getChatRoom().getId(),
-                message.getSentAt()
+                message.getSentAt(),
+                message.getSequence()
         );
     }
 
-    // 사용자 내보내기
+    // 사용자 내보내기 (채팅방 메일박스에서 실행)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ChatRoomResponseDto removeUser(UUID removerId, UUID roomId, UUID userIdToRemove) {
+        return chatRoomExecutor.call(roomId, () -> removeUserInRoom(removerId, roomId, userIdToRemove));
+    }
+
+    private ChatRoomResponseDto removeUserInRoom(UUID removerId, UUID roomId, UUID userIdToRemove) {
         // 내보내는 사용자가 해당 채팅방에 참여하고 있는지 확인
         validateUserInChatRoom(removerId, roomId);
 
@@ -559,11 +711,17 @@ public class ChatService {
 
         // 채팅방 저장
         ChatRoom savedChatRoom = chatRoomRepository.save(chatRoom);
+        chatMembershipService.membershipChanged(savedChatRoom.getId());
         return convertToRoomResponseDto(savedChatRoom, null, 0);
     }
 
-    // 채팅방 이름 변경
+    // 채팅방 이름 변경 (채팅방 메일박스에서 실행)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ChatRoomResponseDto updateRoomName(UUID updaterId, UUID roomId, String newName) {
+        return chatRoomExecutor.call(roomId, () -> updateRoomNameInRoom(updaterId, roomId, newName));
+    }
+
+    private ChatRoomResponseDto updateRoomNameInRoom(UUID updaterId, UUID roomId, String newName) {
         // 변경하는 사용자가 해당 채팅방에 참여하고 있는지 확인
         validateUserInChatRoom(updaterId, roomId);
 
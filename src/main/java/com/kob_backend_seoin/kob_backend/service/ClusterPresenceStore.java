@@ -0,0 +1,144 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 다중 노드 접속 상태 저장소 (Redis)
+ *
+ * - {prefix}:presence:{userId} 해시에 노드 ID → 접속 유효 시각(ms)을 기록합니다.
+ * - 각 노드는 하트비트마다 자기 노드의 유효 시각을 연장하므로, 비정상 종료된 노드의 기록은 TTL이 지나면 무시되고
+ *   키 자체도 만료됩니다.
+ * - 접속/해제는 Lua 스크립트로 원자적으로 처리하여 다른 노드에 아직 접속해 있는지 함께 반환합니다.
+ * - 하트비트 연장은 이 노드의 기록이 남아 있을 때만 합니다. 하트비트가 읽은 사용자 목록이 해제(leave)보다 늦게 도착해도
+ *   이미 오프라인이 된 사용자를 다시 온라인으로 만들지 않습니다.
+ */
+@Service
+@ConditionalOnProperty(name = "chat.cluster.enabled", havingValue = "true")
+public class ClusterPresenceStore {
+
+    // 다른 노드의 유효한 접속이 있었는지 반환하고 이 노드를 기록
+    private static final RedisScript<Long> JOIN = new DefaultRedisScript<>("""
+            local entries = redis.call('HGETALL', KEYS[1])
+            local elsewhere = 0
+            for i = 1, #entries, 2 do
+              if entries[i] ~= ARGV[1] and tonumber(entries[i + 1]) > tonumber(ARGV[2]) then elsewhere = 1 end
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[3])
+            redis.call('PEXPIRE', KEYS[1], ARGV[4])
+            return elsewhere
+            """, Long.class);
+
+    // 이 노드를 제거하고 다른 노드의 유효한 접속이 남아 있는지 반환 (없으면 키 삭제)
+    private static final RedisScript<Long> LEAVE = new DefaultRedisScript<>("""
+            redis.call('HDEL', KEYS[1], ARGV[1])
+            local entries = redis.call('HGETALL', KEYS[1])
+            for i = 1, #entries, 2 do
+              if tonumber(entries[i + 1]) > tonumber(ARGV[2]) then return 1 end
+            end
+            redis.call('DEL', KEYS[1])
+            return 0
+            """, Long.class);
+
+    // 이 노드의 기록이 있을 때만 유효 시각 연장 (없으면 0 반환, 해제된 사용자를 되살리지 않음)
+    private static final String REFRESH = """
+            if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then return 0 end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId;
+    private final String keyPrefix;
+    private final long ttlMs;
+
+    @Autowired
+    public ClusterPresenceStore(StringRedisTemplate redisTemplate,
+                                ChatClusterRelay clusterRelay,
+                                @Value("${chat.cluster.channel-prefix:chat:cluster}") String channelPrefix,
+                                @Value("${chat.presence.ttl-seconds:90}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.nodeId = clusterRelay.getNodeId();
+        this.keyPrefix = channelPrefix + ":presence:";
+        this.ttlMs = ttlSeconds * 1000;
+    }
+
+    /**
+     * 이 노드에 사용자 접속 기록
+     *
+     * @return 다른 노드에 이미 접속해 있었으면 true
+     */
+    public boolean join(String userId) {
+        long now = System.currentTimeMillis();
+        Long elsewhere = redisTemplate.execute(JOIN, List.of(key(userId)),
+                nodeId, String.valueOf(now), String.valueOf(now + ttlMs), String.valueOf(ttlMs));
+        return elsewhere != null && elsewhere == 1L;
+    }
+
+    /**
+     * 이 노드의 사용자 접속 기록 제거
+     *
+     * @return 다른 노드에 아직 접속해 있으면 true
+     */
+    public boolean leave(String userId) {
+        Long elsewhere = redisTemplate.execute(LEAVE, List.of(key(userId)),
+                nodeId, String.valueOf(System.currentTimeMillis()));
+        return elsewhere != null && elsewhere == 1L;
+    }
+
+    /**
+     * 어느 노드에든 유효한 접속이 있는지 확인
+     */
+    public boolean isOnline(String userId) {
+        long now = System.currentTimeMillis();
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(key(userId));
+        for (Object expiresAt : entries.values()) {
+            if (Long.parseLong(expiresAt.toString()) > now) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 이 노드에 접속한 사용자들의 유효 시각 연장 (파이프라인 한 번으로 전송)
+     *
+     * @return 이 노드의 기록이 없어 연장하지 않은 사용자 (해제되었거나 Redis에서 기록이 사라진 경우)
+     */
+    public List<String> refresh(List<String> userIds) {
+        String expiresAt = String.valueOf(System.currentTimeMillis() + ttlMs);
+        String ttl = String.valueOf(ttlMs);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (String userId : userIds) {
+                redis.eval(REFRESH, ReturnType.INTEGER, 1, key(userId), nodeId, expiresAt, ttl);
+            }
+            return null;
+        });
+
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            if (!Long.valueOf(1L).equals(results.get(i))) {
+                missing.add(userIds.get(i));
+            }
+        }
+        return missing;
+    }
+
+    private String key(String userId) {
+        return keyPrefix + userId;
+    }
+}
@@ -0,0 +1,280 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * 다중 노드 전송 제한 (Redis GCRA + 로컬 선할당)
+ *
+ * - 노드마다 메모리 버킷만 두면 여러 노드에 나눠 접속한 사용자가 노드 수만큼 한도를 더 쓸 수 있으므로,
+ *   {prefix}:{정책}:{키}에 GCRA 이론 도착 시각(TAT, Redis 시각 기준 µs)을 두고 클러스터 전체 한도를 적용합니다.
+ * - 메시지마다 Redis를 호출하지 않도록 한 번에 최대 lease-size개를 받아 두고(lease) 로컬에서 차감합니다.
+ *   받아 둔 토큰은 lease-ttl-ms 뒤 만료되므로 다른 노드가 오래 쓰지 못하는 토큰은 최대 lease-size개입니다.
+ *   키별 선할당은 ExpiringKeyStore(최대 max-keys개)에 두고 만료/거절 유지 시각이 지나면 제거합니다.
+ * - Redis가 거절하면 다음 토큰이 생길 때까지 로컬에서 바로 거절하므로 한도를 넘긴 사용자도 Redis를 계속 호출하지 못합니다.
+ * - Redis 호출이 실패하거나 call-timeout-ms 안에 응답하지 않으면 fallback-retry-ms 동안 로컬 버킷(ChatRateLimiter)만으로 판단하고 이후 다시 시도합니다.
+ *   호출은 가상 스레드에서 실행하고 inbound 스레드는 call-timeout-ms까지만 기다리므로,
+ *   Redis가 응답하지 않아도 메시지 처리가 명령 타임아웃(spring.data.redis.timeout)만큼 멈추지 않습니다.
+ */
+@Service
+@ConditionalOnProperty(name = "chat.rate-limit.distributed.enabled", havingValue = "true")
+public class DistributedRateLimiter {
+
+    private static final Logger log = Logger.getLogger(DistributedRateLimiter.class.getName());
+
+    // 요청한 토큰 수 중 지금 줄 수 있는 만큼 주고 TAT를 그만큼 미룸
+    // 줄 수 없으면 쓰지 않고 다음 토큰까지 남은 시간(ms)을 음수로 반환
+    // ARGV: 토큰 간격(µs), burst, 요청 토큰 수
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local interval = tonumber(ARGV[1])
+            local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+            if tat < now then tat = now end
+            local allowance = now + tonumber(ARGV[2]) * interval - tat
+            local granted = math.min(tonumber(ARGV[3]), math.floor(allowance / interval))
+            if granted <= 0 then return -math.max(1, math.ceil((interval - allowance) / 1000)) end
+            tat = tat + granted * interval
+            redis.call('SET', KEYS[1], string.format('%d', tat), 'PX', math.max(1, math.ceil((tat - now) / 1000)))
+            return granted
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final int leaseSize;
+    private final long leaseTtlMs;
+    private final long fallbackRetryMs;
+    private final long callTimeoutMs;
+    private final long maxKeys;
+
+    // Redis 호출 실행기 (응답하지 않는 호출은 명령 타임아웃까지 이 가상 스레드만 붙잡음)
+    private final ExecutorService redisExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("rate-limit-redis-", 0).factory());
+
+    // Redis 장애 시 이 시각(ms)까지 로컬 전용으로 동작
+    private volatile long fallbackUntil;
+
+    private final LongAdder leaseHits = new LongAdder();
+    private final LongAdder redisCalls = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    @Autowired
+    public DistributedRateLimiter(StringRedisTemplate redisTemplate,
+                                  @Value("${chat.rate-limit.distributed.key-prefix:chat:rate}") String keyPrefix,
+                                  @Value("${chat.rate-limit.distributed.lease-size:5}") int leaseSize,
+                                  @Value("${chat.rate-limit.distributed.lease-ttl-ms:1000}") long leaseTtlMs,
+                                  @Value("${chat.rate-limit.distributed.fallback-retry-ms:5000}") long fallbackRetryMs,
+                                  @Value("${chat.rate-limit.distributed.call-timeout-ms:100}") long callTimeoutMs,
+                                  @Value("${chat.rate-limit.max-keys:100000}") long maxKeys) {
+        if (leaseSize < 1 || leaseSize > Lease.MAX_REMAINING) {
+            throw new IllegalArgumentException("전송 제한 설정 오류: lease-size는 1~" + Lease.MAX_REMAINING + " 이어야 합니다");
+        }
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.leaseSize = leaseSize;
+        this.leaseTtlMs = leaseTtlMs;
+        this.fallbackRetryMs = fallbackRetryMs;
+        this.callTimeoutMs = callTimeoutMs;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * 정책 하나의 키별 선할당 저장소 생성
+     */
+    public PolicyLeases leases(RateLimitPolicy policy) {
+        return new PolicyLeases(policy);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        redisExecutor.shutdownNow();
+    }
+
+    public boolean isFallbackActive() {
+        return System.currentTimeMillis() < fallbackUntil;
+    }
+
+    public Stats getStats() {
+        return new Stats(leaseHits.sum(), redisCalls.sum(), denied.sum(), fallbacks.sum(), isFallbackActive());
+    }
+
+    /**
+     * Redis에서 토큰을 최대 permits개 받음
+     *
+     * @return 받은 토큰 수 (음수면 클러스터 한도 초과, 절댓값은 다음 토큰까지 남은 ms)
+     */
+    long acquire(RateLimitPolicy policy, Object key, int permits) {
+        long intervalMicros = Math.max(1, (long) (1_000_000 / policy.getPermitsPerSecond()));
+        Long granted = redisTemplate.execute(ACQUIRE, List.of(keyPrefix + ":" + policy.getName() + ":" + key),
+                String.valueOf(intervalMicros), String.valueOf(policy.getBurst()), String.valueOf(permits));
+        return granted != null ? granted : 0;
+    }
+
+    /**
+     * call-timeout-ms까지만 기다리는 acquire
+     *
+     * @throws TimeoutException Redis가 제때 응답하지 않음 (호출은 취소)
+     */
+    private long acquireWithin(RateLimitPolicy policy, Object key, int permits) throws Exception {
+        Future<Long> future = redisExecutor.submit(() -> acquire(policy, key, permits));
+        try {
+            return future.get(callTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new TimeoutException("Redis 응답 없음 (" + callTimeoutMs + "ms 초과)");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * 정책 하나의 키별 선할당 토큰
+     * ChatRateLimiter가 로컬 버킷을 통과한 요청만 넘기므로 로컬 한도를 넘은 요청은 Redis까지 오지 않습니다.
+     */
+    public class PolicyLeases {
+        private final RateLimitPolicy policy;
+        private final int policyLeaseSize;
+        private final ExpiringKeyStore<Lease> leases = new ExpiringKeyStore<>(maxKeys, key -> new Lease(), Lease::nanosUntilUnused);
+
+        private PolicyLeases(RateLimitPolicy policy) {
+            this.policy = policy;
+            this.policyLeaseSize = Math.min(leaseSize, policy.getBurst());
+        }
+
+        public boolean tryAcquire(Object key) {
+            long now = System.currentTimeMillis();
+            Lease lease = leases.getOrCreate(key);
+            if (lease.tryTake(now)) {
+                leaseHits.increment();
+                return true;
+            }
+            if (now < lease.deniedUntil) {
+                denied.increment();
+                return false;
+            }
+            if (now < fallbackUntil) {
+                fallbacks.increment();
+                return true;
+            }
+
+            long granted;
+            try {
+                redisCalls.increment();
+                granted = acquireWithin(policy, key, policyLeaseSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fallbacks.increment();
+                return true;
+            } catch (Exception e) {
+                fallbackUntil = now + fallbackRetryMs;
+                fallbacks.increment();
+                log.warning("분산 전송 제한 Redis 호출 실패, " + fallbackRetryMs + "ms 동안 로컬 제한만 적용: " + e.getMessage());
+                return true;
+            }
+            if (fallbackUntil != 0) {
+                fallbackUntil = 0;
+                log.info("분산 전송 제한 Redis 연결 복구");
+            }
+
+            // Redis 호출 중에 빈 선할당이 저장소에서 제거되었을 수 있으므로 다시 조회
+            lease = leases.getOrCreate(key);
+            if (granted <= 0) {
+                lease.deniedUntil = now - granted;
+                denied.increment();
+                return false;
+            }
+            // Redis 응답이 늦었을 수 있으므로 만료 시각은 응답 후 기준
+            lease.add(granted - 1, System.currentTimeMillis() + leaseTtlMs);
+            return true;
+        }
+    }
+
+    /**
+     * 키 하나의 선할당 토큰 (남은 수 상위 16비트 + 만료 시각(ms) 하위 48비트를 AtomicLong 하나로 CAS 갱신)
+     */
+    static final class Lease {
+        static final int EXPIRY_BITS = 48;
+        static final long EXPIRY_MASK = (1L << EXPIRY_BITS) - 1;
+        static final int MAX_REMAINING = (1 << (Long.SIZE - EXPIRY_BITS)) - 1;
+
+        private final AtomicLong state = new AtomicLong();
+
+        // Redis가 거절한 뒤 다시 물어볼 시각(ms), 거절할 때만 씀
+        volatile long deniedUntil;
+
+        boolean tryTake(long now) {
+            for (;;) {
+                long current = state.get();
+                long remaining = current >>> EXPIRY_BITS;
+                if (remaining == 0 || now >= (current & EXPIRY_MASK)) {
+                    return false;
+                }
+                if (state.compareAndSet(current, current - (1L << EXPIRY_BITS))) {
+                    return true;
+                }
+            }
+        }
+
+        // 동시에 받은 선할당은 합치고 만료 시각은 늦은 쪽으로
+        void add(long permits, long expiresAt) {
+            for (;;) {
+                long current = state.get();
+                long expiry = current & EXPIRY_MASK;
+                long remaining = expiry > System.currentTimeMillis() ? current >>> EXPIRY_BITS : 0;
+                long next = (Math.min(MAX_REMAINING, remaining + permits) << EXPIRY_BITS) | (Math.max(expiry, expiresAt) & EXPIRY_MASK);
+                if (state.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        // 선할당 만료와 거절 유지 중 늦은 쪽까지 남은 시간 (ns)
+        long nanosUntilUnused() {
+            long until = Math.max(state.get() & EXPIRY_MASK, deniedUntil);
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, until - System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * 분산 전송 제한 집계 DTO
+     */
+    public static class Stats {
+        private final long leaseHits;
+        private final long redisCalls;
+        private final long denied;
+        private final long fallbacks;
+        private final boolean fallbackActive;
+
+        public Stats(long leaseHits, long redisCalls, long denied, long fallbacks, boolean fallbackActive) {
+            this.leaseHits = leaseHits;
+            this.redisCalls = redisCalls;
+            this.denied = denied;
+            this.fallbacks = fallbacks;
+            this.fallbackActive = fallbackActive;
+        }
+
+        public long getLeaseHits() { return leaseHits; }
+        public long getRedisCalls() { return redisCalls; }
+        public long getDenied() { return denied; }
+        public long getFallbacks() { return fallbacks; }
+        public boolean isFallbackActive() { return fallbackActive; }
+    }
+}
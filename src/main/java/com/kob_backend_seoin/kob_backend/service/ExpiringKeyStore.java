@@ -0,0 +1,176 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * 전송 제한 키별 상태 저장소 (hashed timer wheel 만료, 최대 키 수 제한)
+ *
+ * - 조회는 ConcurrentHashMap.get 하나뿐이며 아무것도 쓰지 않습니다. 값(토큰 버킷 등)이 스스로 마지막 사용 시각을 갖고 있으므로
+ *   접근 시각을 따로 기록하지 않습니다.
+ * - 새 키를 만들 때만 휠에 등록합니다. 칸을 지날 때 값이 쓸모없어졌으면(idleNanos가 0) 제거하고,
+ *   아니면 쓸모없어질 시각의 칸으로 다시 옮깁니다 (IdleSessionDetector와 같은 방식).
+ * - 별도 스레드 없이 새 키를 만드는 호출이 지나간 칸을 정리합니다 (다른 스레드가 정리 중이면 건너뜀).
+ *   새 키가 없으면 저장소도 커지지 않으므로 정리가 늦어도 메모리가 늘지 않습니다.
+ * - 키 수가 maxKeys에 닿으면 휠에서 가장 먼저 쓸모없어질 항목부터 제거합니다.
+ */
+final class ExpiringKeyStore<V> {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int SLOTS = 128;
+
+    private final long maxKeys;
+    private final Function<Object, V> factory;
+    private final ToLongFunction<V> idleNanos;
+    private final ConcurrentHashMap<Object, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry<V>> pendingAdds = new ConcurrentLinkedQueue<>();
+
+    // 정리 중인 스레드만 휠을 변경
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Entry<V>>[] wheel = new ArrayDeque[SLOTS];
+    private long currentTick;
+    private volatile long nextMaintenanceTick;
+
+    /**
+     * @param maxKeys   최대 키 수
+     * @param factory   키별 새 값 생성
+     * @param idleNanos 값이 쓸모없어질 때까지 남은 시간 (0이면 제거해도 새 값과 같음)
+     */
+    ExpiringKeyStore(long maxKeys, Function<Object, V> factory, ToLongFunction<V> idleNanos) {
+        this.maxKeys = maxKeys;
+        this.factory = factory;
+        this.idleNanos = idleNanos;
+        for (int i = 0; i < SLOTS; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        this.currentTick = tick(System.nanoTime());
+        this.nextMaintenanceTick = currentTick + 1;
+    }
+
+    V get(Object key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    V getOrCreate(Object key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            return entry.value;
+        }
+
+        Entry<V> created = new Entry<>(key, factory.apply(key));
+        entry = entries.putIfAbsent(key, created);
+        if (entry != null) {
+            return entry.value;
+        }
+
+        pendingAdds.add(created);
+        if (entries.size() > maxKeys || tick(System.nanoTime()) >= nextMaintenanceTick) {
+            maintain(false);
+        }
+        return created.value;
+    }
+
+    void remove(Object key) {
+        entries.remove(key);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 지나간 칸을 정리한 뒤 키 수 반환
+     */
+    int size() {
+        maintain(true);
+        return entries.size();
+    }
+
+    private void maintain(boolean wait) {
+        if (wait) {
+            maintenanceLock.lock();
+        } else if (!maintenanceLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            Entry<V> added;
+            while ((added = pendingAdds.poll()) != null) {
+                schedule(added, now);
+            }
+
+            // 오래 정리하지 않았으면 한 바퀴만 돌면 모든 칸을 확인함
+            long targetTick = tick(now);
+            currentTick = Math.max(currentTick, targetTick - SLOTS);
+            while (currentTick < targetTick) {
+                currentTick++;
+                expire(wheel[slot(currentTick)], now);
+            }
+            nextMaintenanceTick = currentTick + 1;
+
+            evictOverCapacity();
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private void expire(ArrayDeque<Entry<V>> slot, long now) {
+        for (int i = slot.size(); i > 0; i--) {
+            Entry<V> entry = slot.poll();
+            // 초기화 등으로 이미 제거되었거나 같은 키로 새 값이 만들어진 경우
+            if (entries.get(entry.key) != entry) {
+                continue;
+            }
+            if (idleNanos.applyAsLong(entry.value) <= 0) {
+                entries.remove(entry.key, entry);
+            } else {
+                schedule(entry, now);
+            }
+        }
+    }
+
+    // 다음 틱부터 휠 순서대로 (가장 먼저 쓸모없어질 항목부터) 제거
+    private void evictOverCapacity() {
+        for (int offset = 1; offset <= SLOTS && entries.size() > maxKeys; offset++) {
+            ArrayDeque<Entry<V>> slot = wheel[slot(currentTick + offset)];
+            Entry<V> entry;
+            while (entries.size() > maxKeys && (entry = slot.poll()) != null) {
+                entries.remove(entry.key, entry);
+            }
+        }
+    }
+
+    // 쓸모없어질 시각의 칸에 배치 (한 바퀴를 넘으면 마지막 칸에 두고 그때 다시 확인)
+    private void schedule(Entry<V> entry, long now) {
+        long ticks = Math.max(1, (idleNanos.applyAsLong(entry.value) + TICK_NANOS - 1) / TICK_NANOS);
+        long tick = Math.max(tick(now), currentTick) + Math.min(ticks, SLOTS - 1);
+        wheel[slot(tick)].add(entry);
+    }
+
+    // System.nanoTime은 음수일 수 있음
+    private static long tick(long nanos) {
+        return Math.floorDiv(nanos, TICK_NANOS);
+    }
+
+    private static int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) SLOTS);
+    }
+
+    private static final class Entry<V> {
+        private final Object key;
+        private final V value;
+
+        private Entry(Object key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -5,9 +5,15 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.JWTVerifier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtProvider {
@@ -15,13 +21,55 @@ public class JwtProvider {
     private final long ACCESS_TOKEN_EXPIRE_MS = 1000 * 60 * 60; // 1시간
     private final long REFRESH_TOKEN_EXPIRE_MS = 1000L * 60 * 60 * 24 * 7; // 7일
 
+    // 서명 알고리즘과 검증기는 스레드 안전하므로 한 번만 생성
+    private final Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY);
+    private final JWTVerifier verifier = JWT.require(algorithm).build();
+
+    // 검증에 성공한 토큰 캐시 (같은 토큰의 반복 요청은 HMAC 계산과 JSON 파싱을 건너뜀)
+    // 항목은 토큰 만료 시각 또는 최대 TTL 중 빠른 쪽에 사라지므로 만료된 토큰이 캐시로 통과하지 않음
+    private final Cache<String, DecodedJWT> verifiedTokens;
+
+    public JwtProvider() {
+        this(10000, 300);
+    }
+
+    @Autowired
+    public JwtProvider(@Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+                       @Value("${jwt.verified-cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, DecodedJWT>() {
+                    @Override
+                    public long expireAfterCreate(String token, DecodedJWT jwt, long currentTime) {
+                        Date expiresAt = jwt.getExpiresAt();
+                        if (expiresAt == null) {
+                            return maxTtlNanos;
+                        }
+                        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(expiresAt.getTime() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(remainingNanos, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, DecodedJWT jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, DecodedJWT jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public String createAccessToken(String userId, String email) {
         return JWT.create()
                 .withSubject(userId)
                 .withClaim("email", email)
                 .withIssuedAt(new Date())
                 .withExpiresAt(new Date(System.currentTimeMillis() + ACCESS_TOKEN_EXPIRE_MS))
-                .sign(Algorithm.HMAC256(SECRET_KEY));
+                .sign(algorithm);
     }
 
     public String createRefreshToken(String userId) {
@@ -29,12 +77,21 @@ public class JwtProvider {
                 .withSubject(userId)
                 .withIssuedAt(new Date())
                 .withExpiresAt(new Date(System.currentTimeMillis() + REFRESH_TOKEN_EXPIRE_MS))
-                .sign(Algorithm.HMAC256(SECRET_KEY));
+                .sign(algorithm);
     }
 
+    /**
+     * 토큰 서명과 만료를 검증 (최근 검증한 토큰은 캐시에서 반환)
+     * 검증 실패한 토큰은 캐시하지 않으므로 매번 다시 검증됩니다.
+     */
     public DecodedJWT verifyToken(String token) throws JWTVerificationException {
-        JWTVerifier verifier = JWT.require(Algorithm.HMAC256(SECRET_KEY)).build();
-        return verifier.verify(token);
+        DecodedJWT cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            return cached;
+        }
+        DecodedJWT decodedJWT = verifier.verify(token);
+        verifiedTokens.put(token, decodedJWT);
+        return decodedJWT;
     }
 
     public boolean isTokenExpired(String token) {
@@ -46,4 +103,4 @@ public class JwtProvider {
             return true; // 검증 실패 시 만료된 것으로 처리
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,366 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import com.kob_backend_seoin.kob_backend.exception.CustomException;
+import com.kob_backend_seoin.kob_backend.exception.ErrorCode;
+
+import java.util.logging.Logger;
+
+/**
+ * 메시지 검증 + 정화를 한 번에 훑는 스캐너 (MessageFilterService.validateAndFilter)
+ *
+ * 메시지를 앞에서부터 한 글자씩 읽으며 다음을 동시에 처리합니다.
+ * - 검증: 공백 여부, 줄 수(String.lines와 같은 기준), 같은 글자 연속, 금지어(ProhibitedWordMatcher 상태 전이)
+ * - 정화: HTML 태그(<...>) 제거, 이메일/전화번호/URL 마스킹, 스크립트 키워드 제거, 앞뒤 공백 제거
+ *
+ * 이메일/전화번호/URL은 기존 정규식과 같은 규칙으로 판단하며, 앞쪽을 미리 확인한 구간은 다시 확인하지 않으므로
+ * 전체 비용이 메시지 길이에 비례합니다. 결과는 메시지 길이에 맞춰 호출마다 만드는 StringBuilder에 씁니다
+ * (가상 스레드는 작업마다 새로 만들어지므로 ThreadLocal 버퍼는 재사용되지 않고 할당만 늘어남).
+ *
+ * 기존 정규식 순차 적용과 다른 점
+ * - URL 안의 이메일/전화번호는 따로 마스킹하지 않고 URL 전체를 [링크] 하나로 바꿉니다.
+ * - 신뢰 도메인은 URL마다 호스트로 판단합니다 (메시지 어딘가에 github.com이 있으면 모든 URL을 허용하던 방식 대신).
+ * - 스크립트 키워드는 결과에 쓰는 즉시 제거하므로, 다른 키워드를 지워 새로 생긴 키워드(onlonloadoad)도 남지 않습니다.
+ */
+final class MessageSanitizer {
+
+    private static final Logger log = Logger.getLogger(MessageSanitizer.class.getName());
+
+    static final String EMAIL_MASK = "[이메일 주소]";
+    static final String PHONE_MASK = "[전화번호]";
+    static final String URL_MASK = "[링크]";
+
+    // 결과에서 제거할 스크립트 키워드 (소문자, ASCII 대소문자 무시)
+    private static final String[] SCRIPT_KEYWORDS = {"javascript:", "vbscript:", "onload", "onerror"};
+
+    // 마스킹하지 않는 URL 호스트 (하위 도메인 포함)
+    private static final String[] TRUSTED_DOMAINS = {"youtube.com", "github.com", "stackoverflow.com"};
+
+    private final int maxLength;
+    private final int maxLineCount;
+    private final int maxConsecutiveSameChars;
+
+    MessageSanitizer(int maxLength, int maxLineCount, int maxConsecutiveSameChars) {
+        this.maxLength = maxLength;
+        this.maxLineCount = maxLineCount;
+        this.maxConsecutiveSameChars = maxConsecutiveSameChars;
+    }
+
+    /**
+     * 검증 후 정화된 메시지 반환 (검증 실패 시 기존과 같은 순서/문구로 CustomException)
+     */
+    String sanitize(String content, ProhibitedWordMatcher prohibitedWords) {
+        int length = content.length();
+        if (length > maxLength) {
+            if (content.isBlank()) {
+                throw new CustomException("메시지 내용이 비어있습니다", ErrorCode.INVALID_INPUT);
+            }
+            throw new CustomException("메시지가 너무 깁니다 (최대 " + maxLength + "자)", ErrorCode.INVALID_INPUT);
+        }
+
+        // 마스킹으로 조금 길어지는 경우까지 한 번에 담도록 입력 길이보다 약간 크게 할당
+        StringBuilder out = new StringBuilder(length + 16);
+
+        boolean blank = true;
+        int lineBreaks = 0;
+        char repeatChar = 0;
+        int repeatCount = 0;
+        boolean repeated = false;
+        int wordState = 0;
+        String prohibitedWord = null;
+
+        // 이 위치 전까지는 결과에 쓰지 않음 (태그 또는 마스킹한 구간)
+        int skipUntil = 0;
+        // 마지막 이메일/전화번호 마스킹이 끝난 위치 (그 뒤는 ']' 다음이므로 단어 경계)
+        int maskEnd = -1;
+        // 이메일이 아닌 것으로 확인한 로컬 파트 문자 구간의 끝
+        int localRunEnd = 0;
+        // 다음 '>' 위치 (-2: 아직 찾지 않음, -1: 더 없음)
+        int nextTagClose = -2;
+
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+
+            // 1. 검증 (태그/마스킹 구간 포함 원문 기준)
+            if (c > ' ') {
+                blank = false;
+            }
+            if (c == '\r' || (c == '\n' && (i == 0 || content.charAt(i - 1) != '\r'))) {
+                lineBreaks++;
+            }
+            if (isRepeatChecked(c)) {
+                repeatCount = c == repeatChar ? repeatCount + 1 : 1;
+                repeatChar = c;
+                if (repeatCount >= maxConsecutiveSameChars) {
+                    repeated = true;
+                }
+            } else {
+                repeatChar = 0;
+            }
+            if (prohibitedWord == null) {
+                wordState = prohibitedWords.next(wordState, c);
+                prohibitedWord = prohibitedWords.matchAt(wordState);
+            }
+
+            // 검증에 실패했으면 결과를 만들지 않고 나머지 줄 수만 셈
+            if (i < skipUntil || repeated || prohibitedWord != null) {
+                continue;
+            }
+
+            // 2. HTML 태그: 다음 '>'까지 제거 (닫히지 않은 '<'는 그대로 둠)
+            if (c == '<') {
+                if (nextTagClose != -1 && nextTagClose < i) {
+                    nextTagClose = content.indexOf('>', i);
+                }
+                if (nextTagClose >= 0) {
+                    skipUntil = nextTagClose + 1;
+                    continue;
+                }
+            }
+
+            // 3. 이메일: 로컬 파트 문자 구간 시작에서 '@' + 도메인까지 한 번만 확인
+            if (i >= localRunEnd && isLocalPartChar(c)) {
+                int runEnd = i + 1;
+                while (runEnd < length && isLocalPartChar(content.charAt(runEnd))) {
+                    runEnd++;
+                }
+                int emailEnd = runEnd < length && content.charAt(runEnd) == '@' ? matchDomain(content, runEnd + 1) : -1;
+                if (emailEnd > 0) {
+                    out.append(EMAIL_MASK);
+                    skipUntil = emailEnd;
+                    maskEnd = emailEnd;
+                    continue;
+                }
+                localRunEnd = runEnd;
+            }
+
+            // 4. URL (신뢰 도메인이면 그대로 두고 한 글자씩 계속 처리)
+            if (c == 'h') {
+                int urlEnd = matchUrl(content, i);
+                if (urlEnd > 0) {
+                    out.append(URL_MASK);
+                    skipUntil = urlEnd;
+                    continue;
+                }
+            }
+
+            // 5. 전화번호 (\b: 앞 글자가 단어 문자가 아니어야 함)
+            if (c >= '0' && c <= '9' && (i == 0 || i == maskEnd || !isWordChar(content.charAt(i - 1)))) {
+                int phoneEnd = matchPhone(content, i);
+                if (phoneEnd > 0) {
+                    out.append(PHONE_MASK);
+                    skipUntil = phoneEnd;
+                    maskEnd = phoneEnd;
+                    continue;
+                }
+            }
+
+            out.append(c);
+            if (c == ':' || c == 'd' || c == 'D' || c == 'r' || c == 'R') {
+                removeScriptKeyword(out);
+            }
+        }
+
+        if (length > 0 && content.charAt(length - 1) != '\n' && content.charAt(length - 1) != '\r') {
+            lineBreaks++;
+        }
+        if (blank) {
+            throw new CustomException("메시지 내용이 비어있습니다", ErrorCode.INVALID_INPUT);
+        }
+        if (lineBreaks > maxLineCount) {
+            throw new CustomException("메시지 줄 수가 너무 많습니다 (최대 " + maxLineCount + "줄)", ErrorCode.INVALID_INPUT);
+        }
+        if (repeated) {
+            throw new CustomException("같은 문자를 " + maxConsecutiveSameChars + "번 이상 연속으로 사용할 수 없습니다", ErrorCode.INVALID_INPUT);
+        }
+        if (prohibitedWord != null) {
+            log.warning("금지어 감지: " + prohibitedWord);
+            throw new CustomException("부적절한 내용이 포함되어 있습니다", ErrorCode.INVALID_INPUT);
+        }
+
+        // 6. 앞뒤 공백 제거 (String.trim 기준)
+        int start = 0;
+        int end = out.length();
+        while (start < end && out.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && out.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return out.substring(start, end);
+    }
+
+    /**
+     * 이메일 도메인 끝 위치 ([a-zA-Z0-9.-]+\.[a-zA-Z]{2,}, 없으면 -1)
+     * 도메인 문자 구간에서 뒤에 영문자가 2개 이상 오는 가장 오른쪽 '.'을 찾음 (정규식 greedy 역추적과 같은 결과)
+     */
+    private static int matchDomain(String s, int start) {
+        int runEnd = start;
+        while (runEnd < s.length() && isDomainChar(s.charAt(runEnd))) {
+            runEnd++;
+        }
+        int letters = 0;
+        for (int k = runEnd - 1; k > start; k--) {
+            char c = s.charAt(k);
+            if (c == '.' && letters >= 2) {
+                return k + 1 + letters;
+            }
+            letters = isAsciiLetter(c) ? letters + 1 : 0;
+        }
+        return -1;
+    }
+
+    /**
+     * 마스킹할 URL 끝 위치 (https?://[\w-]+(\.[\w-]+)+ 뒤 경로, 아니거나 신뢰 도메인이면 -1)
+     */
+    private static int matchUrl(String s, int start) {
+        int p;
+        if (s.startsWith("https://", start)) {
+            p = start + 8;
+        } else if (s.startsWith("http://", start)) {
+            p = start + 7;
+        } else {
+            return -1;
+        }
+
+        int hostStart = p;
+        p = skipLabel(s, p);
+        if (p == hostStart) {
+            return -1;
+        }
+        int labels = 0;
+        while (p + 1 < s.length() && s.charAt(p) == '.' && isLabelChar(s.charAt(p + 1))) {
+            p = skipLabel(s, p + 1);
+            labels++;
+        }
+        if (labels == 0 || isTrustedHost(s, hostStart, p)) {
+            return -1;
+        }
+
+        // 경로: 경로 문자 구간 중 마지막 끝 문자까지 (끝의 . , :는 제외)
+        int hostEnd = p;
+        while (p < s.length() && isPathChar(s.charAt(p))) {
+            p++;
+        }
+        while (p > hostEnd && !isPathEndChar(s.charAt(p - 1))) {
+            p--;
+        }
+        return p;
+    }
+
+    /**
+     * 전화번호 끝 위치 (\d{2,3}-\d{3,4}-\d{4}\b 또는 \d{10,11}\b, 없으면 -1)
+     */
+    private static int matchPhone(String s, int start) {
+        int first = skipDigits(s, start);
+        int digits = first - start;
+        if ((digits == 2 || digits == 3) && charAt(s, first) == '-') {
+            int second = skipDigits(s, first + 1);
+            int secondDigits = second - first - 1;
+            if ((secondDigits == 3 || secondDigits == 4) && charAt(s, second) == '-') {
+                int third = skipDigits(s, second + 1);
+                if (third - second - 1 == 4 && !isWordChar(charAt(s, third))) {
+                    return third;
+                }
+            }
+        }
+        if ((digits == 10 || digits == 11) && !isWordChar(charAt(s, first))) {
+            return first;
+        }
+        return -1;
+    }
+
+    // 결과 끝에 스크립트 키워드가 생겼으면 제거 (쓸 때마다 확인하므로 키워드는 끝에만 생길 수 있음)
+    private static void removeScriptKeyword(StringBuilder out) {
+        for (String keyword : SCRIPT_KEYWORDS) {
+            int start = out.length() - keyword.length();
+            if (start >= 0 && endsWithIgnoreCase(out, start, keyword)) {
+                out.setLength(start);
+                return;
+            }
+        }
+    }
+
+    private static boolean endsWithIgnoreCase(StringBuilder out, int start, String keyword) {
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = out.charAt(start + i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTrustedHost(String s, int hostStart, int hostEnd) {
+        int hostLength = hostEnd - hostStart;
+        for (String domain : TRUSTED_DOMAINS) {
+            int offset = hostLength - domain.length();
+            if (offset >= 0 && s.regionMatches(true, hostEnd - domain.length(), domain, 0, domain.length())
+                    && (offset == 0 || s.charAt(hostEnd - domain.length() - 1) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipLabel(String s, int p) {
+        while (p < s.length() && isLabelChar(s.charAt(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    private static int skipDigits(String s, int p) {
+        while (p < s.length() && s.charAt(p) >= '0' && s.charAt(p) <= '9') {
+            p++;
+        }
+        return p;
+    }
+
+    // 범위 밖은 단어 문자가 아닌 값
+    private static char charAt(String s, int index) {
+        return index < s.length() ? s.charAt(index) : 0;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // 정규식 \w (ASCII)
+    private static boolean isWordChar(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // [a-zA-Z가-힣]
+    private static boolean isRepeatChecked(char c) {
+        return isAsciiLetter(c) || (c >= '가' && c <= '힣');
+    }
+
+    // [a-zA-Z0-9._%+-]
+    private static boolean isLocalPartChar(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    // [a-zA-Z0-9.-]
+    private static boolean isDomainChar(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '.' || c == '-';
+    }
+
+    // [\w-]
+    private static boolean isLabelChar(char c) {
+        return isWordChar(c) || c == '-';
+    }
+
+    // [\w\-@?^=%&/~+#]
+    private static boolean isPathEndChar(char c) {
+        return isLabelChar(c) || c == '@' || c == '?' || c == '^' || c == '=' || c == '%' || c == '&'
+                || c == '/' || c == '~' || c == '+' || c == '#';
+    }
+
+    // [\w\-.,@?^=%&:/~+#]
+    private static boolean isPathChar(char c) {
+        return isPathEndChar(c) || c == '.' || c == ',' || c == ':';
+    }
+}
@@ -1,5 +1,6 @@
 package com.kob_backend_seoin.kob_backend.service;
 
+import com.kob_backend_seoin.kob_backend.config.Neo4jConfig;
 import com.kob_backend_seoin.kob_backend.domain.BusinessCard;
 import com.kob_backend_seoin.kob_backend.domain.neo4j.Person;
 import com.kob_backend_seoin.kob_backend.dto.Network.*;
@@ -13,7 +14,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
-@Transactional
+@Transactional(Neo4jConfig.TRANSACTION_MANAGER)
 public class NetworkService {
     private final PersonRepository personRepository;
     private final BusinessCardRepository businessCardRepository;
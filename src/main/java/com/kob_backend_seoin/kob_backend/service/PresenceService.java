@@ -0,0 +1,353 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import com.kob_backend_seoin.kob_backend.config.KeyedSerialExecutor;
+import com.kob_backend_seoin.kob_backend.dto.Chat.WsEnvelope;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 사용자 접속 상태(presence) 관리
+ *
+ * - 이 노드의 접속 정보는 사용자 ID 해시로 나눈 shard(ConcurrentHashMap)에 사용자별 세션 집합으로 보관합니다.
+ *   탭을 여러 개 열면 세션이 여러 개 등록되고, 마지막 세션이 끊길 때만 오프라인이 됩니다.
+ * - 마지막 활동 시각은 락 없이 갱신합니다 (activity-resolution-ms 이내의 반복 갱신은 건너뜀).
+ * - 온라인/오프라인 전환은 사용자별 메일박스에서 순서대로 처리하여 /topic/presence/{userId} 구독자(관심 있는 연락처)에게 알리고
+ *   PresenceChangedEvent를 발행합니다.
+ * - chat.cluster.enabled=true 이면 ClusterPresenceStore(Redis)에 노드별 접속을 TTL 하트비트로 기록하여
+ *   다른 노드에 접속한 사용자도 온라인으로 판단하고, 모든 노드에서 끊겼을 때만 오프라인을 알립니다.
+ */
+@Service
+public class PresenceService {
+
+    private static final Logger log = Logger.getLogger(PresenceService.class.getName());
+
+    private final ChatBroadcaster chatBroadcaster;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<ClusterPresenceStore> clusterStore;
+    private final TaskScheduler scheduler;
+    private final KeyedSerialExecutor transitions;
+    private final long activityResolutionMs;
+    private final Duration heartbeatInterval;
+
+    private final Map<String, UserPresence>[] shards;
+
+    // 온라인으로 알린 사용자 (사용자별 메일박스 안에서만 변경)
+    private final Set<String> announced = ConcurrentHashMap.newKeySet();
+
+    // 통계 정보
+    private final AtomicInteger totalConnections = new AtomicInteger(0);
+    private final AtomicInteger totalDisconnections = new AtomicInteger(0);
+
+    private ScheduledFuture<?> heartbeat;
+
+    @Autowired
+    @SuppressWarnings("unchecked")
+    public PresenceService(ChatBroadcaster chatBroadcaster,
+                           ApplicationEventPublisher eventPublisher,
+                           ObjectProvider<ClusterPresenceStore> clusterStore,
+                           @Qualifier("wsHeartbeatTaskScheduler") TaskScheduler scheduler,
+                           @Qualifier("presenceTaskExecutor") TaskExecutor presenceTaskExecutor,
+                           @Value("${chat.presence.shards:64}") int shardCount,
+                           @Value("${chat.presence.stripes:64}") int stripes,
+                           @Value("${chat.presence.activity-resolution-ms:1000}") long activityResolutionMs,
+                           @Value("${chat.presence.heartbeat-seconds:30}") long heartbeatSeconds) {
+        this.chatBroadcaster = chatBroadcaster;
+        this.eventPublisher = eventPublisher;
+        this.clusterStore = clusterStore;
+        this.scheduler = scheduler;
+        this.transitions = new KeyedSerialExecutor("presence", presenceTaskExecutor, stripes);
+        this.activityResolutionMs = activityResolutionMs;
+        this.heartbeatInterval = Duration.ofSeconds(heartbeatSeconds);
+
+        this.shards = new Map[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (clusterStore.getIfAvailable() != null) {
+            heartbeat = scheduler.scheduleAtFixedRate(this::sendHeartbeat, heartbeatInterval);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+    }
+
+    /**
+     * 세션 연결 등록 (사용자의 첫 세션이면 온라인 전환)
+     */
+    public void connected(String userId, String sessionId) {
+        long now = System.currentTimeMillis();
+        boolean[] first = {false};
+        shard(userId).compute(userId, (key, presence) -> {
+            if (presence == null) {
+                presence = new UserPresence(now);
+                first[0] = true;
+            }
+            presence.sessions.add(sessionId);
+            presence.lastActivity.set(now);
+            return presence;
+        });
+        totalConnections.incrementAndGet();
+
+        if (first[0]) {
+            scheduleTransition(userId);
+        }
+    }
+
+    /**
+     * 세션 연결 해제 (사용자의 마지막 세션이면 오프라인 전환)
+     */
+    public void disconnected(String userId, String sessionId) {
+        boolean[] found = {false};
+        boolean[] last = {false};
+        shard(userId).computeIfPresent(userId, (key, presence) -> {
+            found[0] = presence.sessions.remove(sessionId);
+            if (presence.sessions.isEmpty()) {
+                last[0] = true;
+                return null;
+            }
+            return presence;
+        });
+        if (found[0]) {
+            totalDisconnections.incrementAndGet();
+        }
+
+        if (last[0]) {
+            scheduleTransition(userId);
+        }
+    }
+
+    /**
+     * 마지막 활동 시각 갱신 (락 없음)
+     */
+    public void touch(String userId) {
+        UserPresence presence = shard(userId).get(userId);
+        if (presence != null) {
+            long now = System.currentTimeMillis();
+            if (now - presence.lastActivity.get() >= activityResolutionMs) {
+                presence.lastActivity.lazySet(now);
+            }
+        }
+    }
+
+    /**
+     * 사용자가 온라인인지 확인 (이 노드에 세션이 있으면 바로 true, 아니면 다른 노드 접속 여부 확인)
+     */
+    public boolean isUserOnline(String userId) {
+        if (shard(userId).containsKey(userId)) {
+            return true;
+        }
+        ClusterPresenceStore store = clusterStore.getIfAvailable();
+        if (store == null) {
+            return false;
+        }
+        try {
+            return store.isOnline(userId);
+        } catch (Exception e) {
+            log.warning("클러스터 접속 상태 조회 실패 - userId: " + userId + ", " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 이 노드에 연결된 사용자 목록
+     */
+    public Set<String> getLocalOnlineUsers() {
+        Set<String> users = new HashSet<>();
+        for (Map<String, UserPresence> shard : shards) {
+            users.addAll(shard.keySet());
+        }
+        return users;
+    }
+
+    /**
+     * 이 노드에 연결된 사용자 수
+     */
+    public int getLocalOnlineUserCount() {
+        int count = 0;
+        for (Map<String, UserPresence> shard : shards) {
+            count += shard.size();
+        }
+        return count;
+    }
+
+    /**
+     * 이 노드에서 사용자의 세션 수
+     */
+    public int getSessionCount(String userId) {
+        UserPresence presence = shard(userId).get(userId);
+        return presence != null ? presence.sessions.size() : 0;
+    }
+
+    /**
+     * 이 노드에서 사용자의 마지막 활동 시각 (연결이 없으면 0)
+     */
+    public long getLastActivity(String userId) {
+        UserPresence presence = shard(userId).get(userId);
+        return presence != null ? presence.lastActivity.get() : 0;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getTotalDisconnections() {
+        return totalDisconnections.get();
+    }
+
+    private Map<String, UserPresence> shard(String userId) {
+        int hash = userId.hashCode();
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+
+    // 전환 처리는 사용자별로 순서대로 실행하고, 실행 시점의 접속 상태를 다시 확인함 (연결/해제가 빠르게 반복되어도 마지막 상태만 반영)
+    private void scheduleTransition(String userId) {
+        transitions.execute(userId, () -> applyTransition(userId));
+    }
+
+    private void applyTransition(String userId) {
+        boolean online = shard(userId).containsKey(userId);
+        if (online == announced.contains(userId)) {
+            return;
+        }
+
+        boolean onlineElsewhere = false;
+        ClusterPresenceStore store = clusterStore.getIfAvailable();
+        if (online) {
+            announced.add(userId);
+            if (store != null) {
+                onlineElsewhere = callStore(() -> store.join(userId), userId);
+            }
+        } else {
+            announced.remove(userId);
+            if (store != null) {
+                onlineElsewhere = callStore(() -> store.leave(userId), userId);
+            }
+        }
+
+        // 다른 노드에 이미 접속해 있으면 전체 상태는 바뀌지 않았으므로 알리지 않음
+        if (!onlineElsewhere) {
+            publish(userId, online);
+        }
+    }
+
+    private boolean callStore(BooleanSupplier call, String userId) {
+        try {
+            return call.getAsBoolean();
+        } catch (Exception e) {
+            // Redis 장애 시에는 이 노드 기준으로 알림 (Redis가 복구되면 하트비트가 기록이 없는 사용자를 다시 기록함)
+            log.warning("클러스터 접속 상태 기록 실패 - userId: " + userId + ", " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void publish(String userId, boolean online) {
+        WsEnvelope<Map<String, Object>> envelope = new WsEnvelope<>(
+                online ? "presence.online" : "presence.offline",
+                WsEnvelope.newMessageId(),
+                System.currentTimeMillis(),
+                Map.of("userId", userId, "online", online)
+        );
+        try {
+            chatBroadcaster.sendToTopic("/topic/presence/" + userId, envelope);
+        } catch (Exception e) {
+            log.warning("접속 상태 알림 전송 실패 - userId: " + userId + ", " + e.getMessage());
+        }
+        eventPublisher.publishEvent(new PresenceChangedEvent(userId, online));
+
+        if (log.isLoggable(Level.FINE)) {
+            log.fine("접속 상태 변경: 사용자 " + userId + " → " + (online ? "온라인" : "오프라인"));
+        }
+    }
+
+    // 이 노드의 온라인 사용자 TTL 연장 (하트비트가 끊긴 노드의 기록은 TTL이 지나면 무시됨)
+    // 연장은 기록이 남아 있는 사용자만 하므로 목록을 읽은 뒤 해제된 사용자는 되살아나지 않음
+    private void sendHeartbeat() {
+        ClusterPresenceStore store = clusterStore.getIfAvailable();
+        if (store == null) {
+            return;
+        }
+        List<String> users = new ArrayList<>(announced);
+        if (users.isEmpty()) {
+            return;
+        }
+        List<String> missing;
+        try {
+            missing = store.refresh(users);
+        } catch (Exception e) {
+            log.warning("접속 상태 하트비트 실패: " + e.getMessage());
+            return;
+        }
+
+        // 기록이 없는 사용자는 전환 메일박스에서 아직 온라인인지 다시 확인한 뒤 기록 (해제와 순서가 보장됨)
+        for (String userId : missing) {
+            transitions.execute(userId, () -> {
+                if (announced.contains(userId)) {
+                    callStore(() -> store.join(userId), userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * 사용자별 접속 정보 (세션 집합은 compute 안에서만 변경, 활동 시각은 락 없이 갱신)
+     */
+    private static class UserPresence {
+        private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+        private final AtomicLong lastActivity;
+
+        private UserPresence(long now) {
+            this.lastActivity = new AtomicLong(now);
+        }
+    }
+
+    /**
+     * 사용자 온라인/오프라인 전환 이벤트 (클러스터 전체 기준)
+     */
+    public static class PresenceChangedEvent {
+        private final String userId;
+        private final boolean online;
+
+        public PresenceChangedEvent(String userId, boolean online) {
+            this.userId = userId;
+            this.online = online;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public boolean isOnline() {
+            return online;
+        }
+    }
+}
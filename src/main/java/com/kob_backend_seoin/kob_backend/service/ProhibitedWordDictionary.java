@@ -0,0 +1,196 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 금지어 사전 (DB chat_prohibited_words + 선택적 파일, 주기적 다시 읽기)
+ *
+ * - 사전에서 ProhibitedWordMatcher를 한 번 만들어 volatile 필드로 교체합니다. 메시지 필터링은 현재 매처를 읽기만 하므로
+ *   다시 읽는 중에도 기다리지 않고, 교체 전후 어느 한 쪽 사전으로만 검사합니다.
+ * - reload-interval-seconds마다 DB 행 수/최근 추가 시각과 파일 수정 시각을 확인하여 바뀐 경우에만 전체를 다시 읽습니다.
+ *   다른 노드에서 추가한 금지어도 이 주기 안에 반영됩니다.
+ * - 다시 읽기는 전용 단일 스레드 스케줄러에서 실행하므로 블로킹 JDBC/파일 읽기가 하트비트 등 다른 예약 작업을 막지 않습니다.
+ * - 다시 읽기에 실패하면 기존 매처를 그대로 사용합니다. DB를 읽기 전에는 기본 금지어로 검사합니다.
+ * - 파일은 한 줄에 금지어 하나이며, 빈 줄과 #으로 시작하는 줄은 무시합니다.
+ */
+@Component
+public class ProhibitedWordDictionary {
+
+    private static final Logger log = Logger.getLogger(ProhibitedWordDictionary.class.getName());
+
+    // V5__chat_prohibited_words.sql 시드와 같은 기본 금지어
+    static final List<String> DEFAULT_WORDS = List.of("스팸", "광고", "도박", "불법");
+
+    private static final String VERSION_SQL =
+            "SELECT COUNT(*) || ':' || COALESCE(CAST(MAX(created_at) AS VARCHAR), '') FROM chat_prohibited_words";
+    private static final String SELECT_WORDS_SQL = "SELECT word FROM chat_prohibited_words";
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_prohibited_words (word) VALUES (?) ON CONFLICT (word) DO NOTHING";
+    private static final String DELETE_SQL = "DELETE FROM chat_prohibited_words WHERE word = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration reloadInterval;
+    private final Path file;
+
+    private volatile ProhibitedWordMatcher matcher;
+
+    // 마지막으로 읽은 사전의 버전 (DB 행 수:최근 추가 시각 / 파일 수정 시각:크기)
+    private String loadedVersion;
+    private ThreadPoolTaskScheduler scheduler;
+    private ScheduledFuture<?> reloadTask;
+
+    /**
+     * 고정 사전 (DB/파일 없이 사용, 다시 읽지 않음)
+     */
+    public ProhibitedWordDictionary(Collection<String> words) {
+        this.jdbcTemplate = null;
+        this.reloadInterval = null;
+        this.file = null;
+        this.matcher = ProhibitedWordMatcher.of(words);
+    }
+
+    @Autowired
+    public ProhibitedWordDictionary(JdbcTemplate jdbcTemplate,
+                                    @Value("${chat.filter.prohibited-words.reload-interval-seconds:30}") long reloadIntervalSeconds,
+                                    @Value("${chat.filter.prohibited-words.file:}") String file) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reloadInterval = Duration.ofSeconds(Math.max(1, reloadIntervalSeconds));
+        this.file = file == null || file.isBlank() ? null : Path.of(file.trim());
+        this.matcher = ProhibitedWordMatcher.of(DEFAULT_WORDS);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (jdbcTemplate == null) {
+            return;
+        }
+        reload();
+
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("prohibited-words-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        // 방금 읽었으므로 첫 확인은 한 주기 뒤
+        reloadTask = scheduler.scheduleWithFixedDelay(this::reload, Instant.now().plus(reloadInterval), reloadInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloadTask != null) {
+            reloadTask.cancel(false);
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * 현재 금지어 매처 (다음 다시 읽기 전까지 변경 없음)
+     */
+    public ProhibitedWordMatcher getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * 사전이 바뀌었으면 다시 읽어 매처 교체
+     *
+     * @return 매처를 교체했으면 true
+     */
+    public synchronized boolean reload() {
+        if (jdbcTemplate == null) {
+            return false;
+        }
+        try {
+            String version = jdbcTemplate.queryForObject(VERSION_SQL, String.class) + "/" + fileVersion();
+            if (version.equals(loadedVersion)) {
+                return false;
+            }
+
+            List<String> words = new ArrayList<>(jdbcTemplate.queryForList(SELECT_WORDS_SQL, String.class));
+            words.addAll(readFile());
+
+            long start = System.nanoTime();
+            ProhibitedWordMatcher next = ProhibitedWordMatcher.of(words);
+            matcher = next;
+            loadedVersion = version;
+            log.info("금지어 사전 적용: " + next.size() + "개 (" + (System.nanoTime() - start) / 1_000_000 + "ms)");
+            return true;
+        } catch (Exception e) {
+            log.log(Level.WARNING, "금지어 사전 다시 읽기 실패, 기존 사전 유지", e);
+            return false;
+        }
+    }
+
+    /**
+     * 금지어 추가 (DB에 저장 후 즉시 이 노드에 반영, 다른 노드는 다음 확인 주기에 반영)
+     */
+    public void add(String word) {
+        String normalized = ProhibitedWordMatcher.normalize(word);
+        if (normalized == null) {
+            return;
+        }
+        if (jdbcTemplate == null) {
+            synchronized (this) {
+                List<String> words = new ArrayList<>(matcher.getWords());
+                words.add(normalized);
+                matcher = ProhibitedWordMatcher.of(words);
+            }
+            return;
+        }
+        jdbcTemplate.update(INSERT_SQL, normalized);
+        reload();
+    }
+
+    /**
+     * 금지어 삭제 (DB에 있는 금지어만 삭제 가능)
+     */
+    public void remove(String word) {
+        String normalized = ProhibitedWordMatcher.normalize(word);
+        if (normalized == null || jdbcTemplate == null) {
+            return;
+        }
+        jdbcTemplate.update(DELETE_SQL, normalized);
+        reload();
+    }
+
+    private String fileVersion() throws IOException {
+        if (file == null || !Files.exists(file)) {
+            return "";
+        }
+        return Files.getLastModifiedTime(file).toMillis() + ":" + Files.size(file);
+    }
+
+    private List<String> readFile() throws IOException {
+        if (file == null || !Files.exists(file)) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                words.add(trimmed);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,215 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 금지어 다중 패턴 매처 (Aho-Corasick 오토마톤, 생성 후 변경 없음)
+ *
+ * - 금지어 수와 관계없이 메시지를 한 번만 훑습니다. 문자마다 전이를 따라가고, 전이가 없으면 실패 링크로 돌아가므로
+ *   전체 비용은 메시지 길이에 비례합니다 (실패 링크 이동 횟수는 전진한 문자 수를 넘지 않음).
+ * - 상태별 전이를 문자 순으로 정렬한 배열에 담아 이진 탐색합니다 (상태마다 Map을 두지 않음).
+ * - 대소문자는 문자 단위 Character.toLowerCase로 맞추므로 메시지 전체를 소문자로 복사하지 않습니다.
+ * - 사전이 바뀌면 새 매처를 만들어 통째로 교체합니다 (ProhibitedWordDictionary).
+ */
+public final class ProhibitedWordMatcher {
+
+    private static final int ROOT = 0;
+
+    private final List<String> words;
+
+    // 상태 n의 전이: edgeChars/edgeTargets[edgeStart[n] .. edgeStart[n + 1])
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+
+    // 상태 n에 도달했을 때 끝나는 금지어 번호 (자신 또는 실패 링크 중 가장 가까운 것, 없으면 -1)
+    private final int[] match;
+
+    private ProhibitedWordMatcher(List<String> words, int[] edgeStart, char[] edgeChars, int[] edgeTargets,
+                                  int[] fail, int[] match) {
+        this.words = words;
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.match = match;
+    }
+
+    /**
+     * 금지어 목록으로 매처 생성 (앞뒤 공백 제거, 소문자 변환, 빈 단어와 중복 제외)
+     */
+    public static ProhibitedWordMatcher of(Collection<String> candidates) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String candidate : candidates) {
+            String word = normalize(candidate);
+            if (word != null) {
+                unique.add(word);
+            }
+        }
+        List<String> words = List.copyOf(unique);
+
+        // 1. 트라이 구성 (생성 시에만 TreeMap 사용)
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        children.add(new TreeMap<>());
+        terminal.add(-1);
+        for (int w = 0; w < words.size(); w++) {
+            String word = words.get(w);
+            int state = ROOT;
+            for (int i = 0; i < word.length(); i++) {
+                Integer next = children.get(state).get(word.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(word.charAt(i), next);
+                    children.add(new TreeMap<>());
+                    terminal.add(-1);
+                }
+                state = next;
+            }
+            terminal.set(state, w);
+        }
+
+        // 2. 정렬된 전이 배열로 변환
+        int states = children.size();
+        int[] edgeStart = new int[states + 1];
+        char[] edgeChars = new char[states - 1];
+        int[] edgeTargets = new int[states - 1];
+        int edge = 0;
+        for (int n = 0; n < states; n++) {
+            edgeStart[n] = edge;
+            for (var entry : children.get(n).entrySet()) {
+                edgeChars[edge] = entry.getKey();
+                edgeTargets[edge] = entry.getValue();
+                edge++;
+            }
+        }
+        edgeStart[states] = edge;
+
+        // 3. 너비 우선으로 실패 링크와 출력 계산 (부모의 실패 링크가 먼저 정해짐)
+        ProhibitedWordMatcher matcher = new ProhibitedWordMatcher(words, edgeStart, edgeChars, edgeTargets,
+                new int[states], new int[states]);
+        matcher.match[ROOT] = -1;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(ROOT);
+        while (!queue.isEmpty()) {
+            int parent = queue.poll();
+            for (int e = edgeStart[parent]; e < edgeStart[parent + 1]; e++) {
+                int child = edgeTargets[e];
+                int failure = ROOT;
+                if (parent != ROOT) {
+                    int state = matcher.fail[parent];
+                    while ((failure = matcher.transition(state, edgeChars[e])) < 0 && state != ROOT) {
+                        state = matcher.fail[state];
+                    }
+                    failure = Math.max(failure, ROOT);
+                }
+                matcher.fail[child] = failure;
+                matcher.match[child] = terminal.get(child) >= 0 ? terminal.get(child) : matcher.match[failure];
+                queue.add(child);
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * 메시지에서 처음으로 끝나는 금지어 반환 (없으면 null)
+     */
+    public String findFirst(CharSequence text) {
+        if (words.isEmpty()) {
+            return null;
+        }
+        int state = ROOT;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            state = next(state, text.charAt(i));
+            if (match[state] >= 0) {
+                return words.get(match[state]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 문자 하나를 읽은 다음 상태 (다른 검사와 함께 한 글자씩 훑을 때 사용, 시작 상태는 0)
+     */
+    int next(int state, char c) {
+        char lower = Character.toLowerCase(c);
+        int next;
+        while ((next = transition(state, lower)) < 0 && state != ROOT) {
+            state = fail[state];
+        }
+        return Math.max(next, ROOT);
+    }
+
+    /**
+     * 상태에 도달했을 때 끝나는 금지어 (없으면 null)
+     */
+    String matchAt(int state) {
+        int word = match[state];
+        return word >= 0 ? words.get(word) : null;
+    }
+
+    /**
+     * 금지어 포함 여부
+     */
+    public boolean matches(CharSequence text) {
+        return findFirst(text) != null;
+    }
+
+    /**
+     * 금지어 수
+     */
+    public int size() {
+        return words.size();
+    }
+
+    /**
+     * 정규화된 금지어 목록 (변경 불가)
+     */
+    public List<String> getWords() {
+        return words;
+    }
+
+    /**
+     * 금지어 정규화 (앞뒤 공백 제거 + 소문자, 비어 있으면 null)
+     */
+    static String normalize(String word) {
+        if (word == null) {
+            return null;
+        }
+        String trimmed = word.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        // findFirst와 같은 문자 단위 변환 (Locale에 따라 길이가 바뀌는 String.toLowerCase를 쓰지 않음)
+        char[] chars = trimmed.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    // 상태의 전이 중 문자 c (이진 탐색, 없으면 -1)
+    private int transition(int state, char c) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = edgeChars[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+}
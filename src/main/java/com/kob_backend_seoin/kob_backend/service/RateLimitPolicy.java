@@ -0,0 +1,59 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 전송 제한 정책 (토큰 버킷 설정)
+ *
+ * permitsPerSecond 속도로 토큰이 채워지고, 한동안 쉬었다면 burst개까지 연달아 사용할 수 있습니다.
+ * 정책마다 키(사용자 ID, 채팅방 ID, IP 등)별 버킷을 따로 둡니다.
+ */
+public class RateLimitPolicy {
+
+    private final String name;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long tokenCost;
+    private final long capacity;
+
+    public RateLimitPolicy(String name, double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("전송 제한 설정 오류 (" + name + "): permits-per-second > 0, burst >= 1 이어야 합니다");
+        }
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+
+        // 토큰 1개를 채우는 데 걸리는 시간 (TokenBucket 시간 단위)
+        long nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.tokenCost = Math.max(1, nanosPerToken >>> TokenBucket.TIME_SHIFT);
+        this.capacity = tokenCost * burst;
+        if (capacity > TokenBucket.MAX_CREDIT) {
+            throw new IllegalArgumentException("전송 제한 설정 오류 (" + name + "): burst / permits-per-second 가 너무 큽니다");
+        }
+    }
+
+    public TokenBucket newBucket() {
+        return newBucket(System::nanoTime);
+    }
+
+    /**
+     * 주어진 시계(ns)로 시간을 재는 버킷 (충전 속도 테스트용)
+     */
+    public TokenBucket newBucket(LongSupplier nanoClock) {
+        return new TokenBucket(tokenCost, capacity, nanoClock);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+}
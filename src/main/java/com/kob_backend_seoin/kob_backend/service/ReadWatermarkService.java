@@ -0,0 +1,108 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
+import com.kob_backend_seoin.kob_backend.domain.ReadWatermark;
+import com.kob_backend_seoin.kob_backend.repository.ReadWatermarkRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * 채팅방 읽음 워터마크 관리 서비스
+ * 메시지별 읽음 행 대신 (채팅방, 사용자)별 마지막으로 읽은 sequence 하나만 유지합니다.
+ */
+@Service
+public class ReadWatermarkService {
+
+    private static final Logger log = Logger.getLogger(ReadWatermarkService.class.getName());
+
+    private final ReadWatermarkRepository readWatermarkRepository;
+    private final ChatSequenceAllocator chatSequenceAllocator;
+
+    // 기동 시 message_read_status → chat_read_watermarks 백필 여부 (마이그레이션 1회용)
+    @Value("${chat.read-watermark.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    @Autowired
+    public ReadWatermarkService(ReadWatermarkRepository readWatermarkRepository,
+                                ChatSequenceAllocator chatSequenceAllocator) {
+        this.readWatermarkRepository = readWatermarkRepository;
+        this.chatSequenceAllocator = chatSequenceAllocator;
+    }
+
+    /**
+     * sequence까지 읽음 처리 (UPSERT 1회, 이미 더 앞선 워터마크가 있으면 변경 없음)
+     */
+    public void markReadUpTo(UUID roomId, UUID userId, long sequence) {
+        if (sequence <= 0) {
+            return;
+        }
+        readWatermarkRepository.advance(roomId, userId, sequence);
+    }
+
+    /**
+     * 사용자의 채팅방별 마지막 읽은 sequence 조회 (워터마크가 없는 방은 결과에 없음)
+     */
+    public Map<UUID, Long> getLastReadSequences(UUID userId, Collection<UUID> roomIds) {
+        if (roomIds.isEmpty()) {
+            return Map.of();
+        }
+        return readWatermarkRepository.findByUserIdAndChatRoomIds(userId, roomIds).stream()
+                .collect(Collectors.toMap(w -> w.getId().getChatRoomId(), ReadWatermark::getLastReadSequence));
+    }
+
+    /**
+     * 채팅방 목록의 안 읽은 메시지 수 계산 (워터마크, 마지막 메시지 sequence 조회 쿼리 각 1회)
+     */
+    public Map<UUID, Long> getUnreadCounts(UUID userId, List<ChatRoom> chatRooms) {
+        if (chatRooms.isEmpty()) {
+            return Map.of();
+        }
+
+        List<UUID> roomIds = chatRooms.stream()
+                .map(ChatRoom::getId)
+                .collect(Collectors.toList());
+        Map<UUID, Long> lastReadSequences = getLastReadSequences(userId, roomIds);
+        Map<UUID, Long> lastSequences = chatSequenceAllocator.lastMessageSequences(chatRooms);
+
+        Map<UUID, Long> unreadCounts = new HashMap<>();
+        for (ChatRoom chatRoom : chatRooms) {
+            long lastRead = lastReadSequences.getOrDefault(chatRoom.getId(), 0L);
+            unreadCounts.put(chatRoom.getId(), unreadCount(lastSequences.get(chatRoom.getId()), lastRead));
+        }
+        return unreadCounts;
+    }
+
+    /**
+     * 안 읽은 메시지 수 = 저장된 마지막 메시지 sequence - 읽은 마지막 sequence
+     */
+    public static long unreadCount(long lastSequence, long lastReadSequence) {
+        return Math.max(0L, lastSequence - lastReadSequence);
+    }
+
+    /**
+     * 기존 MessageReadStatus 데이터를 워터마크로 변환
+     */
+    public int backfillFromMessageReadStatus() {
+        int affected = readWatermarkRepository.backfillFromMessageReadStatus();
+        log.info("읽음 워터마크 백필 완료: " + affected + "건 반영");
+        return affected;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartupIfEnabled() {
+        if (backfillOnStartup) {
+            backfillFromMessageReadStatus();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * STOMP 세션 인증 정보
+ *
+ * - 핸드셰이크에서 JWT를 한 번 검증한 결과(사용자 ID, 권한, 토큰 만료 시각)를 미리 파싱해 둔 불변 객체입니다.
+ * - CONNECT에서 STOMP 세션 사용자로 등록되므로 이후 프레임은 Spring이 같은 객체를 헤더에 붙여 전달하고,
+ *   핸들러는 UUID 파싱이나 JWT 재검증 없이 getUserId()로 바로 사용합니다.
+ */
+public final class StompAuthContext implements Principal {
+
+    public static final List<GrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("USER"));
+
+    private final UUID userId;
+    private final String name;
+    private final List<GrantedAuthority> authorities;
+    private final long expiresAtMillis;
+
+    public StompAuthContext(UUID userId, List<GrantedAuthority> authorities, long expiresAtMillis) {
+        this.userId = userId;
+        this.name = userId.toString();
+        this.authorities = authorities;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    // /user 목적지 라우팅에 사용되는 사용자 이름 (UUID 문자열)
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "StompAuthContext{userId=" + userId + ", expiresAt=" + expiresAtMillis + "}";
+    }
+}
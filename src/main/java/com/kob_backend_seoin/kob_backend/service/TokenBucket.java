@@ -0,0 +1,109 @@
+package com.kob_backend_seoin.kob_backend.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * CAS 기반 토큰 버킷 (락/할당 없음)
+ *
+ * - 토큰을 시간 단위(크레딧)로 저장합니다. 토큰 1개 = 1 / permitsPerSecond 초이고, 경과 시간만큼 크레딧을 더하면 충전이 끝납니다.
+ *   따라서 충전/차감이 정수 덧셈/뺄셈뿐이며 호출이 잦아도 소수점 누락으로 충전이 덜 되지 않습니다.
+ * - 크레딧과 마지막 충전 시각(nanoClock, 기본 System.nanoTime 기반)을 AtomicLong 하나에 함께 담아 한 번의 CAS로 갱신합니다.
+ *   상위 CREDIT_BITS: 크레딧, 하위 STAMP_BITS: 시각 (단위 2^16ns ≈ 65.5µs)
+ * - 시각 필드는 약 208일마다 한 바퀴 돌므로 차이를 부호 있는 값으로 계산합니다 (오래 쓰지 않은 버킷은 정리 대상).
+ * - 거절할 때는 상태를 쓰지 않으므로 한도를 넘은 사용자가 버킷 캐시 라인을 계속 무효화하지 않습니다.
+ */
+public final class TokenBucket {
+
+    static final int TIME_SHIFT = 16;
+    static final int STAMP_BITS = 38;
+    static final int CREDIT_BITS = Long.SIZE - STAMP_BITS;
+    static final long STAMP_MASK = (1L << STAMP_BITS) - 1;
+    static final long MAX_CREDIT = (1L << CREDIT_BITS) - 1;
+
+    private final long tokenCost;
+    private final long capacity;
+    private final LongSupplier nanoClock;
+    private final AtomicLong state;
+
+    /**
+     * @param tokenCost 토큰 1개의 크레딧 (시간 단위)
+     * @param capacity  최대 크레딧 (burst × tokenCost)
+     * @param nanoClock 현재 시각 (ns, 테스트에서 시간을 직접 진행할 때 교체)
+     */
+    TokenBucket(long tokenCost, long capacity, LongSupplier nanoClock) {
+        this.tokenCost = tokenCost;
+        this.capacity = capacity;
+        this.nanoClock = nanoClock;
+        this.state = new AtomicLong(pack(capacity, now()));
+    }
+
+    /**
+     * 토큰 1개 사용 시도
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * 토큰 permits개 사용 시도 (부족하면 아무것도 사용하지 않고 false)
+     */
+    public boolean tryAcquire(int permits) {
+        long cost = tokenCost * permits;
+        long now = now();
+        for (;;) {
+            long current = state.get();
+            long stamp = current & STAMP_MASK;
+            long elapsed = elapsed(stamp, now);
+            long available = Math.min(capacity, (current >>> STAMP_BITS) + elapsed);
+            if (available < cost) {
+                return false;
+            }
+            // 다른 스레드가 더 늦은 시각을 기록했으면 그 시각을 유지
+            long next = pack(available - cost, elapsed > 0 ? now : stamp);
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 지금 사용할 수 있는 토큰 수 (소수점 포함)
+     */
+    public double getAvailableTokens() {
+        long current = state.get();
+        long available = Math.min(capacity, (current >>> STAMP_BITS) + elapsed(current & STAMP_MASK, now()));
+        return (double) available / tokenCost;
+    }
+
+    /**
+     * 가득 찬 버킷은 새 버킷과 같으므로 저장소에서 제거해도 됩니다.
+     */
+    public boolean isFull() {
+        long current = state.get();
+        return (current >>> STAMP_BITS) + elapsed(current & STAMP_MASK, now()) >= capacity;
+    }
+
+    /**
+     * 버킷이 다시 가득 찰 때까지 남은 시간 (ns, 이미 가득 찼으면 0)
+     */
+    public long nanosUntilFull() {
+        long current = state.get();
+        long available = (current >>> STAMP_BITS) + elapsed(current & STAMP_MASK, now());
+        return Math.max(0, capacity - available) << TIME_SHIFT;
+    }
+
+    private long now() {
+        return (nanoClock.getAsLong() >>> TIME_SHIFT) & STAMP_MASK;
+    }
+
+    // 시각 필드 차이 (음수면 다른 스레드가 더 늦은 시각을 기록한 경우이므로 0)
+    private static long elapsed(long stamp, long now) {
+        long diff = ((now - stamp) << CREDIT_BITS) >> CREDIT_BITS;
+        return Math.max(0, diff);
+    }
+
+    private static long pack(long credit, long stamp) {
+        return (credit << STAMP_BITS) | stamp;
+    }
+}
@@ -5,11 +5,9 @@ import com.kob_backend_seoin.kob_backend.exception.CustomException;
 import com.kob_backend_seoin.kob_backend.exception.ErrorCode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.stereotype.Service;
 
 import java.security.Principal;
-import java.util.List;
 import java.util.UUID;
 import java.util.logging.Logger;
 
@@ -47,24 +45,19 @@ public class WebSocketAuthService {
                 token = token.substring(7);
             }
 
-            // JWT 토큰 검증
+            // JWT 토큰 검증 (서명과 만료를 함께 확인하므로 만료 여부를 다시 검증하지 않음)
             DecodedJWT decodedJWT = jwtProvider.verifyToken(token);
-            
-            // 토큰 만료 확인
-            if (jwtProvider.isTokenExpired(token)) {
-                throw new CustomException("JWT 토큰이 만료되었습니다", ErrorCode.UNAUTHORIZED);
-            }
 
             String userId = decodedJWT.getSubject();
             if (userId == null || userId.trim().isEmpty()) {
                 throw new CustomException("JWT 토큰에 사용자 ID가 없습니다", ErrorCode.UNAUTHORIZED);
             }
 
-            // Principal 생성
-            Principal principal = new UsernamePasswordAuthenticationToken(
-                    userId, 
-                    null, 
-                    List.of(new org.springframework.security.core.authority.SimpleGrantedAuthority("USER"))
+            // 인증 정보 생성 (사용자 ID와 만료 시각을 미리 파싱)
+            Principal principal = new StompAuthContext(
+                    UUID.fromString(userId),
+                    StompAuthContext.USER_AUTHORITIES,
+                    decodedJWT.getExpiresAt().getTime()
             );
 
             log.info("WebSocket 인증 성공: 사용자 " + userId);
@@ -88,6 +81,14 @@ public class WebSocketAuthService {
             throw new CustomException("Principal이 없습니다", ErrorCode.UNAUTHORIZED);
         }
 
+        // CONNECT에서 등록한 인증 정보는 이미 파싱되어 있으므로 만료 여부만 확인
+        if (principal instanceof StompAuthContext auth) {
+            if (auth.isExpired(System.currentTimeMillis())) {
+                throw new CustomException("JWT 토큰이 만료되었습니다", ErrorCode.UNAUTHORIZED);
+            }
+            return auth.getUserId();
+        }
+
         try {
             String userId = principal.getName();
             if (userId == null || userId.trim().isEmpty()) {
@@ -102,7 +103,7 @@ public class WebSocketAuthService {
 
     /**
      * WebSocket 메시지에서 Principal을 검증하고 사용자 ID를 추출합니다.
-     * SessionAttributes에서 Principal을 복원하는 로직을 포함합니다.
+     * 프레임에 사용자가 없으면 SessionAttributes에서 핸드셰이크 인증 정보를 복원합니다 (JWT는 다시 검증하지 않음).
      * 
      * @param principal 현재 Principal (null일 수 있음)
      * @param headerAccessor WebSocket 메시지 헤더 접근자
@@ -121,16 +122,7 @@ public class WebSocketAuthService {
             return extractUserId(restoredPrincipal);
         }
 
-        // 3. SessionAttributes에서 토큰을 추출하여 새로 인증
-        String token = extractTokenFromSession(headerAccessor);
-        if (token != null) {
-            Principal newPrincipal = createPrincipalFromToken(token);
-            // SessionAttributes에 저장
-            storePrincipalInSession(headerAccessor, newPrincipal);
-            return extractUserId(newPrincipal);
-        }
-
-        throw new CustomException("WebSocket 인증 실패: Principal과 토큰을 찾을 수 없습니다", ErrorCode.UNAUTHORIZED);
+        throw new CustomException("WebSocket 인증 실패: Principal을 찾을 수 없습니다", ErrorCode.UNAUTHORIZED);
     }
 
     /**
@@ -155,41 +147,6 @@ public class WebSocketAuthService {
         return null;
     }
 
-    /**
-     * SessionAttributes에서 JWT 토큰을 추출합니다.
-     */
-    private String extractTokenFromSession(SimpMessageHeaderAccessor headerAccessor) {
-        try {
-            var sessionAttributes = headerAccessor.getSessionAttributes();
-            if (sessionAttributes != null) {
-                Object token = sessionAttributes.get("token");
-                if (token instanceof String) {
-                    return (String) token;
-                }
-            }
-        } catch (Exception e) {
-            log.warning("세션에서 토큰 추출 실패: " + e.getMessage());
-        }
-        return null;
-    }
-
-    /**
-     * Principal을 SessionAttributes에 저장합니다.
-     */
-    private void storePrincipalInSession(SimpMessageHeaderAccessor headerAccessor, Principal principal) {
-        try {
-            var sessionAttributes = headerAccessor.getSessionAttributes();
-            if (sessionAttributes != null) {
-                sessionAttributes.put("user", principal);
-                if (log.isLoggable(java.util.logging.Level.FINE)) {
-                    log.fine("Principal을 SessionAttributes에 저장: " + principal.getName());
-                }
-            }
-        } catch (Exception e) {
-            log.warning("Principal 저장 중 오류: " + e.getMessage());
-        }
-    }
-
     /**
      * JWT 토큰이 유효한지 확인합니다.
      * 
@@ -207,9 +164,9 @@ public class WebSocketAuthService {
                 token = token.substring(7);
             }
 
-            // JWT 토큰 검증
+            // JWT 토큰 검증 (만료된 토큰은 TokenExpiredException)
             jwtProvider.verifyToken(token);
-            return !jwtProvider.isTokenExpired(token);
+            return true;
         } catch (Exception e) {
             if (log.isLoggable(java.util.logging.Level.FINE)) {
                 log.fine("JWT 토큰 검증 실패: " + e.getMessage());
@@ -7,11 +7,11 @@ import com.kob_backend_seoin.kob_backend.dto.Chat.WebSocketMessageDto;
 import com.kob_backend_seoin.kob_backend.dto.Chat.WsEnvelope;
 import com.kob_backend_seoin.kob_backend.exception.ChatErrorCode;
 import com.kob_backend_seoin.kob_backend.exception.ChatException;
-import com.kob_backend_seoin.kob_backend.repository.ChatMessageRepository;
 import com.kob_backend_seoin.kob_backend.repository.ChatRoomRepository;
 import com.kob_backend_seoin.kob_backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
@@ -27,16 +27,25 @@ public class WebSocketChatService {
     private static final Logger log = Logger.getLogger(WebSocketChatService.class.getName());
 
     private final ChatRoomRepository chatRoomRepository;
-    private final ChatMessageRepository chatMessageRepository;
     private final UserRepository userRepository;
+    private final ChatSequenceAllocator chatSequenceAllocator;
+    private final ChatMessageService chatMessageService;
+    private final ChatMembershipService chatMembershipService;
+    private final ChatRoomExecutor chatRoomExecutor;
 
     @Autowired
     public WebSocketChatService(ChatRoomRepository chatRoomRepository,
-                               ChatMessageRepository chatMessageRepository,
-                               UserRepository userRepository) {
+                               UserRepository userRepository,
+                               ChatSequenceAllocator chatSequenceAllocator,
+                               ChatMessageService chatMessageService,
+                               ChatMembershipService chatMembershipService,
+                               ChatRoomExecutor chatRoomExecutor) {
         this.chatRoomRepository = chatRoomRepository;
-        this.chatMessageRepository = chatMessageRepository;
         this.userRepository = userRepository;
+        this.chatSequenceAllocator = chatSequenceAllocator;
+        this.chatMessageService = chatMessageService;
+        this.chatMembershipService = chatMembershipService;
+        this.chatRoomExecutor = chatRoomExecutor;
     }
 
     /**
@@ -75,6 +84,7 @@ public class WebSocketChatService {
         chatRoom.setParticipants(participantSet);
 
         ChatRoom savedRoom = chatRoomRepository.save(chatRoom);
+        chatMembershipService.membershipChanged(savedRoom.getId());
 
         return Map.of(
                 "roomId", savedRoom.getId().toString(),
@@ -116,10 +126,16 @@ public class WebSocketChatService {
     }
 
     /**
-     * 메시지 전송 비즈니스 로직
+     * 메시지 전송 비즈니스 로직 (채팅방 메일박스에서 실행)
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public WebSocketMessageDto.NewMessageNotification sendMessage(
             WebSocketMessageDto.SendMessageRequest request, Principal principal) {
+        return chatRoomExecutor.call(request.getRoomId(), () -> sendMessageInRoom(request, principal));
+    }
+
+    private WebSocketMessageDto.NewMessageNotification sendMessageInRoom(
+            WebSocketMessageDto.SendMessageRequest request, Principal principal) {
 
         if (principal == null) {
             throw new ChatException(ChatErrorCode.WEBSOCKET_AUTH_FAILED, "Principal 없음");
@@ -132,37 +148,19 @@ public class WebSocketChatService {
         User sender = userRepository.findById(UUID.fromString(userId))
                 .orElseThrow(() -> new ChatException(ChatErrorCode.USER_NOT_IN_ROOM, "사용자를 찾을 수 없습니다"));
 
-        // 채팅방 정보 조회
+        // 사용자 참여 여부 확인 (참여자 캐시 사용, 참여 중이면 채팅방이 존재하므로 프록시 참조만 사용)
         UUID roomId = request.getRoomId();
-        ChatRoom chatRoom = chatRoomRepository.findByIdWithParticipants(roomId)
-                .orElseThrow(() -> new ChatException(ChatErrorCode.ROOM_NOT_FOUND, "채팅방을 찾을 수 없습니다"));
-
-        // 사용자 참여 여부 확인
-        boolean isParticipant = chatRoom.getParticipants().stream()
-                .anyMatch(participant -> participant.getId().equals(UUID.fromString(userId)));
-
-        if (!isParticipant) {
+        if (!chatMembershipService.isParticipant(roomId, sender.getId())) {
             throw new ChatException(ChatErrorCode.USER_NOT_IN_ROOM, "사용자가 해당 채팅방에 참여하지 않습니다");
         }
-
-        // 멱등성 체크: clientMessageId가 있으면 중복 저장 방지
-        if (request.getClientMessageId() != null && !request.getClientMessageId().trim().isEmpty()) {
-            var existing = chatMessageRepository.findByChatRoom_IdAndClientMessageId(chatRoom.getId(), request.getClientMessageId());
-            if (existing.isPresent()) {
-                // 중복 메시지이므로 기존 메시지 반환
-                ChatMessage existingMessage = existing.get();
-                return createNewMessageNotification(existingMessage);
-            }
-        }
+        ChatRoom chatRoom = chatRoomRepository.getReferenceById(roomId);
 
         // 순서 번호 발행
-        long sequence = chatRoom.issueSequence();
+        long sequence = chatSequenceAllocator.nextSequence(chatRoom.getId());
 
-        // 메시지 생성 및 저장
-        ChatMessage message = new ChatMessage(request.getContent(), sender, chatRoom);
-        message.setSequence(sequence);
-        message.setClientMessageId(request.getClientMessageId());
-        ChatMessage savedMessage = chatMessageRepository.save(message);
+        // 메시지 저장 (clientMessageId 중복이면 유니크 제약에 걸려 기존 메시지 반환)
+        ChatMessage savedMessage = chatMessageService.saveMessage(
+                request.getContent(), sender, chatRoom, sequence, request.getClientMessageId()).getMessage();
 
         return createNewMessageNotification(savedMessage);
     }
@@ -198,9 +196,14 @@ public class WebSocketChatService {
     }
 
     /**
-     * 가입 응답 처리 비즈니스 로직
+     * 가입 응답 처리 비즈니스 로직 (채팅방 메일박스에서 실행)
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> handleJoinResponse(WebSocketMessageDto.JoinResponse response) {
+        return chatRoomExecutor.call(response.getRoomId(), () -> handleJoinResponseInRoom(response));
+    }
+
+    private Map<String, Object> handleJoinResponseInRoom(WebSocketMessageDto.JoinResponse response) {
         UUID requesterId = response.getRequesterId();
         UUID roomId = response.getRoomId();
         boolean accepted = response.isAccepted();
@@ -215,11 +218,12 @@ public class WebSocketChatService {
             User user = userRepository.findById(requesterId)
                     .orElseThrow(() -> new ChatException(ChatErrorCode.USER_NOT_IN_ROOM, "사용자를 찾을 수 없습니다"));
 
-            // 새로운 참여자 Set을 생성하여 설정
-            Set<User> newParticipants = new HashSet<>(chatRoom.getParticipants());
-            newParticipants.add(user);
-            chatRoom.setParticipants(newParticipants);
+            // 관리 중인 참여자 컬렉션에 추가 (Set 전체를 교체하면 참여자 행을 모두 지우고 다시 넣음)
+            if (!chatRoom.getParticipants().contains(user)) {
+                chatRoom.addParticipant(user);
+            }
             chatRoomRepository.save(chatRoom);
+            chatMembershipService.membershipChanged(roomId);
 
             log.info("사용자 " + requesterId + "를 채팅방 " + roomId + "에 추가했습니다");
 
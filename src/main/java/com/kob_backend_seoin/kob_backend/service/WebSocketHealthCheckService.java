@@ -1,8 +1,8 @@
 package com.kob_backend_seoin.kob_backend.service;
 
+import com.kob_backend_seoin.kob_backend.config.IdleSessionDetector;
 import com.kob_backend_seoin.kob_backend.dto.Chat.WsEnvelope;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -11,8 +11,6 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 @Service
@@ -20,22 +18,27 @@ public class WebSocketHealthCheckService {
 
     private static final Logger log = Logger.getLogger(WebSocketHealthCheckService.class.getName());
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatBroadcaster chatBroadcaster;
     private final SimpUserRegistry userRegistry;
 
-    // 활성 연결 추적
-    private final Map<String, ConnectionInfo> activeConnections = new ConcurrentHashMap<>();
+    // 활성 연결 추적 (사용자별 세션 집합)
+    private final PresenceService presenceService;
 
-    // 통계 정보
-    private final AtomicInteger totalConnections = new AtomicInteger(0);
-    private final AtomicInteger totalDisconnections = new AtomicInteger(0);
-    private LocalDateTime lastHealthCheckTime = LocalDateTime.now();
+    // 유휴 세션 감지 (조용해진 세션에만 핑)
+    private final IdleSessionDetector idleSessionDetector;
+
+    private volatile LocalDateTime lastHealthCheckTime = LocalDateTime.now();
 
     @Autowired
-    public WebSocketHealthCheckService(SimpMessagingTemplate messagingTemplate,
-                                      SimpUserRegistry userRegistry) {
-        this.messagingTemplate = messagingTemplate;
+    public WebSocketHealthCheckService(ChatBroadcaster chatBroadcaster,
+                                      SimpUserRegistry userRegistry,
+                                      PresenceService presenceService,
+                                      IdleSessionDetector idleSessionDetector) {
+        this.chatBroadcaster = chatBroadcaster;
         this.userRegistry = userRegistry;
+        this.presenceService = presenceService;
+        this.idleSessionDetector = idleSessionDetector;
+        idleSessionDetector.setIdleHandler(this::sendPingToIdleSession);
     }
 
     /**
@@ -50,10 +53,7 @@ public class WebSocketHealthCheckService {
 
             // 현재 연결된 사용자 수 확인
             int registeredUsers = userRegistry.getUserCount();
-            int activeConnectionsCount = activeConnections.size();
-
-            // 연결 불일치 감지 및 정리
-            cleanupStaleConnections();
+            int activeConnectionsCount = presenceService.getLocalOnlineUserCount();
 
             // 시스템 상태 메시지 브로드캐스트 (선택적)
             if (shouldSendHealthBroadcast()) {
@@ -75,64 +75,32 @@ public class WebSocketHealthCheckService {
     }
 
     /**
-     * 개별 사용자에게 핑 메시지 전송 (60초마다)
+     * 유휴 세션에 핑 메시지 전송 (IdleSessionDetector가 조용해진 세션에 대해서만 호출)
      */
-    @Scheduled(fixedDelay = 60000)
-    public void sendPingToUsers() {
-        try {
-            Set<String> userNames = activeConnections.keySet();
-
-            if (userNames.isEmpty()) {
-                return;
-            }
-
-            if (log.isLoggable(java.util.logging.Level.FINE)) {
-                log.fine("활성 사용자 " + userNames.size() + "명에게 핑 전송");
-            }
-
-            WsEnvelope<Map<String, Object>> pingMessage = new WsEnvelope<>(
-                    "system.ping",
-                    WsEnvelope.newMessageId(),
-                    System.currentTimeMillis(),
-                    Map.of(
-                            "timestamp", System.currentTimeMillis(),
-                            "serverTime", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-                    )
-            );
-
-            int successCount = 0;
-            int failCount = 0;
-
-            for (String userName : userNames) {
-                try {
-                    messagingTemplate.convertAndSendToUser(userName, "/queue/system", pingMessage);
-                    updateConnectionActivity(userName);
-                    successCount++;
-                } catch (Exception e) {
-                    log.warning("사용자 " + userName + "에게 핑 전송 실패: " + e.getMessage());
-                    // 전송 실패한 연결은 비활성으로 표시
-                    markConnectionAsInactive(userName);
-                    failCount++;
-                }
-            }
-
-            // 결과 요약만 로깅
-            if (failCount > 0) {
-                log.warning("핑 전송 완료 - 성공: " + successCount + ", 실패: " + failCount);
-            }
+    private void sendPingToIdleSession(String userId, String sessionId) {
+        WsEnvelope<Map<String, Object>> pingMessage = new WsEnvelope<>(
+                "system.ping",
+                WsEnvelope.newMessageId(),
+                System.currentTimeMillis(),
+                Map.of(
+                        "timestamp", System.currentTimeMillis(),
+                        "serverTime", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                )
+        );
 
+        try {
+            chatBroadcaster.sendToSession(userId, sessionId, "/queue/system", pingMessage);
         } catch (Exception e) {
-            log.severe("핑 전송 중 오류 발생: " + e.getMessage());
+            log.warning("사용자 " + userId + "에게 핑 전송 실패: " + e.getMessage());
         }
     }
 
     /**
-     * 연결 등록
+     * 연결 등록 (같은 사용자의 여러 세션을 각각 등록)
      */
     public void registerConnection(String userId, String sessionId) {
-        ConnectionInfo info = new ConnectionInfo(userId, sessionId);
-        activeConnections.put(userId, info);
-        totalConnections.incrementAndGet();
+        presenceService.connected(userId, sessionId);
+        idleSessionDetector.register(sessionId, userId);
 
         if (log.isLoggable(java.util.logging.Level.FINE)) {
             log.fine("새 WebSocket 연결 등록: 사용자 " + userId + ", 세션 " + sessionId);
@@ -140,15 +108,14 @@ public class WebSocketHealthCheckService {
     }
 
     /**
-     * 연결 해제
+     * 연결 해제 (사용자의 다른 세션은 유지)
      */
-    public void unregisterConnection(String userId) {
-        ConnectionInfo removed = activeConnections.remove(userId);
-        if (removed != null) {
-            totalDisconnections.incrementAndGet();
-            if (log.isLoggable(java.util.logging.Level.FINE)) {
-                log.fine("WebSocket 연결 해제: 사용자 " + userId);
-            }
+    public void unregisterConnection(String userId, String sessionId) {
+        presenceService.disconnected(userId, sessionId);
+        idleSessionDetector.unregister(sessionId);
+
+        if (log.isLoggable(java.util.logging.Level.FINE)) {
+            log.fine("WebSocket 연결 해제: 사용자 " + userId + ", 세션 " + sessionId);
         }
     }
 
@@ -156,62 +123,21 @@ public class WebSocketHealthCheckService {
      * 연결 활동 업데이트
      */
     public void updateConnectionActivity(String userId) {
-        ConnectionInfo info = activeConnections.get(userId);
-        if (info != null) {
-            info.updateLastActivity();
-        }
+        presenceService.touch(userId);
     }
 
     /**
-     * 사용자가 온라인인지 확인
+     * 사용자가 온라인인지 확인 (연결된 세션이 하나라도 있으면 온라인, 클러스터 모드에서는 다른 노드 포함)
      */
     public boolean isUserOnline(String userId) {
-        ConnectionInfo info = activeConnections.get(userId);
-        if (info == null) {
-            return false;
-        }
-
-        // 5분 이내에 활동이 있었다면 온라인으로 간주
-        return info.isActiveWithin(5 * 60 * 1000); // 5분을 밀리초로 변환
+        return presenceService.isUserOnline(userId);
     }
 
     /**
-     * 현재 온라인 사용자 목록
+     * 현재 이 노드에 연결된 사용자 목록
      */
     public Set<String> getOnlineUsers() {
-        return activeConnections.keySet();
-    }
-
-    /**
-     * 비활성 연결 정리
-     */
-    private void cleanupStaleConnections() {
-        long currentTime = System.currentTimeMillis();
-        long staleThreshold = 10 * 60 * 1000; // 10분
-
-        activeConnections.entrySet().removeIf(entry -> {
-            ConnectionInfo info = entry.getValue();
-            boolean isStale = currentTime - info.getLastActivityTime() > staleThreshold;
-
-            if (isStale) {
-                if (log.isLoggable(java.util.logging.Level.FINE)) {
-                    log.fine("비활성 연결 정리: 사용자 " + entry.getKey());
-                }
-                totalDisconnections.incrementAndGet();
-            }
-
-            return isStale;
-        });
-    }
-
-    /**
-     * 연결을 비활성으로 표시
-     */
-    private void markConnectionAsInactive(String userId) {
-        ConnectionInfo info = activeConnections.get(userId);
-        if (info != null) {
-            info.markAsInactive();
-        }
+        return presenceService.getLocalOnlineUsers();
     }
 
     /**
@@ -231,13 +157,13 @@ public class WebSocketHealthCheckService {
                 WsEnvelope.newMessageId(),
                 System.currentTimeMillis(),
                 Map.of(
-                        "activeConnections", activeConnections.size(),
+                        "activeConnections", presenceService.getLocalOnlineUserCount(),
                         "serverTime", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
                         "uptime", getUptimeInfo()
                 )
         );
 
-        messagingTemplate.convertAndSend("/topic/system", healthMessage);
+        chatBroadcaster.sendToTopic("/topic/system", healthMessage);
     }
 
     /**
@@ -253,9 +179,9 @@ public class WebSocketHealthCheckService {
      */
     public WebSocketStats getWebSocketStats() {
         return new WebSocketStats(
-                activeConnections.size(),
-                totalConnections.get(),
-                totalDisconnections.get(),
+                presenceService.getLocalOnlineUserCount(),
+                presenceService.getTotalConnections(),
+                presenceService.getTotalDisconnections(),
                 lastHealthCheckTime,
                 userRegistry.getUserCount()
         );
@@ -273,7 +199,7 @@ public class WebSocketHealthCheckService {
                     payload
             );
 
-            messagingTemplate.convertAndSendToUser(userId, "/queue/system", systemMessage);
+            chatBroadcaster.sendToUser(userId, "/queue/system", systemMessage);
             updateConnectionActivity(userId);
 
             return true;
@@ -298,53 +224,12 @@ public class WebSocketHealthCheckService {
                 )
         );
 
-        messagingTemplate.convertAndSend("/topic/system", notification);
+        chatBroadcaster.sendToTopic("/topic/system", notification);
         if (log.isLoggable(java.util.logging.Level.FINE)) {
             log.fine("시스템 알림 브로드캐스트: " + message);
         }
     }
 
-    /**
-     * 연결 정보 클래스
-     */
-    private static class ConnectionInfo {
-        private final String userId;
-        private final String sessionId;
-        private final long connectedAt;
-        private long lastActivityTime;
-        private boolean isActive;
-
-        public ConnectionInfo(String userId, String sessionId) {
-            this.userId = userId;
-            this.sessionId = sessionId;
-            this.connectedAt = System.currentTimeMillis();
-            this.lastActivityTime = System.currentTimeMillis();
-            this.isActive = true;
-        }
-
-        public void updateLastActivity() {
-            this.lastActivityTime = System.currentTimeMillis();
-            this.isActive = true;
-        }
-
-        public void markAsInactive() {
-            this.isActive = false;
-        }
-
-        public boolean isActiveWithin(long milliseconds) {
-            return isActive && (System.currentTimeMillis() - lastActivityTime) < milliseconds;
-        }
-
-        public long getLastActivityTime() {
-            return lastActivityTime;
-        }
-
-        public String getUserId() { return userId; }
-        public String getSessionId() { return sessionId; }
-        public long getConnectedAt() { return connectedAt; }
-        public boolean isActive() { return isActive; }
-    }
-
     /**
      * WebSocket 통계 DTO
      */
@@ -4,7 +4,6 @@ import com.kob_backend_seoin.kob_backend.dto.Chat.WsEnvelope;
 import com.kob_backend_seoin.kob_backend.exception.ChatErrorCode;
 import com.kob_backend_seoin.kob_backend.exception.ChatException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
@@ -15,11 +14,11 @@ public class WebSocketMessageService {
 
     private static final Logger log = Logger.getLogger(WebSocketMessageService.class.getName());
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatBroadcaster chatBroadcaster;
 
     @Autowired
-    public WebSocketMessageService(SimpMessagingTemplate messagingTemplate) {
-        this.messagingTemplate = messagingTemplate;
+    public WebSocketMessageService(ChatBroadcaster chatBroadcaster) {
+        this.chatBroadcaster = chatBroadcaster;
     }
 
     /**
@@ -34,7 +33,7 @@ public class WebSocketMessageService {
                     new WsEnvelope.ErrorPayload(exception.getErrorCodeString(), exception.getMessage())
             );
 
-            messagingTemplate.convertAndSendToUser(userId, "/queue/errors", errorResponse);
+            chatBroadcaster.sendToUser(userId, "/queue/errors", errorResponse);
             log.info("에러 메시지를 사용자 " + userId + "에게 전송했습니다: " + exception.getErrorCodeString());
 
         } catch (Exception e) {
@@ -61,7 +60,7 @@ public class WebSocketMessageService {
                     new WsEnvelope.ErrorPayload(exception.getErrorCodeString(), exception.getMessage())
             );
 
-            messagingTemplate.convertAndSend("/topic/errors", errorResponse);
+            chatBroadcaster.sendToTopic("/topic/errors", errorResponse);
             log.info("에러 메시지를 브로드캐스트했습니다: " + exception.getErrorCodeString());
 
         } catch (Exception e) {
@@ -81,7 +80,7 @@ public class WebSocketMessageService {
                     payload
             );
 
-            messagingTemplate.convertAndSendToUser(userId, "/queue/" + type.replace(".", "-"), response);
+            chatBroadcaster.sendToUser(userId, "/queue/" + type.replace(".", "-"), response);
 
         } catch (Exception e) {
             log.severe("성공 메시지 전송 실패: " + e.getMessage());
@@ -100,7 +99,7 @@ public class WebSocketMessageService {
                     payload
             );
 
-            messagingTemplate.convertAndSend(topic, response);
+            chatBroadcaster.sendToTopic(topic, response);
 
         } catch (Exception e) {
             log.severe("토픽 메시지 전송 실패: " + e.getMessage());
@@ -0,0 +1,55 @@
+-- 채팅 관련 테이블 기준 스키마
+-- 기존 DB(ddl-auto로 생성된 테이블)에서는 baseline-on-migrate 후 변경 없이 지나가도록 IF NOT EXISTS 사용
+
+CREATE TABLE IF NOT EXISTS users (
+    id                UUID         NOT NULL,
+    email             VARCHAR(255) NOT NULL UNIQUE,
+    password          VARCHAR(255) NOT NULL,
+    nickname          VARCHAR(255) NOT NULL,
+    provider          VARCHAR(255),
+    profile_image_url VARCHAR(255),
+    created_at        TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS chat_rooms (
+    id            UUID         NOT NULL,
+    name          VARCHAR(255) NOT NULL,
+    type          VARCHAR(255) NOT NULL CHECK (type IN ('ONE_TO_ONE', 'GROUP')),
+    creator_id    UUID         NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    next_sequence BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    FOREIGN KEY (creator_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS chat_room_participants (
+    chat_room_id UUID NOT NULL,
+    user_id      UUID NOT NULL,
+    PRIMARY KEY (chat_room_id, user_id),
+    FOREIGN KEY (chat_room_id) REFERENCES chat_rooms (id),
+    FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS chat_messages (
+    id                UUID         NOT NULL,
+    chat_room_id      UUID         NOT NULL,
+    sender_id         UUID         NOT NULL,
+    content           TEXT         NOT NULL,
+    sent_at           TIMESTAMP(6) NOT NULL,
+    sequence          BIGINT       NOT NULL,
+    client_message_id VARCHAR(255),
+    PRIMARY KEY (id),
+    FOREIGN KEY (chat_room_id) REFERENCES chat_rooms (id),
+    FOREIGN KEY (sender_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS message_read_status (
+    message_id UUID         NOT NULL,
+    user_id    UUID         NOT NULL,
+    status     VARCHAR(255) NOT NULL CHECK (status IN ('read', 'delivered', 'unread')),
+    read_at    TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (message_id, user_id),
+    FOREIGN KEY (message_id) REFERENCES chat_messages (id),
+    FOREIGN KEY (user_id) REFERENCES users (id)
+);
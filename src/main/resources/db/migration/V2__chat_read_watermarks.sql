@@ -0,0 +1,25 @@
+-- (채팅방, 사용자)별 읽음 워터마크
+CREATE TABLE IF NOT EXISTS chat_read_watermarks (
+    chat_room_id       UUID      NOT NULL,
+    user_id            UUID      NOT NULL,
+    last_read_sequence BIGINT    NOT NULL DEFAULT 0,
+    updated_at         TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (chat_room_id, user_id),
+    FOREIGN KEY (chat_room_id) REFERENCES chat_rooms (id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+-- 사용자 기준 조회용 (채팅방 목록의 워터마크 일괄 조회)
+CREATE INDEX IF NOT EXISTS idx_chat_read_watermarks_user ON chat_read_watermarks (user_id, chat_room_id);
+
+-- 기존 message_read_status 데이터 이전
+-- (chat.read-watermark.backfill-on-startup=true 로 기동해도 동일한 작업이 수행됩니다)
+INSERT INTO chat_read_watermarks (chat_room_id, user_id, last_read_sequence, updated_at)
+SELECT m.chat_room_id, mrs.user_id, MAX(m.sequence), MAX(mrs.read_at)
+FROM message_read_status mrs
+JOIN chat_messages m ON m.id = mrs.message_id
+WHERE mrs.status = 'read'
+GROUP BY m.chat_room_id, mrs.user_id
+ON CONFLICT (chat_room_id, user_id) DO UPDATE
+SET last_read_sequence = EXCLUDED.last_read_sequence, updated_at = EXCLUDED.updated_at
+WHERE chat_read_watermarks.last_read_sequence < EXCLUDED.last_read_sequence;
@@ -0,0 +1,14 @@
+-- 채팅방별 메시지 sequence 카운터 (ChatSequenceAllocator)
+CREATE TABLE IF NOT EXISTS chat_room_sequences (
+    chat_room_id UUID   PRIMARY KEY,
+    next_value   BIGINT NOT NULL,
+    FOREIGN KEY (chat_room_id) REFERENCES chat_rooms (id) ON DELETE CASCADE
+);
+
+-- 기존 채팅방 카운터 시드 (없는 방은 첫 메시지 전송 시 자동 생성됩니다)
+INSERT INTO chat_room_sequences (chat_room_id, next_value)
+SELECT r.id, GREATEST(r.next_sequence, COALESCE(MAX(m.sequence), 0) + 1)
+FROM chat_rooms r
+LEFT JOIN chat_messages m ON m.chat_room_id = r.id
+GROUP BY r.id, r.next_sequence
+ON CONFLICT (chat_room_id) DO NOTHING;
@@ -0,0 +1,24 @@
+-- 채팅 조회 경로 인덱스와 멱등성 유니크 제약
+
+-- 히스토리 무한 스크롤(sequence 커서), 재연결 동기화, 채팅방 마지막 메시지 조회
+CREATE INDEX IF NOT EXISTS idx_chat_messages_room_sequence ON chat_messages (chat_room_id, sequence);
+
+-- clientMessageId 멱등성: 같은 채팅방에서 중복 저장 방지
+-- 기존 중복 행은 가장 먼저 저장된 메시지만 clientMessageId를 유지
+UPDATE chat_messages m
+SET client_message_id = NULL
+WHERE m.client_message_id IS NOT NULL
+  AND EXISTS (
+      SELECT 1 FROM chat_messages o
+      WHERE o.chat_room_id = m.chat_room_id
+        AND o.client_message_id = m.client_message_id
+        AND (o.sequence, o.id) < (m.sequence, m.id)
+  );
+CREATE UNIQUE INDEX IF NOT EXISTS uk_chat_messages_room_client_message_id
+    ON chat_messages (chat_room_id, client_message_id);
+
+-- 사용자 기준 채팅방 목록, 참여 여부 확인 (chat_room_id까지 포함하여 인덱스만으로 처리)
+CREATE INDEX IF NOT EXISTS idx_chat_room_participants_user ON chat_room_participants (user_id, chat_room_id);
+
+-- 사용자 기준 읽음 상태 조회
+CREATE INDEX IF NOT EXISTS idx_message_read_status_user ON message_read_status (user_id, message_id);
@@ -0,0 +1,11 @@
+-- 채팅 금지어 사전 (ProhibitedWordDictionary가 주기적으로 다시 읽어 모든 노드에 반영)
+-- 단어는 소문자로 저장하며, created_at은 변경 감지(COUNT/MAX)에 사용됩니다.
+CREATE TABLE IF NOT EXISTS chat_prohibited_words (
+    word       VARCHAR(100) PRIMARY KEY,
+    created_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 기존 코드에 고정되어 있던 금지어
+INSERT INTO chat_prohibited_words (word)
+VALUES ('스팸'), ('광고'), ('도박'), ('불법')
+ON CONFLICT (word) DO NOTHING;
@@ -0,0 +1,421 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kob_backend_seoin.kob_backend.config.WebSocketFanout;
+import com.kob_backend_seoin.kob_backend.dto.Chat.WsEnvelope;
+import com.kob_backend_seoin.kob_backend.service.ChatBroadcaster;
+import com.kob_backend_seoin.kob_backend.service.ChatClusterRelay;
+import jakarta.websocket.Session;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.adapter.standard.StandardWebSocketSession;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 토픽 브로드캐스트 프레임 공유 테스트
+ * ChatBroadcaster → SimpleBroker → clientOutboundChannel → SubProtocolWebSocketHandler 경로를 실제 구성으로 만들고,
+ * 세션은 Tomcat처럼 텍스트 메시지를 UTF-8로 인코딩해 출력 버퍼에 쓰고 바이너리 메시지는 그대로 복사합니다.
+ * 공유 프레임이 Spring 인코딩 경로와 같은 STOMP 프레임을 만들고, /user/queue 프레임과 보낸 순서를 지키며,
+ * 100명 채팅방 브로드캐스트 1건당 할당량이 구독자별 인코딩 경로보다 적어야 합니다.
+ */
+public class BroadcastFanoutTest {
+
+    private static final int MEMBERS = 100;
+    private static final int BROADCASTS = 2000;
+    private static final int ORDERED_FRAMES = 2000;
+
+    private final String destination = "/topic/chat/" + UUID.randomUUID();
+    private final Map<String, Object> payload = samplePayload();
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(Node::stop);
+    }
+
+    @Test
+    public void sharedFrameMatchesBrokerFrame() throws Exception {
+        System.out.println("=== 공유 프레임 형식 테스트 ===");
+
+        Node brokerNode = node(false, null);
+        Node fanoutNode = node(true, null);
+        TransportSession brokerSession = brokerNode.connect("session-1", true);
+        TransportSession fanoutSession = fanoutNode.connect("session-1", true);
+        brokerNode.subscribe("session-1", "sub-0", destination);
+        fanoutNode.subscribe("session-1", "sub-0", destination);
+
+        brokerNode.broadcaster.sendToTopic(destination, payload);
+        fanoutNode.broadcaster.sendToTopic(destination, payload);
+
+        Frame expected = brokerSession.messages().get(0);
+        Frame actual = fanoutSession.messages().get(0);
+        assertTrue(!expected.binary && actual.binary, "공유 프레임은 바이너리, Spring 경로는 텍스트 메시지여야 합니다");
+        assertEquals(2, actual.parts, "헤더와 공유 본문 두 부분으로 보내야 합니다");
+        assertEquals(expected.headers.getCommand(), actual.headers.getCommand());
+        assertEquals(expected.headers.getDestination(), actual.headers.getDestination());
+        assertEquals(expected.headers.getSubscriptionId(), actual.headers.getSubscriptionId());
+        assertEquals(expected.headers.getContentType(), actual.headers.getContentType());
+        assertEquals(expected.headers.getContentLength(), actual.headers.getContentLength());
+        assertTrue(actual.headers.getMessageId().startsWith("session-1-"));
+        assertEquals(expected.body, actual.body, "본문이 같아야 합니다");
+
+        System.out.println("✅ Spring 인코딩 경로와 같은 MESSAGE 프레임");
+    }
+
+    @Test
+    public void sharedFrameKeepsOrderWithQueueFrames() throws Exception {
+        System.out.println("=== 공유 프레임 / 세션 큐 프레임 순서 테스트 ===");
+
+        // 출력 채널은 여러 스레드 (preservePublishOrder가 없으면 세션별 순서가 섞임)
+        ExecutorService outboundExecutor = Executors.newFixedThreadPool(8);
+        try {
+            Node node = node(true, outboundExecutor);
+            TransportSession session = node.connect("session-1", true);
+            node.subscribe("session-1", "sub-0", destination);
+            // /user/{userId}/queue/errors 발송이 UserDestinationMessageHandler를 거쳐 SimpleBroker에 도착하는 목적지
+            String queueDestination = "/queue/errors-usersession-1";
+            node.subscribe("session-1", "sub-1", queueDestination);
+
+            ObjectMapper objectMapper = new ObjectMapper();
+            for (int i = 0; i < ORDERED_FRAMES; i++) {
+                if (i % 2 == 0) {
+                    node.broadcaster.sendToTopic(destination, Map.of("seq", i));
+                } else {
+                    node.messagingTemplate.send(queueDestination, jsonMessage(objectMapper.writeValueAsBytes(Map.of("seq", i))));
+                }
+            }
+
+            List<Frame> frames = session.awaitMessages(ORDERED_FRAMES);
+            int binary = 0;
+            for (int i = 0; i < frames.size(); i++) {
+                Frame frame = frames.get(i);
+                assertEquals(i, objectMapper.readTree(frame.body).get("seq").asInt(), "보낸 순서대로 도착해야 합니다");
+                assertEquals(i % 2 == 0, frame.binary, "토픽은 공유 프레임, 세션 큐는 Spring 경로여야 합니다");
+                if (frame.binary) {
+                    binary++;
+                }
+            }
+
+            System.out.println("✅ 출력 스레드 8개에서 " + frames.size() + "개 프레임(공유 프레임 " + binary + "개) 순서 유지");
+        } finally {
+            outboundExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void sharedFrameAllocatesLessPerBroadcast() throws Exception {
+        System.out.println("=== " + MEMBERS + "명 채팅방 브로드캐스트 할당량 테스트 ===");
+
+        // 출력 채널을 호출 스레드에서 실행해 브로커 → 인코딩 → 소켓 버퍼 쓰기까지 현재 스레드 할당량으로 측정
+        Node brokerNode = node(false, null);
+        Node fanoutNode = node(true, null);
+        for (int i = 0; i < MEMBERS; i++) {
+            brokerNode.connect("session-" + i, false);
+            fanoutNode.connect("session-" + i, false);
+            brokerNode.subscribe("session-" + i, "sub-0", destination);
+            fanoutNode.subscribe("session-" + i, "sub-0", destination);
+        }
+
+        Measurement before = measure("broker", () -> brokerNode.broadcaster.sendToTopic(destination, payload));
+        Measurement after = measure("shared", () -> fanoutNode.broadcaster.sendToTopic(destination, payload));
+
+        System.out.println("구독자 " + MEMBERS + "명");
+        System.out.println("Spring 인코딩 경로: 브로드캐스트당 " + before.bytesPerBroadcast + "바이트, CPU "
+                + before.cpuMicrosPerBroadcast + "µs, JFR 할당 샘플 상위 " + before.topTypes);
+        System.out.println("공유 프레임: 브로드캐스트당 " + after.bytesPerBroadcast + "바이트, CPU "
+                + after.cpuMicrosPerBroadcast + "µs, JFR 할당 샘플 상위 " + after.topTypes);
+
+        assertTrue(after.bytesPerBroadcast * 2 < before.bytesPerBroadcast,
+                "공유 프레임 할당량이 기존의 1/2 미만이어야 합니다: " + after.bytesPerBroadcast + " vs " + before.bytesPerBroadcast);
+
+        System.out.println("✅ 할당량 " + String.format("%.1f", (double) before.bytesPerBroadcast / Math.max(1, after.bytesPerBroadcast)) + "배 감소");
+    }
+
+    private Measurement measure(String name, Runnable broadcast) throws Exception {
+        // 워밍업 (JIT 컴파일 및 Spring 내부 캐시)
+        for (int i = 0; i < BROADCASTS; i++) {
+            broadcast.run();
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Path file = Files.createTempFile("broadcast-" + name, ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "off");
+            recording.start();
+
+            long startBytes = threads.getCurrentThreadAllocatedBytes();
+            long startCpu = threads.getCurrentThreadCpuTime();
+            for (int i = 0; i < BROADCASTS; i++) {
+                broadcast.run();
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - startBytes;
+            long cpu = threads.getCurrentThreadCpuTime() - startCpu;
+
+            recording.stop();
+            recording.dump(file);
+            return new Measurement(allocated / BROADCASTS, cpu / BROADCASTS / 1000,
+                    jfrAllocations(file, Thread.currentThread().getName()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // JFR 할당 샘플 수를 타입별로 집계 (현재 스레드만, 어떤 객체가 할당을 차지하는지 확인용)
+    private static Map<String, Long> jfrAllocations(Path file, String threadName) throws Exception {
+        Map<String, Long> byType = new LinkedHashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getThread() == null || !threadName.equals(event.getThread().getJavaName())) {
+                continue;
+            }
+            byType.merge(event.getClass("objectClass").getName(), 1L, Long::sum);
+        }
+        return byType;
+    }
+
+    private Node node(boolean fanoutEnabled, ExecutorService outboundExecutor) {
+        Node node = new Node(fanoutEnabled, outboundExecutor);
+        nodes.add(node);
+        return node;
+    }
+
+    private static Message<byte[]> jsonMessage(byte[] body) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(body, accessor.getMessageHeaders());
+    }
+
+    private static Map<String, Object> samplePayload() {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("messageId", UUID.randomUUID().toString());
+        message.put("roomId", UUID.randomUUID().toString());
+        message.put("content", "안녕하세요, 100명 채팅방 브로드캐스트 테스트 메시지입니다.");
+        message.put("sender", Map.of("id", UUID.randomUUID().toString(), "nickname", "테스트"));
+        message.put("sequence", 42);
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("type", "chat.message");
+        envelope.put("id", WsEnvelope.newMessageId());
+        envelope.put("timestamp", System.currentTimeMillis());
+        envelope.put("payload", message);
+        return envelope;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectProvider<T> provider(T bean) {
+        ObjectProvider<T> provider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(provider.getIfAvailable()).thenReturn(bean);
+        return provider;
+    }
+
+    /**
+     * 노드 하나의 STOMP 구성 (WebSocketConfig가 만드는 것과 같은 채널/브로커/핸들러 연결)
+     */
+    private static class Node {
+        private final ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        private final ExecutorSubscribableChannel clientOutbound;
+        private final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        private final SimpleBrokerMessageHandler broker;
+        private final SubProtocolWebSocketHandler subProtocolHandler;
+        private final WebSocketHandler webSocketHandler;
+        private final SimpMessagingTemplate messagingTemplate;
+        private final ChatBroadcaster broadcaster;
+
+        private Node(boolean fanoutEnabled, ExecutorService outboundExecutor) {
+            clientOutbound = new ExecutorSubscribableChannel(outboundExecutor);
+            broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel, List.of("/topic", "/queue"));
+            broker.setPreservePublishOrder(true);
+            broker.start();
+
+            subProtocolHandler = new SubProtocolWebSocketHandler(clientInbound, clientOutbound);
+            subProtocolHandler.addProtocolHandler(new StompSubProtocolHandler());
+            subProtocolHandler.start();
+
+            WebSocketFanout fanout = new WebSocketFanout(fanoutEnabled);
+            fanout.install(subProtocolHandler);
+            webSocketHandler = fanout.decorate(subProtocolHandler);
+
+            messagingTemplate = new SimpMessagingTemplate(brokerChannel);
+            broadcaster = new ChatBroadcaster(messagingTemplate, new ObjectMapper(),
+                    BroadcastFanoutTest.<ChatClusterRelay>provider(null), provider(fanout));
+        }
+
+        private TransportSession connect(String sessionId, boolean capture) throws Exception {
+            TransportSession session = new TransportSession(sessionId, capture);
+            webSocketHandler.afterConnectionEstablished(session);
+            SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+            connect.setSessionId(sessionId);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+            return session;
+        }
+
+        private void subscribe(String sessionId, String subscriptionId, String destination) {
+            SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            subscribe.setSessionId(sessionId);
+            subscribe.setSubscriptionId(subscriptionId);
+            subscribe.setDestination(destination);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+        }
+
+        private void stop() {
+            subProtocolHandler.stop();
+            broker.stop();
+        }
+    }
+
+    private static class Measurement {
+        private final long bytesPerBroadcast;
+        private final long cpuMicrosPerBroadcast;
+        private final Map<String, Long> topTypes = new LinkedHashMap<>();
+
+        private Measurement(long bytesPerBroadcast, long cpuMicrosPerBroadcast, Map<String, Long> samplesByType) {
+            this.bytesPerBroadcast = bytesPerBroadcast;
+            this.cpuMicrosPerBroadcast = cpuMicrosPerBroadcast;
+            samplesByType.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(5)
+                    .forEach(e -> topTypes.put(e.getKey(), e.getValue()));
+        }
+    }
+
+    // 수신한 STOMP 프레임 하나 (WebSocket 메시지 종류와 부분 메시지 수 포함)
+    private static class Frame {
+        private final StompHeaderAccessor headers;
+        private final String body;
+        private final boolean binary;
+        private final int parts;
+
+        private Frame(byte[] bytes, boolean binary, int parts) {
+            List<Message<byte[]>> messages = new StompDecoder().decode(ByteBuffer.wrap(bytes));
+            assertEquals(1, messages.size());
+            this.headers = StompHeaderAccessor.wrap(messages.get(0));
+            this.body = new String(messages.get(0).getPayload(), StandardCharsets.UTF_8);
+            this.binary = binary;
+            this.parts = parts;
+        }
+    }
+
+    /**
+     * Tomcat 세션처럼 쓰는 순수 WebSocket 세션
+     * 텍스트 메시지는 재사용하는 인코더로 UTF-8 인코딩해, 바이너리 메시지는 그대로 출력 버퍼에 복사합니다.
+     * capture면 완성된 WebSocket 메시지(부분 메시지 합침)를 STOMP 프레임으로 기록합니다.
+     */
+    private static class TransportSession extends StandardWebSocketSession {
+        private final String id;
+        private final boolean capture;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final ByteBuffer socketBuffer = ByteBuffer.allocate(64 * 1024);
+        private final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+        private final List<Frame> frames = new ArrayList<>();
+        private int parts;
+
+        private TransportSession(String id, boolean capture) {
+            super(new HttpHeaders(), new HashMap<>(), null, null);
+            this.id = id;
+            this.capture = capture;
+            initializeNativeSession(Mockito.mock(Session.class, Mockito.withSettings().stubOnly()));
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        protected void sendTextMessage(TextMessage message) {
+            encoder.reset();
+            encoder.encode(CharBuffer.wrap(message.getPayload()), socketBuffer, true);
+            encoder.flush(socketBuffer);
+            flushSocketBuffer(false, message.isLast());
+        }
+
+        @Override
+        protected void sendBinaryMessage(BinaryMessage message) {
+            socketBuffer.put(message.getPayload());
+            flushSocketBuffer(true, message.isLast());
+        }
+
+        private void flushSocketBuffer(boolean binary, boolean last) {
+            socketBuffer.flip();
+            if (capture) {
+                partial.write(socketBuffer.array(), 0, socketBuffer.limit());
+                parts++;
+                if (last) {
+                    Frame frame = new Frame(partial.toByteArray(), binary, parts);
+                    synchronized (frames) {
+                        frames.add(frame);
+                        frames.notifyAll();
+                    }
+                    partial.reset();
+                    parts = 0;
+                }
+            }
+            socketBuffer.clear();
+        }
+
+        // CONNECTED 등을 뺀 MESSAGE 프레임
+        private List<Frame> messages() {
+            synchronized (frames) {
+                return frames.stream().filter(f -> f.headers.getCommand() == StompCommand.MESSAGE).toList();
+            }
+        }
+
+        private List<Frame> awaitMessages(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            synchronized (frames) {
+                while (messages().size() < count && System.nanoTime() < deadline) {
+                    frames.wait(100);
+                }
+            }
+            List<Frame> messages = messages();
+            assertEquals(count, messages.size(), "모든 프레임이 도착해야 합니다");
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kob_backend_seoin.kob_backend.service.ChatBroadcaster;
+import com.kob_backend_seoin.kob_backend.repository.ChatRoomRepository;
+import com.kob_backend_seoin.kob_backend.service.ChatClusterRelay;
+import com.kob_backend_seoin.kob_backend.service.ChatMembershipService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 다중 노드 메시지 전파 테스트
+ * 한 JVM에 두 노드(애플리케이션 컨텍스트)를 띄우고 임베디드 Redis로 토픽/사용자 메시지와 참여자 캐시 무효화가 전파되는지 확인합니다.
+ */
+public class ChatClusterRelayTest {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    // 두 노드가 함께 보는 채팅방 참여자 (DB 대신)
+    private static final Map<UUID, List<UUID>> PARTICIPANTS = new ConcurrentHashMap<>();
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private AnnotationConfigApplicationContext nodeA;
+    private AnnotationConfigApplicationContext nodeB;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    public void topicMessageReachesOtherNodeOnce() throws Exception {
+        System.out.println("=== 토픽 메시지 전파 테스트 ===");
+
+        nodeA.getBean(ChatBroadcaster.class).sendToTopic("/topic/chat/room-1", Map.of("content", "안녕하세요"));
+
+        CapturingChannel channelB = nodeB.getBean(CapturingChannel.class);
+        awaitMessages(channelB, 1);
+        assertEquals("/topic/chat/room-1", channelB.destinations().get(0));
+        assertTrue(channelB.bodies().get(0).contains("안녕하세요"));
+
+        // 발신 노드는 로컬로 한 번만 전달 (자기 프레임 무시)
+        Thread.sleep(200);
+        assertEquals(1, nodeA.getBean(CapturingChannel.class).destinations().size());
+        assertEquals(1, channelB.destinations().size());
+
+        System.out.println("✅ 다른 노드 구독자에게 1회 전달");
+    }
+
+    @Test
+    public void userMessageIsRoutedToConnectedNode() throws Exception {
+        System.out.println("=== 사용자 메시지 라우팅 테스트 ===");
+
+        connect(nodeB, "session-1", "user-1");
+        assertEquals(Set.of("node-b"), nodeA.getBean(ChatClusterRelay.class).findUserNodes("user-1"));
+
+        nodeA.getBean(ChatBroadcaster.class).sendToUser("user-1", "/queue/receipts", Map.of("status", "ok"));
+
+        CapturingChannel channelB = nodeB.getBean(CapturingChannel.class);
+        awaitMessages(channelB, 1);
+        assertEquals("/user/user-1/queue/receipts", channelB.destinations().get(0));
+
+        // 연결 해제 후에는 다른 노드로 보내지 않음
+        disconnect(nodeB, "session-1", "user-1");
+        assertTrue(nodeA.getBean(ChatClusterRelay.class).findUserNodes("user-1").isEmpty());
+
+        nodeA.getBean(ChatBroadcaster.class).sendToUser("user-1", "/queue/receipts", Map.of("status", "ok"));
+        Thread.sleep(200);
+        assertEquals(1, channelB.destinations().size());
+
+        System.out.println("✅ 접속 노드로만 전달");
+    }
+
+    @Test
+    public void crashedNodeSessionsAreIgnored() throws Exception {
+        System.out.println("=== 비정상 종료 노드 세션 정리 테스트 ===");
+
+        connect(nodeA, "session-a", "user-2");
+        connect(nodeB, "session-b", "user-2");
+        ChatClusterRelay relayA = nodeA.getBean(ChatClusterRelay.class);
+        assertEquals(Set.of("node-a", "node-b"), relayA.findUserNodes("user-2"));
+
+        // 접속 노드 목록은 하루가 아니라 노드 TTL 동안만 유지 (하트비트가 연장)
+        StringRedisTemplate redis = nodeA.getBean(StringRedisTemplate.class);
+        Long ttl = redis.getExpire("test:cluster:user-sessions:user-2");
+        assertTrue(ttl != null && ttl > 0 && ttl <= 30, "접속 노드 목록 TTL: " + ttl);
+
+        // 노드 B가 정리 없이 종료되어 하트비트 TTL이 지난 상황
+        redis.delete("test:cluster:node-alive:node-b");
+
+        assertEquals(Set.of("node-a"), relayA.findUserNodes("user-2"));
+        assertEquals(Set.of("session-a"), redis.opsForHash().keys("test:cluster:user-sessions:user-2"),
+                "종료된 노드의 세션은 접속 노드 목록에서 지워야 합니다");
+
+        System.out.println("✅ 하트비트가 끊긴 노드의 세션 제외");
+    }
+
+    @Test
+    public void membershipChangeInvalidatesOtherNodeCache() throws Exception {
+        System.out.println("=== 참여자 캐시 무효화 전파 테스트 ===");
+
+        UUID roomId = UUID.randomUUID();
+        UUID member = UUID.randomUUID();
+        UUID newcomer = UUID.randomUUID();
+        PARTICIPANTS.put(roomId, List.of(member));
+
+        ChatMembershipService membershipA = nodeA.getBean(ChatMembershipService.class);
+        ChatMembershipService membershipB = nodeB.getBean(ChatMembershipService.class);
+        assertTrue(membershipB.isParticipant(roomId, member));
+        assertFalse(membershipB.isParticipant(roomId, newcomer));
+
+        // 노드 A에서 참여자 변경 → 노드 B 캐시도 무효화되어 새 목록을 조회
+        PARTICIPANTS.put(roomId, List.of(member, newcomer));
+        membershipA.membershipChanged(roomId);
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!membershipB.isParticipant(roomId, newcomer) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(membershipB.isParticipant(roomId, newcomer), "다른 노드의 참여자 캐시가 무효화되지 않았습니다");
+
+        System.out.println("✅ 참여자 변경이 다른 노드 캐시에 반영");
+    }
+
+    private AnnotationConfigApplicationContext startNode(String nodeId) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "chat.cluster.enabled", "true",
+                "chat.cluster.node-id", nodeId,
+                "chat.cluster.channel-prefix", "test:cluster",
+                "test.redis.port", String.valueOf(redisPort)
+        )));
+        context.register(NodeConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    private static void connect(AnnotationConfigApplicationContext node, String sessionId, String userId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+        accessor.setSessionId(sessionId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        node.publishEvent(new SessionConnectedEvent(node, message, principal(userId)));
+    }
+
+    private static void disconnect(AnnotationConfigApplicationContext node, String sessionId, String userId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+        accessor.setSessionId(sessionId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        node.publishEvent(new SessionDisconnectEvent(node, message, sessionId, CloseStatus.NORMAL, principal(userId)));
+    }
+
+    private static Principal principal(String userId) {
+        return new UsernamePasswordAuthenticationToken(userId, null, List.of());
+    }
+
+    private static void awaitMessages(CapturingChannel channel, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (channel.destinations().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(count, channel.destinations().size(), "전파된 메시지를 받지 못했습니다");
+    }
+
+    /**
+     * 노드 하나의 최소 구성 (SimpleBroker 대신 브로커 채널로 들어오는 메시지를 기록)
+     */
+    @Configuration
+    @Import({ChatBroadcaster.class, ChatClusterRelay.class, ChatMembershipService.class})
+    static class NodeConfig {
+
+        @Bean
+        public ChatRoomRepository chatRoomRepository() {
+            ChatRoomRepository repository = Mockito.mock(ChatRoomRepository.class);
+            Mockito.when(repository.findParticipantIdsByChatRoomId(Mockito.any()))
+                    .thenAnswer(invocation -> PARTICIPANTS.getOrDefault(invocation.getArgument(0), List.of()));
+            return repository;
+        }
+
+        @Bean
+        public LettuceConnectionFactory redisConnectionFactory(org.springframework.core.env.Environment environment) {
+            return new LettuceConnectionFactory("localhost", environment.getRequiredProperty("test.redis.port", Integer.class));
+        }
+
+        @Bean
+        public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+            return new StringRedisTemplate(connectionFactory);
+        }
+
+        @Bean
+        public ThreadPoolTaskScheduler wsHeartbeatTaskScheduler() {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setThreadNamePrefix("cluster-heartbeat-");
+            return scheduler;
+        }
+
+        @Bean
+        public ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        public CapturingChannel brokerChannel() {
+            return new CapturingChannel();
+        }
+
+        @Bean
+        public SimpMessagingTemplate simpMessagingTemplate(CapturingChannel brokerChannel) {
+            return new SimpMessagingTemplate(brokerChannel);
+        }
+    }
+
+    /**
+     * 브로커 채널로 전달된 메시지 기록
+     */
+    static class CapturingChannel implements MessageChannel {
+        private final List<Message<?>> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public boolean send(Message<?> message, long timeout) {
+            messages.add(message);
+            return true;
+        }
+
+        List<String> destinations() {
+            List<String> destinations = new ArrayList<>();
+            for (Message<?> message : messages) {
+                destinations.add(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+            }
+            return destinations;
+        }
+
+        List<String> bodies() {
+            List<String> bodies = new ArrayList<>();
+            for (Message<?> message : messages) {
+                bodies.add(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8));
+            }
+            return bodies;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
+import com.kob_backend_seoin.kob_backend.domain.User;
+import com.kob_backend_seoin.kob_backend.service.ChatMembershipService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 채팅방 참여 여부 캐시 테스트
+ * 캐시된 참여 여부는 DB 조회 없이 응답하고, 참여자 변경 이벤트는 커밋 후에 캐시를 무효화해야 합니다.
+ */
+@Import(ChatMembershipService.class)
+public class ChatMembershipServiceTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private ChatMembershipService chatMembershipService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void cachedMembershipIsServedWithoutDatabase() {
+        System.out.println("=== 참여 여부 캐시 테스트 ===");
+
+        User creator = createUser();
+        User outsider = createUser();
+        UUID roomId = chatRoomRepository.save(new ChatRoom("membership-test", creator)).getId();
+
+        assertTrue(chatMembershipService.isParticipant(roomId, creator.getId()));
+        assertFalse(chatMembershipService.isParticipant(roomId, outsider.getId()));
+
+        // 이벤트 없이 DB만 바꾸면 캐시된 결과가 그대로 사용됨
+        jdbcTemplate.update("DELETE FROM chat_room_participants WHERE chat_room_id = ?", roomId);
+        assertTrue(chatMembershipService.isParticipant(roomId, creator.getId()), "캐시된 참여 여부를 사용해야 합니다");
+
+        // 참여자 변경 이벤트 후에는 다시 조회
+        chatMembershipService.membershipChanged(roomId);
+        assertFalse(chatMembershipService.isParticipant(roomId, creator.getId()), "무효화 후 DB에서 다시 조회해야 합니다");
+
+        System.out.println("✅ 캐시 사용 및 무효화 확인");
+    }
+
+    @Test
+    public void invalidationWaitsForCommit() {
+        System.out.println("=== 커밋 후 무효화 테스트 ===");
+
+        User creator = createUser();
+        User invitee = createUser();
+        UUID roomId = chatRoomRepository.save(new ChatRoom("membership-commit-test", creator)).getId();
+        assertFalse(chatMembershipService.isParticipant(roomId, invitee.getId()));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO chat_room_participants (chat_room_id, user_id) VALUES (?, ?)",
+                    roomId, invitee.getId());
+            chatMembershipService.membershipChanged(roomId);
+
+            // 커밋 전에는 무효화되지 않음 (다른 트랜잭션이 이전 참여자 목록을 다시 캐시하지 않도록)
+            assertFalse(chatMembershipService.isParticipant(roomId, invitee.getId()));
+        });
+
+        assertTrue(chatMembershipService.isParticipant(roomId, invitee.getId()), "커밋 후 새 참여자가 보여야 합니다");
+
+        System.out.println("✅ 커밋 후 무효화 확인");
+    }
+}
@@ -0,0 +1,142 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
+import com.kob_backend_seoin.kob_backend.repository.ChatMessageRepository;
+import com.kob_backend_seoin.kob_backend.service.ChatMessageIngestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 메시지 멱등 저장 테스트
+ * 같은 clientMessageId로 동시에 재전송해도 한 행만 저장되어야 합니다.
+ */
+public class ChatMessageIdempotencyTest extends EmbeddedPostgresTest {
+
+    private static final int CONCURRENT_RETRIES = 16;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Test
+    public void duplicateClientMessageIdIsNotInserted() {
+        System.out.println("=== 중복 clientMessageId 저장 테스트 ===");
+
+        ChatRoom chatRoom = createChatRoom();
+        UUID senderId = chatRoom.getCreator().getId();
+
+        UUID first = chatMessageRepository.insertIfAbsent(UUID.randomUUID(), chatRoom.getId(), senderId,
+                "안녕하세요", LocalDateTime.now(), 1L, "client-1");
+        UUID second = chatMessageRepository.insertIfAbsent(UUID.randomUUID(), chatRoom.getId(), senderId,
+                "안녕하세요", LocalDateTime.now(), 2L, "client-1");
+
+        assertNotNull(first, "첫 저장은 성공해야 합니다");
+        assertNull(second, "중복 저장은 null을 반환해야 합니다");
+        assertEquals(first, chatMessageRepository
+                .findWithSenderByChatRoomIdAndClientMessageId(chatRoom.getId(), "client-1")
+                .orElseThrow().getId());
+        assertEquals(1, countMessages(chatRoom.getId(), "client-1"));
+
+        System.out.println("✅ 중복 저장 없음, 기존 메시지 ID 조회 성공");
+    }
+
+    @Test
+    public void concurrentRetriesInsertSingleRow() throws Exception {
+        System.out.println("=== 동시 재전송 저장 테스트 ===");
+
+        ChatRoom chatRoom = createChatRoom();
+        UUID senderId = chatRoom.getCreator().getId();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_RETRIES);
+        CountDownLatch start = new CountDownLatch(1);
+
+        int inserted = 0;
+        try {
+            List<Future<UUID>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_RETRIES; i++) {
+                long sequence = i + 1;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return chatMessageRepository.insertIfAbsent(UUID.randomUUID(), chatRoom.getId(), senderId,
+                            "재전송", LocalDateTime.now(), sequence, "client-retry");
+                }));
+            }
+
+            start.countDown();
+            for (Future<UUID> future : futures) {
+                if (future.get() != null) {
+                    inserted++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, inserted, "한 요청만 저장에 성공해야 합니다");
+        assertEquals(1, countMessages(chatRoom.getId(), "client-retry"));
+
+        System.out.println("✅ " + CONCURRENT_RETRIES + "건 동시 재전송, 1건 저장");
+    }
+
+    @Test
+    public void concurrentRetriesReserveInFlightSlotOnce() throws Exception {
+        System.out.println("=== 저장 전 재전송 자리 차지 테스트 ===");
+
+        ChatMessageIngestService ingestService = new ChatMessageIngestService(jdbcTemplate, null, null, null);
+        UUID roomId = UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_RETRIES);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<ChatMessageIngestService.InFlight> placeholders = new ArrayList<>();
+        List<ChatMessageIngestService.InFlight> winners = new ArrayList<>();
+        try {
+            List<Future<ChatMessageIngestService.InFlight>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_RETRIES; i++) {
+                ChatMessageIngestService.InFlight placeholder = new ChatMessageIngestService.InFlight();
+                placeholders.add(placeholder);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ChatMessageIngestService.InFlight original = ingestService.reserve(roomId, "client-retry", placeholder);
+                    return original != null ? original : placeholder;
+                }));
+            }
+
+            start.countDown();
+            for (Future<ChatMessageIngestService.InFlight> future : futures) {
+                winners.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 모든 요청이 같은 자리(먼저 차지한 요청)를 기준으로 처리되어야 함
+        ChatMessageIngestService.InFlight winner = winners.get(0);
+        assertEquals(CONCURRENT_RETRIES, winners.stream().filter(w -> w == winner).count());
+
+        // 적재 전에 실패해 자리를 반환하면 다음 재전송이 새로 자리를 차지
+        ingestService.release(roomId, "client-retry", winner);
+        ChatMessageIngestService.InFlight retry = new ChatMessageIngestService.InFlight();
+        assertNull(ingestService.reserve(roomId, "client-retry", retry));
+        assertNull(ingestService.reserve(roomId, null, new ChatMessageIngestService.InFlight()));
+
+        System.out.println("✅ " + CONCURRENT_RETRIES + "건 동시 재전송, 자리 1개");
+    }
+
+    private int countMessages(UUID roomId, String clientMessageId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM chat_messages WHERE chat_room_id = ? AND client_message_id = ?",
+                Integer.class, roomId, clientMessageId);
+        return count == null ? 0 : count;
+    }
+}
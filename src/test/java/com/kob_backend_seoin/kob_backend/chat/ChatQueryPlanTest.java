@@ -0,0 +1,168 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.repository.ChatMessageRepository;
+import com.kob_backend_seoin.kob_backend.repository.ChatRoomRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 채팅 리포지토리 쿼리 실행 계획 테스트
+ * Flyway 마이그레이션으로 만든 스키마에서 모든 쿼리가 인덱스를 사용하는지(Seq Scan 없음) 확인합니다.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.kob_backend_seoin.kob_backend.chat.ChatQueryPlanTest$SqlCapture"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ChatQueryPlanTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Test
+    public void chatMessageQueriesUseIndexes() {
+        assertNoSeqScan(chatMessageRepository, ChatMessageRepository.class);
+    }
+
+    @Test
+    public void chatRoomQueriesUseIndexes() {
+        assertNoSeqScan(chatRoomRepository, ChatRoomRepository.class);
+    }
+
+    // 리포지토리에 선언된 쿼리 메서드를 모두 실행하고, 실행된 SQL마다 EXPLAIN 결과를 검사
+    private void assertNoSeqScan(Object repository, Class<?> repositoryInterface) {
+        List<String> violations = new ArrayList<>();
+        Method[] methods = repositoryInterface.getDeclaredMethods();
+        Arrays.sort(methods, Comparator.comparing(Method::getName));
+
+        for (Method method : methods) {
+            if (method.isDefault() || java.lang.reflect.Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            // 쓰기 쿼리(INSERT)는 외래키가 있는 실제 데이터가 필요하므로 제외 (ChatMessageIdempotencyTest에서 검증)
+            Query query = method.getAnnotation(Query.class);
+            if (query != null && query.value().trim().toUpperCase().startsWith("INSERT")) {
+                continue;
+            }
+
+            SqlCapture.STATEMENTS.clear();
+            try {
+                method.invoke(repository, sampleArguments(method));
+            } catch (Exception e) {
+                fail(method.getName() + " 실행 실패: " + e);
+            }
+
+            List<String> statements = new ArrayList<>(SqlCapture.STATEMENTS);
+            assertTrue(!statements.isEmpty(), method.getName() + " 실행 시 SQL이 캡처되지 않았습니다");
+
+            for (String sql : statements) {
+                String plan = explain(sql);
+                System.out.println("=== " + method.getName() + " ===");
+                System.out.println(plan);
+                if (plan.contains("Seq Scan")) {
+                    violations.add(method.getName() + "\n" + sql + "\n" + plan);
+                }
+            }
+        }
+
+        if (!violations.isEmpty()) {
+            fail("Seq Scan을 사용하는 쿼리가 있습니다:\n\n" + String.join("\n\n", violations));
+        }
+        System.out.println("✅ " + repositoryInterface.getSimpleName() + " 쿼리 모두 인덱스 사용");
+    }
+
+    // 바인딩 값 없이 일반 실행 계획 확인 (PostgreSQL 16 이상), Seq Scan은 대안이 없을 때만 선택되도록 비활성화
+    // $n 파라미터를 그대로 서버에 보내기 위해 simple query 모드의 별도 연결 사용
+    private String explain(String sql) {
+        String url = jdbcUrl() + "&preferQueryMode=simple";
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            try (ResultSet rs = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + toPositionalParameters(sql))) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("EXPLAIN 실패: " + sql, e);
+        }
+    }
+
+    // JDBC ? 파라미터를 $1, $2 ... 로 변환
+    private static String toPositionalParameters(String sql) {
+        StringBuilder converted = new StringBuilder();
+        int index = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                converted.append('$').append(++index);
+            } else {
+                converted.append(c);
+            }
+        }
+        return converted.toString();
+    }
+
+    private static Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (type == UUID.class) {
+                args[i] = UUID.randomUUID();
+            } else if (type == long.class || type == Long.class) {
+                args[i] = 10L;
+            } else if (type == String.class) {
+                args[i] = "sample";
+            } else if (type == LocalDateTime.class) {
+                args[i] = LocalDateTime.now();
+            } else if (type == Pageable.class) {
+                args[i] = PageRequest.of(0, 20);
+            } else if (Collection.class.isAssignableFrom(type)) {
+                args[i] = List.of(UUID.randomUUID(), UUID.randomUUID());
+            } else {
+                throw new IllegalArgumentException(method.getName() + ": 지원하지 않는 파라미터 타입 " + type);
+            }
+        }
+        return args;
+    }
+
+    /**
+     * Hibernate가 실행하는 SQL 캡처
+     */
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
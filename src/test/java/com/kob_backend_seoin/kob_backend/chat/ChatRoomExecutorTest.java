@@ -0,0 +1,180 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.config.WebSocketChannelMetrics;
+import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
+import com.kob_backend_seoin.kob_backend.domain.User;
+import com.kob_backend_seoin.kob_backend.exception.ChatErrorCode;
+import com.kob_backend_seoin.kob_backend.exception.ChatException;
+import com.kob_backend_seoin.kob_backend.service.ChatMembershipService;
+import com.kob_backend_seoin.kob_backend.service.ChatRoomExecutor;
+import com.kob_backend_seoin.kob_backend.service.ChatSequenceAllocator;
+import com.kob_backend_seoin.kob_backend.service.ChatService;
+import com.kob_backend_seoin.kob_backend.service.ReadWatermarkService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 채팅방 메일박스 테스트
+ * 같은 채팅방에 동시에 들어온 변경이 하나씩 실행되어 참여자 수 제한과 변경 내용이 유지되어야 합니다.
+ */
+@Import({ChatService.class, ChatRoomExecutor.class, ChatMembershipService.class, ChatSequenceAllocator.class,
+        ReadWatermarkService.class, ChatRoomExecutorTest.ExecutorConfig.class})
+public class ChatRoomExecutorTest extends EmbeddedPostgresTest {
+
+    private static final int INVITERS = 10;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void concurrentInvitesKeepEveryParticipant() throws Exception {
+        System.out.println("=== 동시 초대 테스트 ===");
+
+        User creator = createUser();
+        UUID roomId = chatRoomRepository.save(new ChatRoom("invite-test", creator)).getId();
+
+        List<UUID> invitees = new ArrayList<>();
+        for (int i = 0; i < INVITERS; i++) {
+            invitees.add(createUser().getId());
+        }
+
+        List<Throwable> failures = inviteConcurrently(creator.getId(), roomId, invitees);
+
+        assertEquals(0, failures.size(), "동시 초대가 실패하면 안 됩니다: " + failures);
+        assertEquals(INVITERS + 1, participantCount(roomId), "초대한 사용자가 모두 참여자로 남아야 합니다");
+        assertEquals("GROUP", jdbcTemplate.queryForObject(
+                "SELECT type FROM chat_rooms WHERE id = ?", String.class, roomId));
+
+        System.out.println("✅ 참여자 " + (INVITERS + 1) + "명 유지");
+    }
+
+    @Test
+    public void participantLimitHoldsUnderConcurrentInvites() throws Exception {
+        System.out.println("=== 동시 초대 시 최대 참여자 수 테스트 ===");
+
+        // 최대 인원에서 3자리만 남긴 채팅방
+        User creator = createUser();
+        ChatRoom room = new ChatRoom("limit-test", creator, ChatRoom.ChatRoomType.GROUP);
+        for (int i = 1; i < ChatRoom.MAX_PARTICIPANTS - 3; i++) {
+            room.addParticipant(createUser());
+        }
+        UUID roomId = chatRoomRepository.save(room).getId();
+
+        List<UUID> invitees = new ArrayList<>();
+        for (int i = 0; i < INVITERS; i++) {
+            invitees.add(createUser().getId());
+        }
+
+        List<Throwable> failures = inviteConcurrently(creator.getId(), roomId, invitees);
+
+        // 각 초대가 앞선 초대의 커밋 결과를 보고 판단하므로 정확히 3명만 추가됨
+        assertEquals(ChatRoom.MAX_PARTICIPANTS, participantCount(roomId));
+        assertEquals(INVITERS - 3, failures.size());
+
+        System.out.println("✅ 참여자 " + ChatRoom.MAX_PARTICIPANTS + "명에서 초대 중단");
+    }
+
+    @Test
+    public void timedOutCallIsNotAppliedLater() throws Exception {
+        System.out.println("=== 대기 시간 초과 작업 취소 테스트 ===");
+
+        ChatRoomExecutor executor = new ChatRoomExecutor(new SimpleAsyncTaskExecutor("timeout-"),
+                new WebSocketChannelMetrics(500), transactionTemplate, 1, 100);
+        UUID roomId = UUID.randomUUID();
+
+        // 앞선 작업이 메일박스를 붙잡고 있는 동안 호출
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> blocker = executor.submit(roomId, () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        AtomicBoolean applied = new AtomicBoolean();
+        ChatException busy = assertThrows(ChatException.class, () -> executor.call(roomId, () -> {
+            applied.set(true);
+            return null;
+        }));
+        assertEquals(ChatErrorCode.SERVER_BUSY, busy.getErrorCode());
+
+        // 차례가 와도 취소된 작업은 건너뛰고 다음 작업이 실행됨
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        assertEquals("next", executor.submit(roomId, () -> "next").get(5, TimeUnit.SECONDS));
+        assertFalse(applied.get(), "SERVER_BUSY를 받은 작업이 나중에 실행되면 안 됩니다");
+
+        System.out.println("✅ 시간 초과된 작업은 실행되지 않음");
+    }
+
+    private List<Throwable> inviteConcurrently(UUID inviterId, UUID roomId, List<UUID> invitees) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(invitees.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (UUID invitee : invitees) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return chatService.inviteUsers(inviterId, roomId, List.of(invitee));
+                }));
+            }
+            start.countDown();
+
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<?> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (java.util.concurrent.ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+            return failures;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int participantCount(UUID roomId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM chat_room_participants WHERE chat_room_id = ?", Integer.class, roomId);
+    }
+
+    @TestConfiguration
+    static class ExecutorConfig {
+
+        @Bean
+        public TaskExecutor chatRoomTaskExecutor() {
+            return new SimpleAsyncTaskExecutor("chat-room-");
+        }
+
+        @Bean
+        public WebSocketChannelMetrics webSocketChannelMetrics() {
+            return new WebSocketChannelMetrics(500);
+        }
+    }
+}
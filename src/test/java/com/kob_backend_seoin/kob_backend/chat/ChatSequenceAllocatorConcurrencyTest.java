@@ -0,0 +1,251 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
+import com.kob_backend_seoin.kob_backend.domain.User;
+import com.kob_backend_seoin.kob_backend.dto.Chat.ChatMessageRequestDto;
+import com.kob_backend_seoin.kob_backend.repository.ChatRoomSequenceRepository;
+import com.kob_backend_seoin.kob_backend.service.ChatMembershipService;
+import com.kob_backend_seoin.kob_backend.service.ChatRoomExecutor;
+import com.kob_backend_seoin.kob_backend.service.ChatSequenceAllocator;
+import com.kob_backend_seoin.kob_backend.service.ChatService;
+import com.kob_backend_seoin.kob_backend.service.ReadWatermarkService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 동시 발신자 sequence 발행 테스트
+ * 여러 노드(발행기 인스턴스)가 같은 채팅방에 동시에 발행해도 중복이 없어야 하고,
+ * ChatService로 동시에 보낸 뒤의 안 읽은 메시지 수가 예약 구간의 남는 번호를 세지 않아야 합니다.
+ */
+@Import({ChatService.class, ChatRoomExecutor.class, ChatMembershipService.class, ChatSequenceAllocator.class,
+        ReadWatermarkService.class, ChatRoomExecutorTest.ExecutorConfig.class})
+@TestPropertySource(properties = "chat.sequence.block-size=50")
+public class ChatSequenceAllocatorConcurrencyTest extends EmbeddedPostgresTest {
+
+    private static final int THREADS_PER_NODE = 8;
+    private static final int SEQUENCES_PER_THREAD = 200;
+    private static final int SENDERS = 8;
+    private static final int MESSAGES_PER_SENDER = 10;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatRoomSequenceRepository chatRoomSequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void concurrentSendersNeverShareSequence() throws Exception {
+        System.out.println("=== 동시 발신자 sequence 발행 테스트 (block-size=1) ===");
+
+        UUID roomId = createChatRoom(1L);
+        List<ChatSequenceAllocator> nodes = List.of(
+                new ChatSequenceAllocator(chatRoomSequenceRepository, transactionManager, 1),
+                new ChatSequenceAllocator(chatRoomSequenceRepository, transactionManager, 1)
+        );
+
+        Set<Long> issued = issueConcurrently(nodes, roomId);
+
+        int expected = nodes.size() * THREADS_PER_NODE * SEQUENCES_PER_THREAD;
+        assertEquals(expected, issued.size(), "중복 발행된 sequence가 있습니다");
+        // block-size=1 이면 빈 번호 없이 1..N 이 발행되어야 함
+        assertEquals(1L, issued.stream().mapToLong(Long::longValue).min().orElseThrow());
+        assertEquals(expected, issued.stream().mapToLong(Long::longValue).max().orElseThrow());
+
+        System.out.println("✅ " + expected + "건 발행, 중복 없음");
+    }
+
+    @Test
+    public void blockAllocationNeverSharesSequence() throws Exception {
+        System.out.println("=== 동시 발신자 sequence 발행 테스트 (block-size=50) ===");
+
+        // 레거시 next_sequence 이후부터 발행되는지 함께 확인
+        UUID roomId = createChatRoom(1000L);
+        List<ChatSequenceAllocator> nodes = List.of(
+                new ChatSequenceAllocator(chatRoomSequenceRepository, transactionManager, 50),
+                new ChatSequenceAllocator(chatRoomSequenceRepository, transactionManager, 50)
+        );
+
+        Set<Long> issued = issueConcurrently(nodes, roomId);
+
+        int expected = nodes.size() * THREADS_PER_NODE * SEQUENCES_PER_THREAD;
+        assertEquals(expected, issued.size(), "중복 발행된 sequence가 있습니다");
+        assertTrue(issued.stream().allMatch(sequence -> sequence >= 1000L), "기존 sequence와 겹치는 값이 발행되었습니다");
+
+        System.out.println("✅ " + expected + "건 발행, 중복 없음");
+    }
+
+    @Test
+    public void unreadCountsAfterConcurrentSends() throws Exception {
+        System.out.println("=== 동시 전송 후 안 읽은 메시지 수 테스트 (ChatService, block-size=50) ===");
+
+        // 발신자 SENDERS명과 메시지를 보내지 않는 독자 한 명
+        User creator = createUser();
+        ChatRoom room = new ChatRoom("unread-test", creator, ChatRoom.ChatRoomType.GROUP);
+        List<User> senders = new ArrayList<>(List.of(creator));
+        for (int i = 1; i < SENDERS; i++) {
+            User sender = createUser();
+            room.addParticipant(sender);
+            senders.add(sender);
+        }
+        User reader = createUser();
+        room.addParticipant(reader);
+        UUID roomId = chatRoomRepository.save(room).getId();
+
+        sendConcurrently(senders, roomId);
+
+        // 예약 구간(block-size)의 남는 번호는 안 읽은 메시지로 세지 않음
+        int sent = SENDERS * MESSAGES_PER_SENDER;
+        long lastSequence = jdbcTemplate.queryForObject(
+                "SELECT MAX(sequence) FROM chat_messages WHERE chat_room_id = ?", Long.class, roomId);
+        assertEquals(sent, lastSequence, "한 노드에서는 저장된 메시지 sequence가 빈 번호 없이 이어져야 합니다");
+        assertEquals(sent, unreadCount(reader, roomId));
+
+        // 발신자는 자신이 마지막으로 보낸 메시지까지 읽은 상태
+        for (User sender : senders) {
+            long lastOwn = jdbcTemplate.queryForObject(
+                    "SELECT MAX(sequence) FROM chat_messages WHERE chat_room_id = ? AND sender_id = ?",
+                    Long.class, roomId, sender.getId());
+            assertEquals(lastSequence - lastOwn, unreadCount(sender, roomId));
+        }
+
+        // 받은 마지막 메시지까지 읽으면 안 읽은 메시지가 남지 않아야 함
+        assertEquals(0L, chatService.markMessagesAsRead(reader.getId(), roomId, lastSequence).get("unreadCount"));
+        assertEquals(0L, unreadCount(reader, roomId));
+
+        System.out.println("✅ 메시지 " + sent + "건, 읽음 처리 후 안 읽은 메시지 0건");
+    }
+
+    @Test
+    public void allocatesInCallerTransactionWithoutSecondConnection() throws Exception {
+        System.out.println("=== 트랜잭션 안 sequence 발행 커넥션 테스트 ===");
+
+        // 커넥션 풀 크기만큼의 스레드가 모두 트랜잭션(커넥션)을 잡은 상태에서 발행 (채팅방 메일박스 작업과 같은 상황)
+        // 발행에 커넥션이 하나 더 필요하면 풀이 고갈되어 서로 기다림
+        int poolSize = ((HikariDataSource) dataSource).getMaximumPoolSize();
+        UUID roomId = createChatRoom(1L);
+        ChatSequenceAllocator allocator = new ChatSequenceAllocator(chatRoomSequenceRepository, transactionManager, 1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Set<Long> issued = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        CountDownLatch holding = new CountDownLatch(poolSize);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < poolSize; i++) {
+                futures.add(executor.submit(() -> transaction.execute(status -> {
+                    jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                    holding.countDown();
+                    try {
+                        holding.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                    return issued.add(allocator.nextSequence(roomId));
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(poolSize, issued.size(), "중복 발행된 sequence가 있습니다");
+        System.out.println("✅ 커넥션 " + poolSize + "개를 모두 잡은 트랜잭션 " + poolSize + "개에서 발행 완료");
+    }
+
+    private long unreadCount(User user, UUID roomId) {
+        return chatService.getUserChatRooms(user.getId(), 0, 20).getContent().stream()
+                .filter(chatRoom -> chatRoom.getId().equals(roomId))
+                .findFirst()
+                .orElseThrow()
+                .getUnreadCount();
+    }
+
+    private void sendConcurrently(List<User> senders, UUID roomId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(senders.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (User sender : senders) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < MESSAGES_PER_SENDER; i++) {
+                        chatService.sendMessage(sender.getId(), roomId, new ChatMessageRequestDto("동시 전송 " + i));
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private UUID createChatRoom(long nextSequence) {
+        ChatRoom chatRoom = new ChatRoom("sequence-test", createUser());
+        chatRoom.setNextSequence(nextSequence);
+        return chatRoomRepository.save(chatRoom).getId();
+    }
+
+    private Set<Long> issueConcurrently(List<ChatSequenceAllocator> nodes, UUID roomId) throws Exception {
+        Set<Long> issued = ConcurrentHashMap.newKeySet();
+        int threads = nodes.size() * THREADS_PER_NODE;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                ChatSequenceAllocator node = nodes.get(i % nodes.size());
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < SEQUENCES_PER_THREAD; j++) {
+                        assertTrue(issued.add(node.nextSequence(roomId)), "중복 발행된 sequence가 있습니다");
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return issued;
+    }
+}
@@ -0,0 +1,219 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.service.ChatRateLimiter;
+import com.kob_backend_seoin.kob_backend.service.DistributedRateLimiter;
+import com.kob_backend_seoin.kob_backend.service.RateLimitPolicy;
+import io.lettuce.core.ClientOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 다중 노드 전송 제한 테스트
+ * 임베디드 Redis를 공유하는 두 노드(ChatRateLimiter)에 나눠 보내도 클러스터 전체 한도가 적용되고,
+ * Redis 호출은 메시지 수보다 훨씬 적으며, Redis 장애/무응답 시 로컬 제한으로 동작하는지 확인합니다.
+ */
+public class DistributedRateLimiterTest {
+
+    private static final int LEASE_SIZE = 5;
+    private static final long FALLBACK_RETRY_MS = 300;
+    private static final long CALL_TIMEOUT_MS = 100;
+
+    private RedisServer redisServer;
+    private int redisPort;
+    private final List<LettuceConnectionFactory> connectionFactories = new ArrayList<>();
+    private final List<ChatRateLimiter> limiters = new ArrayList<>();
+    private final List<DistributedRateLimiter> distributedLimiters = new ArrayList<>();
+
+    @BeforeEach
+    void startRedis() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+    }
+
+    @AfterEach
+    void stopRedis() throws IOException {
+        limiters.forEach(ChatRateLimiter::shutdown);
+        distributedLimiters.forEach(DistributedRateLimiter::shutdown);
+        connectionFactories.forEach(LettuceConnectionFactory::destroy);
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    public void clusterLimitAppliesAcrossNodes() {
+        System.out.println("=== 두 노드 합산 전송 제한 테스트 ===");
+
+        DistributedRateLimiter distributedA = distributedLimiter();
+        DistributedRateLimiter distributedB = distributedLimiter();
+        ChatRateLimiter nodeA = node(distributedA);
+        ChatRateLimiter nodeB = node(distributedB);
+
+        // 사용자 한도: 초당 10개, burst 20 (노드마다 로컬 버킷도 같은 한도)
+        UUID userId = UUID.randomUUID();
+        int attempts = 400;
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if ((i % 2 == 0 ? nodeA : nodeB).allowMessage(userId)) {
+                allowed++;
+            }
+        }
+
+        DistributedRateLimiter.Stats statsA = distributedA.getStats();
+        DistributedRateLimiter.Stats statsB = distributedB.getStats();
+        long redisCalls = statsA.getRedisCalls() + statsB.getRedisCalls();
+        System.out.println("허용 " + allowed + " / " + attempts + ", Redis 호출 " + redisCalls
+                + "회, 선할당 사용 " + (statsA.getLeaseHits() + statsB.getLeaseHits())
+                + "회, 거절 " + (statsA.getDenied() + statsB.getDenied()) + "회");
+
+        // 로컬 버킷만 있으면 노드마다 20개씩 40개가 허용됨
+        assertTrue(allowed >= 20 && allowed <= 22, "클러스터 burst(20) 근처만 허용해야 합니다: " + allowed);
+        assertTrue(redisCalls * 5 < attempts, "Redis 호출이 메시지 수보다 훨씬 적어야 합니다: " + redisCalls);
+        assertEquals(0, statsA.getFallbacks() + statsB.getFallbacks());
+
+        System.out.println("✅ 두 노드 합산 " + allowed + "개 허용, 메시지당 Redis 호출 "
+                + String.format("%.2f", (double) redisCalls / attempts) + "회");
+    }
+
+    @Test
+    public void fallsBackToLocalLimitWhenRedisIsDown() throws Exception {
+        System.out.println("=== Redis 장애 시 로컬 제한 전환 테스트 ===");
+
+        DistributedRateLimiter distributed = distributedLimiter();
+        ChatRateLimiter node = node(distributed);
+        UUID userId = UUID.randomUUID();
+        assertTrue(node.allowMessage(userId));
+        assertEquals(1, distributed.getStats().getRedisCalls());
+
+        redisServer.stop();
+
+        // 로컬 버킷(burst 20)만으로 판단: 남은 19개 허용 후 거절
+        long start = System.nanoTime();
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (node.allowMessage(userId)) {
+                allowed++;
+            }
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        DistributedRateLimiter.Stats stats = distributed.getStats();
+        assertTrue(stats.isFallbackActive());
+        assertTrue(stats.getFallbacks() > 0);
+        assertTrue(allowed >= 19 && allowed <= 20, "로컬 한도만큼 허용해야 합니다: " + allowed);
+        // 실패한 호출 뒤에는 fallback-retry-ms 동안 Redis를 다시 부르지 않음
+        assertTrue(stats.getRedisCalls() <= 3, "장애 중 Redis 호출이 반복되면 안 됩니다: " + stats.getRedisCalls());
+        System.out.println("장애 중 허용 " + allowed + "개, Redis 호출 " + stats.getRedisCalls() + "회, " + elapsedMs + "ms");
+
+        // Redis 복구 후 재시도 시각이 지나면 다시 클러스터 한도 사용
+        redisServer.start();
+        Thread.sleep(FALLBACK_RETRY_MS + 200);
+        UUID otherUser = UUID.randomUUID();
+        assertTrue(awaitAllowed(node, otherUser));
+        assertFalse(distributed.isFallbackActive());
+
+        System.out.println("✅ 장애 중 로컬 제한, 복구 후 Redis 제한으로 복귀");
+    }
+
+    @Test
+    public void fallsBackQuicklyWhenRedisStopsResponding() throws Exception {
+        System.out.println("=== Redis 무응답 시 로컬 제한 전환 테스트 ===");
+
+        // 명령 타임아웃을 Lettuce 기본값(60초)처럼 길게 두어 call-timeout-ms만으로 끊기는지 확인
+        DistributedRateLimiter distributed = distributedLimiter(Duration.ofSeconds(60));
+        ChatRateLimiter node = node(distributed);
+        assertTrue(node.allowMessage(UUID.randomUUID()));
+
+        // 연결은 유지한 채 Redis가 모든 클라이언트 명령을 멈추게 함
+        StringRedisTemplate admin = new StringRedisTemplate(connectionFactory(Duration.ofSeconds(5)));
+        admin.execute((RedisCallback<Object>) connection ->
+                connection.execute("CLIENT", "PAUSE".getBytes(), "3000".getBytes()));
+
+        // 선할당이 없는 새 사용자는 Redis를 불러야 함
+        UUID userId = UUID.randomUUID();
+        long start = System.nanoTime();
+        boolean allowed = node.allowMessage(userId);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(allowed, "Redis 무응답 시 로컬 제한으로 허용해야 합니다");
+        assertTrue(distributed.isFallbackActive());
+        assertTrue(elapsedMs < 1000, "call-timeout-ms(" + CALL_TIMEOUT_MS + ") 근처에서 끊겨야 합니다: " + elapsedMs + "ms");
+        System.out.println("무응답 Redis 호출 " + elapsedMs + "ms 후 로컬 전환");
+
+        // 전환 후에는 Redis를 기다리지 않음
+        start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            node.allowMessage(UUID.randomUUID());
+        }
+        elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs < CALL_TIMEOUT_MS, "로컬 전환 중 Redis 호출을 기다리면 안 됩니다: " + elapsedMs + "ms");
+
+        System.out.println("✅ Redis 무응답 시 " + CALL_TIMEOUT_MS + "ms 안팎에서 로컬 제한으로 전환");
+    }
+
+    // 재연결 직후 첫 호출이 실패할 수 있으므로 몇 번 재시도
+    private static boolean awaitAllowed(ChatRateLimiter node, UUID userId) throws InterruptedException {
+        for (int i = 0; i < 20; i++) {
+            if (node.allowMessage(userId) && !node.getLimiterInfo().getDistributed().isFallbackActive()) {
+                return true;
+            }
+            Thread.sleep(FALLBACK_RETRY_MS);
+        }
+        return false;
+    }
+
+    private ChatRateLimiter node(DistributedRateLimiter distributed) {
+        ChatRateLimiter limiter = new ChatRateLimiter(new RateLimitPolicy("user", 10, 20),
+                new RateLimitPolicy("room", 50, 100), new RateLimitPolicy("ip", 30, 60), distributed);
+        limiters.add(limiter);
+        return limiter;
+    }
+
+    private DistributedRateLimiter distributedLimiter() {
+        return distributedLimiter(Duration.ofMillis(500));
+    }
+
+    private DistributedRateLimiter distributedLimiter(Duration commandTimeout) {
+        DistributedRateLimiter distributed = new DistributedRateLimiter(new StringRedisTemplate(connectionFactory(commandTimeout)),
+                "test:rate", LEASE_SIZE, 1000, FALLBACK_RETRY_MS, CALL_TIMEOUT_MS, 100_000);
+        distributedLimiters.add(distributed);
+        return distributed;
+    }
+
+    private LettuceConnectionFactory connectionFactory(Duration commandTimeout) {
+        // 연결이 끊기면 재연결을 기다리지 않고 바로 실패
+        LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+                .commandTimeout(commandTimeout)
+                .clientOptions(ClientOptions.builder()
+                        .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                        .build())
+                .build();
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("localhost", redisPort), clientConfig);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        connectionFactories.add(connectionFactory);
+        return connectionFactory;
+    }
+}
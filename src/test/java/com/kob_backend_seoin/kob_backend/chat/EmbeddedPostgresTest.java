@@ -0,0 +1,79 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
+import com.kob_backend_seoin.kob_backend.domain.User;
+import com.kob_backend_seoin.kob_backend.repository.ChatRoomRepository;
+import com.kob_backend_seoin.kob_backend.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * 임베디드 PostgreSQL DB 연동 테스트 공통 설정
+ *
+ * - 테스트 JVM 전체에서 PostgreSQL 하나를 공유합니다 (클래스마다 띄우지 않음, JVM 종료 시 zonky 종료 훅이 정리).
+ * - 스키마는 Flyway 마이그레이션으로 만들고, 각 테스트는 직접 커밋하므로(NOT_SUPPORTED) 데이터는 무작위 ID로 구분합니다.
+ * - 다른 설정이 필요한 클래스는 @DataJpaTest / @Transactional을 다시 선언하면 이 클래스의 설정 대신 사용됩니다.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public abstract class EmbeddedPostgresTest {
+
+    private static final EmbeddedPostgres postgres;
+
+    static {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("임베디드 PostgreSQL 기동 실패", e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", EmbeddedPostgresTest::jdbcUrl);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    /**
+     * 공유 PostgreSQL 접속 URL (별도 연결이 필요한 테스트용)
+     */
+    protected static String jdbcUrl() {
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    protected User createUser() {
+        return userRepository.save(new User("test" + UUID.randomUUID() + "@example.com", "123456", "테스트사용자"));
+    }
+
+    /**
+     * 새 사용자가 만든 채팅방
+     */
+    protected ChatRoom createChatRoom() {
+        return createChatRoom(createUser());
+    }
+
+    protected ChatRoom createChatRoom(User creator) {
+        return chatRoomRepository.save(new ChatRoom("test-room", creator));
+    }
+}
@@ -0,0 +1,100 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.config.IdleSessionDetector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 유휴 세션 감지 테스트
+ * 프레임/하트비트가 계속 들어오는 세션에는 핑을 보내지 않고, 조용해진 세션에만 핑을 보내야 합니다.
+ */
+public class IdleSessionDetectorTest {
+
+    private static final Duration IDLE_TIMEOUT = Duration.ofMillis(400);
+    private static final Duration TICK = Duration.ofMillis(20);
+
+    private ThreadPoolTaskScheduler scheduler;
+    private IdleSessionDetector detector;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.initialize();
+        detector = new IdleSessionDetector(scheduler, IDLE_TIMEOUT, TICK);
+        detector.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        detector.stop();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void pingsOnlyQuietSessions() throws Exception {
+        System.out.println("=== 조용한 세션만 핑 테스트 ===");
+
+        int sessions = 1000;
+        int quiet = 10;
+        Set<String> pinged = ConcurrentHashMap.newKeySet();
+        AtomicInteger pingCount = new AtomicInteger();
+        detector.setIdleHandler((userId, sessionId) -> {
+            pinged.add(sessionId);
+            pingCount.incrementAndGet();
+        });
+
+        for (int i = 0; i < sessions; i++) {
+            detector.register("session-" + i, "user-" + i);
+        }
+
+        // 앞 quiet개를 뺀 나머지 세션은 하트비트처럼 계속 프레임을 보냄
+        long end = System.currentTimeMillis() + IDLE_TIMEOUT.toMillis() * 2 + 100;
+        while (System.currentTimeMillis() < end) {
+            for (int i = quiet; i < sessions; i++) {
+                detector.touch("session-" + i);
+            }
+            Thread.sleep(TICK.toMillis());
+        }
+
+        assertEquals(quiet, pinged.size(), "조용한 세션만 핑을 받아야 합니다: " + pinged);
+        for (int i = 0; i < quiet; i++) {
+            assertTrue(pinged.contains("session-" + i));
+        }
+        // idle-timeout 두 번 남짓 동안 조용한 세션당 최대 2회
+        assertTrue(pingCount.get() <= quiet * 2, "유휴 세션당 idle-timeout마다 최대 1회: " + pingCount.get());
+
+        System.out.println("✅ 세션 " + sessions + "개 중 조용한 " + quiet + "개만 핑 (" + pingCount.get() + "회)");
+    }
+
+    @Test
+    public void unregisteredSessionIsNotPinged() throws Exception {
+        System.out.println("=== 연결 해제 세션 제외 테스트 ===");
+
+        Set<String> pinged = ConcurrentHashMap.newKeySet();
+        detector.setIdleHandler((userId, sessionId) -> pinged.add(sessionId));
+
+        detector.register("closed", "user-1");
+        detector.register("open", "user-2");
+        detector.unregister("closed");
+
+        Thread.sleep(IDLE_TIMEOUT.toMillis() + 200);
+
+        assertFalse(pinged.contains("closed"), "연결 해제된 세션은 핑을 받으면 안 됩니다");
+        assertTrue(pinged.contains("open"));
+        assertEquals(1, detector.getSessionCount());
+
+        System.out.println("✅ 연결 해제된 세션 제외");
+    }
+}
@@ -0,0 +1,141 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.kob_backend_seoin.kob_backend.config.JwtAuthenticationFilter;
+import com.kob_backend_seoin.kob_backend.service.JwtProvider;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+/**
+ * JWT 인증 필터 검증 결과 테스트 및 처리량 벤치마크 (JMH, ./gradlew jmh -Pjmh.include=JwtFilterBenchmarkTest)
+ *
+ * 접속 중인 사용자 수만큼의 토큰으로 같은 필터를 반복 호출합니다.
+ * - perCallVerifier: 요청마다 Algorithm/JWTVerifier를 만들고 HMAC 검증과 JSON 파싱을 하는 기존 방식
+ * - cachedVerifier: 검증기를 한 번만 만들고 최근 검증한 토큰은 캐시에서 반환하는 현재 방식
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+public class JwtFilterBenchmarkTest {
+
+    private static final int ACTIVE_USERS = 1000;
+
+    private JwtAuthenticationFilter perCallFilter;
+    private JwtAuthenticationFilter cachedFilter;
+    private MockHttpServletRequest[] requests;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtProvider cachedProvider = new JwtProvider();
+        perCallFilter = new JwtAuthenticationFilter(new PerCallVerifierJwtProvider());
+        cachedFilter = new JwtAuthenticationFilter(cachedProvider);
+
+        requests = new MockHttpServletRequest[ACTIVE_USERS];
+        for (int i = 0; i < ACTIVE_USERS; i++) {
+            String userId = UUID.randomUUID().toString();
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/chat/rooms");
+            request.addHeader("Authorization", "Bearer " + cachedProvider.createAccessToken(userId, userId + "@example.com"));
+            requests[i] = request;
+        }
+    }
+
+    @Benchmark
+    public int perCallVerifier() throws Exception {
+        return filter(perCallFilter);
+    }
+
+    @Benchmark
+    public int cachedVerifier() throws Exception {
+        return filter(cachedFilter);
+    }
+
+    private int filter(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = requests[next];
+        next = (next + 1) % requests.length;
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        return response.getStatus();
+    }
+
+    @Test
+    public void cachedVerifierMatchesPerCallVerifier() throws Exception {
+        System.out.println("=== JWT 필터 검증 결과 일치 테스트 ===");
+
+        JwtProvider provider = new JwtProvider();
+        JwtAuthenticationFilter perCall = new JwtAuthenticationFilter(new PerCallVerifierJwtProvider());
+        JwtAuthenticationFilter cached = new JwtAuthenticationFilter(provider);
+
+        String userId = UUID.randomUUID().toString();
+        String valid = provider.createAccessToken(userId, userId + "@example.com");
+        String tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith("AA") ? "BB" : "AA");
+        String expired = JWT.create()
+                .withSubject(userId)
+                .withExpiresAt(new Date(System.currentTimeMillis() - 1000))
+                .sign(Algorithm.HMAC256("kob_secret_key_2024"));
+        String otherKey = JWT.create()
+                .withSubject(userId)
+                .sign(Algorithm.HMAC256("other_secret"));
+
+        // 두 번째 valid는 캐시에서 반환, 그 뒤의 변조 토큰은 캐시와 관계없이 거절되어야 함
+        for (String token : List.of(valid, valid, tampered, expired, otherKey, "not-a-jwt")) {
+            String expected = authenticate(perCall, token);
+            assertEquals(expected, authenticate(cached, token), "토큰: " + token);
+        }
+        assertEquals("200 " + userId, authenticate(cached, valid));
+        assertEquals("401 null", authenticate(cached, tampered));
+        assertEquals("401 null", authenticate(cached, expired));
+
+        System.out.println("✅ 유효/변조/만료/다른 키 토큰 모두 기존 검증 결과와 일치");
+    }
+
+    // 응답 상태와 인증된 사용자 ID
+    private static String authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/chat/rooms");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            return response.getStatus() + " " + (authentication == null ? null : authentication.getPrincipal());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // 요청마다 검증기를 만드는 기존 JwtProvider.verifyToken
+    static class PerCallVerifierJwtProvider extends JwtProvider {
+        @Override
+        public DecodedJWT verifyToken(String token) throws JWTVerificationException {
+            return JWT.require(Algorithm.HMAC256("kob_secret_key_2024")).build().verify(token);
+        }
+    }
+}
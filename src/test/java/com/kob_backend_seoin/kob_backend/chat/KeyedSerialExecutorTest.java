@@ -0,0 +1,122 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.config.KeyedSerialExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 채팅방별 순차 실행기 테스트
+ * 같은 채팅방 작업은 제출 순서대로 한 번에 하나씩, 다른 채팅방 작업은 막히지 않고 실행되어야 합니다.
+ */
+public class KeyedSerialExecutorTest {
+
+    @Test
+    public void preservesPerKeyOrderUnderConcurrentSubmission() throws Exception {
+        System.out.println("=== 채팅방별 순서 보장 테스트 ===");
+
+        int rooms = 32;
+        int messagesPerRoom = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        ExecutorService submitters = Executors.newFixedThreadPool(rooms);
+        try {
+            KeyedSerialExecutor executor = new KeyedSerialExecutor("test", pool, 16);
+            Map<UUID, List<Integer>> received = new ConcurrentHashMap<>();
+            Map<UUID, AtomicInteger> running = new ConcurrentHashMap<>();
+            AtomicInteger overlaps = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(rooms * messagesPerRoom);
+
+            // 채팅방마다 한 스레드가 순서대로 제출 (STOMP 세션 하나가 보내는 상황)
+            for (int r = 0; r < rooms; r++) {
+                UUID roomId = UUID.randomUUID();
+                received.put(roomId, new ArrayList<>());
+                running.put(roomId, new AtomicInteger());
+                submitters.execute(() -> {
+                    for (int i = 0; i < messagesPerRoom; i++) {
+                        int sequence = i;
+                        executor.execute(roomId, () -> {
+                            if (running.get(roomId).incrementAndGet() > 1) {
+                                overlaps.incrementAndGet();
+                            }
+                            received.get(roomId).add(sequence);
+                            running.get(roomId).decrementAndGet();
+                            done.countDown();
+                        });
+                    }
+                });
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS), "모든 작업이 실행되어야 합니다");
+            assertEquals(0, overlaps.get(), "같은 채팅방 작업이 동시에 실행되면 안 됩니다");
+            for (List<Integer> sequences : received.values()) {
+                assertEquals(messagesPerRoom, sequences.size());
+                for (int i = 0; i < messagesPerRoom; i++) {
+                    assertEquals(i, sequences.get(i), "제출 순서대로 실행되어야 합니다");
+                }
+            }
+        } finally {
+            submitters.shutdownNow();
+            pool.shutdownNow();
+        }
+
+        System.out.println("✅ " + rooms + "개 채팅방 x " + messagesPerRoom + "건 순서 유지");
+    }
+
+    @Test
+    public void slowRoomDoesNotBlockOtherRooms() throws Exception {
+        System.out.println("=== 느린 채팅방 격리 테스트 ===");
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            KeyedSerialExecutor executor = new KeyedSerialExecutor("test", pool, 64);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch slowDone = new CountDownLatch(2);
+
+            // 느린 DB 저장으로 막힌 채팅방 (뒤 작업은 앞 작업이 끝날 때까지 대기)
+            // 작은 정수 키는 서로 다른 메일박스에 배정되므로 키 0만 막힘
+            executor.execute(0, () -> {
+                await(release);
+                slowDone.countDown();
+            });
+            executor.execute(0, slowDone::countDown);
+
+            // 다른 채팅방 작업은 바로 처리됨
+            CountDownLatch othersDone = new CountDownLatch(63 * 10);
+            for (int i = 0; i < 10; i++) {
+                for (int roomKey = 1; roomKey < 64; roomKey++) {
+                    executor.execute(roomKey, othersDone::countDown);
+                }
+            }
+
+            assertTrue(othersDone.await(5, TimeUnit.SECONDS), "다른 채팅방 작업이 느린 채팅방을 기다리면 안 됩니다");
+            assertEquals(2, slowDone.getCount(), "느린 채팅방의 다음 작업은 앞 작업을 기다려야 합니다");
+
+            release.countDown();
+            assertTrue(slowDone.await(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        System.out.println("✅ 다른 채팅방은 지연 없이 처리");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
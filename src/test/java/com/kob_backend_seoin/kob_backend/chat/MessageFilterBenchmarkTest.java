@@ -0,0 +1,270 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.exception.CustomException;
+import com.kob_backend_seoin.kob_backend.exception.ErrorCode;
+import com.kob_backend_seoin.kob_backend.service.MessageFilterService;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 메시지 필터 정확도 테스트 및 처리량 벤치마크 (JMH, ./gradlew jmh -Pjmh.include=MessageFilterBenchmarkTest)
+ *
+ * 한국어/영어 채팅 말뭉치(일반 대화, 링크, 연락처, 이메일, 태그 섞인 메시지)로 같은 필터를 반복 호출합니다.
+ * - legacy*: 줄 수, 연속 문자, 금지어, 이메일/전화번호/URL, 태그, 스크립트 키워드를 정규식으로 차례로 처리하던 기존 방식
+ * - fused*: MessageSanitizer가 메시지를 한 번 훑으며 모두 처리하는 현재 방식
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+public class MessageFilterBenchmarkTest {
+
+    private static final String[] KOREAN_SENTENCES = {
+            "안녕하세요 오늘 회의는 3시에 시작합니다.",
+            "자료는 https://docs.example.com/share/2024/q3?tab=2 에 올려뒀어요",
+            "급하면 010-1234-5678 로 연락 주세요",
+            "견적서는 kim.minsu@example.co.kr 로 보내주시면 됩니다",
+            "<b>중요</b> 공지: 내일 점심은 12시 30분입니다",
+            "ㅋㅋㅋ 진짜 웃기다 그 영상 봤어?",
+            "회의실 예약했어요. 3층 대회의실이고 프로젝터 있습니다",
+            "사무실 번호는 02-123-4567 이에요",
+            "배포는 금요일 오후로 미뤄졌습니다 ㅠㅠ",
+            "혹시 어제 보낸 PR 리뷰 가능하실까요? 급하지는 않아요",
+            "저녁 메뉴 추천 받습니다!! 치킨 vs 피자",
+            "<i>참고</i> 디자인 시안은 http://figma.example.com/file/abc-123 확인 부탁드려요",
+            "이번 주 스프린트 회고는 목요일에 진행합니다",
+            "주말 잘 보내세요~",
+    };
+
+    private static final String[] ENGLISH_SENTENCES = {
+            "Hey team, standup moves to 10:30 tomorrow.",
+            "The build is green again, thanks for the quick fix!",
+            "Docs are at https://wiki.example.org/eng/onboarding#setup if you need them.",
+            "Ping me at alex.kim+work@example.com when you're back.",
+            "Call the front desk at 02-555-0199 for a visitor badge.",
+            "<p>Reminder:</p> quarterly review slides due Friday.",
+            "lol that demo went better than expected",
+            "Can someone review my PR before lunch? It's small, I promise.",
+            "Deploy window is 18:00-19:00 UTC, please hold merges.",
+            "Moved the retro doc to http://docs.example.net/retro/sprint-42, same link as before.",
+            "Coffee run in five minutes, who's in?",
+            "Let's sync on the API contract after the design review.",
+            "My number changed, it's 01098765432 now.",
+            "<em>FYI</em> the staging DB will be read-only tonight.",
+    };
+
+    private MessageFilterService fusedFilter;
+    private LegacyMessageFilter legacyFilter;
+    private String[] korean;
+    private String[] english;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fusedFilter = new MessageFilterService();
+        legacyFilter = new LegacyMessageFilter();
+        korean = corpus(KOREAN_SENTENCES, 1);
+        english = corpus(ENGLISH_SENTENCES, 2);
+    }
+
+    @Benchmark
+    public String legacyKorean() {
+        return legacyFilter.validateAndFilter(korean[next++ & (korean.length - 1)]);
+    }
+
+    @Benchmark
+    public String fusedKorean() {
+        return fusedFilter.validateAndFilter(korean[next++ & (korean.length - 1)]);
+    }
+
+    @Benchmark
+    public String legacyEnglish() {
+        return legacyFilter.validateAndFilter(english[next++ & (english.length - 1)]);
+    }
+
+    @Benchmark
+    public String fusedEnglish() {
+        return fusedFilter.validateAndFilter(english[next++ & (english.length - 1)]);
+    }
+
+    @Test
+    public void fusedFilterMatchesLegacyOnCorpus() {
+        System.out.println("=== 메시지 필터 기존 결과 일치 테스트 ===");
+
+        MessageFilterService fused = new MessageFilterService();
+        LegacyMessageFilter legacy = new LegacyMessageFilter();
+
+        List<String> messages = new ArrayList<>();
+        messages.addAll(Arrays.asList(corpus(KOREAN_SENTENCES, 3)));
+        messages.addAll(Arrays.asList(corpus(ENGLISH_SENTENCES, 4)));
+        // 경계 사례: 단어 경계, 도메인 역추적, 닫히지 않은 태그, 태그로 나뉜 키워드, 줄바꿈 종류, 앞뒤 공백
+        messages.addAll(List.of(
+                "전화01012345678번", "a01012345678", "010-1234-56789", "_01012345678", " 010-123-4567.",
+                "a@b.co.k1", "a@b.comx@y.com", "x@y.c1om", "a@..com", "a@.com", "@example.com",
+                "http://a.b.", "http://a..b", "http://a.b/x.,", "http://a.b:80/p?q=1,", "https://a_b.c-d/경로",
+                "1 < 2 이고 3 > 2", "a < b", "<<<<", "java<b>script:alert(1)", "ONERROR=x onLoad=y",
+                "첫 줄\r\n둘째 줄\r셋째 줄\n", "\n\n\n", "  양쪽 공백  ", "\t<br>\t",
+                "안녕하세요\n".repeat(20), "안녕하세요\n".repeat(21), "a\r\n".repeat(21),
+                "ㅋㅋㅋㅋㅋㅋㅋㅋㅋㅋ", "하하하하하하하하하하", "aaaaaaaaa", "AAAAAAAAAa",
+                "스팸 아님", "SPAM 광고", "불 법", "", "   ", " ".repeat(1001), "가".repeat(1000), "x".repeat(1001)
+        ));
+        // 무작위: 이메일/전화번호/태그 문자 조합 (URL과 스크립트 키워드는 의도적으로 달라진 부분이라 제외)
+        Random random = new Random(5);
+        char[] alphabet = "ab.C1_0-%+@<> \n가".toCharArray();
+        for (int i = 0; i < 20_000; i++) {
+            char[] chars = new char[random.nextInt(40)];
+            for (int c = 0; c < chars.length; c++) {
+                chars[c] = random.nextInt(3) == 0 ? (char) ('0' + random.nextInt(10)) : alphabet[random.nextInt(alphabet.length)];
+            }
+            messages.add(new String(chars));
+        }
+
+        int rejected = 0;
+        for (String message : messages) {
+            String expected;
+            try {
+                expected = legacy.validateAndFilter(message);
+            } catch (CustomException e) {
+                expected = "예외: " + e.getMessage();
+                rejected++;
+            }
+            String actual;
+            try {
+                actual = fused.validateAndFilter(message);
+            } catch (CustomException e) {
+                actual = "예외: " + e.getMessage();
+            }
+            assertEquals(expected, actual, "메시지: " + message);
+        }
+
+        System.out.println("✅ 메시지 " + messages.size() + "건 (거절 " + rejected + "건) 기존 결과와 일치");
+    }
+
+    @Test
+    public void fusedFilterClosesLegacyGaps() {
+        System.out.println("=== 메시지 필터 개선 사례 테스트 ===");
+
+        MessageFilterService fused = new MessageFilterService();
+
+        // URL 안의 전화번호/이메일은 URL 하나로 마스킹
+        assertEquals("[링크] 참고", fused.validateAndFilter("http://evil.example.com/call/01012345678 참고"));
+        assertEquals("[링크]", fused.validateAndFilter("https://evil.example.com/?to=kim@example.com"));
+
+        // 신뢰 도메인은 URL 호스트 기준 (다른 URL까지 허용하지 않음)
+        assertEquals("https://github.com/kob/backend 와 [링크]",
+                fused.validateAndFilter("https://github.com/kob/backend 와 http://evil.example.com/x"));
+        assertEquals("https://www.youtube.com/watch?v=abc", fused.validateAndFilter("https://www.youtube.com/watch?v=abc"));
+        assertEquals("[링크]", fused.validateAndFilter("https://youtube.com.evil.io/watch"));
+
+        // 키워드를 지워 다시 생긴 키워드도 제거
+        assertEquals("", fused.validateAndFilter("onlonloadoad"));
+        assertEquals("alert(1)", fused.validateAndFilter("javascrionloadpt:alert(1)"));
+
+        System.out.println("✅ URL 단위 마스킹, 호스트 기준 신뢰 도메인, 재생성 키워드 제거 확인");
+    }
+
+    // 문장 1~3개를 이어 붙인 메시지 1024개 (벤치마크에서 & 연산으로 순환)
+    private static String[] corpus(String[] sentences, long seed) {
+        Random random = new Random(seed);
+        String[] messages = new String[1024];
+        for (int i = 0; i < messages.length; i++) {
+            StringBuilder message = new StringBuilder();
+            int count = 1 + random.nextInt(3);
+            for (int s = 0; s < count; s++) {
+                if (s > 0) {
+                    message.append(random.nextInt(4) == 0 ? "\n" : " ");
+                }
+                message.append(sentences[random.nextInt(sentences.length)]);
+            }
+            messages[i] = message.toString();
+        }
+        return messages;
+    }
+
+    // 기존 MessageFilterService.validateAndFilter (금지어는 contains 반복, 메시지마다 남기던 INFO 로그 제외)
+    static class LegacyMessageFilter {
+        private static final int MAX_MESSAGE_LENGTH = 1000;
+        private static final int MAX_LINE_COUNT = 20;
+        private static final int MAX_CONSECUTIVE_SAME_CHARS = 10;
+        private static final List<String> PROHIBITED_WORDS = Arrays.asList("스팸", "광고", "도박", "불법");
+
+        private static final Pattern EMAIL_PATTERN = Pattern.compile(
+                "[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}"
+        );
+        private static final Pattern PHONE_PATTERN = Pattern.compile(
+                "\\b\\d{2,3}-\\d{3,4}-\\d{4}\\b|\\b\\d{10,11}\\b"
+        );
+        private static final Pattern URL_PATTERN = Pattern.compile(
+                "https?://[\\w\\-]+(\\.[\\w\\-]+)+([\\w\\-\\.,@?^=%&:/~\\+#]*[\\w\\-\\@?^=%&/~\\+#])?"
+        );
+        private static final Pattern REPEATED_CHARS_PATTERN = Pattern.compile(
+                "([a-zA-Z가-힣])\\1{" + (MAX_CONSECUTIVE_SAME_CHARS - 1) + ",}"
+        );
+
+        String validateAndFilter(String content) {
+            if (content.trim().isEmpty()) {
+                throw new CustomException("메시지 내용이 비어있습니다", ErrorCode.INVALID_INPUT);
+            }
+            if (content.length() > MAX_MESSAGE_LENGTH) {
+                throw new CustomException("메시지가 너무 깁니다 (최대 " + MAX_MESSAGE_LENGTH + "자)", ErrorCode.INVALID_INPUT);
+            }
+            if (content.lines().count() > MAX_LINE_COUNT) {
+                throw new CustomException("메시지 줄 수가 너무 많습니다 (최대 " + MAX_LINE_COUNT + "줄)", ErrorCode.INVALID_INPUT);
+            }
+            if (REPEATED_CHARS_PATTERN.matcher(content).find()) {
+                throw new CustomException("같은 문자를 " + MAX_CONSECUTIVE_SAME_CHARS + "번 이상 연속으로 사용할 수 없습니다", ErrorCode.INVALID_INPUT);
+            }
+            String lowerContent = content.toLowerCase();
+            for (String prohibitedWord : PROHIBITED_WORDS) {
+                if (lowerContent.contains(prohibitedWord.toLowerCase())) {
+                    throw new CustomException("부적절한 내용이 포함되어 있습니다", ErrorCode.INVALID_INPUT);
+                }
+            }
+
+            String result = EMAIL_PATTERN.matcher(content).replaceAll("[이메일 주소]");
+            result = PHONE_PATTERN.matcher(result).replaceAll("[전화번호]");
+            if (shouldMaskUrls(content)) {
+                result = URL_PATTERN.matcher(result).replaceAll("[링크]");
+            }
+
+            result = result.replaceAll("<[^>]*>", "");
+            result = result.replaceAll("(?i)javascript:", "");
+            result = result.replaceAll("(?i)vbscript:", "");
+            result = result.replaceAll("(?i)onload", "");
+            result = result.replaceAll("(?i)onerror", "");
+            return result.trim();
+        }
+
+        private boolean shouldMaskUrls(String content) {
+            List<String> trustedDomains = Arrays.asList("youtube.com", "github.com", "stackoverflow.com");
+            for (String domain : trustedDomains) {
+                if (content.contains(domain)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kob_backend_seoin.kob_backend.service.ChatBroadcaster;
+import com.kob_backend_seoin.kob_backend.service.ChatClusterRelay;
+import com.kob_backend_seoin.kob_backend.service.ClusterPresenceStore;
+import com.kob_backend_seoin.kob_backend.service.PresenceService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 접속 상태 테스트
+ * 한 JVM에 두 노드를 띄우고 임베디드 Redis로 여러 세션/여러 노드에 걸친 온라인·오프라인 전환을 확인합니다.
+ */
+public class PresenceServiceTest {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private AnnotationConfigApplicationContext nodeA;
+    private AnnotationConfigApplicationContext nodeB;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    public void secondTabDoesNotEndPresenceOfFirst() throws Exception {
+        System.out.println("=== 여러 세션 접속 상태 테스트 ===");
+
+        PresenceService presence = nodeA.getBean(PresenceService.class);
+        PresenceRecorder recorder = nodeA.getBean(PresenceRecorder.class);
+
+        presence.connected("user-1", "tab-1");
+        presence.connected("user-1", "tab-2");
+        awaitEvents(recorder, 1);
+        assertEquals(2, presence.getSessionCount("user-1"));
+
+        // 한 탭을 닫아도 온라인 유지
+        presence.disconnected("user-1", "tab-1");
+        Thread.sleep(200);
+        assertTrue(presence.isUserOnline("user-1"));
+        assertEquals(List.of("user-1:online"), recorder.events);
+
+        presence.disconnected("user-1", "tab-2");
+        awaitEvents(recorder, 2);
+        assertEquals(List.of("user-1:online", "user-1:offline"), recorder.events);
+        assertFalse(presence.isUserOnline("user-1"));
+
+        System.out.println("✅ 마지막 세션이 끊길 때만 오프라인");
+    }
+
+    @Test
+    public void presenceIsConsistentAcrossNodes() throws Exception {
+        System.out.println("=== 다중 노드 접속 상태 테스트 ===");
+
+        PresenceService presenceA = nodeA.getBean(PresenceService.class);
+        PresenceService presenceB = nodeB.getBean(PresenceService.class);
+        PresenceRecorder recorderA = nodeA.getBean(PresenceRecorder.class);
+        PresenceRecorder recorderB = nodeB.getBean(PresenceRecorder.class);
+
+        presenceA.connected("user-2", "session-a");
+        awaitEvents(recorderA, 1);
+        assertTrue(presenceB.isUserOnline("user-2"), "다른 노드에서도 온라인으로 보여야 합니다");
+
+        // 이미 온라인인 사용자가 다른 노드에 접속해도 다시 알리지 않음
+        presenceB.connected("user-2", "session-b");
+        presenceA.disconnected("user-2", "session-a");
+        Thread.sleep(300);
+        assertEquals(List.of("user-2:online"), recorderA.events);
+        assertTrue(recorderB.events.isEmpty());
+        assertTrue(presenceA.isUserOnline("user-2"));
+
+        // 모든 노드에서 끊기면 오프라인
+        presenceB.disconnected("user-2", "session-b");
+        awaitEvents(recorderB, 1);
+        assertEquals(List.of("user-2:offline"), recorderB.events);
+        assertFalse(presenceA.isUserOnline("user-2"));
+
+        System.out.println("✅ 클러스터 기준으로 온라인/오프라인 1회씩 알림");
+    }
+
+    @Test
+    public void lateHeartbeatDoesNotResurrectLeftUser() {
+        System.out.println("=== 해제 후 도착한 하트비트 테스트 ===");
+
+        ClusterPresenceStore store = nodeA.getBean(ClusterPresenceStore.class);
+        ClusterPresenceStore storeB = nodeB.getBean(ClusterPresenceStore.class);
+
+        store.join("user-3");
+        assertTrue(store.refresh(List.of("user-3")).isEmpty(), "기록이 있으면 연장해야 합니다");
+
+        // 하트비트가 온라인 목록을 읽은 뒤 해제가 먼저 처리된 경우
+        store.leave("user-3");
+        assertEquals(List.of("user-3"), store.refresh(List.of("user-3")));
+        assertFalse(storeB.isOnline("user-3"), "해제된 사용자가 다시 온라인이 되면 안 됩니다");
+
+        System.out.println("✅ 기록이 없는 사용자는 연장하지 않음");
+    }
+
+    private AnnotationConfigApplicationContext startNode(String nodeId) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "chat.cluster.enabled", "true",
+                "chat.cluster.node-id", nodeId,
+                "chat.cluster.channel-prefix", "test:presence",
+                "test.redis.port", String.valueOf(redisPort)
+        )));
+        context.register(NodeConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    private static void awaitEvents(PresenceRecorder recorder, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (recorder.events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(count, recorder.events.size(), "접속 상태 전환 이벤트를 받지 못했습니다");
+    }
+
+    /**
+     * 노드 하나의 최소 구성
+     */
+    @Configuration
+    @Import({ChatBroadcaster.class, ChatClusterRelay.class, ClusterPresenceStore.class, PresenceService.class})
+    static class NodeConfig {
+
+        @Bean
+        public LettuceConnectionFactory redisConnectionFactory(org.springframework.core.env.Environment environment) {
+            return new LettuceConnectionFactory("localhost", environment.getRequiredProperty("test.redis.port", Integer.class));
+        }
+
+        @Bean
+        public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+            return new StringRedisTemplate(connectionFactory);
+        }
+
+        @Bean
+        public ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        public SimpMessagingTemplate simpMessagingTemplate() {
+            return new SimpMessagingTemplate(new NoOpChannel());
+        }
+
+        @Bean
+        public TaskScheduler wsHeartbeatTaskScheduler() {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.initialize();
+            return scheduler;
+        }
+
+        @Bean
+        public TaskExecutor presenceTaskExecutor() {
+            return new SimpleAsyncTaskExecutor("presence-");
+        }
+
+        @Bean
+        public PresenceRecorder presenceRecorder() {
+            return new PresenceRecorder();
+        }
+    }
+
+    /**
+     * 전환 이벤트 기록
+     */
+    static class PresenceRecorder {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void onPresenceChanged(PresenceService.PresenceChangedEvent event) {
+            events.add(event.getUserId() + ":" + (event.isOnline() ? "online" : "offline"));
+        }
+    }
+
+    static class NoOpChannel implements MessageChannel {
+        @Override
+        public boolean send(Message<?> message, long timeout) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.exception.CustomException;
+import com.kob_backend_seoin.kob_backend.service.MessageFilterService;
+import com.kob_backend_seoin.kob_backend.service.ProhibitedWordDictionary;
+import com.kob_backend_seoin.kob_backend.service.ProhibitedWordMatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 금지어 필터 테스트
+ * Aho-Corasick 매처는 String.contains 반복과 같은 결과를 내면서 금지어 수와 관계없이 메시지를 한 번만 훑어야 하고,
+ * 금지어 사전은 DB/파일 변경을 다시 읽어 매처를 교체해야 합니다.
+ */
+public class ProhibitedWordFilterTest extends EmbeddedPostgresTest {
+
+    private final List<ProhibitedWordDictionary> dictionaries = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        dictionaries.forEach(ProhibitedWordDictionary::stop);
+        jdbcTemplate.update("DELETE FROM chat_prohibited_words WHERE word NOT IN ('스팸', '광고', '도박', '불법')");
+    }
+
+    @Test
+    public void matcherAgreesWithContains() {
+        System.out.println("=== 금지어 매처 정확도 테스트 ===");
+
+        // 접두사/접미사가 겹치는 금지어 (실패 링크와 접미사 출력 확인)
+        ProhibitedWordMatcher matcher = ProhibitedWordMatcher.of(List.of("he", "she", "his", "hers", " 불법도박 ", "도박"));
+        assertEquals("she", matcher.findFirst("uSHErs"));
+        assertEquals("his", matcher.findFirst("this"));
+        assertEquals("도박", matcher.findFirst("불법도 박 아니고 도박"));
+        assertEquals("불법도박", matcher.findFirst("불법도박"));
+        assertNull(matcher.findFirst("불법도 박"));
+        assertEquals(6, matcher.size());
+
+        // 무작위 금지어/메시지로 기존 방식(소문자 변환 후 contains 반복)과 비교
+        Random random = new Random(42);
+        char[] alphabet = {'a', 'b', 'C', '가', '나'};
+        for (int round = 0; round < 200; round++) {
+            List<String> words = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(20); i++) {
+                words.add(randomText(random, alphabet, 1 + random.nextInt(4)));
+            }
+            ProhibitedWordMatcher randomMatcher = ProhibitedWordMatcher.of(words);
+            for (int i = 0; i < 20; i++) {
+                String text = randomText(random, alphabet, random.nextInt(30));
+                assertEquals(containsAny(text, words), randomMatcher.matches(text), "불일치: " + words + " / " + text);
+            }
+        }
+
+        System.out.println("✅ 겹치는 금지어 및 무작위 4000건 contains 결과와 일치");
+    }
+
+    @Test
+    public void filteringIsLinearInMessageLength() {
+        System.out.println("=== 금지어 1만 개 검사 비용 테스트 ===");
+
+        Random random = new Random(7);
+        Set<String> words = new LinkedHashSet<>();
+        while (words.size() < 10_000) {
+            words.add(randomHangul(random, 2 + random.nextInt(3)));
+        }
+        List<String> wordList = new ArrayList<>(words);
+        ProhibitedWordMatcher small = ProhibitedWordMatcher.of(wordList.subList(0, 100));
+        ProhibitedWordMatcher large = ProhibitedWordMatcher.of(wordList);
+
+        // 금지어가 없는 일반 메시지 (금지어에 쓰지 않은 음절 범위로 구성)
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            messages.add("안녕하세요 오늘 회의는 세 시에 시작합니다 " + i + " hello meeting notes");
+        }
+        for (String message : messages) {
+            assertFalse(large.matches(message));
+        }
+
+        long smallNanos = measure(() -> countMatches(small, messages));
+        long largeNanos = measure(() -> countMatches(large, messages));
+        long containsNanos = measure(() -> {
+            int count = 0;
+            for (String message : messages) {
+                if (containsAny(message, wordList)) {
+                    count++;
+                }
+            }
+            return count;
+        });
+
+        System.out.println("메시지 " + messages.size() + "건: 금지어 100개 매처 " + smallNanos / 1000 + "µs, 1만 개 매처 "
+                + largeNanos / 1000 + "µs, 1만 개 contains 반복 " + containsNanos / 1000 + "µs");
+        assertTrue(largeNanos < smallNanos * 3, "금지어 수가 100배여도 검사 비용은 비슷해야 합니다");
+        assertTrue(largeNanos * 10 < containsNanos, "contains 반복보다 훨씬 빨라야 합니다");
+
+        System.out.println("✅ 금지어 1만 개에서도 메시지 길이에 비례 (contains 반복 대비 "
+                + containsNanos / Math.max(1, largeNanos) + "배)");
+    }
+
+    @Test
+    public void dictionaryReloadsChangedWordsFromDatabase() {
+        System.out.println("=== 금지어 사전 DB 다시 읽기 테스트 ===");
+
+        ProhibitedWordDictionary dictionary = startDictionary(3600, "");
+        MessageFilterService filterService = new MessageFilterService(dictionary);
+
+        // Flyway 시드 금지어
+        assertThrows(CustomException.class, () -> filterService.validateAndFilter("도박 사이트 홍보"));
+        assertEquals("안녕하세요 회의 자료입니다", filterService.validateAndFilter("안녕하세요 회의 자료입니다"));
+
+        // 다른 노드가 추가한 금지어는 다시 읽은 뒤 반영
+        jdbcTemplate.update("INSERT INTO chat_prohibited_words (word) VALUES ('회의록')");
+        assertFalse(dictionary.getMatcher().matches("회의록 공유"));
+        assertTrue(dictionary.reload());
+        assertTrue(dictionary.getMatcher().matches("회의록 공유"));
+        assertFalse(dictionary.reload(), "변경이 없으면 다시 만들지 않아야 합니다");
+
+        // 관리자 추가 (기존에는 Arrays.asList에 add하여 UnsupportedOperationException)
+        filterService.addProhibitedWord("  Casino ");
+        assertThrows(CustomException.class, () -> filterService.validateAndFilter("best CASINO bonus"));
+        assertEquals(6, filterService.getFilterStats().getProhibitedWordsCount());
+
+        dictionary.remove("회의록");
+        assertFalse(dictionary.getMatcher().matches("회의록 공유"));
+
+        System.out.println("✅ DB 변경 감지 후 매처 교체, 관리자 추가/삭제 즉시 반영");
+    }
+
+    @Test
+    public void dictionaryReloadsFileOnSchedule() throws Exception {
+        System.out.println("=== 금지어 파일 주기적 다시 읽기 테스트 ===");
+
+        Path file = Files.createTempFile("prohibited-words", ".txt");
+        try {
+            Files.writeString(file, "# 운영 금지어\n욕설하나\n\n", StandardCharsets.UTF_8);
+            ProhibitedWordDictionary dictionary = startDictionary(1, file.toString());
+            assertTrue(dictionary.getMatcher().matches("이건 욕설하나 입니다"));
+            assertFalse(dictionary.getMatcher().matches("# 운영 금지어"));
+
+            Files.writeString(file, "# 운영 금지어\n욕설하나\n욕설둘\n", StandardCharsets.UTF_8);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!dictionary.getMatcher().matches("욕설둘") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(dictionary.getMatcher().matches("욕설둘"), "파일 변경이 확인 주기 안에 반영되어야 합니다");
+            assertTrue(dictionary.getMatcher().matches("도박"), "DB 금지어도 함께 사용해야 합니다");
+
+            System.out.println("✅ 파일 변경 후 " + dictionary.getMatcher().size() + "개 금지어로 교체");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private ProhibitedWordDictionary startDictionary(long reloadIntervalSeconds, String file) {
+        ProhibitedWordDictionary dictionary = new ProhibitedWordDictionary(jdbcTemplate, reloadIntervalSeconds, file);
+        dictionary.start();
+        dictionaries.add(dictionary);
+        return dictionary;
+    }
+
+    // 워밍업 후 반복 측정한 최소 시간
+    private static long measure(IntSupplier task) {
+        long best = Long.MAX_VALUE;
+        int sink = 0;
+        for (int i = 0; i < 30; i++) {
+            long start = System.nanoTime();
+            sink += task.getAsInt();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        assertEquals(0, sink);
+        return best;
+    }
+
+    private static int countMatches(ProhibitedWordMatcher matcher, List<String> messages) {
+        int count = 0;
+        for (String message : messages) {
+            if (matcher.matches(message)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 기존 MessageFilterService.checkProhibitedWords 방식
+    private static boolean containsAny(String text, List<String> words) {
+        String lower = text.toLowerCase();
+        for (String word : words) {
+            if (lower.contains(word.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String randomText(Random random, char[] alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet[random.nextInt(alphabet.length)]);
+        }
+        return sb.toString();
+    }
+
+    // 메시지에 쓰는 음절(녕/다/세/시/안 등)과 겹치지 않는 U+B410부터 2000개 음절만 사용
+    private static String randomHangul(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) (0xB410 + random.nextInt(2000)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,222 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.service.ChatRateLimiter;
+import com.kob_backend_seoin.kob_backend.service.RateLimitPolicy;
+import com.kob_backend_seoin.kob_backend.service.TokenBucket;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 전송 제한 토큰 버킷 테스트 및 경합 벤치마크 (JMH, ./gradlew jmh -Pjmh.include=RateLimiterBenchmarkTest)
+ *
+ * 한 사용자가 여러 세션/스레드에서 동시에 보내는 상황으로 같은 버킷을 호출합니다.
+ * - lockingAllowMessage: 락 + double 계산 + 사용자별 맵 두 개를 갱신하던 기존 방식
+ * - casAllowMessage: 크레딧과 시각을 AtomicLong 하나에 담아 CAS로 갱신하는 현재 방식
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Threads(4)
+public class RateLimiterBenchmarkTest {
+
+    private LockingRateLimiter lockingLimiter;
+    private ChatRateLimiter casLimiter;
+    private UUID userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lockingLimiter = new LockingRateLimiter(10);
+        casLimiter = new ChatRateLimiter(new RateLimitPolicy("user", 10, 20),
+                new RateLimitPolicy("room", 50, 100), new RateLimitPolicy("ip", 30, 60));
+        userId = UUID.randomUUID();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        casLimiter.shutdown();
+    }
+
+    @Benchmark
+    public boolean lockingAllowMessage() {
+        return lockingLimiter.allowMessage(userId);
+    }
+
+    @Benchmark
+    public boolean casAllowMessage() {
+        return casLimiter.allowMessage(userId);
+    }
+
+    @Test
+    public void concurrentAcquiresNeverExceedBurst() throws Exception {
+        System.out.println("=== 동시 요청 토큰 수 테스트 ===");
+
+        int threads = 8;
+        int attemptsPerThread = 10_000;
+        TokenBucket bucket = new RateLimitPolicy("test", 1, 50).newBucket();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    int acquired = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (bucket.tryAcquire()) {
+                            acquired++;
+                        }
+                    }
+                    return acquired;
+                }));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get(10, TimeUnit.SECONDS);
+            }
+            // 초당 1개 충전이므로 테스트 시간 동안 burst + 수 개 이상 허용되면 안 됨
+            assertTrue(total >= 50 && total <= 55, "허용 수가 burst 근처여야 합니다: " + total);
+            System.out.println("✅ " + threads + "개 스레드 x " + attemptsPerThread + "회 중 " + total + "회 허용");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void refillsAtConfiguredRate() {
+        System.out.println("=== 토큰 충전 테스트 ===");
+
+        // 시계를 직접 진행하여 실제 시간과 관계없이 충전량 확인
+        AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+        TokenBucket bucket = new RateLimitPolicy("test", 100, 5).newBucket(clock::get);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire());
+        }
+        assertFalse(bucket.tryAcquire(), "burst를 다 쓰면 거절해야 합니다");
+        assertFalse(bucket.isFull());
+
+        // 초당 100개 → 10ms마다 1개, 0.1ms마다 호출해도 충전이 누락되지 않아야 함
+        int acquired = 0;
+        for (int i = 0; i < 2000; i++) {
+            clock.addAndGet(TimeUnit.MICROSECONDS.toNanos(100));
+            if (bucket.tryAcquire()) {
+                acquired++;
+            }
+        }
+        assertEquals(20, acquired, "200ms 동안 20개가 충전되어야 합니다");
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(bucket.isFull(), "쉬는 동안 burst까지 다시 채워져야 합니다");
+        assertEquals(5.0, bucket.getAvailableTokens(), 0.001);
+
+        System.out.println("✅ 200ms 동안 " + acquired + "개 충전");
+    }
+
+    @Test
+    public void allowMessageDoesNotAllocate() {
+        System.out.println("=== 전송 제한 확인 할당량 테스트 ===");
+
+        ChatRateLimiter limiter = new ChatRateLimiter(new RateLimitPolicy("user", 10, 20),
+                new RateLimitPolicy("room", 50, 100), new RateLimitPolicy("ip", 30, 60));
+        try {
+            UUID user = UUID.randomUUID();
+            for (int i = 0; i < 100_000; i++) {
+                limiter.allowMessage(user);
+            }
+
+            com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long before = threadBean.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 100_000; i++) {
+                limiter.allowMessage(user);
+            }
+            long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+
+            // 측정 호출 자체의 할당 여유분만 허용
+            assertTrue(allocated < 1024, "allowMessage가 할당하면 안 됩니다: " + allocated + "바이트");
+            System.out.println("✅ 10만 회 호출 할당 " + allocated + "바이트");
+        } finally {
+            limiter.shutdown();
+        }
+    }
+
+    // 기존 ChatRateLimiter.allowMessage (락 + double 계산, 호출마다 맵 두 개 갱신, 거절 시 WARNING 로그 제외)
+    static class LockingRateLimiter {
+        private final double permitsPerSecond;
+        private final ConcurrentHashMap<UUID, Bucket> userLimiters = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<UUID, Long> lastUsedTime = new ConcurrentHashMap<>();
+
+        LockingRateLimiter(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        boolean allowMessage(UUID userId) {
+            Bucket limiter = userLimiters.computeIfAbsent(userId, k -> new Bucket(permitsPerSecond));
+            lastUsedTime.put(userId, System.currentTimeMillis());
+            return limiter.tryAcquire();
+        }
+
+        private static class Bucket {
+            private final double permitsPerSecond;
+            private volatile long lastPermitTime;
+            private volatile double availablePermits;
+            private final ReentrantLock lock = new ReentrantLock();
+
+            private Bucket(double permitsPerSecond) {
+                this.permitsPerSecond = permitsPerSecond;
+                this.availablePermits = permitsPerSecond;
+                this.lastPermitTime = System.currentTimeMillis();
+            }
+
+            private boolean tryAcquire() {
+                lock.lock();
+                try {
+                    long currentTime = System.currentTimeMillis();
+                    double timeDiff = (currentTime - lastPermitTime) / 1000.0;
+                    availablePermits = Math.min(permitsPerSecond, availablePermits + timeDiff * permitsPerSecond);
+                    lastPermitTime = currentTime;
+                    if (availablePermits >= 1.0) {
+                        availablePermits -= 1.0;
+                        return true;
+                    }
+                    return false;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.service.ChatRateLimiter;
+import com.kob_backend_seoin.kob_backend.service.RateLimitPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 전송 제한 버킷 만료 테스트
+ * 다시 가득 찬 버킷은 주기적인 전체 순회 없이 사라지고, 아직 제한 중인 버킷은 남아 있으며,
+ * 버킷 수는 max-keys를 넘지 않아야 합니다.
+ */
+public class RateLimiterExpiryTest {
+
+    // 타이머 휠 칸(100ms)을 몇 칸 지나도록 대기
+    private static final long WHEEL_TICK_MS = 300;
+
+    @Test
+    public void refilledBucketsExpireWithoutSweep() throws Exception {
+        System.out.println("=== 다시 가득 찬 버킷 만료 테스트 ===");
+
+        // 초당 1000개 → 한 번 쓴 버킷은 약 1ms 뒤 다시 가득 참
+        ChatRateLimiter limiter = new ChatRateLimiter(new RateLimitPolicy("user", 1000, 2),
+                new RateLimitPolicy("room", 1000, 2), new RateLimitPolicy("ip", 1000, 2));
+        try {
+            int users = 50_000;
+            for (int i = 0; i < users; i++) {
+                assertTrue(limiter.allowMessage(UUID.randomUUID()));
+            }
+            int before = limiter.getActiveLimitersCount();
+
+            Thread.sleep(WHEEL_TICK_MS);
+            int after = limiter.getActiveLimitersCount();
+
+            // 전송하는 동안에도 새 버킷을 만드는 호출이 지나간 칸을 정리함
+            System.out.println("사용자 " + users + "명 전송 직후 버킷 " + before + "개 → " + WHEEL_TICK_MS + "ms 뒤 " + after + "개");
+            assertTrue(before > 0 && before <= users);
+            assertEquals(0, after, "가득 찬 버킷은 모두 만료되어야 합니다");
+
+            System.out.println("✅ 쉬는 사용자 버킷 " + users + "개 만료");
+        } finally {
+            limiter.shutdown();
+        }
+    }
+
+    @Test
+    public void limitedBucketSurvivesUntilRefilled() throws Exception {
+        System.out.println("=== 제한 중인 버킷 유지 테스트 ===");
+
+        // 10초에 1개 → 다 쓴 버킷은 10초 동안 남아 있어야 제한이 풀리지 않음
+        ChatRateLimiter limiter = new ChatRateLimiter(new RateLimitPolicy("user", 0.1, 1),
+                new RateLimitPolicy("room", 50, 100), new RateLimitPolicy("ip", 30, 60));
+        try {
+            UUID userId = UUID.randomUUID();
+            assertTrue(limiter.allowMessage(userId));
+            assertFalse(limiter.allowMessage(userId));
+
+            Thread.sleep(WHEEL_TICK_MS);
+            assertEquals(1, limiter.getActiveLimitersCount());
+            assertFalse(limiter.allowMessage(userId), "만료로 제한이 초기화되면 안 됩니다");
+
+            System.out.println("✅ 충전 전까지 버킷 유지, 계속 거절");
+        } finally {
+            limiter.shutdown();
+        }
+    }
+
+    @Test
+    public void bucketCountIsCapped() {
+        System.out.println("=== 버킷 수 상한 테스트 ===");
+
+        int maxKeys = 1000;
+        ChatRateLimiter limiter = new ChatRateLimiter(new RateLimitPolicy("user", 0.1, 1),
+                new RateLimitPolicy("room", 50, 100), new RateLimitPolicy("ip", 30, 60), maxKeys, null);
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                limiter.allowMessage(UUID.randomUUID());
+            }
+            int count = limiter.getActiveLimitersCount();
+            System.out.println("사용자 20000명, max-keys " + maxKeys + " → 버킷 " + count + "개");
+            assertTrue(count <= maxKeys, "버킷 수가 max-keys를 넘으면 안 됩니다: " + count);
+
+            System.out.println("✅ 버킷 수 " + maxKeys + "개 이하 유지");
+        } finally {
+            limiter.shutdown();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.config.TokenExpiryWebSocketHandler;
+import com.kob_backend_seoin.kob_backend.service.StompAuthContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * JWT 만료 세션 종료 테스트
+ * 토큰 만료 시각이 되면 세션이 닫히고, 먼저 끊긴 세션은 예약된 종료가 취소되어야 합니다.
+ */
+public class TokenExpiryWebSocketHandlerTest {
+
+    private ThreadPoolTaskScheduler scheduler;
+    private TokenExpiryWebSocketHandler handler;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.initialize();
+        handler = new TokenExpiryWebSocketHandler(mock(WebSocketHandler.class), scheduler);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void closesSessionWhenTokenExpires() throws Exception {
+        System.out.println("=== 토큰 만료 시 세션 종료 테스트 ===");
+
+        WebSocketSession session = session(System.currentTimeMillis() + 200);
+        handler.afterConnectionEstablished(session);
+
+        verify(session, timeout(2000)).close(any(CloseStatus.class));
+
+        System.out.println("✅ 만료 시각에 세션 종료");
+    }
+
+    @Test
+    public void cancelsExpiryWhenSessionClosesFirst() throws Exception {
+        System.out.println("=== 만료 전 연결 해제 테스트 ===");
+
+        WebSocketSession session = session(System.currentTimeMillis() + 200);
+        handler.afterConnectionEstablished(session);
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        verify(session, after(500).never()).close(any(CloseStatus.class));
+
+        System.out.println("✅ 예약된 종료 취소");
+    }
+
+    private WebSocketSession session(long expiresAtMillis) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("user", new StompAuthContext(UUID.randomUUID(), StompAuthContext.USER_AUTHORITIES, expiresAtMillis));
+
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(UUID.randomUUID().toString());
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+}
@@ -0,0 +1,378 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.KobBackendApplication;
+import com.kob_backend_seoin.kob_backend.domain.ChatRoom;
+import com.kob_backend_seoin.kob_backend.domain.User;
+import com.kob_backend_seoin.kob_backend.repository.ChatRoomRepository;
+import com.kob_backend_seoin.kob_backend.repository.UserRepository;
+import com.kob_backend_seoin.kob_backend.service.JwtProvider;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 플랫폼 스레드 / 가상 스레드 모드 전송 경로 부하 테스트
+ *
+ * 애플리케이션 전체(Tomcat, Spring Security, STOMP 브로커, 전송 파이프라인, JPA)를 임베디드 PostgreSQL/Redis로
+ * spring.threads.virtual.enabled=false / true 두 번 띄워 같은 부하를 보내고 처리량과 지연 시간을 출력합니다.
+ * - REST: POST /api/chat/rooms/{roomId}/messages (Tomcat 요청 스레드에서 JWT 검증 + 채팅방 메일박스 + 저장)
+ * - STOMP: /app/send-message → /user/queue/receipts 수신증명까지 (inbound 채널 → 전송 파이프라인 → outbound 채널)
+ * - 가상 스레드 모드에서는 JFR jdk.VirtualThreadPinned로 캐리어 고정을 기록하고, 애플리케이션 코드에서 고정되면 실패합니다.
+ *
+ * 처리량은 DB 연결 풀 등 환경에 따라 달라지므로 비교 결과는 출력만 하고 단정하지 않습니다.
+ */
+public class VirtualThreadLoadTest {
+
+    private static final int ROOMS = 16;
+    private static final int REST_CLIENTS = 256;           // Tomcat 기본 최대 요청 스레드(200)보다 많은 동시 요청
+    private static final int REST_REQUESTS_PER_CLIENT = 2;
+    private static final int STOMP_SESSIONS = 64;
+    private static final int STOMP_MESSAGES_PER_SESSION = 8;
+    private static final String APP_PACKAGE = "com.kob_backend_seoin.kob_backend.";
+
+    private RedisServer redisServer;
+    private int redisPort;
+
+    @BeforeEach
+    void startRedis() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+    }
+
+    @AfterEach
+    void stopRedis() throws IOException {
+        redisServer.stop();
+    }
+
+    @Test
+    public void sendPathUnderLoadInBothThreadModes() throws Exception {
+        System.out.println("=== 전송 경로 부하 비교 (REST " + REST_CLIENTS * REST_REQUESTS_PER_CLIENT + "건, STOMP "
+                + STOMP_SESSIONS * STOMP_MESSAGES_PER_SESSION + "건) ===");
+
+        ModeResult platform = runLoad(false);
+        ModeResult virtual = runLoad(true);
+
+        System.out.println("platform  REST   " + platform.rest);
+        System.out.println("virtual   REST   " + virtual.rest);
+        System.out.println("platform  STOMP  " + platform.stomp);
+        System.out.println("virtual   STOMP  " + virtual.stomp);
+        System.out.println("가상 스레드 모드 캐리어 고정 " + virtual.pinnedEvents + "건");
+        virtual.pinnedSources.forEach((frames, count) -> System.out.println("  " + count + "건  " + frames));
+
+        for (ModeResult result : List.of(platform, virtual)) {
+            assertEquals(REST_CLIENTS * REST_REQUESTS_PER_CLIENT, result.rest.succeeded, "모든 REST 전송이 성공해야 합니다");
+            assertEquals(STOMP_SESSIONS * STOMP_MESSAGES_PER_SESSION, result.stomp.succeeded, "모든 STOMP 전송이 수신증명을 받아야 합니다");
+        }
+        // 설정 하나로 요청 처리 스레드가 실제로 바뀌는지 확인
+        assertEquals(0, platform.virtualThreadsStarted, "플랫폼 모드에서는 가상 스레드를 쓰지 않아야 합니다");
+        assertTrue(virtual.virtualThreadsStarted >= REST_CLIENTS, "가상 스레드 모드에서 요청을 가상 스레드로 처리해야 합니다: "
+                + virtual.virtualThreadsStarted);
+        assertTrue(virtual.appPinnedSources.isEmpty(), "애플리케이션 코드에서 캐리어가 고정되면 안 됩니다: " + virtual.appPinnedSources);
+
+        System.out.println("✅ 두 모드 모두 전송 성공, 애플리케이션 코드 캐리어 고정 없음");
+    }
+
+    private ModeResult runLoad(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(KobBackendApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=" + EmbeddedPostgresTest.jdbcUrl(),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.data.redis.port=" + redisPort,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.kob_backend_seoin=WARN",
+                // 채팅방 메일박스 대기 시간 초과(SERVER_BUSY)가 아니라 대기 시간 자체를 지연 시간으로 측정
+                "--chat.room-executor.call-timeout-ms=60000",
+                // 전송 제한이 아니라 처리 경로를 측정
+                "--chat.rate-limit.user.permits-per-second=100000", "--chat.rate-limit.user.burst=100000",
+                "--chat.rate-limit.room.permits-per-second=100000", "--chat.rate-limit.room.burst=100000",
+                "--chat.rate-limit.ip.permits-per-second=100000", "--chat.rate-limit.ip.burst=100000")) {
+
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            List<Sender> restSenders = seed(context, REST_CLIENTS);
+            List<Sender> stompSenders = seed(context, STOMP_SESSIONS);
+
+            // 워밍업 (JIT, 연결 풀, 참여 여부 캐시)
+            restLoad(port, restSenders.subList(0, ROOMS), 1);
+
+            Path file = Files.createTempFile("virtual-threads-" + virtualThreads, ".jfr");
+            try (Recording recording = new Recording()) {
+                recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+                recording.enable("jdk.VirtualThreadStart");
+                recording.start();
+
+                LoadResult rest = restLoad(port, restSenders, REST_REQUESTS_PER_CLIENT);
+                LoadResult stomp = stompLoad(port, stompSenders);
+
+                recording.stop();
+                recording.dump(file);
+                return new ModeResult(rest, stomp, RecordingFile.readAllEvents(file));
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // 채팅방 ROOMS개에 사용자를 고르게 나눠 참여시키고 토큰 발급
+    private static List<Sender> seed(ConfigurableApplicationContext context, int users) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ChatRoomRepository chatRoomRepository = context.getBean(ChatRoomRepository.class);
+        JwtProvider jwtProvider = context.getBean(JwtProvider.class);
+
+        List<User> members = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            members.add(userRepository.save(new User("load" + UUID.randomUUID() + "@example.com", "123456", "부하테스트")));
+        }
+
+        List<Sender> senders = new ArrayList<>();
+        for (int r = 0; r < ROOMS; r++) {
+            ChatRoom room = new ChatRoom("load-test", members.get(r), ChatRoom.ChatRoomType.GROUP);
+            for (int i = r + ROOMS; i < users; i += ROOMS) {
+                room.addParticipant(members.get(i));
+            }
+            UUID roomId = chatRoomRepository.save(room).getId();
+            for (int i = r; i < users; i += ROOMS) {
+                User user = members.get(i);
+                senders.add(new Sender(roomId, jwtProvider.createAccessToken(user.getId().toString(), user.getEmail())));
+            }
+        }
+        return senders;
+    }
+
+    // 클라이언트마다 요청을 순서대로 보냄 (동시 요청 수 = 클라이언트 수)
+    private static LoadResult restLoad(int port, List<Sender> senders, int requestsPerClient) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long[] latencies = new long[senders.size() * requestsPerClient];
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(senders.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < senders.size(); c++) {
+                int clientIndex = c;
+                Sender sender = senders.get(c);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                                        "http://localhost:" + port + "/api/chat/rooms/" + sender.roomId + "/messages"))
+                                .header("Authorization", "Bearer " + sender.token)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"content\":\"REST 부하 테스트 " + i + "\"}"))
+                                .build();
+                        long sentAt = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[clientIndex * requestsPerClient + i] = System.nanoTime() - sentAt;
+                        if (response.statusCode() == 201) {
+                            succeeded.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+            return new LoadResult(succeeded.get(), System.nanoTime() - startedAt, latencies);
+        } finally {
+            pool.shutdownNow();
+            client.close();
+        }
+    }
+
+    // 세션마다 메시지를 연달아 보내고 /user/queue/receipts 수신증명까지의 시간 측정
+    private static LoadResult stompLoad(int port, List<Sender> senders) throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        stompClient.setDefaultHeartbeat(new long[]{0, 0});
+
+        int total = senders.size() * STOMP_MESSAGES_PER_SESSION;
+        Map<String, Long> sentAt = new ConcurrentHashMap<>();
+        long[] latencies = new long[total];
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(total);
+
+        List<StompSession> sessions = new ArrayList<>();
+        try {
+            for (Sender sender : senders) {
+                // 핸드셰이크는 Spring Security(Authorization 헤더)와 JwtHandshakeInterceptor(token 파라미터)를 모두 거침
+                WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+                handshakeHeaders.add("Authorization", "Bearer " + sender.token);
+                StompSession session = stompClient.connectAsync(
+                        "ws://localhost:" + port + "/ws/chat/raw?token=" + sender.token, handshakeHeaders,
+                        new StompSessionHandlerAdapter() {
+                        }).get(10, TimeUnit.SECONDS);
+                session.subscribe("/user/queue/receipts", new StompFrameHandler() {
+                    @Override
+                    public Type getPayloadType(StompHeaders headers) {
+                        return Map.class;
+                    }
+
+                    @Override
+                    public void handleFrame(StompHeaders headers, Object payload) {
+                        Map<?, ?> receipt = (Map<?, ?>) ((Map<?, ?>) payload).get("payload");
+                        Long sent = sentAt.remove((String) receipt.get("clientMessageId"));
+                        if (sent == null) {
+                            return;
+                        }
+                        latencies[received.getAndIncrement()] = System.nanoTime() - sent;
+                        if ("ok".equals(receipt.get("status"))) {
+                            succeeded.incrementAndGet();
+                        }
+                        done.countDown();
+                    }
+                });
+                sessions.add(session);
+            }
+
+            long startedAt = System.nanoTime();
+            for (int i = 0; i < STOMP_MESSAGES_PER_SESSION; i++) {
+                for (int s = 0; s < sessions.size(); s++) {
+                    String clientMessageId = s + "-" + i + "-" + UUID.randomUUID();
+                    Map<String, Object> request = new LinkedHashMap<>();
+                    request.put("roomId", senders.get(s).roomId);
+                    request.put("content", "STOMP 부하 테스트 " + i);
+                    request.put("clientMessageId", clientMessageId);
+                    sentAt.put(clientMessageId, System.nanoTime());
+                    sessions.get(s).send("/app/send-message", request);
+                }
+            }
+            assertTrue(done.await(120, TimeUnit.SECONDS), "STOMP 수신증명이 시간 안에 오지 않았습니다: " + done.getCount() + "건 남음");
+            return new LoadResult(succeeded.get(), System.nanoTime() - startedAt, latencies);
+        } finally {
+            sessions.forEach(StompSession::disconnect);
+            stompClient.stop();
+        }
+    }
+
+    private static class Sender {
+        private final UUID roomId;
+        private final String token;
+
+        Sender(UUID roomId, String token) {
+            this.roomId = roomId;
+            this.token = token;
+        }
+    }
+
+    private static class ModeResult {
+        private final LoadResult rest;
+        private final LoadResult stomp;
+        private final long virtualThreadsStarted;
+        private final long pinnedEvents;
+        // 고정 위치(스택 위쪽 프레임)별 건수
+        private final Map<String, Long> pinnedSources = new LinkedHashMap<>();
+        private final Map<String, Long> appPinnedSources = new LinkedHashMap<>();
+
+        ModeResult(LoadResult rest, LoadResult stomp, List<RecordedEvent> events) {
+            this.rest = rest;
+            this.stomp = stomp;
+            long started = 0;
+            long pinned = 0;
+            for (RecordedEvent event : events) {
+                if (event.getEventType().getName().equals("jdk.VirtualThreadStart")) {
+                    started++;
+                    continue;
+                }
+                pinned++;
+                List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+                String source = frames.stream()
+                        .filter(RecordedFrame::isJavaFrame)
+                        .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                        .filter(name -> !name.startsWith("java.lang.VirtualThread") && !name.startsWith("java.util.concurrent.locks"))
+                        .limit(3)
+                        .reduce((a, b) -> a + " ← " + b)
+                        .orElse("(스택 없음)");
+                pinnedSources.merge(source, 1L, Long::sum);
+                // 테스트 코드(chat 패키지)를 제외한 애플리케이션 프레임이 스택에 있으면 애플리케이션 코드의 고정
+                boolean inApp = frames.stream().anyMatch(frame -> {
+                    String type = frame.getMethod().getType().getName();
+                    return type.startsWith(APP_PACKAGE) && !type.startsWith(APP_PACKAGE + "chat.");
+                });
+                if (inApp) {
+                    appPinnedSources.merge(source, 1L, Long::sum);
+                }
+            }
+            this.virtualThreadsStarted = started;
+            this.pinnedEvents = pinned;
+        }
+    }
+
+    private static class LoadResult {
+        private final int succeeded;
+        private final double elapsedMs;
+        private final double p50Ms;
+        private final double p99Ms;
+        private final int requests;
+
+        LoadResult(int succeeded, long elapsedNanos, long[] latencies) {
+            this.succeeded = succeeded;
+            this.requests = latencies.length;
+            this.elapsedMs = elapsedNanos / 1_000_000.0;
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            this.p50Ms = sorted[sorted.length / 2] / 1_000_000.0;
+            this.p99Ms = sorted[sorted.length * 99 / 100] / 1_000_000.0;
+        }
+
+        double throughput() {
+            return requests / (elapsedMs / 1000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("성공 %d/%d건, %.0fms, %.0f req/s, p50 %.1fms, p99 %.1fms",
+                    succeeded, requests, elapsedMs, throughput(), p50Ms, p99Ms);
+        }
+    }
+}
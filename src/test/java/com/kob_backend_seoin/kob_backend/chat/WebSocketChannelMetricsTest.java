@@ -0,0 +1,70 @@
+package com.kob_backend_seoin.kob_backend.chat;
+
+import com.kob_backend_seoin.kob_backend.config.WebSocketChannelMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * STOMP 채널 실행기 지표 테스트
+ * 처리 중인 작업 뒤에 밀린 작업 수(큐 깊이)와 대기 시간이 기록되어야 합니다.
+ */
+public class WebSocketChannelMetricsTest {
+
+    @Test
+    public void recordsQueueDepthAndLatency() throws Exception {
+        System.out.println("=== 채널 지표 테스트 ===");
+
+        WebSocketChannelMetrics metrics = new WebSocketChannelMetrics(10_000);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        TaskExecutor inbound = metrics.instrument("inbound", pool);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        try {
+            // 첫 작업이 느린 DB 작업처럼 스레드를 점유하는 동안 나머지 3건은 큐에서 대기
+            inbound.execute(() -> {
+                await(release);
+                done.countDown();
+            });
+            for (int i = 0; i < 3; i++) {
+                inbound.execute(done::countDown);
+            }
+
+            Thread.sleep(50);
+            Map<String, Object> busy = metrics.snapshot().get("inbound");
+            assertEquals(3L, busy.get("queued"));
+            assertEquals(1L, busy.get("active"));
+
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Thread.sleep(20);
+        Map<String, Object> idle = metrics.snapshot().get("inbound");
+        assertEquals(0L, idle.get("queued"));
+        assertEquals(4L, idle.get("completed"));
+        assertTrue((Double) idle.get("maxQueueWaitMs") >= 40.0, "대기 시간이 기록되어야 합니다");
+        assertTrue((Double) idle.get("maxHandleMs") >= 40.0, "처리 시간이 기록되어야 합니다");
+
+        System.out.println("✅ " + idle);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}